@@ -10,17 +10,28 @@ import com.badlogic.gdx.scenes.scene2d.ui.Skin;
 import games.spooky.gdx.nativefilechooser.NativeFileChooser;
 import games.spooky.gdx.nativefilechooser.NativeFileChooserCallback;
 import games.spooky.gdx.nativefilechooser.NativeFileChooserConfiguration;
+
+import java.io.IOException;
+import java.util.Random;
+import bomberquest.map.GameEvents;
 import bomberquest.map.GameMap;
+import bomberquest.map.GameMapListener;
+import bomberquest.map.MapSerializer;
+import bomberquest.map.generator.MapLayout;
+import bomberquest.net.ServerConnection;
+import bomberquest.save.SaveGameWriter;
+import bomberquest.screen.FrameWatchdog;
 import bomberquest.screen.GameOverScreen;
 import bomberquest.screen.GameScreen;
 import bomberquest.screen.MenuScreen;
+import bomberquest.screen.NetworkGameScreen;
 import bomberquest.screen.VictoryScreen;
 
 /**
  * The bomberquest.BomberQuestGame class represents the core of the Bomber Quest game.
  * It manages the screens and global resources like SpriteBatch and Skin.
  */
-public class BomberQuestGame extends Game {
+public class BomberQuestGame extends Game implements GameMapListener {
 
     /**
      * Sprite Batch for rendering game elements.
@@ -38,8 +49,29 @@ public class BomberQuestGame extends Game {
      */
     private final NativeFileChooser fileChooser;
 
+    /** The number of local players on random maps, from 1 to 4, set with {@code -Dbomberquest.players=N}. */
+    private static final int PLAYER_COUNT = Integer.getInteger("bomberquest.players", 1);
+
+    /** The kind of layout of random maps, set with {@code -Dbomberquest.layout=SCATTERED|PILLARS|ROOMS|CAVES}. */
+    private static final MapLayout LAYOUT = MapLayout.valueOf(System.getProperty("bomberquest.layout", MapLayout.SCATTERED.name()));
+
+    /** The address of a match server to join instead of showing the menu, set with {@code -Dbomberquest.connect=HOST:PORT}. */
+    private static final String CONNECT = System.getProperty("bomberquest.connect");
+
     private boolean isPaused = false; // Track whether the game is paused
 
+    /**
+     * The game screen of the current map.
+     * It is kept while the menu is shown so that a paused game resumes without rebuilding the screen, its HUD and stage.
+     */
+    private GameScreen gameScreen;
+
+    /** Writes snapshots of the map to the save file in the background. */
+    private SaveGameWriter saveGameWriter;
+
+    /** Captures the state of the map when a frame of the game screen goes over budget. */
+    private FrameWatchdog frameWatchdog;
+
     /**
      * The map. This is where all the game objects are stored.
      * This is owned by {@link BomberQuestGame} and not by {@link GameScreen}
@@ -66,33 +98,119 @@ public class BomberQuestGame extends Game {
     public void create() {
         this.spriteBatch = new SpriteBatch(); // Create SpriteBatch for rendering
         this.skin = new Skin(Gdx.files.internal("skin/craftacular/craftacular-ui.json")); // Load UI skin
-        this.map = new GameMap(this); // Create a new game map (you should change this to load the map from a file instead)
+        this.saveGameWriter = new SaveGameWriter(Gdx.files.local("savegame.bqs").file().toPath()); // Save file next to the game
+        this.frameWatchdog = new FrameWatchdog(Gdx.files.local("stutters.log").file().toPath()); // Slow-frame captures next to the game
+        this.map = new GameMap(this, new Random().nextLong(), PLAYER_COUNT, LAYOUT); // Create a new game map (you should change this to load the map from a file instead)
         MusicTrack.MENU.play(); // Start menu music by default
-        goToMenu();
+        if (CONNECT != null) {
+            joinMatch(CONNECT);
+        } else {
+            goToMenu();
+        }
     }
 
     /**
-     * Switches to the menu screen and pauses the game.
-     * Stops all active music and plays the menu theme.
+     * Connects to a match server and plays its match on a {@link NetworkGameScreen}.
+     * Errors are logged and lead to the menu, where the local game can still be played.
+     *
+     * @param address the address of the server as HOST:PORT.
+     */
+    public void joinMatch(String address) {
+        int colon = address.lastIndexOf(':');
+        try {
+            if (colon < 0) {
+                throw new IllegalArgumentException("Expected HOST:PORT but got " + address);
+            }
+            ServerConnection connection = new ServerConnection(address.substring(0, colon), Integer.parseInt(address.substring(colon + 1)));
+            try {
+                connection.receive(); // The keyframe, which the prediction starts from
+            } catch (IOException e) {
+                connection.close();
+                throw e;
+            }
+            MusicTrack.stopAll();
+            MusicTrack.BACKGROUND.play();
+            this.setScreen(new NetworkGameScreen(this, connection));
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Error joining the match at " + address + ": " + e.getMessage());
+            goToMenu();
+        }
+    }
+
+    /**
+     * Switches to the menu screen.
+     * If a game is running, it is paused: the map stops ticking and the background music keeps its position,
+     * and the menu offers to continue it.
      */
     public void goToMenu() {
-        MusicTrack.stopAll();
+        if (gameScreen != null && getScreen() == gameScreen) {
+            MusicTrack.BACKGROUND.pause();
+            isPaused = true; // Pause the game when switching to the menu
+            saveGame(); // Autosave whenever the game is paused
+        } else {
+            MusicTrack.stopAll();
+        }
         MusicTrack.MENU.play();
-        this.setScreen(new MenuScreen(this)); // Set the current screen to MenuScreen
-        isPaused = true; // Pause the game when switching to the menu
+        this.setScreen(new MenuScreen(this, isPaused)); // Set the current screen to MenuScreen
     }
 
     /**
      * Switches to the game screen and resumes gameplay.
-     * Stops all active music and plays the background music.
+     * A paused game is resumed with its existing screen and its background music continues where it stopped.
+     * A new screen is only built when the map has changed.
      */
     public void goToGame() {
-        MusicTrack.stopAll();
+        if (isPaused) {
+            MusicTrack.MENU.stop();
+        } else {
+            MusicTrack.stopAll();
+        }
         MusicTrack.BACKGROUND.play();
-        this.setScreen(new GameScreen(this)); // Set the current screen to GameScreen
+
+        GameScreen previousGameScreen = null;
+        if (gameScreen == null || gameScreen.getMap() != map) {
+            previousGameScreen = gameScreen;
+            gameScreen = new GameScreen(this);
+        }
+        this.setScreen(gameScreen); // Set the current screen to GameScreen
+        if (previousGameScreen != null) {
+            previousGameScreen.dispose(); // The screen of the old map cannot be resumed anymore
+        }
         isPaused = false; // Unpause the game
     }
 
+    /**
+     * Saves the current map in the background, unless the game is already over.
+     * The snapshot is encoded on this thread and written to disk by the save writer, so the frame is never blocked by I/O.
+     */
+    public void saveGame() {
+        if (map != null && !map.hasLost() && !map.isWin()) {
+            saveGameWriter.save(map);
+        }
+    }
+
+    /** Returns whether there is a saved game to load. */
+    public boolean hasSavedGame() {
+        return saveGameWriter.hasSave();
+    }
+
+    /**
+     * Loads the saved game and switches to the game screen.
+     * Errors are logged and leave the current map untouched.
+     */
+    public void loadSavedGame() {
+        try {
+            replaceMap(MapSerializer.read(this, saveGameWriter.load()));
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Error loading saved game: " + e.getMessage());
+        }
+    }
+
+    /** Returns whether a game is paused and can be continued from the menu. */
+    public boolean isPaused() {
+        return isPaused;
+    }
+
     /**
      * Switches to the victory screen when the player wins the game.
      * Stops all active music and plays the menu theme.
@@ -113,6 +231,18 @@ public class BomberQuestGame extends Game {
         this.setScreen(new GameOverScreen(this));
     }
 
+    /** Shows the victory screen once a player reaches the exit. */
+    @Override
+    public void onVictory() {
+        goToVictoryScreen();
+    }
+
+    /** Shows the game over screen once the countdown runs out. */
+    @Override
+    public void onTimeUp() {
+        goToGameOverScreen();
+    }
+
     /**
      * Exits the game by closing the application.
      */
@@ -121,11 +251,27 @@ public class BomberQuestGame extends Game {
     }
 
     /**
-     * Restarts the game by reinitializing the map and switching to the game screen.
+     * Restarts the current level and switches to the game screen.
+     * The map is restored in place from its initial state instead of being rebuilt, so retrying is instant.
      */
     public void restartGame() {
-        this.map = new GameMap(this); // Reset the game map (fresh start)
+        map.restart(); // Put the level back into its initial state
+        this.goToGame(); // Navigate to the game screen
+    }
+
+    /**
+     * Replaces the current map with a new one and switches to the game screen.
+     * The old map is disposed only after the screen showing it has been replaced, releasing its Box2D world.
+     *
+     * @param newMap the map to play next.
+     */
+    private void replaceMap(GameMap newMap) {
+        GameMap oldMap = this.map;
+        this.map = newMap;
         this.goToGame(); // Navigate to the game screen
+        if (oldMap != null) {
+            oldMap.dispose();
+        }
     }
 
 
@@ -144,15 +290,23 @@ public class BomberQuestGame extends Game {
         return map;
     }
 
+    /** Returns the watchdog the game screen reports its frame timings to. */
+    public FrameWatchdog getFrameWatchdog() {
+        return frameWatchdog;
+    }
+
     /**
      * Switches to the given screen and disposes of the previous screen.
+     * The game screen is kept alive so that it can be resumed, and is disposed once its map is replaced.
      * @param screen the new screen
      */
     @Override
     public void setScreen(Screen screen) {
         Screen previousScreen = super.screen; // Store the current screen
+        GameEvents.ScreenChangeEvent screenEvent = GameEvents.beginScreenChange();
         super.setScreen(screen); // Set the new screen
-        if (previousScreen != null) {
+        GameEvents.endScreenChange(screenEvent, previousScreen, screen);
+        if (previousScreen != null && previousScreen != screen && previousScreen != gameScreen) {
             previousScreen.dispose(); // Dispose of the previous screen to free resources
         }
     }
@@ -162,9 +316,17 @@ public class BomberQuestGame extends Game {
     public void dispose() {
         getScreen().hide(); // Hide the current screen
         getScreen().dispose(); // Dispose the current screen
+        if (gameScreen != null && gameScreen != getScreen()) {
+            gameScreen.dispose(); // Dispose the paused game screen
+        }
         spriteBatch.dispose(); // Dispose the spriteBatch
         skin.dispose(); // Dispose the skin
+        if (map != null) {
+            map.dispose(); // Dispose the Box2D world of the map
+        }
         MusicTrack.stopAll();// Stop all active music
+        saveGameWriter.close(); // Finish writing pending saves
+        frameWatchdog.close(); // Finish writing pending frame captures
     }
 
     /**
@@ -191,8 +353,7 @@ public class BomberQuestGame extends Game {
                 if (file != null && file.exists()) {
                     System.out.println("Chosen File: " + file.path());
                     // Here you load the map from the file
-                    map = new GameMap(BomberQuestGame.this, file);
-                    goToGame();
+                    replaceMap(new GameMap(BomberQuestGame.this, file));
                 }
             }
 
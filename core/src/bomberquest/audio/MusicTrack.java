@@ -22,10 +22,14 @@ public enum MusicTrack {
     EXPLOSION("explosion.wav", false, 0.3f),
     MENU("menu.mp3",true,0.20f);
 
-    /** The music file owned by this variant. */
+    /** The music file owned by this variant; null without audio, e.g. when the game runs on a headless server. */
     private final Music music;
 
     MusicTrack(String fileName, boolean loop, float volume) {
+        if (Gdx.audio == null) {
+            this.music = null;
+            return;
+        }
         this.music = Gdx.audio.newMusic(Gdx.files.internal("audio/" + fileName));
         this.music.setLooping(loop);
         this.music.setVolume(volume);
@@ -33,17 +37,31 @@ public enum MusicTrack {
 
     /**
      * Play this music track.
-     * This will not stop other music from playing
+     * This will not stop other music from playing.
+     * Does nothing without audio.
      */
     public void play() {
-        this.music.play();
+        if (music != null) {
+            this.music.play();
+        }
+    }
+
+    /**
+     * Pauses playback of this music track, so that {@link #play()} continues where it stopped.
+     */
+    public void pause() {
+        if (music != null) {
+            this.music.pause();
+        }
     }
 
     /**
      * Stops playback of this music track.
      */
     public void stop(){
-        this.music.stop();
+        if (music != null) {
+            this.music.stop();
+        }
     }
 
     /**
@@ -0,0 +1,46 @@
+package bomberquest.audio;
+
+import bomberquest.map.event.GameEventBus;
+import bomberquest.map.event.GameEventListener;
+import bomberquest.map.event.GameEventType;
+
+/**
+ * Plays the sound effects of a map in response to its events, so the gameplay code itself never touches the audio.
+ */
+public class SoundEffects implements GameEventListener {
+
+    /**
+     * Subscribes a new instance to the events of a map that have a sound.
+     *
+     * @param eventBus the bus of the map.
+     * @return the subscribed listener, to unsubscribe it later.
+     */
+    public static SoundEffects subscribe(GameEventBus eventBus) {
+        SoundEffects soundEffects = new SoundEffects();
+        eventBus.subscribe(soundEffects, GameEventType.BOMB_PLACED, GameEventType.EXPLODED,
+                GameEventType.BOOST_COLLECTED, GameEventType.EXIT_REACHED, GameEventType.PLAYER_DIED,
+                GameEventType.TIME_UP);
+        return soundEffects;
+    }
+
+    @Override
+    public void onEvent(GameEventType type, int player, int x, int y) {
+        switch (type) {
+            case BOMB_PLACED:
+                MusicTrack.BOMB.play();
+                MusicTrack.PLANTING.play();
+                break;
+            case EXPLODED:
+                MusicTrack.EXPLOSION.play();
+                break;
+            case BOOST_COLLECTED, EXIT_REACHED:
+                MusicTrack.BOOST.play();
+                break;
+            case PLAYER_DIED, TIME_UP:
+                MusicTrack.DEATH.play();
+                break;
+            default:
+                break;
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package bomberquest.input;
+
+/**
+ * The controls of one player.
+ * Each player on a map reads its movement and bomb placement through its own binding,
+ * so several players can share one keyboard or be driven by other sources.
+ */
+public interface InputBinding {
+
+    /** Returns whether the player wants to move up. */
+    boolean isUpPressed();
+
+    /** Returns whether the player wants to move down. */
+    boolean isDownPressed();
+
+    /** Returns whether the player wants to move left. */
+    boolean isLeftPressed();
+
+    /** Returns whether the player wants to move right. */
+    boolean isRightPressed();
+
+    /** Returns whether the player has just asked to place a bomb in this frame. */
+    boolean isBombJustPressed();
+}
@@ -0,0 +1,83 @@
+package bomberquest.input;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.Input;
+
+/**
+ * Reads the controls of a player from a set of keys on the keyboard.
+ * {@link #forPlayer(int)} gives each of up to four local players its own keys.
+ */
+public class KeyboardBinding implements InputBinding {
+
+    /** The keys of the local players: up, down, left, right and bomb for each player. */
+    private static final int[][] PLAYER_KEYS = {
+            {Input.Keys.UP, Input.Keys.DOWN, Input.Keys.LEFT, Input.Keys.RIGHT, Input.Keys.SPACE},
+            {Input.Keys.W, Input.Keys.S, Input.Keys.A, Input.Keys.D, Input.Keys.Q},
+            {Input.Keys.I, Input.Keys.K, Input.Keys.J, Input.Keys.L, Input.Keys.U},
+            {Input.Keys.NUMPAD_8, Input.Keys.NUMPAD_5, Input.Keys.NUMPAD_4, Input.Keys.NUMPAD_6, Input.Keys.NUMPAD_0},
+    };
+
+    /** The number of local players that have keys assigned. */
+    public static final int MAX_PLAYERS = PLAYER_KEYS.length;
+
+    /** The key codes of the controls. */
+    private final int up, down, left, right, bomb;
+
+    /**
+     * Constructs a binding for the given keys.
+     *
+     * @param up    the key for moving up.
+     * @param down  the key for moving down.
+     * @param left  the key for moving left.
+     * @param right the key for moving right.
+     * @param bomb  the key for placing a bomb.
+     */
+    public KeyboardBinding(int up, int down, int left, int right, int bomb) {
+        this.up = up;
+        this.down = down;
+        this.left = left;
+        this.right = right;
+        this.bomb = bomb;
+    }
+
+    /**
+     * Returns the keys of a local player.
+     * The first player uses the arrow keys and SPACE, the second WASD and Q,
+     * the third IJKL and U, and the fourth the numeric keypad.
+     *
+     * @param index the index of the player, from 0 to {@link #MAX_PLAYERS} - 1.
+     * @return the binding of the player.
+     */
+    public static KeyboardBinding forPlayer(int index) {
+        if (index < 0 || index >= MAX_PLAYERS) {
+            throw new IllegalArgumentException("No keys for player " + index);
+        }
+        int[] keys = PLAYER_KEYS[index];
+        return new KeyboardBinding(keys[0], keys[1], keys[2], keys[3], keys[4]);
+    }
+
+    @Override
+    public boolean isUpPressed() {
+        return Gdx.input.isKeyPressed(up);
+    }
+
+    @Override
+    public boolean isDownPressed() {
+        return Gdx.input.isKeyPressed(down);
+    }
+
+    @Override
+    public boolean isLeftPressed() {
+        return Gdx.input.isKeyPressed(left);
+    }
+
+    @Override
+    public boolean isRightPressed() {
+        return Gdx.input.isKeyPressed(right);
+    }
+
+    @Override
+    public boolean isBombJustPressed() {
+        return Gdx.input.isKeyJustPressed(bomb);
+    }
+}
@@ -0,0 +1,111 @@
+package bomberquest.input;
+
+import bomberquest.net.Protocol;
+
+/**
+ * Reads the controls of a player from the input commands its client sends to the server.
+ * <p>
+ * A client sends one numbered command per tick. The commands are queued by the thread receiving from the client, and
+ * the thread ticking the map applies exactly one of them per tick with {@link #advance()}, so the server replays the
+ * client's ticks one to one. The number of the last applied command is sent back to the client, which then knows which
+ * of its predicted ticks the server has already simulated.
+ */
+public class NetworkInputBinding implements InputBinding {
+
+    /** The most commands that are queued; older ones are dropped when a client runs ahead of the server. */
+    private static final int QUEUE_CAPACITY = 8;
+
+    /** The sequence numbers of the queued commands, in a ring. */
+    private final int[] queuedSequences = new int[QUEUE_CAPACITY];
+
+    /** The buttons of the queued commands, parallel to {@link #queuedSequences}. */
+    private final int[] queuedButtons = new int[QUEUE_CAPACITY];
+
+    /** The position of the oldest queued command in the ring. */
+    private int queueHead = 0;
+
+    /** The number of queued commands. */
+    private int queueSize = 0;
+
+    /** The buttons of the command applied last, as {@link Protocol} button bits. */
+    private int buttons;
+
+    /** Whether the bomb button went down with the command applied last. */
+    private boolean bombPressed;
+
+    /** The sequence number of the command applied last, or -1 before the first one. */
+    private int lastSequence = -1;
+
+    /**
+     * Queues a command received from the client.
+     *
+     * @param sequence the number of the command, increasing by one per client tick.
+     * @param buttons  the held buttons, as {@link Protocol} button bits.
+     */
+    public synchronized void offer(int sequence, int buttons) {
+        if (queueSize == QUEUE_CAPACITY) {
+            queueHead = (queueHead + 1) % QUEUE_CAPACITY; // Drop the oldest command
+            queueSize--;
+        }
+        int tail = (queueHead + queueSize) % QUEUE_CAPACITY;
+        queuedSequences[tail] = sequence;
+        queuedButtons[tail] = buttons;
+        queueSize++;
+    }
+
+    /**
+     * Applies the next queued command for the coming tick.
+     * If the client has not sent one in time, the buttons of the last command stay held.
+     */
+    public synchronized void advance() {
+        bombPressed = false;
+        if (queueSize == 0) {
+            return;
+        }
+        int next = queuedButtons[queueHead];
+        bombPressed = (next & Protocol.BUTTON_BOMB) != 0 && (buttons & Protocol.BUTTON_BOMB) == 0;
+        buttons = next;
+        lastSequence = queuedSequences[queueHead];
+        queueHead = (queueHead + 1) % QUEUE_CAPACITY;
+        queueSize--;
+    }
+
+    /** Releases every button and drops the queued commands, e.g. when the client disconnects. */
+    public synchronized void releaseAll() {
+        buttons = 0;
+        bombPressed = false;
+        queueSize = 0;
+    }
+
+    /** Returns the sequence number of the command applied last, or -1 before the first one. */
+    public synchronized int getLastSequence() {
+        return lastSequence;
+    }
+
+    @Override
+    public synchronized boolean isUpPressed() {
+        return (buttons & Protocol.BUTTON_UP) != 0;
+    }
+
+    @Override
+    public synchronized boolean isDownPressed() {
+        return (buttons & Protocol.BUTTON_DOWN) != 0;
+    }
+
+    @Override
+    public synchronized boolean isLeftPressed() {
+        return (buttons & Protocol.BUTTON_LEFT) != 0;
+    }
+
+    @Override
+    public synchronized boolean isRightPressed() {
+        return (buttons & Protocol.BUTTON_RIGHT) != 0;
+    }
+
+    @Override
+    public synchronized boolean isBombJustPressed() {
+        boolean pressed = bombPressed;
+        bombPressed = false;
+        return pressed;
+    }
+}
@@ -0,0 +1,137 @@
+package bomberquest.input;
+
+import bomberquest.net.Protocol;
+
+import java.util.Arrays;
+
+/**
+ * Plays back a fixed script of controls, tick by tick, so a map can be replayed without anybody at the keyboard.
+ * <p>
+ * A script is a list of steps separated by spaces. Each step is a tick number, a colon and the buttons that are held
+ * from that tick on: {@code U}, {@code D}, {@code L}, {@code R} and {@code B} for the bomb, or {@code -} for none.
+ * For example {@code "0:R 40:RB 41:R 90:U"} walks right, places a bomb on tick 40 and turns up on tick 90.
+ * A bomb is placed on every tick where {@code B} is held but was not held on the tick before.
+ */
+public class ScriptedInputBinding implements InputBinding {
+
+    /** The ticks at which the held buttons change, in increasing order. */
+    private final int[] ticks;
+
+    /** The buttons held from each tick on, as {@link Protocol} button bits, parallel to {@link #ticks}. */
+    private final int[] buttons;
+
+    /** The index of the next step that has not been reached yet. */
+    private int nextStep = 0;
+
+    /** The buttons held during the current tick. */
+    private int held = 0;
+
+    /** Whether the bomb button went down on the current tick. */
+    private boolean bombPressed;
+
+    /**
+     * Constructs a binding from a script.
+     *
+     * @param script the steps of the script, see the class description; may be empty.
+     * @throws IllegalArgumentException if the script is malformed or its ticks do not increase.
+     */
+    public ScriptedInputBinding(String script) {
+        String[] steps = script.trim().isEmpty() ? new String[0] : script.trim().split("\\s+");
+        this.ticks = new int[steps.length];
+        this.buttons = new int[steps.length];
+        for (int i = 0; i < steps.length; i++) {
+            int colon = steps[i].indexOf(':');
+            if (colon < 0) {
+                throw new IllegalArgumentException("Expected tick:buttons but got " + steps[i]);
+            }
+            try {
+                ticks[i] = Integer.parseInt(steps[i].substring(0, colon));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid tick in " + steps[i]);
+            }
+            if (i > 0 && ticks[i] <= ticks[i - 1]) {
+                throw new IllegalArgumentException("Ticks must increase, but " + steps[i] + " follows " + steps[i - 1]);
+            }
+            buttons[i] = parseButtons(steps[i].substring(colon + 1));
+        }
+    }
+
+    /** Parses the buttons of a step into {@link Protocol} button bits. */
+    private static int parseButtons(String letters) {
+        int bits = 0;
+        for (char letter : letters.toCharArray()) {
+            switch (letter) {
+                case 'U':
+                    bits |= Protocol.BUTTON_UP;
+                    break;
+                case 'D':
+                    bits |= Protocol.BUTTON_DOWN;
+                    break;
+                case 'L':
+                    bits |= Protocol.BUTTON_LEFT;
+                    break;
+                case 'R':
+                    bits |= Protocol.BUTTON_RIGHT;
+                    break;
+                case 'B':
+                    bits |= Protocol.BUTTON_BOMB;
+                    break;
+                case '-':
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown button " + letter + " in " + letters);
+            }
+        }
+        return bits;
+    }
+
+    /**
+     * Moves the script to the given tick; must be called once before every tick of the map, with increasing ticks.
+     *
+     * @param tick the number of the coming tick, starting at 0.
+     */
+    public void advance(int tick) {
+        int previous = held;
+        while (nextStep < ticks.length && ticks[nextStep] <= tick) {
+            held = buttons[nextStep++];
+        }
+        bombPressed = (held & Protocol.BUTTON_BOMB) != 0 && (previous & Protocol.BUTTON_BOMB) == 0;
+    }
+
+    /** Returns the tick of the last step of the script, or -1 if it is empty. */
+    public int getLastTick() {
+        return ticks.length == 0 ? -1 : ticks[ticks.length - 1];
+    }
+
+    @Override
+    public boolean isUpPressed() {
+        return (held & Protocol.BUTTON_UP) != 0;
+    }
+
+    @Override
+    public boolean isDownPressed() {
+        return (held & Protocol.BUTTON_DOWN) != 0;
+    }
+
+    @Override
+    public boolean isLeftPressed() {
+        return (held & Protocol.BUTTON_LEFT) != 0;
+    }
+
+    @Override
+    public boolean isRightPressed() {
+        return (held & Protocol.BUTTON_RIGHT) != 0;
+    }
+
+    @Override
+    public boolean isBombJustPressed() {
+        boolean pressed = bombPressed;
+        bombPressed = false;
+        return pressed;
+    }
+
+    @Override
+    public String toString() {
+        return "ScriptedInputBinding" + Arrays.toString(ticks);
+    }
+}
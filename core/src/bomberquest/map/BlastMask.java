@@ -0,0 +1,107 @@
+package bomberquest.map;
+
+import java.util.BitSet;
+
+/**
+ * The tiles covered by the flames of one explosion, for testing which players and ghosts the blast hits.
+ * <p>
+ * The blast marks its tiles first; then every living entity is tested once, against the few tiles its circular
+ * hitbox overlaps. An entity is hit if its circle reaches into a marked tile, so one standing between two tiles is hit
+ * by flames on either side, and no entity is tested more than once per explosion however many tiles the blast covers.
+ * Clearing only unmarks the tiles of the last blast, so an explosion costs its own tiles plus one test per entity.
+ */
+final class BlastMask {
+
+    /** The width of the map in tiles. */
+    private final int width;
+
+    /** The height of the map in tiles. */
+    private final int height;
+
+    /** The marked tiles, by tile index. */
+    private final BitSet tiles;
+
+    /** The indices of the marked tiles, so that they can be cleared without scanning the whole map. */
+    private int[] marked = new int[16];
+
+    /** The number of entries in {@link #marked}. */
+    private int markedCount = 0;
+
+    /**
+     * Constructs an empty mask for a map of the given size.
+     *
+     * @param width  the width of the map in tiles.
+     * @param height the height of the map in tiles.
+     */
+    BlastMask(int width, int height) {
+        this.width = width;
+        this.height = height;
+        this.tiles = new BitSet(width * height);
+    }
+
+    /**
+     * Marks a tile as covered by the blast; tiles off the map are ignored.
+     *
+     * @param x the x-coordinate of the tile.
+     * @param y the y-coordinate of the tile.
+     */
+    void mark(int x, int y) {
+        if (x < 0 || y < 0 || x >= width || y >= height) {
+            return;
+        }
+        int index = y * width + x;
+        if (tiles.get(index)) {
+            return;
+        }
+        tiles.set(index);
+        if (markedCount == marked.length) {
+            int[] grown = new int[marked.length * 2];
+            System.arraycopy(marked, 0, grown, 0, markedCount);
+            marked = grown;
+        }
+        marked[markedCount++] = index;
+    }
+
+    /** Returns whether no tile is marked. */
+    boolean isEmpty() {
+        return markedCount == 0;
+    }
+
+    /**
+     * Checks whether a circle reaches into a marked tile. Tile (x, y) spans half a tile around its center in every
+     * direction; merely touching its border does not count.
+     *
+     * @param centerX the x-coordinate of the circle's center.
+     * @param centerY the y-coordinate of the circle's center.
+     * @param radius  the radius of the circle, less than half a tile, so the circle overlaps at most 2 by 2 tiles.
+     * @return true if the circle overlaps a marked tile.
+     */
+    boolean hits(float centerX, float centerY, float radius) {
+        int minX = Math.max(0, (int) Math.floor(centerX - radius + 0.5f));
+        int maxX = Math.min(width - 1, (int) Math.floor(centerX + radius + 0.5f));
+        int minY = Math.max(0, (int) Math.floor(centerY - radius + 0.5f));
+        int maxY = Math.min(height - 1, (int) Math.floor(centerY + radius + 0.5f));
+        for (int y = minY; y <= maxY; y++) {
+            for (int x = minX; x <= maxX; x++) {
+                if (!tiles.get(y * width + x)) {
+                    continue;
+                }
+                // The distance from the center to the nearest point of the tile
+                float dx = Math.max(Math.abs(centerX - x) - 0.5f, 0);
+                float dy = Math.max(Math.abs(centerY - y) - 0.5f, 0);
+                if (dx * dx + dy * dy < radius * radius) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /** Unmarks the tiles of the last blast. */
+    void clear() {
+        for (int i = 0; i < markedCount; i++) {
+            tiles.clear(marked[i]);
+        }
+        markedCount = 0;
+    }
+}
@@ -1,6 +1,7 @@
 package bomberquest.map;
 
-import bomberquest.audio.MusicTrack;
+import bomberquest.map.event.GameEventType;
+import bomberquest.map.system.TimerWheel;
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
 import com.badlogic.gdx.physics.box2d.*;
 import bomberquest.texture.Animations;
@@ -9,6 +10,7 @@ import bomberquest.texture.Drawable;
 /**
  * Represents a bomb in the game. The bomb can be placed on the map, activates, ticks for a set duration,
  * and then explodes. It uses Box2D for collision detection and triggers an explosion when its timer ends.
+ * The fuse burns on the map's {@link TimerWheel}, so a placed bomb costs nothing per frame until it detonates.
  */
 public class Bomb implements Drawable {
 
@@ -18,81 +20,57 @@ public class Bomb implements Drawable {
     /** Indicates whether the bomb is currently active (visible and ticking). */
     private boolean active;
 
-    /** Tracks whether the bomb was ever active during its lifecycle. */
-    private boolean wasActive = false;
+    /** The timer of the burning fuse, or null if the bomb has not been placed. */
+    private TimerWheel.Timer fuse;
 
-    /** Tracks the time passed since the bomb was activated. */
-    private float timer;
+    /** The position of the bomb in the list of its map's {@link bomberquest.map.system.FuseSystem}, or -1 if it is not armed. */
+    private int armedIndex = -1;
 
     /** The total lifetime of the bomb before it explodes, in seconds. */
-    private final float LIFETIME = 3.0f;
-
-    /** Tracks the total elapsed(passed) time for animation purposes. */
-    private float elapsedTime;
+    private static final float LIFETIME = 3.0f;
 
     /** The explosion triggered by the bomb after its lifetime ends. */
     private Explosion explosion;
 
-    /** The Box2D hitbox representing the bomb's collision area. */
+    /** The Box2D hitbox representing the bomb's collision area, taken from the map's sensor pool while the bomb is placed. */
     private Body hitbox;
 
-    /** The world the bomb interacts with. */
-    private World world;
-
     /** The game map where the bomb exists and interacts with other objects. */
     private final GameMap gameMap;
 
+    /** The player who owns this bomb and is notified when it detonates. */
+    private final Player owner;
+
     /**
      * Constructs a new bomb object.
      * @param world   the Box2D physics world where the bomb resides.
      * @param gameMap the game map the bomb interacts with.
+     * @param owner   the player who places this bomb.
      */
-    public Bomb(World world, GameMap gameMap) {
+    public Bomb(World world, GameMap gameMap, Player owner) {
         // bomb's position in the game world (grid coordinates) -Default value: -100 ->off-screen
         this.x = -100;
         this.y = -100;
 
         this.active = false;
-        this.timer = 0;
-        this.elapsedTime = 0;
 
-        this.world = world;
         this.explosion = new Explosion(world, gameMap);
         this.gameMap = gameMap;
+        this.owner = owner;
     }
 
-    /**
-     * Creates a Box2D hitbox for the bomb at the specified position.
-     * @param world  the Box2D world to create the hitbox in.
-     * @param startX the x-coordinate of the hitbox.
-     * @param startY the y-coordinate of the hitbox.
-     * @return the created Box2D body representing the bomb's hitbox.
-     */
-    private Body createHitbox(World world, float startX, float startY) {
-
-        BodyDef bodyDef = new BodyDef();
-        bodyDef.type = BodyDef.BodyType.StaticBody;
-        bodyDef.position.set(startX, startY);
-
-        Body body = world.createBody(bodyDef);
-
-        PolygonShape squareShape = new PolygonShape();
-        squareShape.setAsBox(0.4f, 0.4f);
-
-        FixtureDef fixtureDef = new FixtureDef();
-        fixtureDef.shape = squareShape;
-        fixtureDef.isSensor = true;
-
-        body.createFixture(fixtureDef);
-        squareShape.dispose();
-        body.setUserData(this);
-
-        return body;
+    /** Returns the hitbox of the bomb to the map's sensor pool, if the bomb has one. */
+    private void releaseHitbox() {
+        if (hitbox != null) {
+            gameMap.getSensorPool().release(hitbox);
+            hitbox = null;
+        }
     }
 
     /**
      * Activates the bomb at the specified position.
-     * The bomb becomes visible, starts its timer, and begins ticking(sound).
+     * The bomb becomes visible, lights its fuse on the map's timer wheel, begins ticking(sound) and is handed to the
+     * map's fuse system.
      *
      * @param x the x-coordinate where the bomb is activated.
      * @param y the y-coordinate where the bomb is activated.
@@ -100,34 +78,54 @@ public class Bomb implements Drawable {
     public void activate(float x, float y) {
         this.x = x;
         this.y = y;
-        this.hitbox = createHitbox(world, x, y);
+        this.hitbox = gameMap.getSensorPool().acquire(this, x, y);
         active = true;
-        wasActive = true;
-        timer = 0;
-        elapsedTime = 0;
-        MusicTrack.BOMB.play();
+        fuse = gameMap.getTimerWheel().schedule(LIFETIME, this::detonate);
+        gameMap.getEventBus().publish(GameEventType.BOMB_PLACED, gameMap.indexOf(owner), Math.round(x), Math.round(y));
+        gameMap.getFuseSystem().arm(this);
     }
 
     /**
-     * Updates the bomb's state every frame, ticking its timer and triggering an explosion
-     * when its lifetime ends. Also updates the explosion's state if active.
-     * @param dt the time elapsed since the last frame, in seconds.
+     * Places the bomb again with a fuse that has already been burning, e.g. when a saved game is loaded.
+     * Unlike {@link #activate}, this plays no sound.
+     *
+     * @param x     the x-coordinate of the bomb.
+     * @param y     the y-coordinate of the bomb.
+     * @param timer the time the fuse has already been burning, in seconds.
      */
-    public void tick(float dt) {
-        if (active) {
-            timer += dt/2;
-            elapsedTime += dt/2;
-            if (timer >= LIFETIME) {
-                active = false;
-                explosion.activate(x, y);
-                gameMap.explodeBomb(this); // Trigger explosion logic in the game map.
-                if (hitbox != null) {
-                    world.destroyBody(hitbox);
-                    hitbox = null;
-                }
-            }
-        }
-        explosion.tick((dt/2)); // Update explosion's state.
+    void restore(float x, float y, float timer) {
+        this.x = x;
+        this.y = y;
+        this.hitbox = gameMap.getSensorPool().acquire(this, x, y);
+        this.active = true;
+        this.fuse = gameMap.getTimerWheel().schedule(LIFETIME - timer, this::detonate);
+        gameMap.getFuseSystem().arm(this);
+    }
+
+    /**
+     * Triggers the explosion once the fuse has burnt down.
+     * Run by the map's timer wheel; the explosion then ends on the wheel as well.
+     */
+    private void detonate() {
+        active = false;
+        fuse = null;
+        gameMap.getFuseSystem().disarm(this);
+        explosion.activate(x, y);
+        gameMap.getEventBus().publish(GameEventType.EXPLODED, gameMap.indexOf(owner), Math.round(x), Math.round(y));
+        gameMap.explodeBomb(this); // Trigger explosion logic in the game map.
+        releaseHitbox();
+        owner.onBombDetonated();
+    }
+
+    /**
+     * Disarms the bomb and its explosion without detonating, so that it can be placed again in a restarted level.
+     */
+    public void reset() {
+        active = false;
+        gameMap.getTimerWheel().cancel(fuse);
+        fuse = null;
+        releaseHitbox();
+        explosion.reset();
     }
 
     /**
@@ -139,7 +137,7 @@ public class Bomb implements Drawable {
     @Override
     public TextureRegion getCurrentAppearance() {
         if (active) {
-            return Animations.BOMB.getKeyFrame(elapsedTime, true);
+            return Animations.BOMB.getKeyFrame(getTimer(), true);
         }
 
         if (explosion.isActive()) {
@@ -168,6 +166,34 @@ public class Bomb implements Drawable {
         return y;
     }
 
+    /**
+     * Returns the player who owns this bomb.
+     *
+     * @return the owner of the bomb.
+     */
+    public Player getOwner() {
+        return owner;
+    }
+
+    /**
+     * Returns how long the fuse of the bomb has been burning.
+     *
+     * @return the time since the bomb was activated, in seconds.
+     */
+    float getTimer() {
+        return active ? LIFETIME - gameMap.getTimerWheel().getRemaining(fuse) : 0;
+    }
+
+    /**
+     * Returns the timer of the burning fuse. Every placement lights a new fuse, so it tells two placements of the same
+     * bomb apart, even when the bomb is placed again in the tick it detonated.
+     *
+     * @return the fuse of the bomb, or null if the bomb is not placed.
+     */
+    public TimerWheel.Timer getFuse() {
+        return fuse;
+    }
+
     /**
      * Checks if the bomb is currently active.
      *
@@ -187,38 +213,38 @@ public class Bomb implements Drawable {
     }
 
     /**
-     * Gets the blast radius of the bomb's explosion.
+     * Returns the position of the bomb in the list of armed bombs, so it can be disarmed without searching for it.
      *
-     * @return the blast radius of the bomb's explosion.
+     * @return the index of the bomb among the armed bombs, or -1 if it is not armed.
      */
-    public int getBlastRadius() {
-        return explosion.getBlastRadius();
+    public int getArmedIndex() {
+        return armedIndex;
     }
 
     /**
-     * Sets the blast radius of the bomb's explosion.
+     * Sets the position of the bomb in the list of armed bombs; only called by the fuse system that owns the list.
      *
-     * @param blastRadius the new blast radius.
+     * @param armedIndex the index of the bomb among the armed bombs, or -1 if it is not armed.
      */
-    public void setBlastRadius(int blastRadius) {
-        explosion.setBlastRadius(blastRadius);
+    public void setArmedIndex(int armedIndex) {
+        this.armedIndex = armedIndex;
     }
 
     /**
-     * Checks if the bomb was ever active during its lifecycle.
+     * Gets the blast radius of the bomb's explosion.
      *
-     * @return true if the bomb was active at some point, false otherwise.
+     * @return the blast radius of the bomb's explosion.
      */
-    public boolean wasActive() {
-        return wasActive;
+    public int getBlastRadius() {
+        return explosion.getBlastRadius();
     }
 
     /**
-     * Sets the "was active" flag for the bomb.
+     * Sets the blast radius of the bomb's explosion.
      *
-     * @param wasActive the new value for the "was active" flag.
+     * @param blastRadius the new blast radius.
      */
-    public void setWasActive(boolean wasActive) {
-        this.wasActive = wasActive;
+    public void setBlastRadius(int blastRadius) {
+        explosion.setBlastRadius(blastRadius);
     }
 }
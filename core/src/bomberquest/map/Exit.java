@@ -19,52 +19,18 @@ public class Exit extends GameObject implements Drawable {
     private boolean unlocked = false;
 
     /** The Box2D hitbox representing the physical presence of the exit. */
-    private Body hitbox;
-
-    /** The world where the exit resides. */
-    private World world;
+    private final Body hitbox;
 
     /**
-     * Constructs an Exit object at the specified position in the given world.
+     * Constructs an Exit object at the specified position, with a sensor taken from the map's pool.
      *
-     * @param world the Box2D world where the exit resides.
-     * @param x     the x-coordinate of the exit.
-     * @param y     the y-coordinate of the exit.
+     * @param sensorPool the pool of the map the exit is placed on.
+     * @param x          the x-coordinate of the exit.
+     * @param y          the y-coordinate of the exit.
      */
-    public Exit(World world, float x, float y) {
+    public Exit(SensorPool sensorPool, float x, float y) {
         super(x,y);
-        this.world = world;
-        this.hitbox = createHitbox(world, x, y);
-    }
-
-    /**
-     * Creates a Box2D hitbox for the exit at the specified position.
-     *
-     * @param world   the Box2D world where the hitbox is created.
-     * @param startX  the x-coordinate of the hitbox.
-     * @param startY  the y-coordinate of the hitbox.
-     * @return the created Box2D body.
-     */
-    Body createHitbox(World world, float startX, float startY) {
-
-        BodyDef bodyDef = new BodyDef();
-        bodyDef.type = BodyDef.BodyType.StaticBody;
-        bodyDef.position.set(startX, startY);
-
-        Body body = world.createBody(bodyDef);
-
-        PolygonShape squareShape = new PolygonShape();
-        squareShape.setAsBox(0.4f, 0.4f);
-
-        FixtureDef fixtureDef = new FixtureDef();
-        fixtureDef.shape = squareShape;
-        fixtureDef.isSensor = true;
-
-        body.createFixture(fixtureDef);
-        squareShape.dispose();
-        body.setUserData(this);
-
-        return body;
+        this.hitbox = sensorPool.acquire(this, x, y);
     }
 
     /**
@@ -100,6 +66,27 @@ public class Exit extends GameObject implements Drawable {
         unlocked = true; // Unlock the exit
     }
 
+    /**
+     * Locks the exit again and hides or reveals it, as at the start of a level.
+     *
+     * @param hidden whether the exit starts hidden beneath a destructible wall.
+     */
+    void reset(boolean hidden) {
+        this.hidden = hidden;
+        this.unlocked = false;
+    }
+
+    /**
+     * Sets whether the exit is hidden and unlocked, e.g. when a saved game is loaded.
+     *
+     * @param hidden   whether the exit is hidden beneath a destructible wall.
+     * @param unlocked whether the exit is unlocked.
+     */
+    void restore(boolean hidden, boolean unlocked) {
+        this.hidden = hidden;
+        this.unlocked = unlocked;
+    }
+
     /**
      * Returns the current visual appearance of the exit.
      * If the exit is hidden, this method returns null.
@@ -1,10 +1,10 @@
 package bomberquest.map;
 
-import bomberquest.audio.MusicTrack;
 import com.badlogic.gdx.graphics.g2d.Animation;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
 import com.badlogic.gdx.physics.box2d.World;
+import bomberquest.map.system.TimerWheel;
 import bomberquest.texture.Animations;
 import bomberquest.texture.Drawable;
 import java.util.ArrayList;
@@ -27,14 +27,14 @@ public class Explosion implements Drawable {
     /** Indicates whether the explosion is currently active. */
     private boolean active;
 
-    /** Timer for managing the explosion's lifetime. */
-    private float timer;
+    /** The position of the explosion in the list of its map's {@link bomberquest.map.system.ExplosionSystem}, or -1 if it is not active. */
+    private int activeIndex = -1;
 
-    /** The total duration of the explosion, in seconds. */
-    private final float LIFETIME = 0.65f;
+    /** The timer that ends the explosion on the map's timer wheel, or null while it is not active. */
+    private TimerWheel.Timer timer;
 
-    /** Tracks the total elapsed time for animation purposes. */
-    private float elapsedTime;
+    /** The total duration of the explosion, in seconds. */
+    public static final float LIFETIME = 0.65f;
 
     /** The blast radius of the explosion, defining its range in tiles. */
     private int blastRadius = 1;
@@ -58,8 +58,6 @@ public class Explosion implements Drawable {
         this.x = -100;
         this.y = -100; //Default position: off-screen
         this.active = false;
-        this.timer = 0;
-        this.elapsedTime = 0;
         this.segments = new ArrayList<>();
         this.world = world;
         this.gameMap = gameMap;
@@ -67,6 +65,7 @@ public class Explosion implements Drawable {
 
     /**
      * Activates the explosion and positions it based on the given coordinates.
+     * The explosion is handed to the map's explosion system and fades out on the map's timer wheel.
      * @param x The x-coordinate to position the explosion(the center)
      * @param y The y-coordinate to position the explosion(the center)
      */
@@ -74,11 +73,13 @@ public class Explosion implements Drawable {
     public void activate(float x, float y) {
         this.x = x;
         this.y = y;
+        if (!active) {
+            gameMap.getExplosionSystem().add(this);
+        }
         this.active = true;
-        this.timer = 0;
-        this.elapsedTime = 0;
+        gameMap.getTimerWheel().cancel(timer); // Starts over if the last explosion has not faded out yet
+        this.timer = gameMap.getTimerWheel().schedule(LIFETIME, this::end);
 
-        MusicTrack.EXPLOSION.play();
         generateExplosionSegments();
     }
 
@@ -89,13 +90,13 @@ public class Explosion implements Drawable {
         segments.clear();
 
         // Center segment of the explosion.
-        segments.add(new ExplosionSegment(x, y, Animations.EXPLOSION_CENTER));
+        segments.add(new ExplosionSegment(x, y, 0, 0, false));
 
         // Propagate in all four directions.
-        generateDirectionalSegments(0, 1, Animations.EXPLOSION_UP, Animations.EXPLOSION_END_UP);
-        generateDirectionalSegments(0, -1, Animations.EXPLOSION_DOWN, Animations.EXPLOSION_END_DOWN);
-        generateDirectionalSegments(-1, 0, Animations.EXPLOSION_LEFT, Animations.EXPLOSION_END_LEFT);
-        generateDirectionalSegments(1, 0, Animations.EXPLOSION_RIGHT, Animations.EXPLOSION_END_RIGHT);
+        generateDirectionalSegments(0, 1);
+        generateDirectionalSegments(0, -1);
+        generateDirectionalSegments(-1, 0);
+        generateDirectionalSegments(1, 0);
     }
 
     /**
@@ -103,41 +104,44 @@ public class Explosion implements Drawable {
      *
      * @param dx       the horizontal step (1 for right, -1 for left, 0 for no movement).
      * @param dy       the vertical step (1 for up, -1 for down, 0 for no movement).
-     * @param midAnim  the animation for intermediate segments.
-     * @param endAnim  the animation for the final segment in the direction.
      */
-    private void generateDirectionalSegments(int dx, int dy, Animation<TextureRegion> midAnim, Animation<TextureRegion> endAnim) {
+    private void generateDirectionalSegments(int dx, int dy) {
         for (int i = 1; i <= blastRadius; i++) {
             float nx = x + i * dx;
             float ny = y + i * dy;
 
             // Check if the tile is blocked.
             if (gameMap.isBlocked(nx, ny)) {
-                segments.add(new ExplosionSegment(nx, ny, endAnim));
+                segments.add(new ExplosionSegment(nx, ny, dx, dy, true));
                 break; // Stop propagation in this direction.
             }
 
-            if (i == blastRadius) {
-                segments.add(new ExplosionSegment(nx, ny, endAnim));
-            } else {
-                segments.add(new ExplosionSegment(nx, ny, midAnim));
-            }
+            segments.add(new ExplosionSegment(nx, ny, dx, dy, i == blastRadius));
         }
     }
 
     /**
-     * Updates the state of the explosion, managing its lifetime and animations.
-     *
-     * @param dt the time elapsed since the last frame, in seconds.
+     * Ends the explosion once its lifetime is over. Run by the map's timer wheel.
      */
-    public void tick(float dt) {
-        if (active) {
-            timer += dt;
-            elapsedTime += dt;
-            if (timer >= LIFETIME) {
-                active = false;
-            }
-        }
+    private void end() {
+        active = false;
+        timer = null;
+        gameMap.getExplosionSystem().remove(this);
+    }
+
+    /**
+     * Ends the explosion immediately, e.g. when the level is restarted.
+     */
+    public void reset() {
+        active = false;
+        gameMap.getTimerWheel().cancel(timer);
+        timer = null;
+        segments.clear();
+    }
+
+    /** Returns the time since the explosion was activated, for its animation. */
+    private float getElapsedTime() {
+        return LIFETIME - gameMap.getTimerWheel().getRemaining(timer);
     }
 
     /**
@@ -152,8 +156,8 @@ public class Explosion implements Drawable {
     public TextureRegion getCurrentAppearance() {
         if (!segments.isEmpty()) {
             ExplosionSegment centerSegment = segments.get(0); // Center segment
-            if (centerSegment != null && centerSegment.animation != null) {
-                return centerSegment.animation.getKeyFrame(elapsedTime, false);
+            if (centerSegment != null) {
+                return centerSegment.getAnimation().getKeyFrame(getElapsedTime(), false);
             }
         }
         return null; // No active segments.
@@ -173,6 +177,24 @@ public class Explosion implements Drawable {
         return active;
     }
 
+    /**
+     * Returns the position of the explosion in the list of active explosions, so it can be removed without searching for it.
+     *
+     * @return the index of the explosion among the active explosions, or -1 if it is not tracked.
+     */
+    public int getActiveIndex() {
+        return activeIndex;
+    }
+
+    /**
+     * Sets the position of the explosion in the list of active explosions; only called by the explosion system that owns the list.
+     *
+     * @param activeIndex the index of the explosion among the active explosions, or -1 if it is not tracked.
+     */
+    public void setActiveIndex(int activeIndex) {
+        this.activeIndex = activeIndex;
+    }
+
     /**
      * Renders all segments of the explosion.
      *
@@ -180,6 +202,7 @@ public class Explosion implements Drawable {
      */
     public void render(SpriteBatch batch) {
         if (active) {
+            float elapsedTime = getElapsedTime();
             for (ExplosionSegment segment : segments) {
                 if (segment != null) {
                     segment.render(batch, elapsedTime); // Render each segment.
@@ -207,25 +230,65 @@ public class Explosion implements Drawable {
     }
 
 
+    /**
+     * Returns the animation of a segment of an explosion.
+     *
+     * @param dx  the horizontal direction of the segment, 0 for the center.
+     * @param dy  the vertical direction of the segment, 0 for the center.
+     * @param end whether the segment is the last one in its direction.
+     * @return the animation of the segment.
+     */
+    public static Animation<TextureRegion> segmentAnimation(int dx, int dy, boolean end) {
+        if (dy > 0) {
+            return end ? Animations.EXPLOSION_END_UP : Animations.EXPLOSION_UP;
+        } else if (dy < 0) {
+            return end ? Animations.EXPLOSION_END_DOWN : Animations.EXPLOSION_DOWN;
+        } else if (dx < 0) {
+            return end ? Animations.EXPLOSION_END_LEFT : Animations.EXPLOSION_LEFT;
+        } else if (dx > 0) {
+            return end ? Animations.EXPLOSION_END_RIGHT : Animations.EXPLOSION_RIGHT;
+        }
+        return Animations.EXPLOSION_CENTER;
+    }
+
     /**
      * Represents a single segment of the explosion.
-     * Each segment is associated with a specific position and animation.
+     * Each segment is associated with a specific position and the direction it was propagated in.
+     * The animation is only looked up when the segment is drawn, so explosions also work on a headless server without textures.
      */
     public class ExplosionSegment {
         private float x, y;
-        private Animation<TextureRegion> animation;
+
+        /** The direction the segment was propagated in; both 0 for the center. */
+        private final int dx, dy;
+
+        /** Whether the segment is the last one in its direction. */
+        private final boolean end;
 
         /**
          * Constructs an ExplosionSegment.
          *
-         * @param x         the x-coordinate of the segment.
-         * @param y         the y-coordinate of the segment.
-         * @param animation the animation associated with the segment.
+         * @param x   the x-coordinate of the segment.
+         * @param y   the y-coordinate of the segment.
+         * @param dx  the horizontal direction of the segment, 0 for the center.
+         * @param dy  the vertical direction of the segment, 0 for the center.
+         * @param end whether the segment is the last one in its direction.
          */
-        public ExplosionSegment(float x, float y, Animation<TextureRegion> animation) {
+        public ExplosionSegment(float x, float y, int dx, int dy, boolean end) {
             this.x = x;
             this.y = y;
-            this.animation = animation;
+            this.dx = dx;
+            this.dy = dy;
+            this.end = end;
+        }
+
+        /**
+         * Returns the animation for the position of the segment in the explosion.
+         *
+         * @return the animation of the segment.
+         */
+        public Animation<TextureRegion> getAnimation() {
+            return segmentAnimation(dx, dy, end);
         }
 
         /**
@@ -235,7 +298,7 @@ public class Explosion implements Drawable {
          * @param elapsedTime the elapsed time for animation purposes.
          */
         public void render(SpriteBatch batch, float elapsedTime) {
-            TextureRegion frame = animation.getKeyFrame(elapsedTime, false); // Get the current animation frame.
+            TextureRegion frame = getAnimation().getKeyFrame(elapsedTime, false); // Get the current animation frame.
             if (frame != null) {
                 // Convert coordinates to pixels.
                 float pixelX = x * TILE_SIZE_PX * SCALE;
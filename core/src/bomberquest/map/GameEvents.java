@@ -0,0 +1,340 @@
+package bomberquest.map;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Period;
+import jdk.jfr.StackTrace;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Emits JDK Flight Recorder events for the game loop, so a recording shows which tick, physics step, explosion,
+ * destroyed wall, boost or screen change a garbage collection or a long frame lines up with.
+ * <p>
+ * Events are off by default and are enabled by starting the game with {@code -Dbomberquest.jfr=true}, together with a
+ * recording, e.g. {@code -XX:StartFlightRecording:filename=game.jfr}. While disabled, {@link #ENABLED} is a constant
+ * false, so the JIT drops every call site and no event object is ever allocated.
+ * <p>
+ * The timed events are started with one of the {@code begin} methods, which return null while disabled, and committed
+ * with the matching {@code end} method, which ignores null. The number of Box2D bodies created and destroyed is counted
+ * and emitted once a second as a {@link BodyCountersEvent}.
+ */
+public final class GameEvents {
+
+    /** Whether the events are emitted in this run. */
+    public static final boolean ENABLED = Boolean.getBoolean("bomberquest.jfr");
+
+    /** The number of Box2D bodies created since the start, in all maps. */
+    private static final LongAdder bodiesCreated = new LongAdder();
+
+    /** The number of Box2D bodies destroyed since the start, in all maps, including those of disposed worlds. */
+    private static final LongAdder bodiesDestroyed = new LongAdder();
+
+    static {
+        if (ENABLED) {
+            FlightRecorder.addPeriodicEvent(BodyCountersEvent.class, () -> {
+                BodyCountersEvent event = new BodyCountersEvent();
+                event.created = bodiesCreated.sum();
+                event.destroyed = bodiesDestroyed.sum();
+                event.live = event.created - event.destroyed;
+                event.commit();
+            });
+        }
+    }
+
+    private GameEvents() {
+    }
+
+    /** Starts a {@link TickEvent}, or returns null if events are disabled. */
+    static TickEvent beginTick() {
+        if (!ENABLED) {
+            return null;
+        }
+        TickEvent event = new TickEvent();
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Commits a {@link TickEvent}.
+     *
+     * @param event     the event returned by {@link #beginTick()}; nothing happens if it is null.
+     * @param frameTime the frame time the map was ticked with, in seconds.
+     * @param map       the ticked map.
+     */
+    static void endTick(TickEvent event, float frameTime, GameMap map) {
+        if (event != null && event.shouldCommit()) {
+            event.frameTime = frameTime;
+            event.bodies = map.getBodyCount();
+            event.ghosts = map.getGhostsLeft();
+            event.commit();
+        }
+    }
+
+    /** Starts a {@link WorldStepEvent}, or returns null if events are disabled. */
+    static WorldStepEvent beginWorldStep() {
+        if (!ENABLED) {
+            return null;
+        }
+        WorldStepEvent event = new WorldStepEvent();
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Commits a {@link WorldStepEvent}.
+     *
+     * @param event    the event returned by {@link #beginWorldStep()}; nothing happens if it is null.
+     * @param timeStep the time the world was stepped by, in seconds.
+     * @param map      the map whose world was stepped.
+     */
+    static void endWorldStep(WorldStepEvent event, float timeStep, GameMap map) {
+        if (event != null && event.shouldCommit()) {
+            event.timeStep = timeStep;
+            event.contacts = map.getContactCount();
+            event.commit();
+        }
+    }
+
+    /** Starts an {@link ExplosionEvent}, or returns null if events are disabled. */
+    static ExplosionEvent beginExplosion() {
+        if (!ENABLED) {
+            return null;
+        }
+        ExplosionEvent event = new ExplosionEvent();
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Commits an {@link ExplosionEvent}.
+     *
+     * @param event  the event returned by {@link #beginExplosion()}; nothing happens if it is null.
+     * @param x      the x-coordinate of the bomb's tile.
+     * @param y      the y-coordinate of the bomb's tile.
+     * @param radius the blast radius in tiles.
+     */
+    static void endExplosion(ExplosionEvent event, int x, int y, int radius) {
+        if (event != null && event.shouldCommit()) {
+            event.x = x;
+            event.y = y;
+            event.radius = radius;
+            event.commit();
+        }
+    }
+
+    /**
+     * Emits a {@link WallDestroyedEvent}.
+     *
+     * @param x    the x-coordinate of the wall.
+     * @param y    the y-coordinate of the wall.
+     * @param item the item that was hidden under the wall, one of the {@code ITEM_} ids of {@link TileGrid}.
+     */
+    static void wallDestroyed(int x, int y, int item) {
+        if (ENABLED) {
+            WallDestroyedEvent event = new WallDestroyedEvent();
+            if (event.shouldCommit()) {
+                event.x = x;
+                event.y = y;
+                event.item = item;
+                event.commit();
+            }
+        }
+    }
+
+    /**
+     * Emits a {@link BoostActivatedEvent}.
+     *
+     * @param boost  the name of the kind of boost.
+     * @param player the index of the player who collected it.
+     */
+    static void boostActivated(String boost, int player) {
+        if (ENABLED) {
+            BoostActivatedEvent event = new BoostActivatedEvent();
+            if (event.shouldCommit()) {
+                event.boost = boost;
+                event.player = player;
+                event.commit();
+            }
+        }
+    }
+
+    /** Starts a {@link ScreenChangeEvent}, or returns null if events are disabled. */
+    public static ScreenChangeEvent beginScreenChange() {
+        if (!ENABLED) {
+            return null;
+        }
+        ScreenChangeEvent event = new ScreenChangeEvent();
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Commits a {@link ScreenChangeEvent}.
+     *
+     * @param event the event returned by {@link #beginScreenChange()}; nothing happens if it is null.
+     * @param from  the screen that was shown before, or null.
+     * @param to    the screen shown now, or null.
+     */
+    public static void endScreenChange(ScreenChangeEvent event, Object from, Object to) {
+        if (event != null && event.shouldCommit()) {
+            event.from = from == null ? null : from.getClass().getSimpleName();
+            event.to = to == null ? null : to.getClass().getSimpleName();
+            event.commit();
+        }
+    }
+
+    /** Counts a Box2D body that has been created. */
+    public static void bodyCreated() {
+        if (ENABLED) {
+            bodiesCreated.increment();
+        }
+    }
+
+    /**
+     * Counts Box2D bodies that have been destroyed.
+     *
+     * @param count the number of bodies.
+     */
+    public static void bodiesDestroyed(int count) {
+        if (ENABLED) {
+            bodiesDestroyed.add(count);
+        }
+    }
+
+    /** One call of {@link GameMap#tick(float)}. */
+    @Name("bomberquest.Tick")
+    @Label("Game Tick")
+    @Category({"Bomber Quest", "Game Loop"})
+    @StackTrace(false)
+    static class TickEvent extends Event {
+
+        /** The frame time the map was ticked with. */
+        @Label("Frame Time")
+        @Description("The frame time the map was ticked with, in seconds")
+        float frameTime;
+
+        /** The number of bodies in the world after the tick. */
+        @Label("Bodies")
+        int bodies;
+
+        /** The number of ghosts left after the tick. */
+        @Label("Ghosts")
+        int ghosts;
+    }
+
+    /** One step of the Box2D world. */
+    @Name("bomberquest.WorldStep")
+    @Label("World Step")
+    @Category({"Bomber Quest", "Game Loop"})
+    @StackTrace(false)
+    static class WorldStepEvent extends Event {
+
+        /** The time the world was stepped by. */
+        @Label("Time Step")
+        @Description("The time the world was stepped by, in seconds")
+        float timeStep;
+
+        /** The number of contacts in the world after the step. */
+        @Label("Contacts")
+        int contacts;
+    }
+
+    /** One call of {@link GameMap#explodeBomb(Bomb)}, which spreads the blast and destroys what it hits. */
+    @Name("bomberquest.Explosion")
+    @Label("Explosion")
+    @Category({"Bomber Quest", "Game Events"})
+    @StackTrace(false)
+    static class ExplosionEvent extends Event {
+
+        /** The x-coordinate of the bomb's tile. */
+        @Label("X")
+        int x;
+
+        /** The y-coordinate of the bomb's tile. */
+        @Label("Y")
+        int y;
+
+        /** The blast radius. */
+        @Label("Radius")
+        int radius;
+    }
+
+    /** A destructible wall hit by a blast. */
+    @Name("bomberquest.WallDestroyed")
+    @Label("Wall Destroyed")
+    @Category({"Bomber Quest", "Game Events"})
+    @StackTrace(false)
+    static class WallDestroyedEvent extends Event {
+
+        /** The x-coordinate of the wall. */
+        @Label("X")
+        int x;
+
+        /** The y-coordinate of the wall. */
+        @Label("Y")
+        int y;
+
+        /** The item hidden under the wall. */
+        @Label("Item")
+        @Description("The item hidden under the wall, as an item id of the tile grid")
+        int item;
+    }
+
+    /** A boost collected and activated by a player. */
+    @Name("bomberquest.BoostActivated")
+    @Label("Boost Activated")
+    @Category({"Bomber Quest", "Game Events"})
+    @StackTrace(false)
+    static class BoostActivatedEvent extends Event {
+
+        /** The kind of boost. */
+        @Label("Boost")
+        String boost;
+
+        /** The index of the player who collected it. */
+        @Label("Player")
+        int player;
+    }
+
+    /** A switch of the screen shown by the game, including showing the new screen. */
+    @Name("bomberquest.ScreenChange")
+    @Label("Screen Change")
+    @Category({"Bomber Quest", "Game Loop"})
+    @StackTrace(false)
+    public static class ScreenChangeEvent extends Event {
+
+        /** The screen shown before. */
+        @Label("From")
+        String from;
+
+        /** The screen shown now. */
+        @Label("To")
+        String to;
+    }
+
+    /** The number of Box2D bodies created and destroyed so far, emitted once a second. */
+    @Name("bomberquest.BodyCounters")
+    @Label("Body Counters")
+    @Category({"Bomber Quest", "Physics"})
+    @StackTrace(false)
+    @Period("1 s")
+    static class BodyCountersEvent extends Event {
+
+        /** The bodies created so far. */
+        @Label("Created")
+        long created;
+
+        /** The bodies destroyed so far. */
+        @Label("Destroyed")
+        long destroyed;
+
+        /** The bodies alive now. */
+        @Label("Live")
+        long live;
+    }
+}
@@ -1,20 +1,29 @@
 package bomberquest.map;
 
-import bomberquest.audio.MusicTrack;
+import bomberquest.input.InputBinding;
+import bomberquest.input.KeyboardBinding;
 import bomberquest.map.boost.*;
-import bomberquest.screen.VictoryScreen;
+import bomberquest.map.event.GameEventBus;
+import bomberquest.map.event.GameEventType;
+import bomberquest.map.generator.MapGenerator;
+import bomberquest.map.generator.MapLayout;
+import bomberquest.map.system.*;
 import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.Graphics;
 import com.badlogic.gdx.files.FileHandle;
 import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.physics.box2d.*;
-import bomberquest.*;
+import com.badlogic.gdx.utils.Disposable;
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.*;
 
 /**
  * Represents the game map.
  * Holds all the objects and entities in the game.
+ * The map owns a native Box2D world, so it must be {@link #dispose() disposed} once it is replaced.
  */
-public class GameMap {
+public class GameMap implements Disposable {
 
     // A static block is executed once when the class is referenced for the first time.
     static {
@@ -27,12 +36,15 @@ public class GameMap {
      * The time step for the physics simulation.
      * This is the amount of time that the physics simulation advances by in each frame.
      * It is set to 1/refreshRate, where refreshRate is the refresh rate of the monitor, e.g., 1/60 for 60 Hz.
+     * Without a monitor, e.g. on a headless server, it falls back to 1/60.
      */
-    private static final float TIME_STEP = 1f / Gdx.graphics.getDisplayMode().refreshRate;
+    private static final float TIME_STEP = physicsTimeStep();
     /** The number of velocity iterations for the physics simulation. */
     private static final int VELOCITY_ITERATIONS = 6;
     /** The number of position iterations for the physics simulation. */
     private static final int POSITION_ITERATIONS = 2;
+    /** The number of sensor bodies created per player when a map is built, enough for a few bombs and boosts. */
+    private static final int PREWARMED_SENSORS_PER_PLAYER = 4;
     /**
      * The accumulated time since the last physics step.
      * We use this to keep the physics simulation at a constant rate even if the frame rate is variable.
@@ -42,14 +54,26 @@ public class GameMap {
     /** list of actions to be executed after game tick */
     private final List<Runnable> pendingActions = new ArrayList<>();
 
-    /** The game, in case the map needs to access it. */
-    private final BomberQuestGame game;
+    /** Is told when the level is won or the time runs out, e.g. the game switching screens or a server ending the match. */
+    private final GameMapListener listener;
 
     /** The Box2D world for physics simulation. */
     private final World world;
 
-    /** The player character. */
-    private Player player;
+    /** Reuses the sensor bodies of bombs, boosts and the exit instead of creating and destroying them. */
+    private final SensorPool sensorPool;
+
+    /** Whether the native resources of the map have been released. */
+    private boolean disposed = false;
+
+    /** The players sharing the map, each with its own bombs and controls. */
+    private Player[] players;
+
+    /**
+     * The positions of the players as x/y pairs, parallel to {@link #players}.
+     * Refreshed after every physics step, so that blasts and ghosts can scan them without touching Box2D.
+     */
+    private float[] playerPositions;
 
     /** List of ghosts in the game. */
     private List<Ghost> ghosts;
@@ -57,11 +81,17 @@ public class GameMap {
     /** List of boost items on the map. */
     private List<Boost> boosts;
 
-    /** 2D array of flower tiles on the map. */
-    private Flowers[][] flowers;
+    /** The layout of the map: floor, walls and the items hidden under destructible walls. */
+    private final TileGrid tileGrid;
 
-    /** 2D array of walls (both destructible and indestructible). */
-    private  Wall[][] walls;
+    /** Creates the wall bodies of the chunks around the players and the ghosts. */
+    private final WallChunks wallChunks;
+
+    /** The tiles covered by the explosion being resolved, reused for every explosion. */
+    private final BlastMask blastMask;
+
+    /** The state the level starts in, restored by {@link #restart()}. */
+    private LevelSnapshot levelSnapshot;
 
     /** The exit point for the level. */
     private Exit exit;
@@ -69,14 +99,72 @@ public class GameMap {
     /** Flag indicating if the player has won. */
     private boolean win = false;
 
-    /** Countdown timer for the level (in seconds). */
+    /** Counts what is left to do before the exit unlocks, and who is left alive. */
+    private final ObjectiveTracker objectives = new ObjectiveTracker(this::unlockExit);
+
+    /** The time a level starts with, in seconds. */
+    private static final int LEVEL_TIME = 300;
+
+    /** Countdown timer for the level (in whole seconds). */
     private int countdownTimer;
 
+    /** The timer that counts down the next second of the level, or null once the time is up. */
+    private TimerWheel.Timer countdownTick;
+
     /** Flag for pausing and resuming the timer */
     private boolean timerRunning;
 
-    /** Tracks occupied cells to avoid overlapping placements. */
-    Set<Vector2> occupiedCells = new HashSet<>();
+    /** Tracks occupied tiles, by tile index, to avoid overlapping placements. */
+    private final BitSet occupiedTiles = new BitSet();
+
+    /** Shuffled indices of the destructible walls that items may be hidden under, collected on first use. */
+    private int[] placementCandidates;
+
+    /** The position of the next unused tile in {@link #placementCandidates}. */
+    private int placementCursor = 0;
+
+    /** The seed of the random generator, so that a map layout can be generated again. */
+    private final long seed;
+
+    /** The random generator used for the map layout and item placement. */
+    private final Random random;
+
+    /** Keeps the explosions of detonated bombs until they fade out. */
+    private final ExplosionSystem explosionSystem = new ExplosionSystem();
+
+    /** Announces what happens on the map to the audio, the HUD and whoever else listens. */
+    private final GameEventBus eventBus = new GameEventBus();
+
+    /** Keeps the placed bombs whose fuses are burning. */
+    private final FuseSystem fuseSystem = new FuseSystem();
+
+    /** Moves the players. */
+    private final MovementSystem movementSystem = new MovementSystem(this);
+
+    /** Lets the ghosts chase the nearest player. */
+    private final GhostAiSystem ghostAiSystem = new GhostAiSystem(this);
+
+    /** Streams the wall bodies in and out around the players and the ghosts. */
+    private final ChunkSystem chunkSystem = new ChunkSystem(this);
+
+    /**
+     * Runs the timed actions of the map: bomb fuses, explosions, crumbling walls, dying players and ghosts, the
+     * countdown and the effects of boosts.
+     */
+    private final TimerWheel timerWheel = new TimerWheel();
+
+    /** The kinds of boosts that can be hidden under the walls. */
+    private final BoostRegistry boostRegistry = BoostRegistry.getDefault();
+
+    /** Applies the effects of collected boosts and ends the timed ones. */
+    private final BoostEffects boostEffects = new BoostEffects(this, timerWheel);
+
+    /** The offsets of the spawn points of the players from the center of a random map, as x/y pairs. */
+    private static final int[] PLAYER_SPAWN_OFFSETS = {0, 0, -2, 0, 2, 0, 0, -2};
+
+    /** The simulation systems, in the order they are updated every tick. */
+    private final List<GameSystem> systems =
+            List.of(timerWheel, chunkSystem, movementSystem, ghostAiSystem);
 
     /**
      * Constructs a new GameMap.
@@ -85,28 +173,122 @@ public class GameMap {
      *
      * @param game The main game instance, used for managing the game state and interacting with other components.
      */
-    public GameMap(BomberQuestGame game) {
-        // Assign the main game instance
-        this.game = game;
+    public GameMap(GameMapListener game) {
+        this(game, new Random().nextLong());
+    }
+
+    /**
+     * Constructs a new single-player GameMap whose random layout is generated from the given seed.
+     * Maps constructed with the same seed and screen size have the same layout.
+     *
+     * @param game The main game instance, used for managing the game state and interacting with other components.
+     * @param seed The seed for the random layout.
+     */
+    public GameMap(GameMapListener game, long seed) {
+        this(game, seed, 1);
+    }
+
+    /**
+     * Constructs a new GameMap for several local players whose random layout is generated from the given seed.
+     * The players spawn around the center of the map and are steered with {@link KeyboardBinding#forPlayer(int)}.
+     *
+     * @param game        The main game instance, used for managing the game state and interacting with other components.
+     * @param seed        The seed for the random layout.
+     * @param playerCount The number of players, from 1 to {@link KeyboardBinding#MAX_PLAYERS}.
+     */
+    public GameMap(GameMapListener game, long seed, int playerCount) {
+        this(game, seed, playerCount, MapLayout.SCATTERED);
+    }
+
+    /**
+     * Constructs a new GameMap for several local players with the given kind of layout, generated from the given seed.
+     *
+     * @param game        The main game instance, used for managing the game state and interacting with other components.
+     * @param seed        The seed for the random layout.
+     * @param playerCount The number of players, from 1 to {@link KeyboardBinding#MAX_PLAYERS}.
+     * @param layout      The kind of layout to generate.
+     */
+    public GameMap(GameMapListener game, long seed, int playerCount, MapLayout layout) {
+        this(game, seed, keyboardBindings(playerCount), Gdx.graphics.getWidth() / (16 * 4), Gdx.graphics.getHeight() / (16 * 4), layout);
+    }
+
+    /**
+     * Returns the keyboard controls of the given number of local players.
+     *
+     * @param playerCount The number of players, from 1 to {@link KeyboardBinding#MAX_PLAYERS}.
+     * @return the controls of each player.
+     */
+    private static InputBinding[] keyboardBindings(int playerCount) {
+        if (playerCount < 1 || playerCount > KeyboardBinding.MAX_PLAYERS) {
+            throw new IllegalArgumentException("Unsupported number of players: " + playerCount);
+        }
+        InputBinding[] inputs = new InputBinding[playerCount];
+        for (int i = 0; i < playerCount; i++) {
+            inputs[i] = KeyboardBinding.forPlayer(i);
+        }
+        return inputs;
+    }
+
+    /**
+     * Constructs a new GameMap of the given size for several players whose random layout is generated from the given seed.
+     * Unlike the other constructors, this does not depend on the screen or the keyboard,
+     * so it can also build maps on a headless server whose players are steered over the network.
+     *
+     * @param listener Is told when the level is won or the time runs out.
+     * @param seed     The seed for the random layout.
+     * @param inputs   The controls of each player, for 1 to {@link KeyboardBinding#MAX_PLAYERS} players.
+     * @param width    The width of the map in tiles.
+     * @param height   The height of the map in tiles.
+     */
+    public GameMap(GameMapListener listener, long seed, InputBinding[] inputs, int width, int height) {
+        this(listener, seed, inputs, width, height, MapLayout.SCATTERED);
+    }
+
+    /**
+     * Constructs a new GameMap of the given size and kind of layout for several players.
+     *
+     * @param listener Is told when the level is won or the time runs out.
+     * @param seed     The seed for the random layout.
+     * @param inputs   The controls of each player, for 1 to {@link KeyboardBinding#MAX_PLAYERS} players.
+     * @param width    The width of the map in tiles.
+     * @param height   The height of the map in tiles.
+     * @param layout   The kind of layout to generate.
+     */
+    public GameMap(GameMapListener listener, long seed, InputBinding[] inputs, int width, int height, MapLayout layout) {
+        if (inputs.length < 1 || inputs.length > KeyboardBinding.MAX_PLAYERS) {
+            throw new IllegalArgumentException("Unsupported number of players: " + inputs.length);
+        }
+        int playerCount = inputs.length;
+        this.listener = listener;
+        this.seed = seed;
+        this.random = new Random(seed);
 
         // Create a new Box2D world with no gravity
         this.world = new World(Vector2.Zero, true);
+        LeakTracker.worldCreated(world);
+        this.sensorPool = new SensorPool(world);
 
         // Calculate the center coordinates of the map
-        float centerX = Gdx.graphics.getWidth() / (16 * 4) / 2;
-        float centerY = Gdx.graphics.getHeight() / (16 * 4) / 2;
+        float centerX = width / 2;
+        float centerY = height / 2;
         // Calculate the corners of the map
-        float leftTopX = centerX - (Gdx.graphics.getWidth() / (16 * 4)) / 2;
-        float leftTopY = centerY + (Gdx.graphics.getHeight() / (16 * 4)) / 2;
-        float rightTopX = centerX + (Gdx.graphics.getWidth() / (16 * 4)) / 2;
-        float rightTopY = centerY + (Gdx.graphics.getHeight() / (16 * 4)) / 2;
-        float leftBottomX = centerX - (Gdx.graphics.getWidth() / (16 * 4)) / 2;
-        float leftBottomY = centerY - (Gdx.graphics.getHeight() / (16 * 4)) / 2;
-        float rightBottomX = centerX + (Gdx.graphics.getWidth() / (16 * 4)) / 2;
-        float rightBottomY = centerY - (Gdx.graphics.getHeight() / (16 * 4)) / 2;
-
-        // Initialize the player at the center of the map
-        this.player = new Player(this.world, this, centerX, centerY);
+        float leftTopX = centerX - width / 2;
+        float leftTopY = centerY + height / 2;
+        float rightTopX = centerX + width / 2;
+        float rightTopY = centerY + height / 2;
+        float leftBottomX = centerX - width / 2;
+        float leftBottomY = centerY - height / 2;
+        float rightBottomX = centerX + width / 2;
+        float rightBottomY = centerY - height / 2;
+
+        // Initialize the players around the center of the map
+        this.players = new Player[playerCount];
+        for (int i = 0; i < playerCount; i++) {
+            players[i] = new Player(this.world, this,
+                    centerX + PLAYER_SPAWN_OFFSETS[i * 2], centerY + PLAYER_SPAWN_OFFSETS[i * 2 + 1], inputs[i]);
+        }
+        this.playerPositions = new float[playerCount * 2];
+        sensorPool.prewarm(playerCount * PREWARMED_SENSORS_PER_PLAYER);
 
         // Initialize the list of ghosts and place them at different map corners
         this.ghosts = new ArrayList<>();
@@ -118,27 +300,23 @@ public class GameMap {
         // Initialize the list of boosts
         this.boosts = new ArrayList<>(); // Initialize boosts list
 
-        // Create a 2D grid of flowers across the map
-        this.flowers = new Flowers[Gdx.graphics.getWidth()/(16*4)][Gdx.graphics.getHeight()/(16*4)];
-        for (int i = 0; i < flowers.length; i++) {
-            for (int j = 0; j < flowers[i].length; j++) {
-                this.flowers[i][j] = new Flowers(i, j);
-            }
-        }
-
         // Initialize walls and place boosts and exit
-        this.walls = new Wall[Gdx.graphics.getWidth()/(16*4)][Gdx.graphics.getHeight()/(16*4)]; // Example grid size (10x10)
-        initWalls();// Set up destructible and indestructible walls
+        this.tileGrid = new TileGrid(width, height);
+        initWalls(layout);// Set up destructible and indestructible walls
+        this.wallChunks = new WallChunks(world, tileGrid);
+        this.blastMask = new BlastMask(tileGrid.getWidth(), tileGrid.getHeight());
         placeExitUnderRandomWall();// Place the exit randomly under a destructible wall
         placeBoostsUnderRandomWalls(); // Place random boosts on the map
 
         // Set up collision detection for game elements
         setupContactListener();
 
-        // Initialize the countdown timer (e.g., 5 minutes)
-        this.countdownTimer = 30000;
+        // Start the countdown timer (5 minutes)
+        this.countdownTimer = LEVEL_TIME;
         this.timerRunning = true;
+        startCountdown();
 
+        captureLevelSnapshot();
     }
 
     /**
@@ -148,108 +326,59 @@ public class GameMap {
      * @param game     The main game instance, used for managing the game state and interacting with other components.
      * @param mapFile  The file containing the map configuration, specifying the layout and game elements.
      */
-    public GameMap(bomberquest.BomberQuestGame game, FileHandle mapFile) {
-        this.game = game;
+    public GameMap(GameMapListener game, FileHandle mapFile) {
+        // The file is parsed by the same parser as the offline map validator uses
+        MapDefinition definition;
+        try (InputStream in = mapFile.read()) {
+            definition = MapParser.parse(in);
+        } catch (IOException e) {
+            throw new IllegalStateException("Error loading map: " + e.getMessage(), e);
+        }
+        for (String problem : definition.getProblems()) {
+            System.out.println(problem);
+        }
+
+        this.listener = game;
+        this.seed = new Random().nextLong();
+        this.random = new Random(seed);
+
+        // Ensure the player is initialized
+        List<int[]> entrances = definition.getEntrances();
+        if (entrances.isEmpty()) {
+            throw new IllegalStateException("Player was not initialized. Please ensure the map file contains an entrance.");
+        }
+
         this.world = new World(Vector2.Zero, true);
+        LeakTracker.worldCreated(world);
+        this.sensorPool = new SensorPool(world);
 
         // Initialize game objects
         this.ghosts = new ArrayList<>();
+        for (int[] ghost : definition.getGhosts()) {
+            this.ghosts.add(new Ghost(world, ghost[0], ghost[1]));
+        }
         this.boosts = new ArrayList<>();
-
-        // Initialize walls and flowers with a default 21x21 grid size
-        this.walls = new Wall[21][21];
-        this.flowers = new Flowers[21][21];
-
-        // Add flowers in non-wall spaces
-        for (int i = 0; i < flowers.length; i++) {
-            for (int j = 0; j < flowers[i].length; j++) {
-                if (this.walls[i][j] == null || !(this.walls[i][j] instanceof IndestructibleWall)) {
-                    this.flowers[i][j] = new Flowers(i, j);
-                }
-            }
+        this.tileGrid = definition.getTileGrid();
+        if (definition.getExit() != null) {
+            this.exit = new Exit(sensorPool, definition.getExit()[0], definition.getExit()[1]);
+            this.exit.reveal();
         }
-
-        // Load the map file and configure walls, boosts, and other entities
-        Properties mapProperties = new Properties();
-        try {
-            mapProperties.load(mapFile.read()); // Load the map properties from the file
-
-            for (String key : mapProperties.stringPropertyNames()) {
-                if (key.startsWith("#") || key.trim().isEmpty()) continue;  // Skip comments and empty lines
-
-                // Parse coordinates and type from the file
-                String[] coordinates = key.split(",");
-                int x = Integer.parseInt(coordinates[0].trim());
-                int y = Integer.parseInt(coordinates[1].trim());
-
-                int type = Integer.parseInt(mapProperties.getProperty(key).trim());
-
-                // Handle each type of map element
-                switch (type) {
-                    case 0: // Indestructible Wall
-                        this.walls[x][y] = new IndestructibleWall(x, y);
-                        break;
-                    case 1: // Destructible Wall
-                        this.walls[x][y] = new DestructibleWall(x, y, this);
-                        break;
-                    case 2: // Player (Entrance)
-                        this.player = new Player(world, this, x, y);
-                        break;
-                    case 3: // Enemy (Ghost)
-                        this.ghosts.add(new Ghost(world, x, y));
-                        break;
-                    case 4: // Exit under a destructible wall
-                        this.exit = new Exit(world, x, y);
-                        this.exit.reveal();
-                        this.walls[x][y] = new DestructibleWall(x, y, this);
-                        break;
-                    case 5: // Bomb Boost under a destructible wall
-                    case 6:// Explosion Boost under a destructible wall
-                        Boost boost = null;
-                        if (type == 5) {
-                            boost = new BombBoost(world, this, null, x, y); // player будет инициализирован позже
-                        } else if (type == 6) {
-                            boost = new ExplosionBoost(world, this, null, x, y); // player будет инициализирован позже
-                        }
-                        DestructibleWall wall = new DestructibleWall(x, y, this);
-                        wall.setHiddenBoost(boost);
-                        walls[x][y] = wall;
-                        break;
-                    default:
-                        System.out.println("Unknown object type: " + type);
-                }
-            }
-        } catch (Exception e) {
-            System.out.println("Error loading map: " + e.getMessage());
-            e.printStackTrace();
+        objectives.setGhostsRequired(definition.isGhostsRequired());
+        for (Objective objective : Objective.values()) {
+            objectives.setTarget(objective, definition.getTarget(objective));
         }
 
-        // Ensure the player is initialized
-        if (this.player == null) {
-            throw new IllegalStateException("Player was not initialized. Please ensure the map file contains an entrance.");
+        // Every entrance spawns a player, from the top left, up to the number of players that have controls
+        this.players = new Player[Math.min(entrances.size(), KeyboardBinding.MAX_PLAYERS)];
+        for (int i = 0; i < players.length; i++) {
+            players[i] = new Player(world, this, entrances.get(i)[0], entrances.get(i)[1], KeyboardBinding.forPlayer(i));
         }
+        this.playerPositions = new float[players.length * 2];
+        sensorPool.prewarm(players.length * PREWARMED_SENSORS_PER_PLAYER);
 
-        // Assign hidden boosts to the player and add them to the boosts list
-        for (Wall[] wall : walls) {
-            for (Wall wall1 : wall) {
-                if (wall1 instanceof DestructibleWall) {
-                    DestructibleWall destructibleWall = (DestructibleWall) wall1;
-                    Boost hiddenBoost = destructibleWall.getHiddenBoost();
-                    if (hiddenBoost != null) {
-                        hiddenBoost.setPlayer(player);// Associate the boost with the player
-                        boosts.add(hiddenBoost);
-                    }
-                }
-            }
-        }
-        // Initialize hitboxes for all walls
-        for (Wall[] wall : walls) {
-            for (Wall wall1 : wall) {
-                if (wall1 != null) {
-                    wall1.createHitbox(world);
-                }
-            }
-        }
+        // Wall hitboxes are created chunk by chunk once the player and the ghosts are near them
+        this.wallChunks = new WallChunks(world, tileGrid);
+        this.blastMask = new BlastMask(tileGrid.getWidth(), tileGrid.getHeight());
 
         // If no exit was defined, place it under a random destructible wall
         if (this.exit == null) {
@@ -259,47 +388,124 @@ public class GameMap {
         // Set up collision detection for game elements
         setupContactListener();
 
-        // Initialize the countdown timer (e.g., 5 minutes)
-        this.countdownTimer = 30000;
+        // Start the countdown timer (5 minutes)
+        this.countdownTimer = LEVEL_TIME;
         this.timerRunning = true;
+        startCountdown();
+
+        captureLevelSnapshot();
     }
 
     /**
-     * Initializes the wall grid with destructible and indestructible walls.
+     * Constructs an empty map around the given layout, without a player, ghosts or exit.
+     * Used by {@link MapSerializer} to rebuild a saved game, which adds the entities and then captures the level snapshot.
+     *
+     * @param game     The main game instance, used for managing the game state and interacting with other components.
+     * @param seed     The seed the saved layout was generated from.
+     * @param tileGrid The saved layout of the map.
      */
-    private void initWalls() {
-        // Get the player's initial position on the grid
-        int playerX = (int) player.getX();
-        int playerY = (int) player.getY();
+    GameMap(GameMapListener game, long seed, TileGrid tileGrid) {
+        this.listener = game;
+        this.seed = seed;
+        this.random = new Random(seed);
+        this.world = new World(Vector2.Zero, true);
+        LeakTracker.worldCreated(world);
+        this.sensorPool = new SensorPool(world);
 
-        // Get the initial positions of all ghosts
-        List<Ghost> ghosts = this.ghosts;
-        Set<Vector2> ghostPositions = new HashSet<>();
-        for (Ghost ghost : ghosts) {
-            ghostPositions.add(new Vector2(ghost.getX(), ghost.getY()));
-        }
+        this.ghosts = new ArrayList<>();
+        this.boosts = new ArrayList<>();
+        this.tileGrid = tileGrid;
+        this.wallChunks = new WallChunks(world, tileGrid);
+        this.blastMask = new BlastMask(tileGrid.getWidth(), tileGrid.getHeight());
 
-        // Iterate over the wall grid to initialize each position
-        for (int i = 0; i < walls.length; i++) {
-            for (int j = 0; j < walls[i].length; j++) {
-                // Skip placing walls near the player's position or the ghosts' positions
-                if (Math.abs(i - playerX) <= 1 && Math.abs(j - playerY) <= 1 || ghostPositions.contains(new Vector2(i, j))) {
-                    continue;
-                }
+        setupContactListener();
+        this.timerRunning = true;
+    }
 
+    /**
+     * Remembers the current state as the one {@link #restart()} returns to.
+     */
+    void captureLevelSnapshot() {
+        refreshPositions();
+        int playersAlive = 0;
+        for (Player player : players) {
+            if (!player.isDestroyed()) {
+                playersAlive++;
+            }
+        }
+        objectives.reset(ghosts.size(), playersAlive, objectives.copyProgress());
+        this.levelSnapshot = new LevelSnapshot(tileGrid, players, ghosts, exit, countdownTimer, objectives.copyProgress());
+    }
 
-                if (i == 0 || j == 0 || i == walls.length - 1 || j == walls[i].length - 1) {
-                    walls[i][j] = new IndestructibleWall(i, j);
-                } else if (Math.random() < 0.3) {
-                    walls[i][j] = new DestructibleWall(i, j, this);
-                }
-                if (walls[i][j] != null) {
-                    walls[i][j].createHitbox(world);
-                }
+    /**
+     * Generates the walls of the given layout, keeping the surroundings of the players and the tiles of the ghosts free.
+     * Every player and ghost can be reached from the first player, so every ghost can be hunted down, and walls in
+     * sealed-off pockets are turned into indestructible ones, so the exit never ends up out of reach.
+     *
+     * @param layout The kind of layout to generate.
+     */
+    private void initWalls(MapLayout layout) {
+        MapGenerator generator = new MapGenerator(tileGrid.getWidth(), tileGrid.getHeight(), random);
+        for (Player player : players) {
+            generator.reserve((int) player.getX(), (int) player.getY(), 1);
+        }
+        for (Ghost ghost : ghosts) {
+            generator.reserve(Math.round(ghost.getX()), Math.round(ghost.getY()), 0);
+        }
+        tileGrid.restoreTiles(generator.generate(layout));
+    }
+
+    /**
+     * Destroys the destructible wall on a tile, removing its hitbox and revealing the item hidden under it.
+     * Does nothing if there is no intact destructible wall on the tile.
+     *
+     * @param x the x-coordinate of the tile.
+     * @param y the y-coordinate of the tile.
+     */
+    private void destroyWall(int x, int y) {
+        if (!tileGrid.destroyWall(x, y, timerWheel.getTime())) {
+            return;
+        }
+        timerWheel.schedule(TileGrid.WALL_DESTRUCTION_TIME, () -> tileGrid.finishCrumbling(x, y));
+
+        // Remove the physical hitbox, if its chunk is materialized
+        wallChunks.removeWall(x, y);
+
+        // Reveal the exit or the boost hidden beneath this wall
+        int item = tileGrid.getItem(x, y);
+        GameEvents.wallDestroyed(x, y, item);
+        eventBus.publish(GameEventType.WALL_DESTROYED, -1, x, y);
+        objectives.record(Objective.WALLS_DESTROYED);
+        if (item == TileGrid.ITEM_EXIT) {
+            if (exit != null) {
+                exit.reveal();
+            }
+        } else if (item != TileGrid.ITEM_NONE) {
+            Boost boost = createBoost(item, x, y);
+            if (boost != null) {
+                boosts.add(boost);
             }
         }
     }
 
+    /**
+     * Creates the boost for a revealed item.
+     *
+     * @param item the item id of the boost.
+     * @param x    the x-coordinate of the boost.
+     * @param y    the y-coordinate of the boost.
+     * @return the boost, visible and ready to be collected, or null if the item id belongs to no boost.
+     */
+    Boost createBoost(int item, int x, int y) {
+        BoostType type = boostRegistry.forItem(item);
+        if (type == null) {
+            return null;
+        }
+        Boost boost = new Boost(this, type, players[0], x, y);
+        boost.reveal();
+        return boost;
+    }
+
     /**
      * Determines if the specified position on the map is blocked.
      * A position is considered blocked if:
@@ -311,13 +517,7 @@ public class GameMap {
      * @return {@code true} if the position is blocked, {@code false} otherwise.
      */
     public boolean isBlocked(float x, float y) {
-        int tileX = Math.round(x);
-        int tileY = Math.round(y);
-        if (tileX < 0 || tileY < 0 || tileX >= walls.length || tileY >= walls[0].length) {
-            return true;
-        }
-        Wall wall = walls[tileX][tileY];
-        return wall != null && !wall.isDestructible();
+        return tileGrid.isBlocked(Math.round(x), Math.round(y));
     }
 
     /**
@@ -331,7 +531,7 @@ public class GameMap {
                 Object b = contact.getFixtureB().getBody().getUserData();
 
                 // Handle player-wall collisions
-                if ((a instanceof Player && b instanceof Wall) || (a instanceof Wall && b instanceof Player)) {
+                if ((a instanceof Player && b instanceof TileGrid) || (a instanceof TileGrid && b instanceof Player)) {
                     handlePlayerWallCollision((Player) (a instanceof Player ? a : b));
                 }
 
@@ -344,11 +544,11 @@ public class GameMap {
                 }
 
                 if ((a instanceof Player && b instanceof Boost) || (a instanceof Boost && b instanceof Player)) {
-                    handleBoostCollision((Boost) (a instanceof Boost ? a : b));
+                    handleBoostCollision((Boost) (a instanceof Boost ? a : b), (Player) (a instanceof Player ? a : b));
                 }
 
                 if ((a instanceof Player && b instanceof Exit) || (a instanceof Exit && b instanceof Player)) {
-                    handleExitCollision((Exit) (a instanceof Exit ? a : b));
+                    handleExitCollision((Exit) (a instanceof Exit ? a : b), (Player) (a instanceof Player ? a : b));
                 }
             }
 
@@ -389,98 +589,121 @@ public class GameMap {
     /**
      * Handles the player's collision with the exit and triggers the victory screen.
      *
-     * @param exit The exit object the player collided with.
+     * @param exit   The exit object the player collided with.
+     * @param player The player who reached the exit.
      */
-    private void handleExitCollision(Exit exit) {
+    private void handleExitCollision(Exit exit, Player player) {
         if(exit.isUnlocked()) {
-            MusicTrack.BOOST.play();
+            eventBus.publish(GameEventType.EXIT_REACHED, indexOf(player), Math.round(exit.getX()), Math.round(exit.getY()));
             this.win = true;
-            game.setScreen(new VictoryScreen(game));
+            listener.onVictory();
         }
     }
 
     /**
-     * Handles the player's collision with a boost by activating and destroying it.
+     * Handles a player's collision with a boost by activating it for that player and destroying it.
      *
-     * @param boost The boost object the player collided with.
+     * @param boost  The boost object the player collided with.
+     * @param player The player who collected the boost.
      */
-    private void handleBoostCollision(Boost boost) {
-        scheduleAction(() -> boost.activate());
-        MusicTrack.BOOST.play();
-        scheduleAction(() -> boost.destroy());
+    private void handleBoostCollision(Boost boost, Player player) {
+        boost.setPlayer(player);
+        scheduleAction(() -> {
+            boost.activate();
+            GameEvents.boostActivated(boost.getType().getName(), indexOf(player));
+        });
+        eventBus.publish(GameEventType.BOOST_COLLECTED, indexOf(player), Math.round(boost.getX()), Math.round(boost.getY()));
+        scheduleAction(() -> {
+            // Touching the boost with two fixtures in the same step schedules this twice, but it is collected once
+            if (!boost.isDestroyed()) {
+                objectives.record(Objective.BOOSTS_COLLECTED);
+            }
+            boost.destroy();
+        });
     }
 
     /**
      * Places the exit under a random destructible wall within the map.
      * The exit is hidden until the player fulfills the conditions to reveal it.
+     * Does nothing if every destructible wall is already taken.
      */
     public void placeExitUnderRandomWall() {
-        for (int i = 1; i < walls.length - 1; i++) {
-            for (int j = 1; j < walls[i].length - 1; j++) {
-                if (walls[i][j] instanceof DestructibleWall) {
-                    exit = new Exit(world, i, j); // Place the exit under this destructible wall
-                    occupiedCells.add(new Vector2(i, j));
-                    return;
-                }
-            }
+        int tile = takeRandomDestructibleTile();
+        if (tile < 0) {
+            return;
         }
+        int i = tile % tileGrid.getWidth();
+        int j = tile / tileGrid.getWidth();
+        exit = new Exit(sensorPool, i, j); // Place the exit under this destructible wall
+        tileGrid.setItem(i, j, TileGrid.ITEM_EXIT);
+        occupiedTiles.set(tile);
     }
 
     /**
-     * Places boosts randomly under destructible walls on the map.
-     * Ensures that no boost is placed in a cell already occupied by the exit or other boosts.
+     * Places boosts randomly under destructible walls on the map, as many and of the kinds the {@link BoostRegistry}
+     * describes. Ensures that no boost is placed in a cell already occupied by the exit or other boosts.
+     * If the map runs out of free destructible walls, fewer boosts are placed.
      */
     public void placeBoostsUnderRandomWalls() {
-        Random rand = new Random();
-
         // Mark the exit cell as occupied, if it exists
         if (exit != null) {
-            occupiedCells.add(new Vector2(exit.getX(), exit.getY()));
+            occupiedTiles.set(tileGrid.index(Math.round(exit.getX()), Math.round(exit.getY())));
         }
 
-        // Loop to place a fixed number of boosts (e.g., 15)
-        for (int a = 0; a < 15; a++) {
-            int i, j;
-            boolean validPosition;
+        // Place the number of boosts the registry asks for, each kind as often as its spawn weight says
+        for (int a = 0; a < boostRegistry.getBoostsPerMap(); a++) {
+            // Take a random free position under a destructible wall
+            int tile = takeRandomDestructibleTile();
+            if (tile < 0) {
+                return;
+            }
+            int i = tile % tileGrid.getWidth();
+            int j = tile / tileGrid.getWidth();
+            int item = boostRegistry.pickItem(random);
 
-            // Find a random valid position under a destructible wall
-            do {
-                validPosition = true;
-                i = rand.nextInt(walls.length - 2) + 1;
-                j = rand.nextInt(walls[i].length - 2) + 1;
+            // Hide the boost under the destructible wall; it is created when the wall is destroyed
+            tileGrid.setItem(i, j, item);
 
-                if (!(walls[i][j] instanceof DestructibleWall) || occupiedCells.contains(new Vector2(i, j))) {
-                    validPosition = false;
+            // Mark the cell as occupied
+            occupiedTiles.set(tile);
+        }
+    }
+
+    /**
+     * Takes a random destructible wall that is not occupied yet.
+     * The destructible walls inside the border are collected and shuffled once, then handed out in order,
+     * so placing n items costs O(width * height + n) instead of retrying random tiles.
+     *
+     * @return the tile index of the wall, or -1 if no free destructible wall is left.
+     */
+    private int takeRandomDestructibleTile() {
+        if (placementCandidates == null) {
+            int[] candidates = new int[tileGrid.getWidth() * tileGrid.getHeight()];
+            int count = 0;
+            for (int j = 1; j < tileGrid.getHeight() - 1; j++) {
+                for (int i = 1; i < tileGrid.getWidth() - 1; i++) {
+                    if (tileGrid.getType(i, j) == TileGrid.DESTRUCTIBLE_WALL) {
+                        candidates[count++] = tileGrid.index(i, j);
+                    }
                 }
-            } while (!validPosition);
-
-            // Create a specific boost based on the loop index
-            Boost boost;
-            switch (a) {
-                case 0, 4, 8, 12:
-                    boost = new BombBoost(world, this, player, i, j);
-                    break;
-                case 1, 5:
-                    boost = new SpeedBoost(world, this, player, i, j);
-                    break;
-                case 2, 6, 10, 14:
-                    boost = new ExplosionBoost(world, this, player, i, j);
-                    break;
-                case 3, 7:
-                    boost = new GhostSpeedBoost(world, this, player, ghosts, i, j);
-                    break;
-                default:
-                    boost = new BombBoost(world, this, player, i, j);
-                    break;
             }
+            // Fisher-Yates shuffle with the map's random generator, so that the placement follows the seed
+            for (int c = count - 1; c > 0; c--) {
+                int other = random.nextInt(c + 1);
+                int swap = candidates[c];
+                candidates[c] = candidates[other];
+                candidates[other] = swap;
+            }
+            placementCandidates = Arrays.copyOf(candidates, count);
+        }
 
-            // Add the boost to the list and hide it under the destructible wall
-            boosts.add(boost);
-            ((DestructibleWall) walls[i][j]).setHiddenBoost(boost);
-
-            // Mark the cell as occupied
-            occupiedCells.add(new Vector2(i, j));
+        while (placementCursor < placementCandidates.length) {
+            int tile = placementCandidates[placementCursor++];
+            if (!occupiedTiles.get(tile)) {
+                return tile;
+            }
         }
+        return -1;
     }
 
     /**
@@ -506,64 +729,80 @@ public class GameMap {
 
     /**
      * Updates the game state. This is called once per frame.
-     * Every dynamic object in the game should update its state here.
+     * Every dynamic object in the game is updated here through the map's systems.
      * @param frameTime the time that has passed since the last update
      */
     public void tick(float frameTime) {
-        // Update the player if it exists
-        if(player != null) {
-            this.player.tick(frameTime);
+        GameEvents.TickEvent tickEvent = GameEvents.beginTick();
+        // Run the timers that are due, then the chunk, movement and ghost AI systems in order
+        for (GameSystem system : systems) {
+            system.update(frameTime);
         }
 
-        // Update all walls
-        Arrays.stream(walls)
-                .flatMap(Arrays::stream)
-                .filter(Objects::nonNull)
-                .forEach(wall -> wall.update(frameTime));
-
-        // Update all ghosts
-        for (Ghost ghost : ghosts) {
-            if (ghost != null) {
-                ghost.update(player, frameTime); // Пример с игроком
-            }
-        }
-
-        if(ghosts.isEmpty()){
-            exit.unlock();
-        }
-
-        // Remove destroyed boosts and ghosts
+        // Remove collected boosts
         boosts.removeIf(Boost::isDestroyed);
-        ghosts.removeIf(Ghost::isFullydestroyed);
         // Perform physics updates
         doPhysicsStep(frameTime);
 
         // Update the Box2D world
-        world.step(frameTime, VELOCITY_ITERATIONS, POSITION_ITERATIONS);
+        stepWorld(frameTime);
+        // Copy the new positions out of Box2D once, for everything that reads them until the next step
+        refreshPositions();
         // Process any scheduled actions
         processPendingActions();
 
-        // Update the countdown timer
-        updateTimer(frameTime);
+        // Tell the listeners what happened during this tick
+        eventBus.dispatch();
+        GameEvents.endTick(tickEvent, frameTime, this);
     }
 
     /**
-     * Updates the game timer, decrementing it by the delta time.
-     * Ends the game if the timer reaches zero.
-     *
-     * @param deltaTime The time passed since the last update.
-     */
-    public void updateTimer(float deltaTime) {
-        if (timerRunning && countdownTimer > 0) {
-            countdownTimer -= deltaTime; // Decrement timer
-            if (countdownTimer <= 0) {
-                countdownTimer = 0;
-                MusicTrack.DEATH.play();
-                game.goToGameOverScreen();
-            }
+     * Schedules the next second of the countdown on the timer wheel, replacing the one scheduled before.
+     * Does nothing once the time is up.
+     */
+    private void startCountdown() {
+        timerWheel.cancel(countdownTick);
+        countdownTick = countdownTimer > 0 ? timerWheel.schedule(1, this::countDown) : null;
+    }
+
+    /**
+     * Counts down one second of the level while the timer is running, and ends the game if the time is up.
+     * Run by the timer wheel once a second.
+     */
+    private void countDown() {
+        if (timerRunning) {
+            countdownTimer--;
+        }
+        if (countdownTimer > 0) {
+            countdownTick = timerWheel.schedule(1, this::countDown);
+        } else {
+            countdownTick = null;
+            eventBus.publish(GameEventType.TIME_UP, -1, 0, 0);
+            listener.onTimeUp();
         }
     }
 
+    /**
+     * Returns how far a body moving at the given velocity travels during one {@link #tick}.
+     * A tick advances the fixed-step simulation by the frame time and then steps the world once more by the frame time,
+     * so a body covers twice the distance its velocity suggests. Clients predicting movement must match this.
+     *
+     * @param velocity  the velocity in tiles per second.
+     * @param frameTime the time of the tick in seconds.
+     * @return the distance in tiles.
+     */
+    public static float travelDistance(float velocity, float frameTime) {
+        return 2 * velocity * frameTime;
+    }
+
+    /**
+     * Returns the physics time step for the refresh rate of the monitor, or 1/60 if there is none.
+     */
+    private static float physicsTimeStep() {
+        Graphics.DisplayMode displayMode = Gdx.graphics != null ? Gdx.graphics.getDisplayMode() : null;
+        return displayMode != null && displayMode.refreshRate > 0 ? 1f / displayMode.refreshRate : 1f / 60;
+    }
+
     /**
      * Performs as many physics steps as necessary to catch up to the given frame time.
      * This will update the Box2D world by the given time step.
@@ -572,14 +811,27 @@ public class GameMap {
     private void doPhysicsStep(float frameTime) {
         this.physicsTime += frameTime;
         while (this.physicsTime >= TIME_STEP) {
-            this.world.step(TIME_STEP, VELOCITY_ITERATIONS, POSITION_ITERATIONS);
+            stepWorld(TIME_STEP);
             this.physicsTime -= TIME_STEP;
         }
     }
 
+    /**
+     * Steps the Box2D world once, reporting the step to the flight recorder if {@link GameEvents} are enabled.
+     *
+     * @param timeStep the time to step by, in seconds.
+     */
+    private void stepWorld(float timeStep) {
+        GameEvents.WorldStepEvent stepEvent = GameEvents.beginWorldStep();
+        world.step(timeStep, VELOCITY_ITERATIONS, POSITION_ITERATIONS);
+        GameEvents.endWorldStep(stepEvent, timeStep, this);
+    }
+
     /**
      * Handles the explosion of a bomb by propagating its blast in all directions
-     * and applying its effects to walls, ghosts, and the player.
+     * and applying its effects to walls, ghosts, and the players.
+     * The tiles reached by the flames are marked first, and then every living player and ghost is tested once against
+     * the marked tiles its hitbox overlaps.
      *
      * @param bomb The bomb to explode.
      */
@@ -587,6 +839,7 @@ public class GameMap {
         int centerX = Math.round(bomb.getX());
         int centerY = Math.round(bomb.getY());
         int radius = bomb.getBlastRadius();
+        GameEvents.ExplosionEvent explosionEvent = GameEvents.beginExplosion();
 
         checkBlast(centerX, centerY);//the center
 
@@ -595,56 +848,48 @@ public class GameMap {
         propagateBlast(centerX, centerY, 0, -1, radius); // Down
         propagateBlast(centerX, centerY, -1, 0, radius); // Left
         propagateBlast(centerX, centerY, 1, 0, radius);  // Right
+
+        if (!blastMask.isEmpty()) {
+            damageEntitiesInBlast();
+        }
+        blastMask.clear();
+        GameEvents.endExplosion(explosionEvent, centerX, centerY, radius);
     }
 
     /**
-     * Checks if the blast affects a given position, applying destruction
-     * or effects to walls, ghosts, or the player.
+     * Applies the blast to a tile: a destructible wall is destroyed, and any other tile on the map is marked as
+     * covered by the flames.
      *
      * @param x The x-coordinate of the blast position.
      * @param y The y-coordinate of the blast position.
      */
     private void checkBlast(int x, int y) {
         // Handle wall destruction
-        if (x >= 0 && x < walls.length && y >= 0 && y < walls[0].length) {
-            Wall wall = walls[x][y];
-            if (wall != null && wall.isDestructible()) {
-                if (!world.isLocked()) {
-                    wall.destroy();
-                    if (wall.isFullyDestroyed()) {
-                        walls[x][y] = null;
-                    }
-                }
-                return;
-            }
-        }
-
-        // Handle player destruction
-        if (Math.abs(player.getX() - x) <= 0.5f && Math.abs(player.getY() - y) <= 0.5f) {
-            if (!player.isDestroyed()) {
-                scheduleAction(() -> player.destroy());
+        if (tileGrid.isInBounds(x, y) && tileGrid.getType(x, y) == TileGrid.DESTRUCTIBLE_WALL) {
+            if (!world.isLocked()) {
+                destroyWall(x, y);
             }
+            return;
         }
 
-        // Handle ghost destruction
-        for (Ghost ghost : ghosts) {
-            if (ghost.getHitbox() == null || ghost.isFullydestroyed()) {
-                continue;
-            }
-
-            int ghostX = Math.round(ghost.getX());
-            int ghostY = Math.round(ghost.getY());
+        // The players and ghosts on the tile are hit once the whole blast is known
+        blastMask.mark(x, y);
+    }
 
-            if (Math.abs(ghostX - x) <= 0.5f && Math.abs(ghostY - y) <= 0.5f) {
-                if (!ghost.isDestroyed()) {
-                    scheduleAction(() -> ghost.destroy());
-                }
-            }
+    /**
+     * Destroys a ghost hit by a blast and announces it, unless another blast of the same tick got it first.
+     *
+     * @param ghost the ghost.
+     */
+    private void killGhost(Ghost ghost) {
+        if (!ghost.isDestroyed()) {
+            ghost.destroy(timerWheel);
+            eventBus.publish(GameEventType.GHOST_KILLED, -1, Math.round(ghost.getX()), Math.round(ghost.getY()));
         }
     }
 
     /**
-     * Propagates a blast in a given direction and radius, affecting walls, ghosts, and the player.
+     * Propagates a blast in a given direction and radius, destroying walls and marking the tiles it reaches.
      *
      * @param startX The starting X position.
      * @param startY The starting Y position.
@@ -658,85 +903,187 @@ public class GameMap {
             int y = startY + (dy * i);
 
             // If the blast goes out of bounds, stop propagation
-            if (x < 0 || x >= walls.length || y < 0 || y >= walls[0].length) {
+            if (!tileGrid.isInBounds(x, y)) {
                 return;
             }
 
-            Wall wall = walls[x][y];
+            int type = tileGrid.getType(x, y);
             // Handle destructible walls
-            if (wall != null) {
-                if (wall.isDestructible()) {
-                    if (!world.isLocked()) {
-                        wall.destroy();
-                        // Remove fully destroyed walls from the map
-                        if (wall.isFullyDestroyed()) {
-                            walls[x][y] = null;
-                        }
-                    }
-                    continue;
-                } else {
-                    return; //Stop propagation when hitting an indestructible wall
+            if (type == TileGrid.DESTRUCTIBLE_WALL) {
+                if (!world.isLocked()) {
+                    destroyWall(x, y);
                 }
+                continue;
+            } else if (type == TileGrid.INDESTRUCTIBLE_WALL) {
+                return; //Stop propagation when hitting an indestructible wall
             }
 
-            // Check for damage to the player, ghosts, or other entities at this position
-            checkBlast(x, y);
-
-            // Check for damage to ghosts in the current cell
-            for (Ghost ghost : ghosts) {
-                if (ghost.getHitbox() == null || ghost.isFullydestroyed()) {
-                    continue;
-                }
-
-                int ghostX = Math.round(ghost.getX());
-                int ghostY = Math.round(ghost.getY());
+            blastMask.mark(x, y);
+        }
+    }
 
-                // If the ghost is within the blast radius, destroy it
-                if (Math.abs(ghostX - x) <= 0.5f && Math.abs(ghostY - y) <= 0.5f) {
-                    if (!ghost.isDestroyed()) {
-                        scheduleAction(() -> ghost.destroy());
-                    }
-                }
+    /**
+     * Destroys every living player and ghost whose hitbox reaches into a tile covered by the blast.
+     * Reads the positions cached after the last physics step, so no entity touches Box2D.
+     */
+    private void damageEntitiesInBlast() {
+        for (int i = 0; i < players.length; i++) {
+            Player player = players[i];
+            if (!player.isDestroyed()
+                    && blastMask.hits(playerPositions[i * 2], playerPositions[i * 2 + 1], Player.HITBOX_RADIUS)) {
+                scheduleAction(() -> player.destroy());
+            }
+        }
+        for (Ghost ghost : ghosts) {
+            if (!ghost.isDestroyed() && blastMask.hits(ghost.getX(), ghost.getY(), Ghost.HITBOX_RADIUS)) {
+                scheduleAction(() -> killGhost(ghost));
             }
+        }
+    }
 
-            // Check for damage to the player in the current cell
-            if (Math.abs(player.getX() - x) <= 0.5f && Math.abs(player.getY() - y) <= 0.5f) {
-                if (!player.isDestroyed()) {
-                    scheduleAction(() -> player.destroy());
-                }
+    /**
+     * Copies the positions of the players and the ghosts out of Box2D, into their cached coordinates and
+     * {@link #playerPositions}. Bodies only move while the world steps, so the cache holds until the next step and
+     * rendering, the camera, the ghost AI and blasts read plain floats instead of making a native call per read.
+     */
+    private void refreshPositions() {
+        for (int i = 0; i < players.length; i++) {
+            Player player = players[i];
+            player.syncPosition();
+            playerPositions[i * 2] = player.getX();
+            playerPositions[i * 2 + 1] = player.getY();
+        }
+        for (Ghost ghost : ghosts) {
+            if (!ghost.isDestroyed()) {
+                ghost.syncPosition(); // A destroyed ghost's hitbox is inactive and stays where it died
             }
         }
     }
 
     /**
-     * Resets the map for a new game.
+     * Restarts the level in place from the state it was built in.
+     * The world, the wall bodies, the player's bombs and the ghosts are reused: destroyed walls get their bodies back,
+     * dead entities are reactivated at their spawn points and the hidden items are restored with the tiles.
+     * Must not be called while the world is stepping.
      */
-    public void reset() {
-        walls = new Wall[10][10];
+    public void restart() {
+        pendingActions.clear();
+        eventBus.clear();
+        timerWheel.clear(); // The players and ghosts are reset below, so running boost effects are simply dropped
+        boostEffects.clear();
+        fuseSystem.clear();
+        explosionSystem.clear();
+
+        // Revealed boosts are recreated from the restored tiles when their walls are destroyed again
+        for (Boost boost : boosts) {
+            boost.destroy();
+        }
+        boosts.clear();
+
+        tileGrid.restoreTiles(levelSnapshot.tiles);
+        wallChunks.resync();
+
+        for (int i = 0; i < players.length; i++) {
+            players[i].reset(levelSnapshot.playerSpawns[i * 2], levelSnapshot.playerSpawns[i * 2 + 1]);
+        }
+        refreshPositions();
         ghosts.clear();
-        countdownTimer = 300;
+        for (int i = 0; i < levelSnapshot.ghosts.length; i++) {
+            Ghost ghost = levelSnapshot.ghosts[i];
+            ghost.reset(levelSnapshot.ghostSpawns[i * 2], levelSnapshot.ghostSpawns[i * 2 + 1]);
+            ghosts.add(ghost);
+        }
+        if (exit != null) {
+            exit.reset(levelSnapshot.exitHidden);
+        }
+        // Unlocks the exit again at once if the level requires nothing
+        objectives.reset(ghosts.size(), players.length, levelSnapshot.objectiveProgress);
+
+        win = false;
+        physicsTime = 0;
+        countdownTimer = levelSnapshot.countdownTimer;
         timerRunning = true;
+        startCountdown();
+    }
 
-        initWalls();
-        placeExitUnderRandomWall();
+    /**
+     * Releases the Box2D world together with every body in it.
+     * The map must not be ticked or rendered afterwards; disposing it again has no effect.
+     */
+    @Override
+    public void dispose() {
+        if (disposed) {
+            return;
+        }
+        disposed = true;
+        pendingActions.clear();
+        LeakTracker.worldDisposed(world);
+        if (GameEvents.ENABLED) {
+            GameEvents.bodiesDestroyed(world.getBodyCount()); // Disposing the world destroys the bodies left in it
+        }
+        world.dispose();
+        sensorPool.dispose();
     }
 
-    /** Returns the player on the map. */
+    /** Returns the first player on the map, whose stats are shown in the HUD. */
     public Player getPlayer() {
-        return player;
+        return players[0];
+    }
+
+    /** Returns all players on the map. */
+    public Player[] getPlayers() {
+        return players;
+    }
+
+    /** Returns the positions of the players as x/y pairs, parallel to {@link #getPlayers()}, as of the last physics step. */
+    public float[] getPlayerPositions() {
+        return playerPositions;
     }
 
     public List<Ghost> getGhosts() {
         return ghosts;
     }
 
-    /** Returns the flowers on the map. */
-    public List<Flowers> getFlowers() {
-        return Arrays.stream(flowers).flatMap(Arrays::stream).toList();
+    /** Returns the seed the random layout of the map was generated from. */
+    public long getSeed() {
+        return seed;
+    }
+
+    /** Returns the layout of the map. */
+    public TileGrid getTileGrid() {
+        return tileGrid;
+    }
+
+    /** Returns the Box2D world of the map. */
+    World getWorld() {
+        return world;
+    }
+
+    /** Returns the pool the sensor bodies of bombs, boosts and the exit are taken from. */
+    public SensorPool getSensorPool() {
+        return sensorPool;
+    }
+
+    /** Places the players; used when a saved game is rebuilt. */
+    void setPlayers(Player[] players) {
+        this.players = players;
+        this.playerPositions = new float[players.length * 2];
+    }
+
+    /** Places the exit; used when a saved game is rebuilt. */
+    void setExit(Exit exit) {
+        this.exit = exit;
     }
-    /** Returns the walls on the map. */
-    public Wall[][] getWalls() {
-        return walls;
+
+    /** Sets the remaining countdown in seconds; used when a saved game is rebuilt. */
+    void setCountdownTimer(int countdownTimer) {
+        this.countdownTimer = countdownTimer;
+        startCountdown();
+    }
+
+    /** Returns the chunks that stream the wall bodies of the map. */
+    public WallChunks getWallChunks() {
+        return wallChunks;
     }
     //Getters
     public boolean isWin() {
@@ -746,7 +1093,7 @@ public class GameMap {
         return !exit.isHidden() && isExitUnlocked() && isWin();
     }
     public boolean hasLost() {
-        return player.isDestroyed() || countdownTimer <= 0;
+        return countdownTimer <= 0 || objectives.areAllPlayersDead();
     }
     public Exit getExit() {
         return exit;
@@ -757,14 +1104,87 @@ public class GameMap {
     }
 
     public int getGhostsLeft() {
-        return ghosts.size(); // Assuming ghosts is a List<Ghost> containing all ghosts
+        return objectives.getGhostsLeft();
     }
     public boolean isExitUnlocked() {
-        return ghosts.isEmpty(); // Exit is unlocked when all ghosts are defeated
+        return objectives.isComplete();
+    }
+
+    /** Returns the wheel that runs the timed actions of the map. */
+    public TimerWheel getTimerWheel() {
+        return timerWheel;
+    }
+
+    /** Returns the effects of the boosts collected on this map. */
+    public BoostEffects getBoostEffects() {
+        return boostEffects;
+    }
+
+    /** Returns the kinds of boosts that can be hidden under the walls. */
+    public BoostRegistry getBoostRegistry() {
+        return boostRegistry;
+    }
+
+    /** Returns the counts of what is left to do before the exit unlocks; the map's systems report to it. */
+    public ObjectiveTracker getObjectives() {
+        return objectives;
+    }
+
+    /** Unlocks the exit once every objective of the level is met. */
+    private void unlockExit() {
+        if (exit != null) {
+            exit.unlock();
+        }
     }
     public List<Boost> getBoosts() {
         return boosts;
     }
+
+    /**
+     * Returns the index of a player on this map.
+     *
+     * @param player the player.
+     * @return the index in {@link #getPlayers()}, or -1 if the player is not on this map.
+     */
+    public int indexOf(Player player) {
+        for (int i = 0; i < players.length; i++) {
+            if (players[i] == player) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /** Returns the bus the map announces what happens on it on. */
+    public GameEventBus getEventBus() {
+        return eventBus;
+    }
+
+    /** Returns the system that moves the ghosts. */
+    public GhostAiSystem getGhostAiSystem() {
+        return ghostAiSystem;
+    }
+
+    /** Returns the system keeping the placed bombs whose fuses are burning. */
+    public FuseSystem getFuseSystem() {
+        return fuseSystem;
+    }
+
+    /** Returns the system keeping the active explosions. */
+    public ExplosionSystem getExplosionSystem() {
+        return explosionSystem;
+    }
+
+    /** Returns the number of bodies in the Box2D world. */
+    public int getBodyCount() {
+        return world.getBodyCount();
+    }
+
+    /** Returns the number of contacts, touching or not, between the fixtures of the Box2D world. */
+    public int getContactCount() {
+        return world.getContactCount();
+    }
+
 }
 
 
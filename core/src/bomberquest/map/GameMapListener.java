@@ -0,0 +1,19 @@
+package bomberquest.map;
+
+/**
+ * Is told by a {@link GameMap} when its level ends.
+ * The game switches screens, while a headless server ends the match and tells its clients.
+ * Both methods are called on the thread that ticks the map, possibly while the world is stepping.
+ */
+public interface GameMapListener {
+
+    /**
+     * Called when a player reaches the unlocked exit.
+     */
+    void onVictory();
+
+    /**
+     * Called when the countdown timer runs out.
+     */
+    void onTimeUp();
+}
@@ -1,5 +1,7 @@
 package bomberquest.map;
+import bomberquest.map.system.TimerWheel;
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.physics.box2d.*;
 import bomberquest.texture.Animations;
 import bomberquest.texture.Drawable;
@@ -10,23 +12,35 @@ import bomberquest.texture.Drawable;
  */
 public class Ghost implements Drawable {
 
+    /** The radius of the ghost's circular hitbox, in tiles. */
+    static final float HITBOX_RADIUS = 0.3f;
+
     /** The ghost's physical hitbox in the game world. */
     private Body hitbox;
 
+    /** The x-coordinate of the hitbox after the last physics step, see {@link #syncPosition()}. */
+    private float x;
+
+    /** The y-coordinate of the hitbox after the last physics step, see {@link #syncPosition()}. */
+    private float y;
+
     /** Whether the ghost is destroyed and inactive. */
     private boolean destroyed;
 
     /** Whether the ghost is fully removed from the game. */
     private boolean fullydestroyed;
 
+    /** The movement speed a ghost starts a level with. */
+    private static final float DEFAULT_SPEED = 20.0f;
+
     /** The ghost's movement speed. */
-    private float speed = 20.0f;
+    private float speed = DEFAULT_SPEED;
 
     /** Tracks time for animations and destruction. */
     private float elapsedTime;
 
-    /** Time before the ghost is fully removed after being destroyed. */
-    float destructionTimer = 0.4f;
+    /** The time the ghost's destruction animation plays before it is fully removed, in seconds. */
+    private static final float DESTRUCTION_TIME = 0.4f;
 
     /**
      * Creates a ghost at the given position.
@@ -37,6 +51,8 @@ public class Ghost implements Drawable {
      */
     public Ghost(World world, float startX, float startY) {
         this.hitbox = createHitbox(world, startX, startY);
+        this.x = startX;
+        this.y = startY;
         this.elapsedTime = 0;
         this.destroyed = false;
         this.fullydestroyed = false;
@@ -55,9 +71,10 @@ public class Ghost implements Drawable {
         bodyDef.position.set(startX, startY); // Set the initial position.
 
         Body body = world.createBody(bodyDef);
+        GameEvents.bodyCreated();
 
         CircleShape circle = new CircleShape(); // Define a circular shape for the ghost's hitbox.
-        circle.setRadius(0.3f); // Set the radius of the circular hitbox.
+        circle.setRadius(HITBOX_RADIUS); // Set the radius of the circular hitbox.
 
         FixtureDef fixtureDef = new FixtureDef();
         fixtureDef.shape = circle;
@@ -75,36 +92,34 @@ public class Ghost implements Drawable {
     }
 
     /**
-     * Updates the ghost's position to chase the player.
-     * If the ghost is destroyed, it counts down the destruction timer and removes itself when time is up.
+     * Advances the ghost's animation.
+     * Movement is decided separately by {@link #think} and applied with {@link #move}, and a destroyed ghost is
+     * removed by the timer {@link #destroy} schedules.
      *
-     * @param player    The player the ghost is chasing.
      * @param deltaTime The time elapsed since the last update (in seconds).
      */
-    public void update(Player player, float deltaTime) {
-        if (destroyed) {
-            destructionTimer -= deltaTime;
-            elapsedTime += deltaTime;
-
-            // Fully remove the ghost when the destruction timer expires
-            if (destructionTimer <= 0 && !fullydestroyed) {
-                if (hitbox != null) {
-                    hitbox.getWorld().destroyBody(hitbox);
-                    hitbox = null;
-                }
-                fullydestroyed = true;
-            }
-            return; // Skip movement logic if the ghost is destroyed.
-        }
-
+    public void update(float deltaTime) {
         this.elapsedTime += deltaTime;
+    }
 
+    /**
+     * Decides the velocity of a ghost chasing the player.
+     * This only reads the given snapshot values and touches no Box2D state, so it is safe to call from worker threads.
+     *
+     * @param ghostX    The X position of the ghost.
+     * @param ghostY    The Y position of the ghost.
+     * @param targetX   The X position of the player being chased.
+     * @param targetY   The Y position of the player being chased.
+     * @param speed     The movement speed of the ghost.
+     * @param deltaTime The time elapsed since the last update (in seconds).
+     * @param velocity  The array receiving the velocity.
+     * @param index     The index of the X component in {@code velocity}; the Y component is written to {@code index + 1}.
+     */
+    public static void think(float ghostX, float ghostY, float targetX, float targetY,
+                             float speed, float deltaTime, float[] velocity, int index) {
         // Calculate direction to the player
-        float playerX = player.getX();
-        float playerY = player.getY();
-
-        float dx = playerX - hitbox.getPosition().x;
-        float dy = playerY - hitbox.getPosition().y;
+        float dx = targetX - ghostX;
+        float dy = targetY - ghostY;
 
         float distance = (float) Math.sqrt(dx * dx + dy * dy);
         if (distance != 0) { // Normalize direction
@@ -112,17 +127,53 @@ public class Ghost implements Drawable {
             dy /= distance;
         }
 
-        // Set the ghost's velocity towards the player
-        hitbox.setLinearVelocity(dx * speed * deltaTime, dy * speed * deltaTime);
+        velocity[index] = dx * speed * deltaTime;
+        velocity[index + 1] = dy * speed * deltaTime;
+    }
+
+    /**
+     * Sets the ghost's velocity as decided by {@link #think}.
+     * Must be called on the thread that steps the Box2D world.
+     *
+     * @param xVelocity The horizontal velocity.
+     * @param yVelocity The vertical velocity.
+     */
+    public void move(float xVelocity, float yVelocity) {
+        if (!destroyed && hitbox != null) {
+            hitbox.setLinearVelocity(xVelocity, yVelocity);
+        }
+    }
+
+    /**
+     * Brings the ghost back to the given position with its initial speed, reusing its hitbox.
+     *
+     * @param x The x-coordinate to respawn at.
+     * @param y The y-coordinate to respawn at.
+     */
+    void reset(float x, float y) {
+        hitbox.setTransform(x, y, 0);
+        this.x = x;
+        this.y = y;
+        hitbox.setLinearVelocity(0, 0);
+        hitbox.setActive(true);
+        destroyed = false;
+        fullydestroyed = false;
+        elapsedTime = 0;
+        speed = DEFAULT_SPEED;
     }
 
     /**
      * Marks the ghost as destroyed, stopping its movement and interactions.
+     * The ghost is fully removed once its destruction animation has played.
+     *
+     * @param timerWheel the wheel of the map, which times the destruction animation.
      */
-    public void destroy() {
+    public void destroy(TimerWheel timerWheel) {
         if (!destroyed) {
             destroyed = true;
             elapsedTime = 0;
+            // The inactive hitbox is kept so that a restart can bring the ghost back without recreating it
+            timerWheel.schedule(DESTRUCTION_TIME, () -> fullydestroyed = true);
             if (hitbox != null) {
                 hitbox.setActive(false); // Деактивируем, чтобы убрать взаимодействие
             }
@@ -151,19 +202,29 @@ public class Ghost implements Drawable {
     }
 
     /**
-     * @return The X position of the ghost.
+     * Copies the position of the hitbox out of Box2D, which only moves it while the world steps.
+     * Called by the map after every physics step, so that {@link #getX()} and {@link #getY()} cost no native call.
+     */
+    void syncPosition() {
+        Vector2 position = hitbox.getPosition();
+        x = position.x;
+        y = position.y;
+    }
+
+    /**
+     * @return The X position of the ghost after the last physics step.
      */
     @Override
     public float getX() {
-        return hitbox.getPosition().x;
+        return x;
     }
 
     /**
-     * @return The Y position of the ghost.
+     * @return The Y position of the ghost after the last physics step.
      */
     @Override
     public float getY() {
-        return hitbox.getPosition().y;
+        return y;
     }
 
     /**
@@ -0,0 +1,72 @@
+package bomberquest.map;
+
+import com.badlogic.gdx.physics.box2d.World;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+
+/**
+ * Counts the Box2D worlds that are still alive and the native bodies they hold.
+ * Every world lives in native memory, so a {@link GameMap} that is replaced without being disposed
+ * keeps growing the process even though nothing in Java references it anymore.
+ * <p>
+ * Tracking is off by default and is enabled by starting the game with {@code -Dbomberquest.trackLeaks=true}.
+ * While enabled, every creation and disposal of a map prints the number of live worlds and bodies.
+ */
+public final class LeakTracker {
+
+    /** Whether tracking is enabled for this run. */
+    public static final boolean ENABLED = Boolean.getBoolean("bomberquest.trackLeaks");
+
+    /** The worlds that have been created and not disposed yet. */
+    private static final Set<World> liveWorlds = Collections.synchronizedSet(Collections.newSetFromMap(new IdentityHashMap<>()));
+
+    private LeakTracker() {
+    }
+
+    /**
+     * Records that a world has been created.
+     *
+     * @param world the created world.
+     */
+    public static void worldCreated(World world) {
+        if (ENABLED) {
+            liveWorlds.add(world);
+            report("World created");
+        }
+    }
+
+    /**
+     * Records that a world is about to be disposed.
+     *
+     * @param world the world being disposed.
+     */
+    public static void worldDisposed(World world) {
+        if (ENABLED) {
+            liveWorlds.remove(world);
+            report("World disposed");
+        }
+    }
+
+    /** Returns the number of worlds that have not been disposed yet. */
+    public static int getLiveWorldCount() {
+        return liveWorlds.size();
+    }
+
+    /** Returns the number of native bodies held by all worlds that have not been disposed yet. */
+    public static int getLiveBodyCount() {
+        synchronized (liveWorlds) {
+            int bodies = 0;
+            for (World world : liveWorlds) {
+                bodies += world.getBodyCount();
+            }
+            return bodies;
+        }
+    }
+
+    /** Prints the current counts, prefixed by the event that triggered them. */
+    private static void report(String event) {
+        System.out.println("[LeakTracker] " + event + ": " + getLiveWorldCount() + " live worlds, " + getLiveBodyCount() + " live bodies");
+    }
+}
@@ -0,0 +1,62 @@
+package bomberquest.map;
+
+import java.util.List;
+
+/**
+ * The state a {@link GameMap} starts its level in: the tile layout with the items hidden under the walls,
+ * the spawn points and the entities that spawn there.
+ * Restoring it puts the existing player, ghosts and bodies back in place instead of building a new map,
+ * so retrying a level costs no allocations of worlds, bombs or wall bodies.
+ */
+final class LevelSnapshot {
+
+    /** The packed tiles at the start of the level, including the hidden exit and boosts. */
+    final byte[] tiles;
+
+    /** The spawn points of the players, as x/y pairs in player order. */
+    final float[] playerSpawns;
+
+    /** Every ghost of the level, including the ones that get destroyed and removed from the map later. */
+    final Ghost[] ghosts;
+
+    /** The spawn points of {@link #ghosts}, as x/y pairs. */
+    final float[] ghostSpawns;
+
+    /** Whether the exit starts hidden beneath a destructible wall. */
+    final boolean exitHidden;
+
+    /** The countdown the level starts with. */
+    final int countdownTimer;
+
+    /** The progress towards each {@link Objective} the level starts with, indexed by its ordinal. */
+    final int[] objectiveProgress;
+
+    /**
+     * Captures the current state of a freshly built map.
+     *
+     * @param tileGrid          the layout of the map.
+     * @param players           the players at their spawn points.
+     * @param ghosts            the ghosts at their spawn points.
+     * @param exit              the exit of the level, or null if there is none.
+     * @param countdownTimer    the countdown the level starts with.
+     * @param objectiveProgress the progress towards each objective the level starts with; not copied.
+     */
+    LevelSnapshot(TileGrid tileGrid, Player[] players, List<Ghost> ghosts, Exit exit, int countdownTimer,
+                  int[] objectiveProgress) {
+        this.tiles = tileGrid.copyTiles();
+        this.playerSpawns = new float[players.length * 2];
+        for (int i = 0; i < players.length; i++) {
+            playerSpawns[i * 2] = players[i].getX();
+            playerSpawns[i * 2 + 1] = players[i].getY();
+        }
+        this.ghosts = ghosts.toArray(new Ghost[0]);
+        this.ghostSpawns = new float[this.ghosts.length * 2];
+        for (int i = 0; i < this.ghosts.length; i++) {
+            ghostSpawns[i * 2] = this.ghosts[i].getX();
+            ghostSpawns[i * 2 + 1] = this.ghosts[i].getY();
+        }
+        this.exitHidden = exit == null || exit.isHidden();
+        this.countdownTimer = countdownTimer;
+        this.objectiveProgress = objectiveProgress;
+    }
+}
@@ -0,0 +1,77 @@
+package bomberquest.map;
+
+import java.util.List;
+
+/**
+ * The contents of a map file as read by {@link MapParser}: the layout with its hidden items, and the tiles the players,
+ * the ghosts and the exit start on. Holds no game objects, so it can be inspected without a Box2D world.
+ */
+public class MapDefinition {
+
+    /** The layout of the map, with the items hidden under its walls. */
+    private final TileGrid tileGrid;
+
+    /** The tile positions of the entrances as {x, y}, from the top left. */
+    private final List<int[]> entrances;
+
+    /** The tile positions of the ghosts as {x, y}, in the order of the file. */
+    private final List<int[]> ghosts;
+
+    /** The tile position of the exit as {x, y}, or null if the map leaves it to chance. */
+    private final int[] exit;
+
+    /** Whether every ghost has to be killed before the exit unlocks. */
+    private final boolean ghostsRequired;
+
+    /** The target of each {@link Objective}, indexed by its ordinal; 0 if it is not required. */
+    private final int[] targets;
+
+    /** The lines of the file that could not be used, with the reason. */
+    private final List<String> problems;
+
+    MapDefinition(TileGrid tileGrid, List<int[]> entrances, List<int[]> ghosts, int[] exit, boolean ghostsRequired,
+                  int[] targets, List<String> problems) {
+        this.tileGrid = tileGrid;
+        this.entrances = entrances;
+        this.ghosts = ghosts;
+        this.exit = exit;
+        this.ghostsRequired = ghostsRequired;
+        this.targets = targets;
+        this.problems = problems;
+    }
+
+    /** Returns the layout of the map, with the items hidden under its walls. */
+    public TileGrid getTileGrid() {
+        return tileGrid;
+    }
+
+    /** Returns the tile positions of the entrances as {x, y}, from the top left; the first one spawns the first player. */
+    public List<int[]> getEntrances() {
+        return entrances;
+    }
+
+    /** Returns the tile positions of the ghosts as {x, y}. */
+    public List<int[]> getGhosts() {
+        return ghosts;
+    }
+
+    /** Returns the tile position of the exit as {x, y}, or null if it is placed under a random destructible wall. */
+    public int[] getExit() {
+        return exit;
+    }
+
+    /** Returns whether every ghost has to be killed before the exit unlocks. */
+    public boolean isGhostsRequired() {
+        return ghostsRequired;
+    }
+
+    /** Returns how far an objective has to be reached before the exit unlocks, or 0 if it is not required. */
+    public int getTarget(Objective objective) {
+        return targets[objective.ordinal()];
+    }
+
+    /** Returns the lines of the file that could not be used, with the reason. */
+    public List<String> getProblems() {
+        return problems;
+    }
+}
@@ -0,0 +1,139 @@
+package bomberquest.map;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * Reads map files into a {@link MapDefinition}.
+ * <p>
+ * A map file is a properties file whose keys are tile coordinates "x,y" and whose values are object types:
+ * 0 indestructible wall, 1 destructible wall, 2 entrance, 3 ghost, 4 exit, 5 bomb boost and 6 explosion boost.
+ * Exits and boosts are hidden under a destructible wall on their tile. The keys {@code objective.walls} and
+ * {@code objective.boosts} set how many walls must be blown up and boosts collected before the exit unlocks, and
+ * {@code objective.ghosts=false} lets it unlock with ghosts left, see {@link Objective}. Lines that cannot be used are
+ * skipped and reported as problems instead of failing the whole map, so the game and the offline map validator see
+ * the same map.
+ */
+public final class MapParser {
+
+    /** The width and height of every map read from a file, in tiles. */
+    public static final int MAP_SIZE = 21;
+
+    /** The prefix of the keys that set the objectives of the map. */
+    private static final String OBJECTIVE_PREFIX = "objective.";
+
+    private MapParser() {
+    }
+
+    /**
+     * Reads a map file.
+     *
+     * @param in the contents of the file; not closed.
+     * @return the map, with the problems of the lines that were skipped.
+     * @throws IOException if the file cannot be read.
+     */
+    public static MapDefinition parse(InputStream in) throws IOException {
+        TileGrid tileGrid = new TileGrid(MAP_SIZE, MAP_SIZE);
+        List<int[]> entrances = new ArrayList<>();
+        List<int[]> ghosts = new ArrayList<>();
+        int[] exit = null;
+        boolean ghostsRequired = true;
+        int[] targets = new int[Objective.values().length];
+        List<String> problems = new ArrayList<>();
+
+        Properties mapProperties = new Properties();
+        mapProperties.load(in);
+        for (String key : mapProperties.stringPropertyNames()) {
+            if (key.startsWith("#") || key.trim().isEmpty()) continue;  // Skip comments and empty lines
+
+            // Parse coordinates and type from the file
+            String value = mapProperties.getProperty(key);
+            if (key.startsWith(OBJECTIVE_PREFIX)) {
+                switch (key.substring(OBJECTIVE_PREFIX.length())) {
+                    case "ghosts":
+                        ghostsRequired = Boolean.parseBoolean(value.trim());
+                        break;
+                    case "walls":
+                        parseTarget(targets, Objective.WALLS_DESTROYED, key, value, problems);
+                        break;
+                    case "boosts":
+                        parseTarget(targets, Objective.BOOSTS_COLLECTED, key, value, problems);
+                        break;
+                    default:
+                        problems.add("Unknown objective: " + key + "=" + value);
+                }
+                continue;
+            }
+            int x, y, type;
+            try {
+                String[] coordinates = key.split(",");
+                x = Integer.parseInt(coordinates[0].trim());
+                y = Integer.parseInt(coordinates[1].trim());
+                type = Integer.parseInt(value.trim());
+            } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+                problems.add("Malformed line: " + key + "=" + value);
+                continue;
+            }
+            if (!tileGrid.isInBounds(x, y)) {
+                problems.add("Tile out of bounds: " + key + "=" + value);
+                continue;
+            }
+
+            // Handle each type of map element
+            switch (type) {
+                case 0: // Indestructible Wall
+                    tileGrid.setType(x, y, TileGrid.INDESTRUCTIBLE_WALL);
+                    break;
+                case 1: // Destructible Wall
+                    tileGrid.setType(x, y, TileGrid.DESTRUCTIBLE_WALL);
+                    break;
+                case 2: // Player (Entrance)
+                    entrances.add(new int[]{x, y});
+                    break;
+                case 3: // Enemy (Ghost)
+                    ghosts.add(new int[]{x, y});
+                    break;
+                case 4: // Exit under a destructible wall
+                    exit = new int[]{x, y};
+                    tileGrid.setType(x, y, TileGrid.DESTRUCTIBLE_WALL);
+                    tileGrid.setItem(x, y, TileGrid.ITEM_EXIT);
+                    break;
+                case 5: // Bomb Boost under a destructible wall
+                    tileGrid.setType(x, y, TileGrid.DESTRUCTIBLE_WALL);
+                    tileGrid.setItem(x, y, TileGrid.ITEM_BOMB_BOOST);
+                    break;
+                case 6: // Explosion Boost under a destructible wall
+                    tileGrid.setType(x, y, TileGrid.DESTRUCTIBLE_WALL);
+                    tileGrid.setItem(x, y, TileGrid.ITEM_EXPLOSION_BOOST);
+                    break;
+                default:
+                    problems.add("Unknown object type: " + type);
+            }
+        }
+
+        if (entrances.isEmpty()) {
+            problems.add("The map has no entrance");
+        }
+        // The players are numbered from the top left, so the order does not depend on the order of the file
+        entrances.sort(Comparator.<int[]>comparingInt(entrance -> -entrance[1]).thenComparingInt(entrance -> entrance[0]));
+        return new MapDefinition(tileGrid, entrances, ghosts, exit, ghostsRequired, targets, problems);
+    }
+
+    /** Reads the target of an objective, or reports the line as a problem if it is not a count. */
+    private static void parseTarget(int[] targets, Objective objective, String key, String value, List<String> problems) {
+        try {
+            int target = Integer.parseInt(value.trim());
+            if (target < 0) {
+                problems.add("Negative objective: " + key + "=" + value);
+            } else {
+                targets[objective.ordinal()] = target;
+            }
+        } catch (NumberFormatException e) {
+            problems.add("Malformed line: " + key + "=" + value);
+        }
+    }
+}
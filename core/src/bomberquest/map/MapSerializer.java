@@ -0,0 +1,260 @@
+package bomberquest.map;
+
+import bomberquest.input.KeyboardBinding;
+import bomberquest.map.boost.*;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Writes the full state of a running {@link GameMap} into a compact binary snapshot and rebuilds maps from it.
+ * <p>
+ * The snapshot holds the packed tile bytes of the {@link TileGrid} followed by fixed-size records for the players,
+ * the ghosts, the armed bombs, the revealed boosts, the exit, the objectives and the running boost effects, so its size
+ * is one byte per tile plus a few bytes per entity. Walls that are still crumbling are stored as floor, since their items have already been
+ * revealed, and running explosions are not stored, since they last less than a second.
+ */
+public final class MapSerializer {
+
+    /** Identifies a Bomber Quest save ("BQSV"). */
+    private static final int MAGIC = 0x42515356;
+
+    /** The version of the format, increased whenever the layout or the meaning of a value changes. */
+    private static final short VERSION = 5;
+
+    /** The bytes of the header: magic, version, seed, width and height. */
+    private static final int HEADER_BYTES = 4 + 2 + 8 + 4 + 4;
+
+    /** The bytes of a player record: position, speed, blast radius, bomb limit and whether the player is dead. */
+    private static final int PLAYER_BYTES = 4 * 5 + 1;
+
+    /** The bytes of a ghost record: position and speed. */
+    private static final int GHOST_BYTES = 4 * 3;
+
+    /** The bytes of a bomb record: owner, position and fuse time. */
+    private static final int BOMB_BYTES = 1 + 4 * 3;
+
+    /** The bytes of a boost record: item id and tile position. */
+    private static final int BOOST_BYTES = 1 + 4 * 2;
+
+    /** The bytes of the exit record: presence, position and flags. */
+    private static final int EXIT_BYTES = 1 + 4 * 2 + 1 + 1;
+
+    /** The bytes of the objectives: whether the ghosts are required, and the target and progress of each objective. */
+    private static final int OBJECTIVE_BYTES = 1 + Objective.values().length * 4 * 2;
+
+    private MapSerializer() {
+    }
+
+    /**
+     * Returns the number of bytes {@link #write} needs for the current state of a map.
+     *
+     * @param map the map to measure.
+     * @return the size of the snapshot in bytes.
+     */
+    public static int sizeOf(GameMap map) {
+        TileGrid tileGrid = map.getTileGrid();
+        return HEADER_BYTES
+                + tileGrid.getWidth() * tileGrid.getHeight()
+                + 4 + map.getPlayers().length * PLAYER_BYTES
+                + 4 + map.getGhosts().size() * GHOST_BYTES
+                + 4 + map.getFuseSystem().getArmedBombs().size() * BOMB_BYTES
+                + 4 + map.getBoosts().size() * BOOST_BYTES
+                + EXIT_BYTES
+                + 4
+                + OBJECTIVE_BYTES
+                + map.getBoostEffects().sizeOf();
+    }
+
+    /**
+     * Writes a snapshot of a map into a buffer.
+     * Must be called on the thread that ticks the map; the buffer can then be handed to another thread.
+     *
+     * @param map    the map to save.
+     * @param buffer the buffer to write to, with at least {@link #sizeOf} bytes remaining.
+     */
+    public static void write(GameMap map, ByteBuffer buffer) {
+        TileGrid tileGrid = map.getTileGrid();
+        buffer.putInt(MAGIC);
+        buffer.putShort(VERSION);
+        buffer.putLong(map.getSeed());
+        buffer.putInt(tileGrid.getWidth());
+        buffer.putInt(tileGrid.getHeight());
+
+        int tilesStart = buffer.position();
+        tileGrid.writeTiles(buffer);
+        for (int c = 0; c < tileGrid.getCrumblingCount(); c++) {
+            // The item under a crumbling wall has already been revealed, so it is saved as floor
+            buffer.put(tilesStart + tileGrid.index(tileGrid.getCrumblingX(c), tileGrid.getCrumblingY(c)), (byte) TileGrid.FLOOR);
+        }
+
+        Player[] players = map.getPlayers();
+        buffer.putInt(players.length);
+        for (Player player : players) {
+            buffer.putFloat(player.getX());
+            buffer.putFloat(player.getY());
+            buffer.putFloat(player.getSpeed());
+            buffer.putInt(player.getBlastRadius());
+            buffer.putInt(player.getMAX_ACTIVEBOMBS());
+            buffer.put((byte) (player.isDestroyed() ? 1 : 0));
+        }
+
+        int ghostCountPosition = buffer.position();
+        int ghostCount = 0;
+        buffer.putInt(0);
+        for (Ghost ghost : map.getGhosts()) {
+            if (!ghost.isDestroyed()) {
+                buffer.putFloat(ghost.getX());
+                buffer.putFloat(ghost.getY());
+                buffer.putFloat(ghost.getSpeed());
+                ghostCount++;
+            }
+        }
+        buffer.putInt(ghostCountPosition, ghostCount);
+
+        buffer.putInt(map.getFuseSystem().getArmedBombs().size());
+        for (Bomb bomb : map.getFuseSystem().getArmedBombs()) {
+            buffer.put((byte) indexOf(players, bomb.getOwner()));
+            buffer.putFloat(bomb.getX());
+            buffer.putFloat(bomb.getY());
+            buffer.putFloat(bomb.getTimer());
+        }
+
+        int boostCountPosition = buffer.position();
+        int boostCount = 0;
+        buffer.putInt(0);
+        for (Boost boost : map.getBoosts()) {
+            if (!boost.isDestroyed()) {
+                buffer.put((byte) itemOf(boost));
+                buffer.putInt(Math.round(boost.getX()));
+                buffer.putInt(Math.round(boost.getY()));
+                boostCount++;
+            }
+        }
+        buffer.putInt(boostCountPosition, boostCount);
+
+        Exit exit = map.getExit();
+        buffer.put((byte) (exit != null ? 1 : 0));
+        buffer.putFloat(exit != null ? exit.getX() : 0);
+        buffer.putFloat(exit != null ? exit.getY() : 0);
+        buffer.put((byte) (exit != null && exit.isHidden() ? 1 : 0));
+        buffer.put((byte) (exit != null && exit.isUnlocked() ? 1 : 0));
+
+        buffer.putInt(map.getCountdownTimer()); // In whole seconds since version 4
+
+        ObjectiveTracker objectives = map.getObjectives();
+        buffer.put((byte) (objectives.isGhostsRequired() ? 1 : 0));
+        for (Objective objective : Objective.values()) {
+            buffer.putInt(objectives.getTarget(objective));
+            buffer.putInt(objectives.getProgress(objective));
+        }
+
+        // The saved stats include the running effects, so they are saved too and end on time after loading (since version 5)
+        map.getBoostEffects().write(buffer);
+    }
+
+    /**
+     * Rebuilds a map from a snapshot written by {@link #write}.
+     * Restarting the rebuilt map returns to the saved state.
+     *
+     * @param listener is told when the rebuilt level is won or the time runs out.
+     * @param buffer   the buffer to read from, positioned at the start of the snapshot.
+     * @return the rebuilt map.
+     * @throws IllegalStateException if the buffer does not hold a snapshot of a supported version.
+     */
+    public static GameMap read(GameMapListener listener, ByteBuffer buffer) {
+        if (buffer.remaining() < HEADER_BYTES || buffer.getInt() != MAGIC) {
+            throw new IllegalStateException("Not a Bomber Quest save");
+        }
+        short version = buffer.getShort();
+        if (version != VERSION) {
+            throw new IllegalStateException("Unsupported save version: " + version);
+        }
+        long seed = buffer.getLong();
+        int width = buffer.getInt();
+        int height = buffer.getInt();
+
+        TileGrid tileGrid = new TileGrid(width, height);
+        tileGrid.readTiles(buffer);
+
+        GameMap map = new GameMap(listener, seed, tileGrid);
+
+        Player[] players = new Player[buffer.getInt()];
+        for (int i = 0; i < players.length; i++) {
+            Player player = new Player(map.getWorld(), map, buffer.getFloat(), buffer.getFloat(), KeyboardBinding.forPlayer(i));
+            player.setSpeed(buffer.getFloat());
+            player.setBlastRadius(buffer.getInt());
+            player.setMAX_ACTIVEBOMBS(buffer.getInt());
+            if (buffer.get() != 0) {
+                player.destroy(); // Players who died before saving stay out of the game
+            }
+            players[i] = player;
+        }
+        map.setPlayers(players);
+
+        int ghostCount = buffer.getInt();
+        for (int i = 0; i < ghostCount; i++) {
+            Ghost ghost = new Ghost(map.getWorld(), buffer.getFloat(), buffer.getFloat());
+            ghost.setSpeed(buffer.getFloat());
+            map.getGhosts().add(ghost);
+        }
+
+        int bombCount = buffer.getInt();
+        for (int i = 0; i < bombCount; i++) {
+            Player owner = players[buffer.get()];
+            owner.restoreBomb(buffer.getFloat(), buffer.getFloat(), buffer.getFloat());
+        }
+
+        int boostCount = buffer.getInt();
+        for (int i = 0; i < boostCount; i++) {
+            int item = buffer.get();
+            Boost boost = map.createBoost(item, buffer.getInt(), buffer.getInt());
+            if (boost != null) {
+                map.getBoosts().add(boost); // Boosts the registry no longer knows are dropped
+            }
+        }
+
+        boolean hasExit = buffer.get() != 0;
+        float exitX = buffer.getFloat();
+        float exitY = buffer.getFloat();
+        boolean exitHidden = buffer.get() != 0;
+        boolean exitUnlocked = buffer.get() != 0;
+        if (hasExit) {
+            Exit exit = new Exit(map.getSensorPool(), exitX, exitY);
+            exit.restore(exitHidden, exitUnlocked);
+            map.setExit(exit);
+        }
+
+        map.setCountdownTimer(buffer.getInt());
+
+        ObjectiveTracker objectives = map.getObjectives();
+        objectives.setGhostsRequired(buffer.get() != 0);
+        for (Objective objective : Objective.values()) {
+            objectives.setTarget(objective, buffer.getInt());
+            objectives.setProgress(objective, buffer.getInt());
+        }
+
+        map.getBoostEffects().read(buffer);
+        map.captureLevelSnapshot();
+        return map;
+    }
+
+    /** Returns the index of a player in the array. */
+    private static int indexOf(Player[] players, Player player) {
+        for (int i = 0; i < players.length; i++) {
+            if (players[i] == player) {
+                return i;
+            }
+        }
+        throw new IllegalStateException("Bomb owner is not on the map");
+    }
+
+    /**
+     * Returns the item id a boost was revealed from.
+     *
+     * @param boost the boost.
+     * @return the item id of its type in the {@link bomberquest.map.boost.BoostRegistry}.
+     */
+    public static int itemOf(Boost boost) {
+        return boost.getType().getItem();
+    }
+}
@@ -0,0 +1,14 @@
+package bomberquest.map;
+
+/**
+ * The counted goals a map can set on top of killing its ghosts before the exit unlocks.
+ * A map file sets them with the keys {@code objective.walls} and {@code objective.boosts}, see {@link MapParser}.
+ */
+public enum Objective {
+
+    /** Blow up a number of destructible walls. */
+    WALLS_DESTROYED,
+
+    /** Collect a number of boosts. */
+    BOOSTS_COLLECTED
+}
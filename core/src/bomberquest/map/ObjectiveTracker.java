@@ -0,0 +1,177 @@
+package bomberquest.map;
+
+/**
+ * Keeps count of what a level requires before its exit unlocks, and of what is left for it to be lost.
+ * <p>
+ * Instead of checking every tick whether the ghost list is empty or every player is dead, the map reports each ghost
+ * that is removed, each player that dies and each step towards an {@link Objective} as it happens. Every check is then
+ * a comparison of a counter, and the exit is unlocked the moment the last requirement is met.
+ * <p>
+ * The requirements are the ghosts, unless the map turns them off, and a target for each objective, where 0 means the
+ * objective is not required. The counts are set from the map with {@link #reset}, which also runs the completion
+ * action at once if nothing is required anymore.
+ */
+public class ObjectiveTracker {
+
+    /** The action run when the last requirement is met, which unlocks the exit. */
+    private final Runnable onComplete;
+
+    /** Whether every ghost has to be killed. */
+    private boolean ghostsRequired = true;
+
+    /** The target of each objective, indexed by its ordinal; 0 if the objective is not required. */
+    private final int[] targets = new int[Objective.values().length];
+
+    /** The progress towards each objective, indexed by its ordinal. */
+    private final int[] progress = new int[targets.length];
+
+    /** The number of ghosts still on the map, including dying ones that have not been removed yet. */
+    private int ghostsLeft;
+
+    /** The number of players still alive. */
+    private int playersAlive;
+
+    /** The number of requirements not met yet. */
+    private int unmet;
+
+    /**
+     * Constructs a tracker that requires only the ghosts to be killed.
+     *
+     * @param onComplete the action run when the last requirement is met.
+     */
+    public ObjectiveTracker(Runnable onComplete) {
+        this.onComplete = onComplete;
+    }
+
+    /**
+     * Sets whether every ghost has to be killed; takes effect with the next {@link #reset}.
+     *
+     * @param ghostsRequired whether the ghosts are required.
+     */
+    public void setGhostsRequired(boolean ghostsRequired) {
+        this.ghostsRequired = ghostsRequired;
+    }
+
+    /**
+     * Sets the target of an objective; takes effect with the next {@link #reset}.
+     *
+     * @param objective the objective.
+     * @param target    the count to reach, or 0 if the objective is not required.
+     */
+    public void setTarget(Objective objective, int target) {
+        if (target < 0) {
+            throw new IllegalArgumentException("Negative target for " + objective + ": " + target);
+        }
+        targets[objective.ordinal()] = target;
+    }
+
+    /**
+     * Sets the progress towards an objective, e.g. when a saved game is loaded; takes effect with the next
+     * {@link #reset}, which is given the progress to keep.
+     *
+     * @param objective the objective.
+     * @param progress  the count reached so far.
+     */
+    public void setProgress(Objective objective, int progress) {
+        this.progress[objective.ordinal()] = progress;
+    }
+
+    /**
+     * Sets the counts from the state of the map and works out which requirements are still unmet.
+     * Runs the completion action if none are.
+     *
+     * @param ghosts   the number of ghosts on the map.
+     * @param players  the number of players alive.
+     * @param progress the progress towards each objective, indexed by its ordinal.
+     */
+    public void reset(int ghosts, int players, int[] progress) {
+        this.ghostsLeft = ghosts;
+        this.playersAlive = players;
+        System.arraycopy(progress, 0, this.progress, 0, this.progress.length);
+        unmet = ghostsRequired && ghosts > 0 ? 1 : 0;
+        for (int i = 0; i < targets.length; i++) {
+            if (this.progress[i] < targets[i]) {
+                unmet++;
+            }
+        }
+        if (unmet == 0) {
+            onComplete.run();
+        }
+    }
+
+    /**
+     * Counts a step towards an objective.
+     *
+     * @param objective the objective.
+     */
+    public void record(Objective objective) {
+        int i = objective.ordinal();
+        progress[i]++;
+        if (progress[i] == targets[i]) {
+            met();
+        }
+    }
+
+    /**
+     * Counts ghosts that have been removed from the map.
+     *
+     * @param count the number of ghosts.
+     */
+    public void ghostsRemoved(int count) {
+        if (count == 0) {
+            return;
+        }
+        ghostsLeft -= count;
+        if (ghostsRequired && ghostsLeft == 0) {
+            met();
+        }
+    }
+
+    /** Counts a player who died. */
+    public void playerDied() {
+        playersAlive--;
+    }
+
+    /** Counts a met requirement and runs the completion action if it was the last one. */
+    private void met() {
+        unmet--;
+        if (unmet == 0) {
+            onComplete.run();
+        }
+    }
+
+    /** Returns whether every requirement is met. */
+    public boolean isComplete() {
+        return unmet == 0;
+    }
+
+    /** Returns whether every player is dead. */
+    public boolean areAllPlayersDead() {
+        return playersAlive <= 0;
+    }
+
+    /** Returns the number of ghosts still on the map. */
+    public int getGhostsLeft() {
+        return ghostsLeft;
+    }
+
+    /** Returns whether every ghost has to be killed. */
+    public boolean isGhostsRequired() {
+        return ghostsRequired;
+    }
+
+    /** Returns the target of an objective, or 0 if it is not required. */
+    public int getTarget(Objective objective) {
+        return targets[objective.ordinal()];
+    }
+
+    /** Returns the progress towards an objective. */
+    public int getProgress(Objective objective) {
+        return progress[objective.ordinal()];
+    }
+
+    /** Returns a copy of the progress towards each objective, indexed by its ordinal. */
+    public int[] copyProgress() {
+        return progress.clone();
+    }
+}
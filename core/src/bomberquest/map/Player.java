@@ -1,9 +1,10 @@
 package bomberquest.map;
 
-import bomberquest.audio.MusicTrack;
-import com.badlogic.gdx.Gdx;
-import com.badlogic.gdx.Input;
+import bomberquest.map.event.GameEventType;
+import bomberquest.input.InputBinding;
+import bomberquest.input.KeyboardBinding;
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.physics.box2d.*;
 import bomberquest.texture.Animations;
 import bomberquest.texture.Drawable;
@@ -18,12 +19,24 @@ public class Player implements Drawable {
     /** Total time elapsed since the game started. We use this for calculating the player movement and animating it. */
     private float elapsedTime;
 
+    /** The radius of the player's circular hitbox, in tiles. */
+    public static final float HITBOX_RADIUS = 0.3f;
+
+    /** The movement speed the player starts a level with. */
+    private static final float DEFAULT_SPEED = 1.5f;
+
     /** The player's movement speed. */
-    float speed = 1.5f;
+    float speed = DEFAULT_SPEED;
 
     /** The Box2D hitbox of the player, used for position and collision detection. */
     private Body hitbox;
 
+    /** The x-coordinate of the hitbox after the last physics step, see {@link #syncPosition()}. */
+    private float x;
+
+    /** The y-coordinate of the hitbox after the last physics step, see {@link #syncPosition()}. */
+    private float y;
+
     /** List of bombs available to the player. */
     private final ArrayList<Bomb> bombs;
 
@@ -38,8 +51,11 @@ public class Player implements Drawable {
     /** The game map the player interacts with. */
     private final GameMap gameMap;
 
-    /** Timer for player destruction animations. */
-    float destructionTimer = 0.3f;
+    /** The controls this player is steered with. */
+    private final InputBinding input;
+
+    /** The time the death animation of the player plays before it is fully removed, in seconds. */
+    private static final float DESTRUCTION_TIME = 0.3f;
 
     /** Indicates if the player is destroyed. */
     private boolean destroyed = false;
@@ -51,6 +67,7 @@ public class Player implements Drawable {
 
     /**
      * Initializes the player with a hitbox, bomb list, and interaction with the game map.
+     * The player is steered with the arrow keys and places bombs with SPACE.
      *
      * @param world  The Box2D world to which the player's hitbox will be added.
      * @param gameMap The game map the player interacts with.
@@ -58,12 +75,28 @@ public class Player implements Drawable {
      * @param y       The initial y-coordinate of the player.
      */
     public Player(World world, GameMap gameMap, float x, float y) {
+        this(world, gameMap, x, y, KeyboardBinding.forPlayer(0));
+    }
+
+    /**
+     * Initializes the player with a hitbox, its own bomb list, and the controls it is steered with.
+     *
+     * @param world  The Box2D world to which the player's hitbox will be added.
+     * @param gameMap The game map the player interacts with.
+     * @param x       The initial x-coordinate of the player.
+     * @param y       The initial y-coordinate of the player.
+     * @param input   The controls of the player.
+     */
+    public Player(World world, GameMap gameMap, float x, float y, InputBinding input) {
         this.hitbox = createHitbox(world, x, y);
+        this.x = x;
+        this.y = y;
         this.gameMap = gameMap;
+        this.input = input;
 
         this.bombs = new ArrayList<>();
         for (int i = 0; i < MAX_BOMBS; i++) {
-            bombs.add(new Bomb(world, gameMap)); // Создаём 4 объекта Bomb
+            bombs.add(new Bomb(world, gameMap, this));
         }
     }
 
@@ -84,11 +117,12 @@ public class Player implements Drawable {
         bodyDef.position.set(startX, startY);
         // Create the body in the world using the body definition.
         Body body = world.createBody(bodyDef);
+        GameEvents.bodyCreated();
         // Now we need to give the body a shape so the physics engine knows how to collide with it.
         // We'll use a circle shape for the player.
         CircleShape circle = new CircleShape();
         // Give the circle a radius of 0.3 tiles (the player is 0.6 tiles wide).
-        circle.setRadius(0.3f);
+        circle.setRadius(HITBOX_RADIUS);
         // Attach the shape to the body as a fixture.
         // Bodies can have multiple fixtures, but we only need one for the player.
         FixtureDef fixtureDef = new FixtureDef();
@@ -107,22 +141,15 @@ public class Player implements Drawable {
     /**
      * Updates the player's state each frame, handling movement, bomb placement, and destruction.
      * This method processes player input, updates the position, handles bomb activation, and manages destruction.
+     * The fuses of placed bombs burn on the map's timer wheel, not here.
      * Optionally, the player can be moved in a circular path for specific game logic.
      *
      * @param frameTime Time elapsed since the last frame, used for smooth updates.
      */
     public void tick(float frameTime) {
         if (destroyed) {
-            if (fullydestroyed) return;
-            destructionTimer -= frameTime;
-            elapsedTime += frameTime;
-
-            if (destructionTimer <= 0 && !fullydestroyed) {
-                if (hitbox != null) {
-                    hitbox.getWorld().destroyBody(hitbox);
-                    hitbox = null;
-                }
-                fullydestroyed = true;
+            if (!fullydestroyed) {
+                elapsedTime += frameTime; // Plays the death animation until the map's timer wheel removes the player
             }
             return;
         }
@@ -131,46 +158,80 @@ public class Player implements Drawable {
         // Handle movement
         float xVelocity = 0;
         float yVelocity = 0;
-        if (Gdx.input.isKeyPressed(Input.Keys.UP)) {
+        if (input.isUpPressed()) {
             yVelocity = speed;
         }
-        if (Gdx.input.isKeyPressed(Input.Keys.DOWN)) {
+        if (input.isDownPressed()) {
             yVelocity = -speed;
         }
-        if (Gdx.input.isKeyPressed(Input.Keys.LEFT)) {
+        if (input.isLeftPressed()) {
             xVelocity = -speed;
         }
-        if (Gdx.input.isKeyPressed(Input.Keys.RIGHT)) {
+        if (input.isRightPressed()) {
             xVelocity = speed;
         }
 
         this.hitbox.setLinearVelocity(xVelocity, yVelocity);
 
         // Handle bomb placement
-        if (Gdx.input.isKeyJustPressed(Input.Keys.SPACE)) {
+        if (input.isBombJustPressed()) {
             if (activeBombs < MAX_ACTIVEBOMBS) {
                 for (Bomb bomb : bombs) {
                     if (!bomb.isActive()) {
                         bomb.activate(getX(), getY());
-                        MusicTrack.PLANTING.play();
                         activeBombs++;
                         break;
                     }
                 }
             }
         }
+    }
 
-        // Update bombs
-        for (int i = 0; i < bombs.size(); i++) {
-            Bomb bomb = bombs.get(i);
-            bomb.tick(frameTime);
-            if (!bomb.isActive() && bomb.wasActive()) {
-                activeBombs--;
-                bomb.setWasActive(false);
-            }
+    /**
+     * Brings the player back to the given position with the stats of a fresh level.
+     * The existing hitbox and bombs are reused; the map's timer wheel and its fuse and explosion systems must have been
+     * cleared.
+     *
+     * @param x The x-coordinate to respawn at.
+     * @param y The y-coordinate to respawn at.
+     */
+    void reset(float x, float y) {
+        hitbox.setTransform(x, y, 0);
+        this.x = x;
+        this.y = y;
+        hitbox.setLinearVelocity(0, 0);
+        hitbox.setActive(true);
+        destroyed = false;
+        fullydestroyed = false;
+        elapsedTime = 0;
+        speed = DEFAULT_SPEED;
+        activeBombs = 0;
+        MAX_ACTIVEBOMBS = 1;
+        setBlastRadius(1);
+    }
 
+    /**
+     * Places one of the player's bombs with a fuse that has already been burning, e.g. when a saved game is loaded.
+     *
+     * @param x     The x-coordinate of the bomb.
+     * @param y     The y-coordinate of the bomb.
+     * @param timer The time the fuse has already been burning, in seconds.
+     */
+    void restoreBomb(float x, float y, float timer) {
+        for (Bomb bomb : bombs) {
+            if (!bomb.isActive()) {
+                bomb.restore(x, y, timer);
+                activeBombs++;
+                return;
+            }
         }
+    }
 
+    /**
+     * Called by one of the player's bombs when it detonates, freeing a slot for a new bomb.
+     */
+    void onBombDetonated() {
+        activeBombs--;
     }
 
     /**
@@ -217,9 +278,12 @@ public class Player implements Drawable {
     public void destroy() {
         // Check if the player is already destroyed. If not, proceed with destruction.
         if (!destroyed) {
-            MusicTrack.DEATH.play();
+            gameMap.getEventBus().publish(GameEventType.PLAYER_DIED, gameMap.indexOf(this), Math.round(getX()), Math.round(getY()));
+            gameMap.getObjectives().playerDied();
             destroyed = true;
             elapsedTime = 0;
+            // The inactive hitbox is kept so that a restart can bring the player back without recreating it
+            gameMap.getTimerWheel().schedule(DESTRUCTION_TIME, () -> fullydestroyed = true);
 
             // Disable the hitbox to remove physical interactions with the game world.
             if (hitbox != null) {
@@ -230,16 +294,26 @@ public class Player implements Drawable {
 
     // Getter and Setter methods
 
+    /**
+     * Copies the position of the hitbox out of Box2D, which only moves it while the world steps.
+     * Called by the map after every physics step, so that {@link #getX()} and {@link #getY()} cost no native call.
+     */
+    void syncPosition() {
+        Vector2 position = hitbox.getPosition();
+        x = position.x;
+        y = position.y;
+    }
+
     @Override
     public float getX() {
-        // The x-coordinate of the player is the x-coordinate of the hitbox (this can change every frame).
-        return hitbox.getPosition().x;
+        // The x-coordinate of the hitbox after the last physics step
+        return x;
     }
 
     @Override
     public float getY() {
-        // The y-coordinate of the player is the y-coordinate of the hitbox (this can change every frame).
-        return hitbox.getPosition().y;
+        // The y-coordinate of the hitbox after the last physics step
+        return y;
     }
 
     /**
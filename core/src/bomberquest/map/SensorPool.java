@@ -0,0 +1,114 @@
+package bomberquest.map;
+
+import com.badlogic.gdx.physics.box2d.Body;
+import com.badlogic.gdx.physics.box2d.BodyDef;
+import com.badlogic.gdx.physics.box2d.FixtureDef;
+import com.badlogic.gdx.physics.box2d.PolygonShape;
+import com.badlogic.gdx.physics.box2d.World;
+
+import java.util.ArrayDeque;
+
+/**
+ * Hands out the small square sensor bodies of bombs, boosts and the exit, and takes them back to use them again.
+ * <p>
+ * Creating a body costs a native allocation and a round of JNI calls for its shape and fixture, which used to happen
+ * on every bomb placement. A released body is instead deactivated, so it takes no part in the simulation and ends its
+ * contacts, and kept for the next sensor, which only moves it with {@code setTransform} and activates it again.
+ * The bodies belong to the world and are freed together with it when the map is disposed.
+ * <p>
+ * Bodies can only be acquired and released while the world is not stepping.
+ */
+public class SensorPool {
+
+    /** Half the side of the square sensor, in tiles. */
+    private static final float HALF_SIZE = 0.4f;
+
+    /** The world the sensors live in. */
+    private final World world;
+
+    /** The shape of every sensor, kept for creating more of them and disposed with the pool. */
+    private final PolygonShape shape = new PolygonShape();
+
+    /** The fixture of every sensor. */
+    private final FixtureDef fixtureDef = new FixtureDef();
+
+    /** The inactive sensors waiting to be used again. */
+    private final ArrayDeque<Body> free = new ArrayDeque<>();
+
+    /**
+     * Constructs an empty pool for the given world.
+     *
+     * @param world the world the sensors live in.
+     */
+    public SensorPool(World world) {
+        this.world = world;
+        shape.setAsBox(HALF_SIZE, HALF_SIZE);
+        fixtureDef.shape = shape;
+        fixtureDef.isSensor = true;
+    }
+
+    /**
+     * Creates inactive sensors up front, so that the first ones acquired during play are not created then.
+     *
+     * @param count the number of free sensors the pool should hold at least.
+     */
+    public void prewarm(int count) {
+        while (free.size() < count) {
+            Body body = create();
+            body.setActive(false);
+            free.push(body);
+        }
+    }
+
+    /**
+     * Places a sensor on the map, reusing a released one if there is any.
+     *
+     * @param owner the object the sensor belongs to, which the contact listener finds as its user data.
+     * @param x     the x-coordinate of the sensor.
+     * @param y     the y-coordinate of the sensor.
+     * @return the active sensor.
+     */
+    public Body acquire(Object owner, float x, float y) {
+        Body body = free.poll();
+        if (body == null) {
+            body = create();
+        }
+        body.setTransform(x, y, 0);
+        body.setUserData(owner);
+        body.setActive(true);
+        return body;
+    }
+
+    /**
+     * Takes a sensor off the map and keeps it for later.
+     *
+     * @param body a sensor acquired from this pool; must not be used by its owner anymore.
+     */
+    public void release(Body body) {
+        body.setActive(false);
+        body.setUserData(null);
+        free.push(body);
+    }
+
+    /** Returns the number of released sensors waiting to be used again. */
+    public int getFreeCount() {
+        return free.size();
+    }
+
+    /** Creates a new sensor at the origin. */
+    private Body create() {
+        BodyDef bodyDef = new BodyDef();
+        bodyDef.type = BodyDef.BodyType.StaticBody;
+        Body body = world.createBody(bodyDef);
+        GameEvents.bodyCreated();
+        body.createFixture(fixtureDef);
+        return body;
+    }
+
+    /**
+     * Frees the shape shared by the sensors; the bodies themselves are freed with the world.
+     */
+    public void dispose() {
+        shape.dispose();
+    }
+}
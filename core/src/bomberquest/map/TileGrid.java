@@ -0,0 +1,338 @@
+package bomberquest.map;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Stores the static layout of the map: floor, walls and the items hidden under destructible walls.
+ * Every tile is packed into a single byte of one flat array, so a 1000x1000 map costs about 1 MB
+ * and lookups like {@link #isBlocked(int, int)} read contiguous memory instead of chasing objects.
+ * <p>
+ * Bit layout of a tile:
+ * <ul>
+ *     <li>bits 0-1: the tile type ({@link #FLOOR}, {@link #INDESTRUCTIBLE_WALL} or {@link #DESTRUCTIBLE_WALL})</li>
+ *     <li>bit 2: set while a destroyed wall is crumbling</li>
+ *     <li>bits 3-7: the id of the item hidden under the tile, {@link #ITEM_NONE} if there is none</li>
+ * </ul>
+ * Only walls that are currently crumbling get an entry in a small side table holding the time they were destroyed.
+ */
+public class TileGrid {
+
+    /** An empty tile the player and the ghosts can walk on. */
+    public static final int FLOOR = 0;
+    /** A wall that cannot be destroyed. */
+    public static final int INDESTRUCTIBLE_WALL = 1;
+    /** A wall that can be destroyed by a blast, possibly hiding an item. */
+    public static final int DESTRUCTIBLE_WALL = 2;
+
+    /** No item is hidden under the tile. */
+    public static final int ITEM_NONE = 0;
+    /** The exit is hidden under the tile. */
+    public static final int ITEM_EXIT = 1;
+    /** A bomb boost is hidden under the tile. */
+    public static final int ITEM_BOMB_BOOST = 2;
+    /** An explosion boost is hidden under the tile. */
+    public static final int ITEM_EXPLOSION_BOOST = 3;
+    /** A speed boost is hidden under the tile. */
+    public static final int ITEM_SPEED_BOOST = 4;
+    /** A ghost speed boost is hidden under the tile. */
+    public static final int ITEM_GHOST_SPEED_BOOST = 5;
+    /** The largest item id that fits into a tile. */
+    public static final int MAX_ITEM = 31;
+
+    /**
+     * The time it takes a destroyed wall to crumble, in seconds.
+     * This matches the six 0.1 second frames of the wall destruction animation.
+     */
+    public static final float WALL_DESTRUCTION_TIME = 0.6f;
+
+    /** The bits of a tile that hold its type. */
+    public static final int TYPE_MASK = 0b11;
+
+    /** The bit of a tile that is set while a destroyed wall is crumbling. */
+    public static final int CRUMBLING_BIT = 0b100;
+
+    private static final int ITEM_SHIFT = 3;
+
+    /** The bits of a tile everybody may see: its type and whether it is crumbling, but not the hidden item. */
+    public static final int VISIBLE_MASK = TYPE_MASK | CRUMBLING_BIT;
+
+    /** The width of the map in tiles. */
+    private final int width;
+
+    /** The height of the map in tiles. */
+    private final int height;
+
+    /** The packed tiles, row by row from the bottom of the map. */
+    private final byte[] tiles;
+
+    /** Indices of the walls that are currently crumbling. */
+    private int[] crumblingTiles = new int[16];
+
+    /** The time each crumbling wall was destroyed, on the clock of the map, parallel to {@link #crumblingTiles}. */
+    private float[] crumblingStarts = new float[16];
+
+    /** The number of walls that are currently crumbling. */
+    private int crumblingCount = 0;
+
+    /**
+     * The tiles whose visible bits changed since {@link #clearChangedTiles()} was last called, by tile index.
+     * A server sends only these tiles to its clients instead of the whole grid.
+     */
+    private final BitSet changedTiles = new BitSet();
+
+    /**
+     * Constructs a grid of the given size where every tile is floor.
+     *
+     * @param width  the width of the map in tiles.
+     * @param height the height of the map in tiles.
+     */
+    public TileGrid(int width, int height) {
+        this.width = width;
+        this.height = height;
+        this.tiles = new byte[width * height];
+    }
+
+    /**
+     * Returns the index of a tile in the flat array.
+     *
+     * @param x the x-coordinate of the tile.
+     * @param y the y-coordinate of the tile.
+     * @return the index of the tile.
+     */
+    public int index(int x, int y) {
+        return y * width + x;
+    }
+
+    /**
+     * Checks whether the given coordinates lie on the map.
+     *
+     * @param x the x-coordinate of the tile.
+     * @param y the y-coordinate of the tile.
+     * @return true if the tile exists, false otherwise.
+     */
+    public boolean isInBounds(int x, int y) {
+        return x >= 0 && y >= 0 && x < width && y < height;
+    }
+
+    /**
+     * Returns the type of a tile.
+     *
+     * @param x the x-coordinate of the tile.
+     * @param y the y-coordinate of the tile.
+     * @return {@link #FLOOR}, {@link #INDESTRUCTIBLE_WALL} or {@link #DESTRUCTIBLE_WALL}.
+     */
+    public int getType(int x, int y) {
+        return tiles[index(x, y)] & TYPE_MASK;
+    }
+
+    /**
+     * Sets the type of a tile, keeping the item hidden under it.
+     *
+     * @param x    the x-coordinate of the tile.
+     * @param y    the y-coordinate of the tile.
+     * @param type {@link #FLOOR}, {@link #INDESTRUCTIBLE_WALL} or {@link #DESTRUCTIBLE_WALL}.
+     */
+    public void setType(int x, int y, int type) {
+        int i = index(x, y);
+        tiles[i] = (byte) ((tiles[i] & ~(TYPE_MASK | CRUMBLING_BIT)) | type);
+        changedTiles.set(i);
+    }
+
+    /**
+     * Returns the id of the item hidden under a tile.
+     *
+     * @param x the x-coordinate of the tile.
+     * @param y the y-coordinate of the tile.
+     * @return the item id, or {@link #ITEM_NONE}.
+     */
+    public int getItem(int x, int y) {
+        return (tiles[index(x, y)] & 0xFF) >>> ITEM_SHIFT;
+    }
+
+    /**
+     * Hides an item under a tile.
+     *
+     * @param x    the x-coordinate of the tile.
+     * @param y    the y-coordinate of the tile.
+     * @param item the item id, between {@link #ITEM_NONE} and {@link #MAX_ITEM}.
+     */
+    public void setItem(int x, int y, int item) {
+        if (item < ITEM_NONE || item > MAX_ITEM) {
+            throw new IllegalArgumentException("Item id out of range: " + item);
+        }
+        int i = index(x, y);
+        tiles[i] = (byte) ((tiles[i] & (TYPE_MASK | CRUMBLING_BIT)) | (item << ITEM_SHIFT));
+    }
+
+    /**
+     * Checks whether the wall on a tile has been destroyed and is still crumbling.
+     *
+     * @param x the x-coordinate of the tile.
+     * @param y the y-coordinate of the tile.
+     * @return true if the wall is crumbling, false otherwise.
+     */
+    public boolean isCrumbling(int x, int y) {
+        return (tiles[index(x, y)] & CRUMBLING_BIT) != 0;
+    }
+
+    /**
+     * Determines if a tile is blocked.
+     * A tile is blocked if it lies outside the map or holds an indestructible wall.
+     *
+     * @param x the x-coordinate of the tile.
+     * @param y the y-coordinate of the tile.
+     * @return true if the tile is blocked, false otherwise.
+     */
+    public boolean isBlocked(int x, int y) {
+        return !isInBounds(x, y) || getType(x, y) == INDESTRUCTIBLE_WALL;
+    }
+
+    /**
+     * Starts destroying the destructible wall on a tile.
+     * The wall keeps its type while it crumbles, until {@link #finishCrumbling} turns it into floor once
+     * {@link #WALL_DESTRUCTION_TIME} has passed.
+     *
+     * @param x    the x-coordinate of the tile.
+     * @param y    the y-coordinate of the tile.
+     * @param time the current time on the clock of the map, in seconds, for the destruction animation.
+     * @return true if an intact destructible wall was hit, false if there was nothing to destroy.
+     */
+    public boolean destroyWall(int x, int y, float time) {
+        int i = index(x, y);
+        if ((tiles[i] & TYPE_MASK) != DESTRUCTIBLE_WALL || (tiles[i] & CRUMBLING_BIT) != 0) {
+            return false;
+        }
+        tiles[i] |= CRUMBLING_BIT;
+        changedTiles.set(i);
+
+        if (crumblingCount == crumblingTiles.length) {
+            crumblingTiles = Arrays.copyOf(crumblingTiles, crumblingCount * 2);
+            crumblingStarts = Arrays.copyOf(crumblingStarts, crumblingCount * 2);
+        }
+        crumblingTiles[crumblingCount] = i;
+        crumblingStarts[crumblingCount] = time;
+        crumblingCount++;
+        return true;
+    }
+
+    /**
+     * Turns a wall that has finished crumbling into floor.
+     * Does nothing if the wall on the tile is not crumbling, e.g. because the tiles have been restored since.
+     *
+     * @param x the x-coordinate of the tile.
+     * @param y the y-coordinate of the tile.
+     */
+    public void finishCrumbling(int x, int y) {
+        int i = index(x, y);
+        for (int c = 0; c < crumblingCount; c++) {
+            if (crumblingTiles[c] == i) {
+                tiles[i] = FLOOR; // The item has been revealed, so nothing is left under the tile
+                changedTiles.set(i);
+                crumblingCount--;
+                crumblingTiles[c] = crumblingTiles[crumblingCount];
+                crumblingStarts[c] = crumblingStarts[crumblingCount];
+                return;
+            }
+        }
+    }
+
+    /**
+     * Returns a copy of the packed tiles, e.g. to restore the layout later.
+     *
+     * @return a copy of the tiles, row by row from the bottom of the map.
+     */
+    public byte[] copyTiles() {
+        return tiles.clone();
+    }
+
+    /**
+     * Writes the packed tiles straight from the backing array, without copying them first.
+     *
+     * @param buffer the buffer to write to, with at least width * height bytes remaining.
+     */
+    public void writeTiles(ByteBuffer buffer) {
+        buffer.put(tiles);
+    }
+
+    /**
+     * Overwrites every tile with tiles written by {@link #writeTiles(ByteBuffer)} and drops all crumbling walls.
+     *
+     * @param buffer the buffer to read from, with at least width * height bytes remaining.
+     */
+    public void readTiles(ByteBuffer buffer) {
+        buffer.get(tiles);
+        crumblingCount = 0;
+        changedTiles.set(0, tiles.length);
+    }
+
+    /**
+     * Overwrites every tile with a copy taken by {@link #copyTiles()} and drops all crumbling walls.
+     *
+     * @param source the tiles to restore; must have been taken from a grid of the same size.
+     */
+    public void restoreTiles(byte[] source) {
+        if (source.length != tiles.length) {
+            throw new IllegalArgumentException("Expected " + tiles.length + " tiles but got " + source.length);
+        }
+        System.arraycopy(source, 0, tiles, 0, tiles.length);
+        crumblingCount = 0;
+        changedTiles.set(0, tiles.length);
+    }
+
+    /**
+     * Returns the visible bits of a tile, masked with {@link #VISIBLE_MASK}, so the hidden item is not given away.
+     *
+     * @param index the index of the tile.
+     * @return the type of the tile, with the crumbling bit set while a destroyed wall is crumbling.
+     */
+    public int getVisibleBits(int index) {
+        return tiles[index] & VISIBLE_MASK;
+    }
+
+    /**
+     * Returns the tiles whose visible bits changed since {@link #clearChangedTiles()} was last called.
+     * The set is owned by the grid and must not be modified.
+     *
+     * @return the indices of the changed tiles.
+     */
+    public BitSet getChangedTiles() {
+        return changedTiles;
+    }
+
+    /** Forgets the changed tiles, e.g. once they have been sent. */
+    public void clearChangedTiles() {
+        changedTiles.clear();
+    }
+
+    /** Returns the number of walls that are currently crumbling. */
+    public int getCrumblingCount() {
+        return crumblingCount;
+    }
+
+    /** Returns the x-coordinate of the crumbling wall at the given position of the side table. */
+    public int getCrumblingX(int c) {
+        return crumblingTiles[c] % width;
+    }
+
+    /** Returns the y-coordinate of the crumbling wall at the given position of the side table. */
+    public int getCrumblingY(int c) {
+        return crumblingTiles[c] / width;
+    }
+
+    /** Returns the time the crumbling wall at the given position of the side table was destroyed, on the clock of the map. */
+    public float getCrumblingStart(int c) {
+        return crumblingStarts[c];
+    }
+
+    /** Returns the width of the map in tiles. */
+    public int getWidth() {
+        return width;
+    }
+
+    /** Returns the height of the map in tiles. */
+    public int getHeight() {
+        return height;
+    }
+}
@@ -0,0 +1,230 @@
+package bomberquest.map;
+
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.physics.box2d.*;
+import com.badlogic.gdx.utils.IntMap;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Splits the map into square chunks of {@link #CHUNK_SIZE} tiles and creates Box2D bodies for walls
+ * only in the chunks around the player and the ghosts.
+ * Chunks nobody is near keep nothing but their bytes in the {@link TileGrid}, so huge maps neither
+ * allocate a body for every wall nor stall while creating them all up front.
+ * <p>
+ * Every tick, entities {@link #require require} the chunks around them, and {@link #update()} then
+ * materializes newly required chunks and releases chunks that have not been required for a while.
+ */
+public class WallChunks {
+
+    /** The width and height of a chunk, in tiles. */
+    public static final int CHUNK_SIZE = 32;
+
+    /** How many chunks around an entity are materialized in each direction. */
+    private static final int LOAD_RADIUS = 1;
+
+    /** How many updates a chunk stays materialized after nobody requires it, so that chunks on a boundary do not flicker. */
+    private static final int UNLOAD_DELAY = 120;
+
+    /** The Box2D world the wall bodies are created in. */
+    private final World world;
+
+    /** The layout the wall bodies are created from. */
+    private final TileGrid tileGrid;
+
+    /** The number of chunks along the x-axis. */
+    private final int chunksX;
+
+    /** The number of chunks along the y-axis. */
+    private final int chunksY;
+
+    /** The wall bodies of each materialized chunk; null for chunks that are not materialized. */
+    private final List<Body>[] chunkBodies;
+
+    /** The bodies of the intact destructible walls in materialized chunks, keyed by tile index. */
+    private final IntMap<Body> destructibleBodies = new IntMap<>();
+
+    /** The chunks required since the last update. */
+    private final BitSet required = new BitSet();
+
+    /** The chunks that are currently materialized. */
+    private final BitSet loaded = new BitSet();
+
+    /** The number of updates each materialized chunk has not been required for. */
+    private final int[] idleUpdates;
+
+    /**
+     * Constructs the chunks for the given layout. No bodies are created until chunks are required.
+     *
+     * @param world    the Box2D world to create the wall bodies in.
+     * @param tileGrid the layout of the map.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public WallChunks(World world, TileGrid tileGrid) {
+        this.world = world;
+        this.tileGrid = tileGrid;
+        this.chunksX = (tileGrid.getWidth() + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        this.chunksY = (tileGrid.getHeight() + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        this.chunkBodies = new List[chunksX * chunksY];
+        this.idleUpdates = new int[chunksX * chunksY];
+    }
+
+    /**
+     * Requires the chunks around a position to be materialized at the next update.
+     *
+     * @param x the x-coordinate in tiles.
+     * @param y the y-coordinate in tiles.
+     */
+    public void require(float x, float y) {
+        int chunkX = Math.floorDiv(Math.round(x), CHUNK_SIZE);
+        int chunkY = Math.floorDiv(Math.round(y), CHUNK_SIZE);
+        for (int cy = Math.max(0, chunkY - LOAD_RADIUS); cy <= Math.min(chunksY - 1, chunkY + LOAD_RADIUS); cy++) {
+            for (int cx = Math.max(0, chunkX - LOAD_RADIUS); cx <= Math.min(chunksX - 1, chunkX + LOAD_RADIUS); cx++) {
+                required.set(cy * chunksX + cx);
+            }
+        }
+    }
+
+    /**
+     * Materializes the chunks required since the last update and releases those that have been idle for too long.
+     * Must not be called while the world is stepping.
+     */
+    public void update() {
+        for (int chunk = required.nextSetBit(0); chunk >= 0; chunk = required.nextSetBit(chunk + 1)) {
+            idleUpdates[chunk] = 0;
+            if (!loaded.get(chunk)) {
+                load(chunk);
+            }
+        }
+        for (int chunk = loaded.nextSetBit(0); chunk >= 0; chunk = loaded.nextSetBit(chunk + 1)) {
+            if (!required.get(chunk) && ++idleUpdates[chunk] > UNLOAD_DELAY) {
+                unload(chunk);
+            }
+        }
+        required.clear();
+    }
+
+    /**
+     * Removes the body of the destructible wall on a tile, if its chunk is materialized.
+     *
+     * @param x the x-coordinate of the tile.
+     * @param y the y-coordinate of the tile.
+     */
+    public void removeWall(int x, int y) {
+        Body body = destructibleBodies.remove(tileGrid.index(x, y));
+        if (body != null) {
+            chunkBodies[chunkOf(x, y)].remove(body);
+            world.destroyBody(body);
+            GameEvents.bodiesDestroyed(1);
+        }
+    }
+
+    /**
+     * Creates the bodies that are missing for intact destructible walls in materialized chunks.
+     * Walls are only ever removed during play, so after the tile grid has been restored to an earlier
+     * layout this brings the bodies back in line without touching the ones that are still there.
+     */
+    public void resync() {
+        for (int chunk = loaded.nextSetBit(0); chunk >= 0; chunk = loaded.nextSetBit(chunk + 1)) {
+            int startX = (chunk % chunksX) * CHUNK_SIZE;
+            int startY = (chunk / chunksX) * CHUNK_SIZE;
+            int endX = Math.min(startX + CHUNK_SIZE, tileGrid.getWidth());
+            int endY = Math.min(startY + CHUNK_SIZE, tileGrid.getHeight());
+            for (int y = startY; y < endY; y++) {
+                for (int x = startX; x < endX; x++) {
+                    int index = tileGrid.index(x, y);
+                    if (tileGrid.getType(x, y) == TileGrid.DESTRUCTIBLE_WALL && !tileGrid.isCrumbling(x, y)
+                            && !destructibleBodies.containsKey(index)) {
+                        Body body = createWallBody(x, y);
+                        chunkBodies[chunk].add(body);
+                        destructibleBodies.put(index, body);
+                    }
+                }
+            }
+        }
+    }
+
+    /** Releases every materialized chunk. */
+    public void unloadAll() {
+        for (int chunk = loaded.nextSetBit(0); chunk >= 0; chunk = loaded.nextSetBit(chunk + 1)) {
+            unload(chunk);
+        }
+    }
+
+    /** Returns the number of chunks that currently have their wall bodies created. */
+    public int getLoadedChunkCount() {
+        return loaded.cardinality();
+    }
+
+    /** Creates the bodies of the standing walls in a chunk. */
+    private void load(int chunk) {
+        int startX = (chunk % chunksX) * CHUNK_SIZE;
+        int startY = (chunk / chunksX) * CHUNK_SIZE;
+        int endX = Math.min(startX + CHUNK_SIZE, tileGrid.getWidth());
+        int endY = Math.min(startY + CHUNK_SIZE, tileGrid.getHeight());
+
+        List<Body> bodies = new ArrayList<>();
+        for (int y = startY; y < endY; y++) {
+            for (int x = startX; x < endX; x++) {
+                int type = tileGrid.getType(x, y);
+                if (type == TileGrid.FLOOR || tileGrid.isCrumbling(x, y)) {
+                    continue;
+                }
+                Body body = createWallBody(x, y);
+                bodies.add(body);
+                if (type == TileGrid.DESTRUCTIBLE_WALL) {
+                    destructibleBodies.put(tileGrid.index(x, y), body);
+                }
+            }
+        }
+        chunkBodies[chunk] = bodies;
+        loaded.set(chunk);
+    }
+
+    /** Destroys the bodies of a chunk; its walls live on in the tile grid. */
+    private void unload(int chunk) {
+        for (Body body : chunkBodies[chunk]) {
+            Vector2 position = body.getPosition();
+            destructibleBodies.remove(tileGrid.index(Math.round(position.x), Math.round(position.y)));
+            world.destroyBody(body);
+            GameEvents.bodiesDestroyed(1);
+        }
+        chunkBodies[chunk] = null;
+        loaded.clear(chunk);
+        idleUpdates[chunk] = 0;
+    }
+
+    /** Returns the chunk a tile belongs to. */
+    private int chunkOf(int x, int y) {
+        return (y / CHUNK_SIZE) * chunksX + (x / CHUNK_SIZE);
+    }
+
+    /**
+     * Creates the Box2D hitbox of the wall on a tile.
+     *
+     * @param x the x-coordinate of the tile.
+     * @param y the y-coordinate of the tile.
+     * @return the created body.
+     */
+    private Body createWallBody(int x, int y) {
+        BodyDef bodyDef = new BodyDef();
+        bodyDef.type = BodyDef.BodyType.StaticBody;
+        bodyDef.position.set(x, y);
+
+        Body body = world.createBody(bodyDef);
+        GameEvents.bodyCreated();
+
+        PolygonShape shape = new PolygonShape();
+        shape.setAsBox(0.5f, 0.5f); // Creates a square hitbox (1x1 tiles)
+
+        FixtureDef fixtureDef = new FixtureDef();
+        fixtureDef.shape = shape;
+        body.createFixture(fixtureDef);
+        shape.dispose();
+
+        body.setUserData(tileGrid); // Walls are identified by the tile grid in collision handling
+        return body;
+    }
+}
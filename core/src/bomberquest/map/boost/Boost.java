@@ -1,7 +1,7 @@
 package bomberquest.map.boost;
 
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
-import com.badlogic.gdx.physics.box2d.*;
+import com.badlogic.gdx.physics.box2d.Body;
 import bomberquest.map.GameMap;
 import bomberquest.map.Player;
 import bomberquest.texture.Drawable;
@@ -10,9 +10,9 @@ import bomberquest.texture.Drawable;
 /**
  * Represents a power-up item in the game.
  * Boosts are hidden beneath destructible walls and can be revealed and collected by the player.
- * Subclasses define the specific behavior of each type of boost.
+ * What a boost does is described by its {@link BoostType} from the {@link BoostRegistry}.
  */
-public abstract class Boost implements Drawable {
+public class Boost implements Drawable {
 
     /** The Box2D body representing the physical presence of the boost in the game world. */
     private Body hitbox;
@@ -21,15 +21,19 @@ public abstract class Boost implements Drawable {
     private boolean destroyed = false;
 
     /** The game map where the boost exists. */
-    GameMap gameMap;
+    private final GameMap gameMap;
+
+    /** The kind of boost. */
+    private final BoostType type;
 
     /** The player who can collect and activate the boost. */
-    Player player;
-    /** The Box2D world where the boost resides. */
-    World world;
+    private Player player;
+
+    /** The x-coordinate of the boost; boosts never move. */
+    private final float x;
 
-    /** The texture representing the visual appearance of the boost. */
-    TextureRegion textures;
+    /** The y-coordinate of the boost; boosts never move. */
+    private final float y;
 
     /** Indicates whether the boost is currently hidden (unrevealed). */
     private boolean hidden = true;
@@ -38,51 +42,22 @@ public abstract class Boost implements Drawable {
     /**
      * Constructs a new Boost object at the specified location.
      *
-     * @param world   the Box2D world where the boost resides.
      * @param gameMap the game map containing the boost.
+     * @param type    the kind of boost.
      * @param player  the player who can collect the boost.
      * @param x       the x-coordinate of the boost.
      * @param y       the y-coordinate of the boost.
      */
-    public Boost(World world, GameMap gameMap, Player player, float x, float y) {
-        this.world = world;
-        this.hitbox = createHitbox(world, x, y);
+    public Boost(GameMap gameMap, BoostType type, Player player, float x, float y) {
         this.gameMap = gameMap;
+        this.type = type;
+        this.hitbox = gameMap.getSensorPool().acquire(this, x, y);
+        this.x = x;
+        this.y = y;
         this.player = player;
     }
 
 
-    /**
-     * Creates a Box2D hitbox for the boost at the specified position.
-     *
-     * @param world   the Box2D world to create the hitbox in.
-     * @param startX  the x-coordinate of the hitbox.
-     * @param startY  the y-coordinate of the hitbox.
-     * @return the created Box2D body.
-     */
-    private Body createHitbox(World world, float startX, float startY) {
-        if (destroyed) return null;
-
-        BodyDef bodyDef = new BodyDef();
-        bodyDef.type = BodyDef.BodyType.StaticBody;
-        bodyDef.position.set(startX, startY);
-
-        Body body = world.createBody(bodyDef);
-
-        PolygonShape squareShape = new PolygonShape();
-        squareShape.setAsBox(0.4f, 0.4f);
-
-        FixtureDef fixtureDef = new FixtureDef();
-        fixtureDef.shape = squareShape;
-        fixtureDef.isSensor = true;
-
-        body.createFixture(fixtureDef);
-        squareShape.dispose();
-        body.setUserData(this);
-
-        return body;
-    }
-
     /**
      * Reveals the boost(power-up), making it visible and collectable.
      */
@@ -93,24 +68,25 @@ public abstract class Boost implements Drawable {
 
     /**
      * Destroys the boost, removing it from the game world.
-     * This deactivates the boost and removes its hitbox.
+     * This deactivates the boost and returns its hitbox to the map's sensor pool.
      */
     public void destroy() {
         if (!destroyed) {
             destroyed = true;
 
             if (hitbox != null) {
-                world.destroyBody(hitbox);
+                gameMap.getSensorPool().release(hitbox);
                 hitbox = null;
             }
         }
     }
 
     /**
-     * Activates the boost, applying its effect to the player.
-     * Subclasses must implement this method to define specific behavior.
+     * Activates the boost, applying its effect to the player who collected it, or to the ghosts.
      */
-    public abstract void activate();
+    public void activate() {
+        gameMap.getBoostEffects().apply(type, player);
+    }
 
     /**
      * Returns the current visual appearance of the boost.
@@ -123,7 +99,12 @@ public abstract class Boost implements Drawable {
         if (destroyed||hidden) {
             return null;
         }
-        return textures;
+        return type.getTexture(); // Only looked up when drawn, so boosts can exist on a headless server
+    }
+
+    /** Returns the kind of boost. */
+    public BoostType getType() {
+        return type;
     }
 
 
@@ -143,7 +124,7 @@ public abstract class Boost implements Drawable {
      */
     @Override
     public float getX() {
-        return hitbox.getPosition().x;
+        return x;
     }
 
     /**
@@ -153,7 +134,7 @@ public abstract class Boost implements Drawable {
      */
     @Override
     public float getY() {
-        return hitbox.getPosition().y;
+        return y;
     }
 
     /**
@@ -0,0 +1,30 @@
+package bomberquest.map.boost;
+
+/**
+ * What a boost changes when it is collected, as named by the {@code effect} of a boost type in the registry.
+ * The amount of a boost type is added to a stat of the player who collects it, or multiplies the speed of every ghost.
+ */
+public enum BoostEffect {
+
+    /** Adds to the number of bombs the player can have placed at once. */
+    BOMB_LIMIT,
+
+    /** Adds to the blast radius of the player's bombs, in tiles. */
+    BLAST_RADIUS,
+
+    /** Adds to the movement speed of the player. */
+    PLAYER_SPEED,
+
+    /** Multiplies the movement speed of every ghost on the map. */
+    GHOST_SPEED;
+
+    /** Returns whether the effect changes the ghosts rather than the player who collects the boost. */
+    public boolean affectsGhosts() {
+        return this == GHOST_SPEED;
+    }
+
+    /** Returns whether the amount multiplies the current value instead of being added to it. */
+    public boolean multiplies() {
+        return this == GHOST_SPEED;
+    }
+}
@@ -0,0 +1,306 @@
+package bomberquest.map.boost;
+
+import bomberquest.map.GameMap;
+import bomberquest.map.Ghost;
+import bomberquest.map.Player;
+import bomberquest.map.event.GameEventType;
+import bomberquest.map.system.TimerWheel;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Applies the effects of collected boosts to the players and ghosts of a map, and takes timed effects back when they
+ * run out.
+ * <p>
+ * A timed effect remembers how much it changed each of its targets, so taking it back undoes exactly that change even
+ * if a cap cut it short or other effects changed the same value meanwhile. Running out is scheduled on the map's
+ * {@link TimerWheel}, so a running effect costs nothing per tick. Effects whose boost type does not stack are kept by
+ * kind and target, to refresh or ignore a second boost of the same kind.
+ * <p>
+ * A saved game holds the stats with the running effects in them, so the running effects are saved as well, with their
+ * remaining time and changes, and end on time after loading.
+ */
+public class BoostEffects {
+
+    /** The bytes of an effect record: item id, player, remaining time and the number of targets. */
+    private static final int EFFECT_BYTES = 1 + 1 + 4 + 4;
+
+    /** The bytes of a target of an effect record: ghost index and change. */
+    private static final int TARGET_BYTES = 4 + 4;
+
+    /** The map whose players and ghosts are changed. */
+    private final GameMap gameMap;
+
+    /** The wheel that ends the timed effects. */
+    private final TimerWheel timerWheel;
+
+    /** The running timed effects of boost types that do not stack, by {@link #keyOf}. */
+    private final Map<String, Effect> running = new HashMap<>();
+
+    /** Every running timed effect, in the order they were collected. */
+    private final List<Effect> timed = new ArrayList<>();
+
+    /**
+     * Constructs the effects of a map.
+     *
+     * @param gameMap    the map whose players and ghosts are changed.
+     * @param timerWheel the wheel that ends the timed effects.
+     */
+    public BoostEffects(GameMap gameMap, TimerWheel timerWheel) {
+        this.gameMap = gameMap;
+        this.timerWheel = timerWheel;
+    }
+
+    /**
+     * Applies the effect of a collected boost.
+     *
+     * @param type   the kind of boost.
+     * @param player the player who collected it.
+     */
+    public void apply(BoostType type, Player player) {
+        if (type.getDuration() <= 0) {
+            new Effect(type, player, null).apply();
+            return;
+        }
+
+        String key = keyOf(type, player);
+        Effect effect = running.get(key);
+        if (effect != null) {
+            switch (type.getStacking()) {
+                case REFRESH:
+                    timerWheel.cancel(effect.timer);
+                    effect.timer = timerWheel.schedule(type.getDuration(), effect::expire);
+                    return;
+                case IGNORE:
+                    return;
+                default:
+                    break;
+            }
+        }
+
+        effect = new Effect(type, player, key);
+        effect.apply();
+        start(effect, type.getDuration());
+    }
+
+    /** Schedules the end of an applied timed effect and keeps it while it runs. */
+    private void start(Effect effect, float duration) {
+        effect.timer = timerWheel.schedule(duration, effect::expire);
+        timed.add(effect);
+        if (effect.type.getStacking() != BoostType.Stacking.STACK) {
+            running.put(effect.key, effect);
+        }
+    }
+
+    /**
+     * Forgets every running effect without taking it back, e.g. when the level is restarted and the players and
+     * ghosts get their starting stats anyway. The timers are dropped together with the rest of the map's wheel.
+     */
+    public void clear() {
+        running.clear();
+        timed.clear();
+    }
+
+    /**
+     * Returns the number of bytes {@link #write} needs for the running effects.
+     *
+     * @return the size of the effects in bytes.
+     */
+    public int sizeOf() {
+        int size = 4;
+        for (Effect effect : timed) {
+            size += EFFECT_BYTES + effect.savedTargetCount() * TARGET_BYTES;
+        }
+        return size;
+    }
+
+    /**
+     * Writes the running timed effects: the item id of their boost type, the player, the remaining time and the change
+     * made to each target. Ghosts are identified by their index among the ghosts that are not destroyed, which is the
+     * order the map saves them in; destroyed ghosts are left out.
+     *
+     * @param buffer the buffer to write to, with at least {@link #sizeOf} bytes remaining.
+     */
+    public void write(ByteBuffer buffer) {
+        Map<Ghost, Integer> ghostIndices = new IdentityHashMap<>();
+        for (Ghost ghost : gameMap.getGhosts()) {
+            if (!ghost.isDestroyed()) {
+                ghostIndices.put(ghost, ghostIndices.size());
+            }
+        }
+
+        buffer.putInt(timed.size());
+        for (Effect effect : timed) {
+            buffer.put((byte) effect.type.getItem());
+            buffer.put((byte) gameMap.indexOf(effect.player));
+            buffer.putFloat(timerWheel.getRemaining(effect.timer));
+            buffer.putInt(effect.savedTargetCount());
+            for (int i = 0; i < effect.deltas.length; i++) {
+                if (effect.ghosts == null) {
+                    buffer.putInt(0);
+                    buffer.putFloat(effect.deltas[i]);
+                } else if (!effect.ghosts[i].isDestroyed()) {
+                    buffer.putInt(ghostIndices.get(effect.ghosts[i]));
+                    buffer.putFloat(effect.deltas[i]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Restores the effects written by {@link #write} onto a loaded map whose players and ghosts already have the saved
+     * stats, which include the changes; the effects are only scheduled to end, not applied again.
+     * Effects of boost types the registry no longer knows are dropped and keep their change.
+     *
+     * @param buffer the buffer to read from.
+     */
+    public void read(ByteBuffer buffer) {
+        List<Ghost> ghosts = gameMap.getGhosts();
+        int count = buffer.getInt();
+        for (int e = 0; e < count; e++) {
+            BoostType type = gameMap.getBoostRegistry().forItem(buffer.get());
+            Player player = gameMap.getPlayers()[buffer.get()];
+            float remaining = buffer.getFloat();
+            int targets = buffer.getInt();
+            Effect effect = type == null ? null : new Effect(type, player, keyOf(type, player));
+            if (effect != null) {
+                effect.ghosts = type.getEffect().affectsGhosts() ? new Ghost[targets] : null;
+                effect.deltas = new float[targets];
+            }
+            for (int i = 0; i < targets; i++) {
+                int ghost = buffer.getInt();
+                float delta = buffer.getFloat();
+                if (effect != null) {
+                    if (effect.ghosts != null) {
+                        effect.ghosts[i] = ghosts.get(ghost);
+                    }
+                    effect.deltas[i] = delta;
+                }
+            }
+            if (effect != null) {
+                start(effect, remaining);
+            }
+        }
+    }
+
+    /** Returns the key of the effects of a boost type on the target of a player's boost. */
+    private String keyOf(BoostType type, Player player) {
+        return type.getEffect().affectsGhosts() ? type.getName() : type.getName() + "@" + gameMap.indexOf(player);
+    }
+
+    /**
+     * The change one boost made to its targets.
+     */
+    private class Effect {
+
+        /** The kind of boost. */
+        private final BoostType type;
+
+        /** The player the effect applies to, and whose boost it was for ghost effects. */
+        private final Player player;
+
+        /** The key in {@link #running}, or null if the effect is not kept there. */
+        private final String key;
+
+        /** The ghosts a ghost effect changed, parallel to {@link #deltas}; null for player effects. */
+        private Ghost[] ghosts;
+
+        /** How much the effect changed the value of each target. */
+        private float[] deltas;
+
+        /** The timer that ends the effect, or null if it is permanent. */
+        private TimerWheel.Timer timer;
+
+        Effect(BoostType type, Player player, String key) {
+            this.type = type;
+            this.player = player;
+            this.key = key;
+        }
+
+        /** Changes the targets and remembers by how much. */
+        void apply() {
+            BoostEffect effect = type.getEffect();
+            if (effect.affectsGhosts()) {
+                // The ghosts on the map when the boost is collected, not when it was created
+                List<Ghost> live = gameMap.getGhosts();
+                ghosts = live.toArray(new Ghost[0]);
+                deltas = new float[ghosts.length];
+                for (int i = 0; i < ghosts.length; i++) {
+                    float speed = ghosts[i].getSpeed();
+                    float changed = type.apply(speed);
+                    ghosts[i].setSpeed(changed);
+                    deltas[i] = changed - speed;
+                }
+            } else {
+                float value = read(effect);
+                float changed = type.apply(value);
+                write(effect, changed);
+                deltas = new float[]{read(effect) - value}; // What was stored, after rounding
+            }
+        }
+
+        /** Returns the number of targets {@link #write} saves: every changed ghost that is not destroyed, or the player. */
+        int savedTargetCount() {
+            if (ghosts == null) {
+                return deltas.length;
+            }
+            int count = 0;
+            for (Ghost ghost : ghosts) {
+                if (!ghost.isDestroyed()) {
+                    count++;
+                }
+            }
+            return count;
+        }
+
+        /** Takes the change back once the effect runs out. */
+        void expire() {
+            if (key != null) {
+                running.remove(key);
+            }
+            timed.remove(this);
+            BoostEffect effect = type.getEffect();
+            if (effect.affectsGhosts()) {
+                for (int i = 0; i < ghosts.length; i++) {
+                    ghosts[i].setSpeed(ghosts[i].getSpeed() - deltas[i]);
+                }
+            } else {
+                write(effect, read(effect) - deltas[0]);
+            }
+            gameMap.getEventBus().publish(GameEventType.BOOST_EXPIRED, gameMap.indexOf(player),
+                    Math.round(player.getX()), Math.round(player.getY()));
+        }
+
+        /** Reads the player's stat the effect changes. */
+        private float read(BoostEffect effect) {
+            switch (effect) {
+                case BOMB_LIMIT:
+                    return player.getMAX_ACTIVEBOMBS();
+                case BLAST_RADIUS:
+                    return player.getBlastRadius();
+                default:
+                    return player.getSpeed();
+            }
+        }
+
+        /** Sets the player's stat the effect changes; bomb limit and blast radius are rounded to whole numbers. */
+        private void write(BoostEffect effect, float value) {
+            switch (effect) {
+                case BOMB_LIMIT:
+                    player.setMAX_ACTIVEBOMBS(Math.round(value));
+                    break;
+                case BLAST_RADIUS:
+                    player.setBlastRadius(Math.round(value));
+                    break;
+                default:
+                    player.setSpeed(value);
+                    break;
+            }
+        }
+    }
+}
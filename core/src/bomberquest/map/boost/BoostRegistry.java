@@ -0,0 +1,204 @@
+package bomberquest.map.boost;
+
+import bomberquest.map.TileGrid;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+import java.util.Random;
+import java.util.TreeSet;
+
+/**
+ * The kinds of boosts in the game, read from a data file, so that boosts can be tuned and added without code.
+ * <p>
+ * The file is a properties file with the number of boosts hidden in a generated map as {@code boosts.perMap}, and
+ * for every boost type {@code boost.NAME.KEY} entries:
+ * <ul>
+ *     <li>{@code item}: the item id it is hidden under walls with, from {@value TileGrid#ITEM_BOMB_BOOST} to
+ *     {@value TileGrid#MAX_ITEM}; map files and saves refer to boosts by it</li>
+ *     <li>{@code effect}: one of {@link BoostEffect}</li>
+ *     <li>{@code amount}: added to the player's stat, or multiplied with the ghosts' speed</li>
+ *     <li>{@code cap}: the value the effect stops at; optional</li>
+ *     <li>{@code duration}: how long the effect lasts in seconds; 0 or missing for a permanent effect</li>
+ *     <li>{@code stacking}: one of {@link BoostType.Stacking} for timed effects; {@code STACK} if missing</li>
+ *     <li>{@code weight}: the relative chance of spawning in a generated map; 0 or missing for never</li>
+ *     <li>{@code sprite}: the row and column of its sprite on the original Bomberman sheet, e.g. {@code 15,1}</li>
+ * </ul>
+ * The game reads {@code boosts.properties} from the classpath, or the file given with {@code -Dbomberquest.boosts}.
+ */
+public final class BoostRegistry {
+
+    /** The boost types by item id; null where an id has no boost. */
+    private final BoostType[] byItem = new BoostType[TileGrid.MAX_ITEM + 1];
+
+    /** The boost types in the order of their item ids. */
+    private final List<BoostType> types = new ArrayList<>();
+
+    /** The sum of the spawn weights. */
+    private final int totalWeight;
+
+    /** The number of boosts hidden under the walls of a generated map. */
+    private final int boostsPerMap;
+
+    /** The registry of the game, loaded on first use. */
+    private static BoostRegistry defaultRegistry;
+
+    /**
+     * Builds a registry from the contents of a data file.
+     *
+     * @param properties the entries of the file.
+     * @throws IllegalArgumentException if an entry is missing or malformed.
+     */
+    public BoostRegistry(Properties properties) {
+        this.boostsPerMap = parseInt(properties, "boosts.perMap", "0");
+
+        TreeSet<String> names = new TreeSet<>();
+        for (String key : properties.stringPropertyNames()) {
+            String[] parts = key.split("\\.");
+            if (parts.length == 3 && parts[0].equals("boost")) {
+                names.add(parts[1]);
+            }
+        }
+
+        int weights = 0;
+        for (String name : names) {
+            String prefix = "boost." + name + ".";
+            int item = parseInt(properties, prefix + "item", null);
+            if (item < TileGrid.ITEM_BOMB_BOOST || item > TileGrid.MAX_ITEM) {
+                throw new IllegalArgumentException("Item id of boost " + name + " out of range: " + item);
+            }
+            if (byItem[item] != null) {
+                throw new IllegalArgumentException(
+                        "Boosts " + byItem[item].getName() + " and " + name + " share item " + item);
+            }
+            BoostEffect effect = parseEnum(BoostEffect.class, properties, prefix + "effect", null);
+            float amount = parseFloat(properties, prefix + "amount", null);
+            float cap = parseFloat(properties, prefix + "cap", "NaN");
+            float duration = parseFloat(properties, prefix + "duration", "0");
+            BoostType.Stacking stacking = parseEnum(BoostType.Stacking.class, properties, prefix + "stacking", "STACK");
+            int weight = parseInt(properties, prefix + "weight", "0");
+            String[] sprite = require(properties, prefix + "sprite", null).split(",");
+            if (sprite.length != 2 || duration < 0 || weight < 0) {
+                throw new IllegalArgumentException("Malformed boost " + name);
+            }
+            BoostType type = new BoostType(name, item, effect, amount, cap, duration, stacking, weight,
+                    Integer.parseInt(sprite[0].trim()), Integer.parseInt(sprite[1].trim()));
+            byItem[item] = type;
+            weights += weight;
+        }
+        for (BoostType type : byItem) {
+            if (type != null) {
+                types.add(type);
+            }
+        }
+        this.totalWeight = weights;
+    }
+
+    /**
+     * Returns the registry of the game, reading it on first use.
+     *
+     * @throws IllegalStateException if the data file cannot be read or is malformed.
+     */
+    public static synchronized BoostRegistry getDefault() {
+        if (defaultRegistry == null) {
+            String file = System.getProperty("bomberquest.boosts");
+            Properties properties = new Properties();
+            try (InputStream in = file != null
+                    ? Files.newInputStream(Paths.get(file))
+                    : BoostRegistry.class.getResourceAsStream("/boosts.properties")) {
+                if (in == null) {
+                    throw new IllegalStateException("boosts.properties is missing from the classpath");
+                }
+                properties.load(in);
+                defaultRegistry = new BoostRegistry(properties);
+            } catch (IOException | IllegalArgumentException e) {
+                throw new IllegalStateException("Error loading boosts: " + e.getMessage(), e);
+            }
+        }
+        return defaultRegistry;
+    }
+
+    /**
+     * Returns the boost type hidden under walls with an item id.
+     *
+     * @param item the item id.
+     * @return the boost type, or null if the id belongs to no boost.
+     */
+    public BoostType forItem(int item) {
+        return item >= 0 && item < byItem.length ? byItem[item] : null;
+    }
+
+    /**
+     * Picks the item id of a boost to hide under a wall, each with the chance of its spawn weight.
+     *
+     * @param random the random generator of the map, so that the pick follows its seed.
+     * @return the item id, or {@link TileGrid#ITEM_NONE} if no boost spawns.
+     */
+    public int pickItem(Random random) {
+        if (totalWeight == 0) {
+            return TileGrid.ITEM_NONE;
+        }
+        int pick = random.nextInt(totalWeight);
+        for (BoostType type : types) {
+            pick -= type.getWeight();
+            if (pick < 0) {
+                return type.getItem();
+            }
+        }
+        throw new IllegalStateException("Spawn weights do not add up");
+    }
+
+    /** Returns the boost types in the order of their item ids. */
+    public List<BoostType> getTypes() {
+        return Collections.unmodifiableList(types);
+    }
+
+    /** Returns the number of boosts hidden under the walls of a generated map. */
+    public int getBoostsPerMap() {
+        return boostsPerMap;
+    }
+
+    /** Returns the trimmed value of an entry, or the default if it is missing. */
+    private static String require(Properties properties, String key, String defaultValue) {
+        String value = properties.getProperty(key, defaultValue);
+        if (value == null) {
+            throw new IllegalArgumentException("Missing " + key);
+        }
+        return value.trim();
+    }
+
+    /** Reads an entry as an int. */
+    private static int parseInt(Properties properties, String key, String defaultValue) {
+        String value = require(properties, key, defaultValue);
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Malformed " + key + ": " + value);
+        }
+    }
+
+    /** Reads an entry as a float. */
+    private static float parseFloat(Properties properties, String key, String defaultValue) {
+        String value = require(properties, key, defaultValue);
+        try {
+            return Float.parseFloat(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Malformed " + key + ": " + value);
+        }
+    }
+
+    /** Reads an entry as a constant of an enum. */
+    private static <E extends Enum<E>> E parseEnum(Class<E> type, Properties properties, String key, String defaultValue) {
+        String value = require(properties, key, defaultValue);
+        try {
+            return Enum.valueOf(type, value);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Malformed " + key + ": " + value);
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package bomberquest.map.boost;
+
+import bomberquest.texture.SpriteSheet;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+
+/**
+ * A kind of boost as described in the {@link BoostRegistry}: the item id it is hidden under walls with, what it does,
+ * how far it may go, how long it lasts, how a second one of the same kind adds up, and how often it spawns.
+ */
+public final class BoostType {
+
+    /**
+     * How collecting a timed boost combines with a running effect of the same kind on the same target.
+     */
+    public enum Stacking {
+
+        /** Every boost applies its amount and runs out on its own. */
+        STACK,
+
+        /** The running effect lasts a full duration again, without applying the amount a second time. */
+        REFRESH,
+
+        /** The boost is used up without effect while one of its kind is running. */
+        IGNORE
+    }
+
+    /** The name of the boost type, the key of its entries in the registry. */
+    private final String name;
+
+    /** The item id the boost is hidden under a wall with, see {@link bomberquest.map.TileGrid}. */
+    private final int item;
+
+    /** What the boost changes. */
+    private final BoostEffect effect;
+
+    /** The amount added to or multiplied with the changed value. */
+    private final float amount;
+
+    /** The value the effect stops at, or NaN if it has no cap. */
+    private final float cap;
+
+    /** How long the effect lasts in seconds, or 0 if it is permanent. */
+    private final float duration;
+
+    /** How a timed effect combines with a running one of the same kind. */
+    private final Stacking stacking;
+
+    /** The relative chance of the boost being hidden under a wall of a generated map. */
+    private final int weight;
+
+    /** The row of the boost's sprite on the original Bomberman sheet. */
+    private final int spriteRow;
+
+    /** The column of the boost's sprite on the original Bomberman sheet. */
+    private final int spriteColumn;
+
+    /** The sprite, cut from the sheet on first use, so that boosts need no textures on a headless server. */
+    private TextureRegion texture;
+
+    BoostType(String name, int item, BoostEffect effect, float amount, float cap, float duration, Stacking stacking,
+              int weight, int spriteRow, int spriteColumn) {
+        this.name = name;
+        this.item = item;
+        this.effect = effect;
+        this.amount = amount;
+        this.cap = cap;
+        this.duration = duration;
+        this.stacking = stacking;
+        this.weight = weight;
+        this.spriteRow = spriteRow;
+        this.spriteColumn = spriteColumn;
+    }
+
+    /**
+     * Applies the amount of this boost to a value, stopping at the cap. A value already past the cap is not changed.
+     *
+     * @param value the current value.
+     * @return the new value.
+     */
+    public float apply(float value) {
+        float changed = effect.multiplies() ? value * amount : value + amount;
+        if (Float.isNaN(cap)) {
+            return changed;
+        }
+        return changed >= value ? Math.max(value, Math.min(changed, cap)) : Math.min(value, Math.max(changed, cap));
+    }
+
+    /** Returns the name of the boost type. */
+    public String getName() {
+        return name;
+    }
+
+    /** Returns the item id the boost is hidden under a wall with. */
+    public int getItem() {
+        return item;
+    }
+
+    /** Returns what the boost changes. */
+    public BoostEffect getEffect() {
+        return effect;
+    }
+
+    /** Returns how long the effect lasts in seconds, or 0 if it is permanent. */
+    public float getDuration() {
+        return duration;
+    }
+
+    /** Returns how a timed effect combines with a running one of the same kind. */
+    public Stacking getStacking() {
+        return stacking;
+    }
+
+    /** Returns the relative chance of the boost being hidden under a wall of a generated map. */
+    public int getWeight() {
+        return weight;
+    }
+
+    /** Returns the sprite of the boost; only call this where textures can be loaded. */
+    public TextureRegion getTexture() {
+        if (texture == null) {
+            texture = SpriteSheet.ORIGINAL_BOMBERMAN.at(spriteRow, spriteColumn);
+        }
+        return texture;
+    }
+}
@@ -0,0 +1,168 @@
+package bomberquest.map.event;
+
+import java.util.Arrays;
+
+/**
+ * Collects the events of a map during a tick and delivers them to the listeners that subscribed to them.
+ * <p>
+ * Gameplay code only {@link #publish publishes} what happened and no longer calls the audio or the HUD itself, so a map
+ * without listeners, e.g. on a headless server, does not touch them at all. Events are kept in a ring of parallel
+ * primitive arrays and delivered in order by {@link #dispatch()}, which the map calls once per tick after the world has
+ * stepped, so neither publishing nor delivering allocates. If the ring fills up within a tick, it grows once to twice its
+ * size instead of dropping events.
+ */
+public class GameEventBus {
+
+    /** The number of events the ring holds at first; a power of two. */
+    private static final int INITIAL_CAPACITY = 256;
+
+    /** All event types, cached because {@link GameEventType#values()} copies its array. */
+    private static final GameEventType[] TYPES = GameEventType.values();
+
+    /** The ordinal of the type of each pending event. */
+    private byte[] types = new byte[INITIAL_CAPACITY];
+
+    /** The player of each pending event, parallel to {@link #types}. */
+    private int[] players = new int[INITIAL_CAPACITY];
+
+    /** The x-coordinate of each pending event, parallel to {@link #types}. */
+    private int[] xs = new int[INITIAL_CAPACITY];
+
+    /** The y-coordinate of each pending event, parallel to {@link #types}. */
+    private int[] ys = new int[INITIAL_CAPACITY];
+
+    /** The position of the oldest pending event in the ring. */
+    private int head = 0;
+
+    /** The number of pending events. */
+    private int size = 0;
+
+    /** The subscribed listeners. */
+    private GameEventListener[] listeners = new GameEventListener[4];
+
+    /** The bits of the event types each listener subscribed to, parallel to {@link #listeners}. */
+    private int[] masks = new int[4];
+
+    /** The number of subscribed listeners. */
+    private int listenerCount = 0;
+
+    /** Whether the pending events are being delivered right now. */
+    private boolean dispatching = false;
+
+    /**
+     * Subscribes a listener to some types of events.
+     *
+     * @param listener the listener.
+     * @param types    the types of events it is told about.
+     */
+    public void subscribe(GameEventListener listener, GameEventType... types) {
+        int mask = 0;
+        for (GameEventType type : types) {
+            mask |= type.bit();
+        }
+        if (listenerCount == listeners.length) {
+            listeners = Arrays.copyOf(listeners, listenerCount * 2);
+            masks = Arrays.copyOf(masks, listenerCount * 2);
+        }
+        listeners[listenerCount] = listener;
+        masks[listenerCount] = mask;
+        listenerCount++;
+    }
+
+    /**
+     * Stops telling a listener about events.
+     *
+     * @param listener the listener; nothing happens if it never subscribed.
+     */
+    public void unsubscribe(GameEventListener listener) {
+        for (int i = 0; i < listenerCount; i++) {
+            if (listeners[i] == listener) {
+                System.arraycopy(listeners, i + 1, listeners, i, listenerCount - i - 1);
+                System.arraycopy(masks, i + 1, masks, i, listenerCount - i - 1);
+                listeners[--listenerCount] = null;
+                return;
+            }
+        }
+    }
+
+    /**
+     * Announces that something happened. The event is delivered with the next {@link #dispatch()}.
+     *
+     * @param type   the kind of event.
+     * @param player the index of the player the event concerns, or -1.
+     * @param x      the x-coordinate of the tile the event happened on.
+     * @param y      the y-coordinate of the tile the event happened on.
+     */
+    public void publish(GameEventType type, int player, int x, int y) {
+        if (listenerCount == 0) {
+            return; // Nobody listens, e.g. on a headless server
+        }
+        if (size == types.length) {
+            grow();
+        }
+        int slot = (head + size) & (types.length - 1);
+        types[slot] = (byte) type.ordinal();
+        players[slot] = player;
+        xs[slot] = x;
+        ys[slot] = y;
+        size++;
+    }
+
+    /** Doubles the ring, moving the pending events to its start. */
+    private void grow() {
+        int capacity = types.length;
+        byte[] grownTypes = new byte[capacity * 2];
+        int[] grownPlayers = new int[capacity * 2];
+        int[] grownXs = new int[capacity * 2];
+        int[] grownYs = new int[capacity * 2];
+        for (int i = 0; i < size; i++) {
+            int slot = (head + i) & (capacity - 1);
+            grownTypes[i] = types[slot];
+            grownPlayers[i] = players[slot];
+            grownXs[i] = xs[slot];
+            grownYs[i] = ys[slot];
+        }
+        types = grownTypes;
+        players = grownPlayers;
+        xs = grownXs;
+        ys = grownYs;
+        head = 0;
+    }
+
+    /**
+     * Delivers the pending events in the order they were published.
+     * Events published by a listener while this runs are delivered in the same call.
+     */
+    public void dispatch() {
+        if (dispatching) {
+            return; // Called from a listener; the loop below delivers everything
+        }
+        dispatching = true;
+        try {
+            while (size > 0) {
+                GameEventType type = TYPES[types[head]];
+                int player = players[head];
+                int x = xs[head];
+                int y = ys[head];
+                head = (head + 1) & (types.length - 1);
+                size--;
+                int bit = type.bit();
+                for (int i = 0; i < listenerCount; i++) {
+                    if ((masks[i] & bit) != 0) {
+                        listeners[i].onEvent(type, player, x, y);
+                    }
+                }
+            }
+        } finally {
+            dispatching = false;
+        }
+    }
+
+    /**
+     * Drops the pending events without delivering them, e.g. when the level restarts.
+     */
+    public void clear() {
+        head = 0;
+        size = 0;
+    }
+}
@@ -0,0 +1,19 @@
+package bomberquest.map.event;
+
+/**
+ * Reacts to the events of a map, see {@link GameEventBus#subscribe}.
+ * The event is passed as plain values, so delivering it allocates nothing.
+ */
+public interface GameEventListener {
+
+    /**
+     * Called for every event of the types the listener subscribed to, on the thread that ticks the map,
+     * after the world has stepped.
+     *
+     * @param type   the kind of event.
+     * @param player the index of the player the event concerns, or -1.
+     * @param x      the x-coordinate of the tile the event happened on.
+     * @param y      the y-coordinate of the tile the event happened on.
+     */
+    void onEvent(GameEventType type, int player, int x, int y);
+}
@@ -0,0 +1,40 @@
+package bomberquest.map.event;
+
+/**
+ * The kinds of things that happen on a map and are announced on its {@link GameEventBus}.
+ * Every event carries the index of the player it concerns, or -1, and the tile it happened on.
+ */
+public enum GameEventType {
+
+    /** A player placed a bomb on the tile. */
+    BOMB_PLACED,
+
+    /** The bomb of a player exploded on the tile. */
+    EXPLODED,
+
+    /** A destructible wall on the tile was blown up; there is no player. */
+    WALL_DESTROYED,
+
+    /** A ghost on the tile was killed by a blast; there is no player. */
+    GHOST_KILLED,
+
+    /** A player collected the boost on the tile. */
+    BOOST_COLLECTED,
+
+    /** A timed boost effect of a player ran out while the player was on the tile. */
+    BOOST_EXPIRED,
+
+    /** A player died on the tile. */
+    PLAYER_DIED,
+
+    /** A player reached the unlocked exit on the tile. */
+    EXIT_REACHED,
+
+    /** The countdown ran out; there is no player or tile. */
+    TIME_UP;
+
+    /** Returns the bit of this type in a subscription mask. */
+    int bit() {
+        return 1 << ordinal();
+    }
+}
@@ -0,0 +1,277 @@
+package bomberquest.map.generator;
+
+import bomberquest.map.TileGrid;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Random;
+
+/**
+ * Generates random layouts that are guaranteed to be solvable.
+ * <p>
+ * A layout is built in a flat byte array holding one tile type per tile, row by row from the bottom, which is also the
+ * packed format of {@link TileGrid#restoreTiles(byte[])} for tiles without items. Every step is a pass over that array,
+ * so even a 1000x1000 layout takes only a fraction of a second. Once the tiles are laid out, the border is closed, the spawns
+ * are cleared and {@link Reachability#connect} joins every spawn to the first one.
+ * <p>
+ * The same seed and spawns always give the same layout.
+ */
+public class MapGenerator {
+
+    /** The share of open tiles that get a destructible wall. */
+    private static final float DESTRUCTIBLE_DENSITY = 0.3f;
+
+    /** The size of a cell of the {@link MapLayout#ROOMS} layout, each of which holds one room. */
+    private static final int ROOM_CELL = 12;
+
+    /** The smallest width and height of a room, in tiles. */
+    private static final int MIN_ROOM_SIZE = 4;
+
+    /** The share of tiles that start as rock in the {@link MapLayout#CAVES} layout. */
+    private static final float CAVE_ROCK_DENSITY = 0.45f;
+
+    /** The number of smoothing passes of the {@link MapLayout#CAVES} automaton. */
+    private static final int CAVE_PASSES = 4;
+
+    /** The width of the map in tiles. */
+    private final int width;
+
+    /** The height of the map in tiles. */
+    private final int height;
+
+    /** The source of all random decisions. */
+    private final Random random;
+
+    /** The tiles that are kept free of walls. */
+    private final BitSet reserved = new BitSet();
+
+    /** The tiles every player and ghost spawns on, in the order they were reserved. */
+    private int[] spawns = new int[8];
+
+    /** The number of reserved spawns. */
+    private int spawnCount = 0;
+
+    /** The number of passages {@link Reachability} had to cut in the last layout. */
+    private int passages;
+
+    /**
+     * Constructs a generator for maps of the given size.
+     *
+     * @param width  the width of the map in tiles, at least 3.
+     * @param height the height of the map in tiles, at least 3.
+     * @param random the source of all random decisions.
+     */
+    public MapGenerator(int width, int height, Random random) {
+        if (width < 3 || height < 3) {
+            throw new IllegalArgumentException("A map needs at least 3x3 tiles, got " + width + "x" + height);
+        }
+        this.width = width;
+        this.height = height;
+        this.random = random;
+    }
+
+    /**
+     * Keeps the tiles around a spawn free and makes sure the spawn can be reached from the first one.
+     * Parts of the square outside the map are ignored.
+     *
+     * @param x      the x-coordinate of the spawn.
+     * @param y      the y-coordinate of the spawn.
+     * @param radius how many tiles around the spawn are kept free in each direction.
+     */
+    public void reserve(int x, int y, int radius) {
+        if (x < 1 || y < 1 || x > width - 2 || y > height - 2) {
+            return; // A spawn on the border cannot be kept free
+        }
+        for (int j = Math.max(1, y - radius); j <= Math.min(height - 2, y + radius); j++) {
+            for (int i = Math.max(1, x - radius); i <= Math.min(width - 2, x + radius); i++) {
+                reserved.set(j * width + i);
+            }
+        }
+        if (spawnCount == spawns.length) {
+            spawns = Arrays.copyOf(spawns, spawnCount * 2);
+        }
+        spawns[spawnCount++] = y * width + x;
+    }
+
+    /**
+     * Generates a layout.
+     *
+     * @param layout the kind of layout.
+     * @return the tile types, row by row from the bottom, with every reserved spawn reachable from the first one.
+     */
+    public byte[] generate(MapLayout layout) {
+        byte[] tiles = new byte[width * height];
+        switch (layout) {
+            case SCATTERED:
+                scatter(tiles);
+                break;
+            case PILLARS:
+                placePillars(tiles);
+                break;
+            case ROOMS:
+                carveRooms(tiles);
+                break;
+            case CAVES:
+                growCaves(tiles);
+                break;
+        }
+
+        closeBorder(tiles);
+        for (int i = reserved.nextSetBit(0); i >= 0; i = reserved.nextSetBit(i + 1)) {
+            tiles[i] = TileGrid.FLOOR;
+        }
+        if (spawnCount > 0) {
+            passages = Reachability.connect(tiles, width, height, spawns[0], Arrays.copyOf(spawns, spawnCount));
+        }
+        return tiles;
+    }
+
+    /** Returns the number of passages that had to be cut to connect the spawns of the last layout. */
+    public int getPassages() {
+        return passages;
+    }
+
+    /** Puts a destructible wall on open tiles inside the border with {@link #DESTRUCTIBLE_DENSITY}. */
+    private void scatter(byte[] tiles) {
+        for (int y = 1; y < height - 1; y++) {
+            for (int x = 1, i = y * width + 1; x < width - 1; x++, i++) {
+                if (tiles[i] == TileGrid.FLOOR && random.nextFloat() < DESTRUCTIBLE_DENSITY) {
+                    tiles[i] = TileGrid.DESTRUCTIBLE_WALL;
+                }
+            }
+        }
+    }
+
+    /** Puts a pillar on every tile with even coordinates and scatters destructible walls in between. */
+    private void placePillars(byte[] tiles) {
+        for (int y = 2; y < height - 1; y += 2) {
+            for (int x = 2; x < width - 1; x += 2) {
+                tiles[y * width + x] = TileGrid.INDESTRUCTIBLE_WALL;
+            }
+        }
+        scatter(tiles);
+    }
+
+    /**
+     * Fills the map with rock and cuts one room of random size into each cell of a {@link #ROOM_CELL} grid.
+     * Every room is joined to the rooms of the cells to its right and above by a straight corridor between their centers,
+     * so the corridors stay short and the rooms form one connected network.
+     */
+    private void carveRooms(byte[] tiles) {
+        Arrays.fill(tiles, (byte) TileGrid.INDESTRUCTIBLE_WALL);
+        int columns = Math.max(1, (width - 2) / ROOM_CELL);
+        int rows = Math.max(1, (height - 2) / ROOM_CELL);
+        int[] centers = new int[columns * rows * 2];
+        for (int row = 0; row < rows; row++) {
+            for (int column = 0; column < columns; column++) {
+                int cellX = 1 + column * ROOM_CELL;
+                int cellY = 1 + row * ROOM_CELL;
+                int cellWidth = Math.min(ROOM_CELL, width - 1 - cellX);
+                int cellHeight = Math.min(ROOM_CELL, height - 1 - cellY);
+                int roomWidth = randomSize(cellWidth);
+                int roomHeight = randomSize(cellHeight);
+                int roomX = cellX + random.nextInt(cellWidth - roomWidth + 1);
+                int roomY = cellY + random.nextInt(cellHeight - roomHeight + 1);
+                fill(tiles, roomX, roomY, roomWidth, roomHeight);
+
+                int cell = (row * columns + column) * 2;
+                centers[cell] = roomX + roomWidth / 2;
+                centers[cell + 1] = roomY + roomHeight / 2;
+            }
+        }
+        for (int row = 0; row < rows; row++) {
+            for (int column = 0; column < columns; column++) {
+                int cell = (row * columns + column) * 2;
+                if (column + 1 < columns) {
+                    carveCorridor(tiles, centers[cell], centers[cell + 1], centers[cell + 2], centers[cell + 3]);
+                }
+                if (row + 1 < rows) {
+                    int above = cell + columns * 2;
+                    carveCorridor(tiles, centers[cell], centers[cell + 1], centers[above], centers[above + 1]);
+                }
+            }
+        }
+        scatter(tiles);
+    }
+
+    /** Returns a random room size that fits into a cell of the given size, leaving a wall to the next cell. */
+    private int randomSize(int cellSize) {
+        int maxSize = Math.max(1, cellSize - 1);
+        int minSize = Math.min(MIN_ROOM_SIZE, maxSize);
+        return minSize + random.nextInt(maxSize - minSize + 1);
+    }
+
+    /** Turns a rectangle of tiles into floor. */
+    private void fill(byte[] tiles, int x, int y, int rectWidth, int rectHeight) {
+        for (int j = y; j < y + rectHeight; j++) {
+            Arrays.fill(tiles, j * width + x, j * width + x + rectWidth, (byte) TileGrid.FLOOR);
+        }
+    }
+
+    /** Turns the tiles on an L-shaped path between two points into floor, horizontally first. */
+    private void carveCorridor(byte[] tiles, int fromX, int fromY, int toX, int toY) {
+        fill(tiles, Math.min(fromX, toX), fromY, Math.abs(toX - fromX) + 1, 1);
+        for (int y = Math.min(fromY, toY); y <= Math.max(fromY, toY); y++) {
+            tiles[y * width + toX] = TileGrid.FLOOR;
+        }
+    }
+
+    /**
+     * Grows caves from random rock with a cellular automaton: in each pass, a tile becomes rock if at least five of the
+     * nine tiles around and including it are rock, which smooths the noise into open caves with solid walls.
+     * Tiles outside the map count as rock, so the caves close off towards the border.
+     */
+    private void growCaves(byte[] tiles) {
+        // One byte per tile, 1 for rock; the automaton counts rock by adding them up
+        byte[] current = new byte[tiles.length];
+        byte[] next = new byte[tiles.length];
+        for (int i = 0; i < current.length; i++) {
+            current[i] = (byte) (random.nextFloat() < CAVE_ROCK_DENSITY ? 1 : 0);
+        }
+        for (int pass = 0; pass < CAVE_PASSES; pass++) {
+            for (int y = 0; y < height; y++) {
+                boolean edgeRow = y == 0 || y == height - 1;
+                for (int x = 0; x < width; x++) {
+                    int i = y * width + x;
+                    int rock;
+                    if (edgeRow || x == 0 || x == width - 1) {
+                        rock = countRockAtEdge(current, x, y);
+                    } else {
+                        rock = current[i - width - 1] + current[i - width] + current[i - width + 1]
+                                + current[i - 1] + current[i] + current[i + 1]
+                                + current[i + width - 1] + current[i + width] + current[i + width + 1];
+                    }
+                    next[i] = (byte) (rock >= 5 ? 1 : 0);
+                }
+            }
+            byte[] swap = current;
+            current = next;
+            next = swap;
+        }
+        for (int i = 0; i < tiles.length; i++) {
+            tiles[i] = (byte) (current[i] != 0 ? TileGrid.INDESTRUCTIBLE_WALL : TileGrid.FLOOR);
+        }
+        scatter(tiles);
+    }
+
+    /** Counts the rock in the nine tiles around and including a tile on the edge of the map, where outside counts as rock. */
+    private int countRockAtEdge(byte[] rock, int x, int y) {
+        int count = 0;
+        for (int j = y - 1; j <= y + 1; j++) {
+            for (int i = x - 1; i <= x + 1; i++) {
+                count += i < 0 || j < 0 || i >= width || j >= height ? 1 : rock[j * width + i];
+            }
+        }
+        return count;
+    }
+
+    /** Puts indestructible walls on the outermost tiles. */
+    private void closeBorder(byte[] tiles) {
+        Arrays.fill(tiles, 0, width, (byte) TileGrid.INDESTRUCTIBLE_WALL);
+        Arrays.fill(tiles, (height - 1) * width, height * width, (byte) TileGrid.INDESTRUCTIBLE_WALL);
+        for (int y = 1; y < height - 1; y++) {
+            tiles[y * width] = TileGrid.INDESTRUCTIBLE_WALL;
+            tiles[y * width + width - 1] = TileGrid.INDESTRUCTIBLE_WALL;
+        }
+    }
+}
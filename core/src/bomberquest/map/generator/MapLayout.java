@@ -0,0 +1,20 @@
+package bomberquest.map.generator;
+
+/**
+ * The kinds of layouts the {@link MapGenerator} can build.
+ * Every layout is surrounded by indestructible walls and made solvable by {@link Reachability}.
+ */
+public enum MapLayout {
+
+    /** Open floor with destructible walls scattered at random, the original layout of the game. */
+    SCATTERED,
+
+    /** The classic grid of indestructible pillars on every second tile, with destructible walls in between. */
+    PILLARS,
+
+    /** Rectangular rooms in a coarse grid, joined by corridors and cut out of solid rock. */
+    ROOMS,
+
+    /** Organic caves grown by a cellular automaton from random noise. */
+    CAVES
+}
@@ -0,0 +1,224 @@
+package bomberquest.map.generator;
+
+import bomberquest.map.TileGrid;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Makes a generated layout solvable.
+ * <p>
+ * Only indestructible walls block a player for good; destructible ones can be blown up. A layout is therefore solvable
+ * if every spawn lies in the region the first player can reach through floor and destructible walls, because then
+ * every ghost can be hunted down and every wall the exit may hide under can be opened.
+ * <p>
+ * {@link #connect} floods that region with a breadth-first search over the flat tile array, cuts a passage of
+ * destructible walls to every spawn that lies outside of it, and seals whatever stays unreachable with indestructible
+ * walls, so no exit or boost can be hidden where nobody gets to it. Every tile is visited a bounded number of times,
+ * so this costs O(width * height) no matter the layout.
+ */
+public final class Reachability {
+
+    private Reachability() {
+    }
+
+    /**
+     * Connects every target to the start and seals the tiles that cannot be reached.
+     *
+     * @param tiles   the tile types, row by row from the bottom; changed in place.
+     * @param width   the width of the map in tiles.
+     * @param height  the height of the map in tiles.
+     * @param start   the index of the tile the first player spawns on.
+     * @param targets the indices of the tiles that must be reachable from the start.
+     * @return the number of targets a passage had to be cut to.
+     */
+    public static int connect(byte[] tiles, int width, int height, int start, int[] targets) {
+        BitSet reached = new BitSet(tiles.length);
+        int[] queue = new int[tiles.length];
+        flood(tiles, width, height, start, reached, queue);
+
+        int passages = 0;
+        for (int target : targets) {
+            if (reached.get(target)) {
+                continue;
+            }
+            cutPassage(tiles, width, target, start, reached);
+            flood(tiles, width, height, target, reached, queue);
+            passages++;
+        }
+
+        for (int i = reached.nextClearBit(0); i < tiles.length; i = reached.nextClearBit(i + 1)) {
+            tiles[i] = TileGrid.INDESTRUCTIBLE_WALL;
+        }
+        return passages;
+    }
+
+    /**
+     * Returns whether every target can be reached from the start through floor and destructible walls.
+     *
+     * @param tiles   the tile types, row by row from the bottom.
+     * @param width   the width of the map in tiles.
+     * @param height  the height of the map in tiles.
+     * @param start   the index of the start tile.
+     * @param targets the indices of the tiles to check.
+     * @return true if all targets are reachable.
+     */
+    public static boolean isSolvable(byte[] tiles, int width, int height, int start, int[] targets) {
+        BitSet reached = reachable(tiles, width, height, start);
+        for (int target : targets) {
+            if (!reached.get(target)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the tiles that can be reached from the start through floor and destructible walls.
+     *
+     * @param tiles  the tile types, row by row from the bottom.
+     * @param width  the width of the map in tiles.
+     * @param height the height of the map in tiles.
+     * @param start  the index of the start tile.
+     * @return the indices of the reachable tiles; empty if the start is an indestructible wall.
+     */
+    public static BitSet reachable(byte[] tiles, int width, int height, int start) {
+        BitSet reached = new BitSet(tiles.length);
+        flood(tiles, width, height, start, reached, new int[tiles.length]);
+        return reached;
+    }
+
+    /**
+     * Returns for every tile the fewest destructible walls that have to be blown up to get there from the start,
+     * counting the wall on the tile itself. This is a breadth-first search whose moves cost 0 onto floor and 1 onto
+     * a destructible wall, kept in order with a double-ended queue.
+     *
+     * @param tiles  the tile types, row by row from the bottom.
+     * @param width  the width of the map in tiles.
+     * @param height the height of the map in tiles.
+     * @param start  the index of the start tile.
+     * @return the number of walls per tile index, -1 for tiles that cannot be reached.
+     */
+    public static int[] wallsToReach(byte[] tiles, int width, int height, int start) {
+        int[] walls = new int[tiles.length];
+        Arrays.fill(walls, -1);
+        if (tiles[start] == TileGrid.INDESTRUCTIBLE_WALL) {
+            return walls;
+        }
+        // A ring of twice the size holds every tile pushed to either end before it is taken out
+        int[] deque = new int[tiles.length * 2];
+        int head = 0;
+        int size = 0;
+        int[] best = new int[tiles.length];
+        Arrays.fill(best, Integer.MAX_VALUE);
+        best[start] = tiles[start] == TileGrid.DESTRUCTIBLE_WALL ? 1 : 0;
+        deque[head] = start;
+        size++;
+        int[] neighbours = new int[4];
+        while (size > 0) {
+            int tile = deque[head];
+            head = (head + 1) % deque.length;
+            size--;
+            if (walls[tile] >= 0) {
+                continue; // Already settled with fewer walls
+            }
+            walls[tile] = best[tile];
+
+            int x = tile % width;
+            int y = tile / width;
+            int count = 0;
+            if (x > 0) neighbours[count++] = tile - 1;
+            if (x < width - 1) neighbours[count++] = tile + 1;
+            if (y > 0) neighbours[count++] = tile - width;
+            if (y < height - 1) neighbours[count++] = tile + width;
+            for (int n = 0; n < count; n++) {
+                int next = neighbours[n];
+                if (walls[next] >= 0 || tiles[next] == TileGrid.INDESTRUCTIBLE_WALL) {
+                    continue;
+                }
+                int cost = tiles[next] == TileGrid.DESTRUCTIBLE_WALL ? 1 : 0;
+                if (walls[tile] + cost < best[next]) {
+                    best[next] = walls[tile] + cost;
+                    if (cost == 0) {
+                        head = (head - 1 + deque.length) % deque.length;
+                        deque[head] = next;
+                    } else {
+                        deque[(head + size) % deque.length] = next;
+                    }
+                    size++;
+                }
+            }
+        }
+        return walls;
+    }
+
+    /**
+     * Marks every tile that can be reached from the origin and has not been reached before.
+     * Tiles already marked are not entered again, so repeated floods share the work.
+     *
+     * @param queue scratch space for the search, at least as long as the tiles.
+     */
+    private static void flood(byte[] tiles, int width, int height, int origin, BitSet reached, int[] queue) {
+        if (reached.get(origin) || tiles[origin] == TileGrid.INDESTRUCTIBLE_WALL) {
+            return;
+        }
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = origin;
+        reached.set(origin);
+        while (head < tail) {
+            int tile = queue[head++];
+            int x = tile % width;
+            int y = tile / width;
+            if (x > 0) {
+                tail = visit(tiles, tile - 1, reached, queue, tail);
+            }
+            if (x < width - 1) {
+                tail = visit(tiles, tile + 1, reached, queue, tail);
+            }
+            if (y > 0) {
+                tail = visit(tiles, tile - width, reached, queue, tail);
+            }
+            if (y < height - 1) {
+                tail = visit(tiles, tile + width, reached, queue, tail);
+            }
+        }
+    }
+
+    /** Queues a neighbour of a reached tile if it is passable and new; returns the new end of the queue. */
+    private static int visit(byte[] tiles, int tile, BitSet reached, int[] queue, int tail) {
+        if (!reached.get(tile) && tiles[tile] != TileGrid.INDESTRUCTIBLE_WALL) {
+            reached.set(tile);
+            queue[tail++] = tile;
+        }
+        return tail;
+    }
+
+    /**
+     * Turns the indestructible walls on an L-shaped path from a target towards the start into destructible ones,
+     * stopping as soon as the path enters the reached region.
+     * The path runs horizontally first and then vertically; both ends lie inside the border, so the border stays intact.
+     */
+    private static void cutPassage(byte[] tiles, int width, int target, int start, BitSet reached) {
+        int x = target % width;
+        int y = target / width;
+        int startX = start % width;
+        int startY = start / width;
+        while (true) {
+            int tile = y * width + x;
+            if (reached.get(tile)) {
+                return;
+            }
+            if (tiles[tile] == TileGrid.INDESTRUCTIBLE_WALL) {
+                tiles[tile] = TileGrid.DESTRUCTIBLE_WALL;
+            }
+            if (x != startX) {
+                x += Integer.signum(startX - x);
+            } else if (y != startY) {
+                y += Integer.signum(startY - y);
+            } else {
+                return; // Only reached if the start itself was not reached, i.e. it is a wall
+            }
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package bomberquest.map.system;
+
+import bomberquest.map.GameMap;
+import bomberquest.map.WallChunks;
+import bomberquest.map.Ghost;
+import bomberquest.map.Player;
+
+/**
+ * Keeps the wall bodies materialized around every player and ghost, and releases them elsewhere.
+ * Runs first in a tick so that the bodies exist before anything moves and before the world steps.
+ */
+public class ChunkSystem implements GameSystem {
+
+    /** The map whose wall chunks are streamed. */
+    private final GameMap gameMap;
+
+    /**
+     * Constructs a chunk system for the given map.
+     *
+     * @param gameMap the map whose wall chunks this system streams.
+     */
+    public ChunkSystem(GameMap gameMap) {
+        this.gameMap = gameMap;
+    }
+
+    @Override
+    public void update(float deltaTime) {
+        WallChunks wallChunks = gameMap.getWallChunks();
+        for (Player player : gameMap.getPlayers()) {
+            wallChunks.require(player.getX(), player.getY());
+        }
+        for (Ghost ghost : gameMap.getGhosts()) {
+            wallChunks.require(ghost.getX(), ghost.getY());
+        }
+        wallChunks.update();
+    }
+}
@@ -0,0 +1,65 @@
+package bomberquest.map.system;
+
+import bomberquest.map.Explosion;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Keeps track of the active explosions until they fade out.
+ * Their lifetimes run out on the map's {@link TimerWheel}; the explosions are only kept here to be drawn and to be
+ * ended when the level is restarted.
+ */
+public class ExplosionSystem {
+
+    /** Explosions that are currently visible. */
+    private final List<Explosion> active = new ArrayList<>();
+
+    /**
+     * Starts tracking an explosion that has just been activated.
+     *
+     * @param explosion the active explosion.
+     */
+    public void add(Explosion explosion) {
+        explosion.setActiveIndex(active.size());
+        active.add(explosion);
+    }
+
+    /**
+     * Stops tracking an explosion that has faded out, by moving the last explosion into its slot.
+     * The explosion remembers its own index, so this does not search the list.
+     *
+     * @param explosion the explosion.
+     */
+    public void remove(Explosion explosion) {
+        int index = explosion.getActiveIndex();
+        if (index >= 0) {
+            int last = active.size() - 1;
+            Explosion moved = active.get(last);
+            active.set(index, moved);
+            moved.setActiveIndex(index);
+            active.remove(last);
+            explosion.setActiveIndex(-1);
+        }
+    }
+
+    /**
+     * Ends every active explosion immediately.
+     */
+    public void clear() {
+        for (Explosion explosion : active) {
+            explosion.setActiveIndex(-1);
+            explosion.reset();
+        }
+        active.clear();
+    }
+
+    /**
+     * Returns the explosions that are currently visible.
+     *
+     * @return the active explosions.
+     */
+    public List<Explosion> getActiveExplosions() {
+        return active;
+    }
+}
@@ -0,0 +1,72 @@
+package bomberquest.map.system;
+
+import bomberquest.map.Bomb;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Keeps track of all placed bombs whose fuses are burning.
+ * The fuses themselves burn on the map's {@link TimerWheel}, so armed bombs cost nothing per frame; the bombs are only
+ * kept here to be drawn, sent and saved, and to be disarmed when the level is restarted.
+ * When a bomb detonates, its explosion is handed over to the {@link ExplosionSystem}.
+ */
+public class FuseSystem {
+
+    /** Bombs that have been placed and have not detonated yet. */
+    private final List<Bomb> armed = new ArrayList<>();
+
+    /**
+     * Starts keeping track of a bomb that has just been placed.
+     *
+     * @param bomb the armed bomb.
+     */
+    public void arm(Bomb bomb) {
+        bomb.setArmedIndex(armed.size());
+        armed.add(bomb);
+    }
+
+    /**
+     * Stops keeping track of a bomb that has detonated.
+     * The bomb remembers its own index, so this does not search the list.
+     *
+     * @param bomb the detonated bomb.
+     */
+    public void disarm(Bomb bomb) {
+        int index = bomb.getArmedIndex();
+        if (index >= 0) {
+            removeAt(index);
+        }
+    }
+
+    /**
+     * Disarms every armed bomb without detonating it.
+     */
+    public void clear() {
+        for (Bomb bomb : armed) {
+            bomb.setArmedIndex(-1);
+            bomb.reset();
+        }
+        armed.clear();
+    }
+
+    /**
+     * Returns the bombs that are currently ticking.
+     *
+     * @return the armed bombs.
+     */
+    public List<Bomb> getArmedBombs() {
+        return armed;
+    }
+
+    /** Removes the bomb at the given index by moving the last bomb into its slot. */
+    private void removeAt(int index) {
+        int last = armed.size() - 1;
+        Bomb removed = armed.get(index);
+        Bomb moved = armed.get(last);
+        armed.set(index, moved);
+        moved.setArmedIndex(index);
+        armed.remove(last);
+        removed.setArmedIndex(-1);
+    }
+}
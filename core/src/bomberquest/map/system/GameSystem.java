@@ -0,0 +1,17 @@
+package bomberquest.map.system;
+
+/**
+ * A single stage of the map simulation.
+ * Each system owns a dense list of the objects it is responsible for and updates only those,
+ * so the game map no longer has to walk every object on the map each frame.
+ * Systems are run by the {@link bomberquest.map.GameMap} in the order they were registered.
+ */
+public interface GameSystem {
+
+    /**
+     * Advances this system by the given amount of time.
+     *
+     * @param deltaTime the time elapsed since the last update, in seconds.
+     */
+    void update(float deltaTime);
+}
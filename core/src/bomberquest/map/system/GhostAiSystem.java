@@ -0,0 +1,187 @@
+package bomberquest.map.system;
+
+import bomberquest.map.GameMap;
+import bomberquest.map.Ghost;
+import bomberquest.map.Player;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Moves the ghosts in three phases:
+ * <ol>
+ *     <li>Snapshot: the living players' and every live ghost's position are read once, on the main thread.</li>
+ *     <li>Think: each ghost picks the nearest living player and decides its velocity from the snapshot only.
+ *     On crowded maps this runs in parallel across ghosts on the common fork-join pool, unless the system is inline.</li>
+ *     <li>Apply: the velocities are written back to Box2D on the main thread.</li>
+ * </ol>
+ * Box2D is not thread-safe, so worker threads never touch a body.
+ */
+public class GhostAiSystem implements GameSystem {
+
+    /** Below this many live ghosts, thinking is done on the main thread since forking would cost more than it saves. */
+    private static final int PARALLEL_THRESHOLD = 256;
+
+    /** The number of ghosts a single fork-join task thinks for before it stops splitting. */
+    private static final int GHOSTS_PER_TASK = 128;
+
+    /** The map whose ghosts are moved. */
+    private final GameMap gameMap;
+
+    /** Whether thinking always stays on the thread that ticks the map, however crowded the map is. */
+    private boolean inline = false;
+
+    /** Live ghosts in snapshot order. */
+    private Ghost[] thinking = new Ghost[0];
+
+    /** Snapshot of ghost positions, interleaved as x, y. */
+    private float[] positions = new float[0];
+
+    /** Snapshot of ghost speeds. */
+    private float[] speeds = new float[0];
+
+    /** Decided ghost velocities, interleaved as x, y. */
+    private float[] velocities = new float[0];
+
+    /** Snapshot of the positions of the living players, interleaved as x, y. */
+    private float[] targets = new float[0];
+
+    /** The number of living players in {@link #targets}. */
+    private int targetCount;
+
+    /**
+     * Constructs a ghost AI system for the given map.
+     *
+     * @param gameMap the map whose ghosts this system moves.
+     */
+    public GhostAiSystem(GameMap gameMap) {
+        this.gameMap = gameMap;
+    }
+
+    @Override
+    public void update(float deltaTime) {
+        List<Ghost> ghosts = gameMap.getGhosts();
+        ensureCapacity(ghosts.size());
+
+        // Snapshot phase: advance the animations and copy the positions the map cached after the last physics step
+        int count = 0;
+        for (Ghost ghost : ghosts) {
+            ghost.update(deltaTime);
+            if (!ghost.isDestroyed()) {
+                thinking[count] = ghost;
+                positions[count * 2] = ghost.getX();
+                positions[count * 2 + 1] = ghost.getY();
+                speeds[count] = ghost.getSpeed();
+                count++;
+            }
+        }
+        int before = ghosts.size();
+        ghosts.removeIf(Ghost::isFullydestroyed);
+        gameMap.getObjectives().ghostsRemoved(before - ghosts.size());
+
+        // The players' positions are already cached by the map after each physics step
+        Player[] players = gameMap.getPlayers();
+        float[] playerPositions = gameMap.getPlayerPositions();
+        if (targets.length < players.length * 2) {
+            targets = new float[players.length * 2];
+        }
+        targetCount = 0;
+        for (int p = 0; p < players.length; p++) {
+            if (!players[p].isDestroyed()) {
+                targets[targetCount * 2] = playerPositions[p * 2];
+                targets[targetCount * 2 + 1] = playerPositions[p * 2 + 1];
+                targetCount++;
+            }
+        }
+
+        if (count > 0 && targetCount > 0) {
+            // Think phase
+            if (count >= PARALLEL_THRESHOLD && !inline) {
+                ForkJoinPool.commonPool().invoke(new ThinkTask(0, count, deltaTime));
+            } else {
+                think(0, count, deltaTime);
+            }
+
+            // Apply phase
+            for (int i = 0; i < count; i++) {
+                thinking[i].move(velocities[i * 2], velocities[i * 2 + 1]);
+            }
+        }
+
+        // Do not keep removed ghosts reachable from the snapshot
+        Arrays.fill(thinking, 0, count, null);
+    }
+
+    /**
+     * Sets whether thinking always stays on the thread that ticks the map.
+     * A server that measures the CPU time of each match on the thread ticking it turns this on, so the
+     * ghosts' thinking is not hidden on the fork-join pool and does not compete with the other matches' workers.
+     *
+     * @param inline true to never think in parallel.
+     */
+    public void setInline(boolean inline) {
+        this.inline = inline;
+    }
+
+    /** Decides the velocities of the ghosts in {@code [from, to)} of the snapshot, each chasing its nearest player. */
+    private void think(int from, int to, float deltaTime) {
+        for (int i = from; i < to; i++) {
+            float ghostX = positions[i * 2];
+            float ghostY = positions[i * 2 + 1];
+
+            int nearest = 0;
+            float nearestDistance = Float.MAX_VALUE;
+            for (int t = 0; t < targetCount; t++) {
+                float dx = targets[t * 2] - ghostX;
+                float dy = targets[t * 2 + 1] - ghostY;
+                float distance = dx * dx + dy * dy;
+                if (distance < nearestDistance) {
+                    nearestDistance = distance;
+                    nearest = t;
+                }
+            }
+
+            Ghost.think(ghostX, ghostY, targets[nearest * 2], targets[nearest * 2 + 1],
+                    speeds[i], deltaTime, velocities, i * 2);
+        }
+    }
+
+    /** Grows the snapshot arrays so that they can hold the given number of ghosts. */
+    private void ensureCapacity(int ghostCount) {
+        if (thinking.length < ghostCount) {
+            thinking = new Ghost[ghostCount];
+            positions = new float[ghostCount * 2];
+            speeds = new float[ghostCount];
+            velocities = new float[ghostCount * 2];
+        }
+    }
+
+    /**
+     * Splits the think phase over a range of the snapshot until each task covers at most {@link #GHOSTS_PER_TASK} ghosts.
+     */
+    private class ThinkTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int from, to;
+        private final float deltaTime;
+
+        ThinkTask(int from, int to, float deltaTime) {
+            this.from = from;
+            this.to = to;
+            this.deltaTime = deltaTime;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= GHOSTS_PER_TASK) {
+                think(from, to, deltaTime);
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new ThinkTask(from, middle, deltaTime),
+                    new ThinkTask(middle, to, deltaTime));
+        }
+    }
+}
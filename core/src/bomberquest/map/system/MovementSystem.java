@@ -0,0 +1,30 @@
+package bomberquest.map.system;
+
+import bomberquest.map.GameMap;
+import bomberquest.map.Player;
+
+/**
+ * Moves every player according to its own input and lets it place bombs.
+ * Ghost movement is handled by the {@link GhostAiSystem}.
+ */
+public class MovementSystem implements GameSystem {
+
+    /** The map whose players are moved. */
+    private final GameMap gameMap;
+
+    /**
+     * Constructs a movement system for the given map.
+     *
+     * @param gameMap the map whose players this system moves.
+     */
+    public MovementSystem(GameMap gameMap) {
+        this.gameMap = gameMap;
+    }
+
+    @Override
+    public void update(float deltaTime) {
+        for (Player player : gameMap.getPlayers()) {
+            player.tick(deltaTime);
+        }
+    }
+}
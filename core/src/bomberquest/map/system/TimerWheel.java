@@ -0,0 +1,249 @@
+package bomberquest.map.system;
+
+/**
+ * Runs actions after a delay, for everything on the map that would otherwise keep and count down its own timer: bomb
+ * fuses, explosions, crumbling walls, dying players and ghosts, the countdown of the level and timed boost effects.
+ * <p>
+ * Time advances in fixed ticks of {@link #TICK_TIME}. The wheel is hierarchical: it has {@value #LEVELS} levels of
+ * {@value #SLOTS} slots each, and every slot holds a linked list of timers. A slot of level 0 spans one tick, a slot of
+ * level 1 spans {@value #SLOTS} ticks, and so on. A timer is linked into the lowest level whose slots reach its
+ * deadline, and whenever the slots of a level have gone round once, the next slot of the level above is emptied into
+ * the finer levels below. Scheduling and cancelling a timer is O(1), and a tick only visits the timers that are due or
+ * move down a level, so a pending timer costs nothing while it waits, however many of them there are.
+ * <p>
+ * Actions run on the thread that updates the wheel, during {@link #update}. Timers due in the same tick run in an order
+ * that only depends on when and in which order they were scheduled, so a replayed session plays out the same way.
+ * An action may schedule and cancel timers, including new ones that are due at once, which run in the next tick.
+ */
+public class TimerWheel implements GameSystem {
+
+    /** The time of one tick of the wheel, in seconds. */
+    public static final float TICK_TIME = 1f / 60;
+
+    /** The number of bits of a tick that pick the slot of a level. */
+    private static final int SLOT_BITS = 6;
+
+    /** The number of slots of each level. */
+    private static final int SLOTS = 1 << SLOT_BITS;
+
+    /** The number of levels; together they reach 2^24 ticks, more than three days. */
+    private static final int LEVELS = 4;
+
+    /** The slot of a timer taken out of the wheel because it is due, until its action runs. */
+    private static final int DUE = -2;
+
+    /** The first timer of each slot of every level, level by level, or null if the slot is empty. */
+    private final Timer[] slots = new Timer[LEVELS * SLOTS];
+
+    /** The number of ticks the wheel has advanced. */
+    private long tick = 0;
+
+    /** The time that has passed since the last tick, in seconds. */
+    private float elapsed = 0;
+
+    /** The number of pending timers. */
+    private int size = 0;
+
+    /**
+     * Runs an action after a delay.
+     *
+     * @param delay  the delay in seconds; rounded up to whole ticks, at least one.
+     * @param action the action to run.
+     * @return the timer, which can be cancelled until it has run.
+     */
+    public Timer schedule(float delay, Runnable action) {
+        // Delays that are a whole number of ticks apart from float rounding are not rounded up to the next tick
+        long ticks = Math.max(1, (long) Math.ceil((double) delay / TICK_TIME * (1 - 1e-6)));
+        Timer timer = new Timer(tick + ticks, action);
+        link(timer);
+        return timer;
+    }
+
+    /**
+     * Cancels a timer, so that its action does not run. Does nothing if it has already run or been cancelled.
+     *
+     * @param timer the timer, or null.
+     */
+    public void cancel(Timer timer) {
+        if (timer == null) {
+            return;
+        }
+        if (timer.slot >= 0) {
+            unlink(timer);
+        } else if (timer.slot == DUE) {
+            timer.slot = -1; // Cancelled by an action of the same tick before it ran
+        }
+    }
+
+    /**
+     * Returns how long a timer still has to wait.
+     *
+     * @param timer the timer.
+     * @return the time until its action runs, in seconds, or 0 if it has run or been cancelled.
+     */
+    public float getRemaining(Timer timer) {
+        if (timer == null || !timer.isPending()) {
+            return 0;
+        }
+        return Math.max(0, (timer.deadline - tick) * TICK_TIME - elapsed);
+    }
+
+    /**
+     * Returns the time the wheel has advanced since it was created, e.g. to animate something from when it started.
+     *
+     * @return the time in seconds.
+     */
+    public float getTime() {
+        return tick * TICK_TIME + elapsed;
+    }
+
+    @Override
+    public void update(float deltaTime) {
+        elapsed += deltaTime;
+        while (elapsed >= TICK_TIME) {
+            elapsed -= TICK_TIME;
+            tick++;
+            cascade();
+            expire();
+        }
+    }
+
+    /**
+     * Moves the timers of the levels above whose next slot has come up into the finer levels below.
+     * A slot of level L comes up whenever the slots of every level below it have gone round once.
+     */
+    private void cascade() {
+        for (int level = 1; level < LEVELS; level++) {
+            int shift = level * SLOT_BITS;
+            if ((tick & ((1L << shift) - 1)) != 0) {
+                return;
+            }
+            int slot = level * SLOTS + (int) ((tick >>> shift) & (SLOTS - 1));
+            Timer timer = slots[slot];
+            slots[slot] = null;
+            while (timer != null) {
+                Timer next = timer.next;
+                size--;
+                link(timer); // Timers beyond the reach of the wheel land in this slot again, for its next turn
+                timer = next;
+            }
+        }
+    }
+
+    /**
+     * Runs the timers that are due in this tick. They are taken out of their slot first, so that their actions can
+     * schedule and cancel timers freely.
+     */
+    private void expire() {
+        int slot = (int) (tick & (SLOTS - 1));
+        Timer due = slots[slot];
+        slots[slot] = null;
+        for (Timer timer = due; timer != null; timer = timer.next) {
+            timer.slot = DUE;
+            timer.previous = null;
+            size--;
+        }
+        while (due != null) {
+            Timer timer = due;
+            due = timer.next;
+            timer.next = null;
+            if (timer.slot == DUE) {
+                timer.slot = -1;
+                timer.action.run();
+            }
+        }
+    }
+
+    /**
+     * Drops every pending timer without running it, e.g. when the level is restarted.
+     */
+    public void clear() {
+        for (int i = 0; i < slots.length; i++) {
+            Timer timer = slots[i];
+            while (timer != null) {
+                Timer next = timer.next;
+                timer.slot = -1;
+                timer.previous = null;
+                timer.next = null;
+                timer = next;
+            }
+            slots[i] = null;
+        }
+        size = 0;
+        elapsed = 0;
+    }
+
+    /** Returns the number of pending timers. */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Adds a timer to the front of the slot of its deadline, in the lowest level that reaches it.
+     * The slots of level L tell apart deadlines that differ in the bits {@code L * SLOT_BITS} and up, so a timer fits
+     * into level L once its deadline and the current tick only differ in those bits and the next {@value #SLOT_BITS}.
+     */
+    private void link(Timer timer) {
+        long deadline = Math.max(timer.deadline, tick); // Due now when cascaded in the tick of its deadline
+        int level = 0;
+        while (level < LEVELS - 1 && (deadline >>> ((level + 1) * SLOT_BITS)) != (tick >>> ((level + 1) * SLOT_BITS))) {
+            level++;
+        }
+        int slot = level * SLOTS + (int) ((deadline >>> (level * SLOT_BITS)) & (SLOTS - 1));
+        timer.slot = slot;
+        timer.previous = null;
+        timer.next = slots[slot];
+        if (timer.next != null) {
+            timer.next.previous = timer;
+        }
+        slots[slot] = timer;
+        size++;
+    }
+
+    /** Removes a pending timer from its slot. */
+    private void unlink(Timer timer) {
+        if (timer.previous != null) {
+            timer.previous.next = timer.next;
+        } else {
+            slots[timer.slot] = timer.next;
+        }
+        if (timer.next != null) {
+            timer.next.previous = timer.previous;
+        }
+        timer.slot = -1;
+        timer.previous = null;
+        timer.next = null;
+        size--;
+    }
+
+    /**
+     * An action waiting in the wheel.
+     */
+    public static final class Timer {
+
+        /** The tick the action is due in. */
+        private final long deadline;
+
+        /** The action to run. */
+        private final Runnable action;
+
+        /** The slot the timer is linked into, {@link #DUE} while it is about to run, or -1 once it is done. */
+        private int slot = -1;
+
+        /** The previous timer in the slot. */
+        private Timer previous;
+
+        /** The next timer in the slot. */
+        private Timer next;
+
+        private Timer(long deadline, Runnable action) {
+            this.deadline = deadline;
+            this.action = action;
+        }
+
+        /** Returns whether the action has neither run nor been cancelled yet. */
+        public boolean isPending() {
+            return slot >= 0 || slot == DUE;
+        }
+    }
+}
@@ -0,0 +1,200 @@
+package bomberquest.net;
+
+import bomberquest.map.GameMap;
+import bomberquest.map.Player;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Predicts where the client's own player is before the server confirms it.
+ * <p>
+ * Every input command the client sends is applied to the predicted position right away, so the player reacts on the
+ * tick the button is pressed instead of a round trip later. The commands stay pending until the server acknowledges
+ * them. Whenever a state arrives, {@link #reconcile()} starts over from the position the server confirmed and replays
+ * the commands it has not simulated yet, so a prediction that went wrong, e.g. because a ghost or a bomb blocked the
+ * way, is corrected within one tick.
+ * <p>
+ * The movement mirrors {@link bomberquest.map.Player#tick} against the walls of the replica, using the speed the server
+ * sent. Bombs placed by the client are shown at once and dropped when the server has taken over the command that placed them.
+ */
+public class ClientPrediction {
+
+    /** The most commands that are kept pending; older ones are forgotten when the server stops acknowledging. */
+    private static final int MAX_PENDING = 128;
+
+    /** The replica the predictions start from. */
+    private final ReplicaMap replica;
+
+    /** The time of one client tick, in seconds. */
+    private final float frameTime;
+
+    /** The sequence numbers of the pending commands, in a ring. */
+    private final int[] pendingSequences = new int[MAX_PENDING];
+
+    /** The buttons of the pending commands, parallel to {@link #pendingSequences}. */
+    private final int[] pendingButtons = new int[MAX_PENDING];
+
+    /** The position of the oldest pending command in the ring. */
+    private int pendingHead = 0;
+
+    /** The number of pending commands. */
+    private int pendingCount = 0;
+
+    /** The buttons of the command sent last. */
+    private int lastButtons;
+
+    /** The predicted position of the player, in tiles. */
+    private float x, y;
+
+    /** The bombs placed by pending commands as {sequence, x, y}. */
+    private final List<int[]> predictedBombs = new ArrayList<>();
+
+    /** The distance the last reconciliation moved the player, in tiles. */
+    private float lastCorrection;
+
+    /**
+     * Constructs a prediction for the client's own player.
+     *
+     * @param replica   the replica of the client.
+     * @param frameTime the time of one client tick, in seconds; must match the tick of the server.
+     */
+    public ClientPrediction(ReplicaMap replica, float frameTime) {
+        this.replica = replica;
+        this.frameTime = frameTime;
+        int index = replica.getPlayerIndex();
+        this.x = replica.getPlayerPositions()[index * 2];
+        this.y = replica.getPlayerPositions()[index * 2 + 1];
+    }
+
+    /**
+     * Applies a command that was just sent to the predicted position.
+     *
+     * @param sequence the number the command was sent with.
+     * @param buttons  the held buttons, as {@link Protocol} button bits.
+     */
+    public void applyInput(int sequence, int buttons) {
+        if (pendingCount == MAX_PENDING) {
+            pendingHead = (pendingHead + 1) % MAX_PENDING;
+            pendingCount--;
+        }
+        int tail = (pendingHead + pendingCount) % MAX_PENDING;
+        pendingSequences[tail] = sequence;
+        pendingButtons[tail] = buttons;
+        pendingCount++;
+
+        if ((buttons & Protocol.BUTTON_BOMB) != 0 && (lastButtons & Protocol.BUTTON_BOMB) == 0 && isAlive()) {
+            predictedBombs.add(new int[]{sequence, Math.round(x), Math.round(y)});
+        }
+        lastButtons = buttons;
+        step(buttons);
+    }
+
+    /**
+     * Corrects the prediction after states were applied to the replica: drops the commands the server has applied,
+     * moves the player to the position the server confirmed and replays the remaining commands on top of it.
+     */
+    public void reconcile() {
+        int acknowledged = replica.getAcknowledgedInput(replica.getPlayerIndex());
+        while (pendingCount > 0 && pendingSequences[pendingHead] <= acknowledged) {
+            pendingHead = (pendingHead + 1) % MAX_PENDING;
+            pendingCount--;
+        }
+        predictedBombs.removeIf(bomb -> bomb[0] <= acknowledged);
+
+        float predictedX = x;
+        float predictedY = y;
+        int index = replica.getPlayerIndex();
+        x = replica.getPlayerPositions()[index * 2];
+        y = replica.getPlayerPositions()[index * 2 + 1];
+        for (int i = 0; i < pendingCount; i++) {
+            step(pendingButtons[(pendingHead + i) % MAX_PENDING]);
+        }
+        lastCorrection = (float) Math.hypot(x - predictedX, y - predictedY);
+    }
+
+    /** Moves the predicted position by one tick of the given buttons, like the server moves the player. */
+    private void step(int buttons) {
+        if (!isAlive()) {
+            return;
+        }
+        float speed = replica.getPlayerSpeed(replica.getPlayerIndex());
+        // The later checks win, as in Player#tick
+        float xVelocity = 0;
+        float yVelocity = 0;
+        if ((buttons & Protocol.BUTTON_UP) != 0) {
+            yVelocity = speed;
+        }
+        if ((buttons & Protocol.BUTTON_DOWN) != 0) {
+            yVelocity = -speed;
+        }
+        if ((buttons & Protocol.BUTTON_LEFT) != 0) {
+            xVelocity = -speed;
+        }
+        if ((buttons & Protocol.BUTTON_RIGHT) != 0) {
+            xVelocity = speed;
+        }
+        // Each axis is moved separately, so the player slides along a wall it runs into diagonally
+        float nextX = x + GameMap.travelDistance(xVelocity, frameTime);
+        if (!overlapsWall(nextX, y)) {
+            x = nextX;
+        }
+        float nextY = y + GameMap.travelDistance(yVelocity, frameTime);
+        if (!overlapsWall(x, nextY)) {
+            y = nextY;
+        }
+    }
+
+    /** Returns whether the hitbox of the player at the given position overlaps a tile that is not a floor. */
+    private boolean overlapsWall(float px, float py) {
+        // Tiles are one unit wide and centered on their integer coordinates
+        int minX = Math.round(px - Player.HITBOX_RADIUS);
+        int maxX = Math.round(px + Player.HITBOX_RADIUS);
+        int minY = Math.round(py - Player.HITBOX_RADIUS);
+        int maxY = Math.round(py + Player.HITBOX_RADIUS);
+        for (int tx = minX; tx <= maxX; tx++) {
+            for (int ty = minY; ty <= maxY; ty++) {
+                if (!replica.isSolid(tx, ty)) {
+                    continue;
+                }
+                // Distance from the center of the circle to the closest point of the tile
+                float dx = px - Math.max(tx - 0.5f, Math.min(px, tx + 0.5f));
+                float dy = py - Math.max(ty - 0.5f, Math.min(py, ty + 0.5f));
+                if (dx * dx + dy * dy < Player.HITBOX_RADIUS * Player.HITBOX_RADIUS) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /** Returns whether the client's player is alive, as far as the server has told. */
+    private boolean isAlive() {
+        return replica.isPlayerAlive(replica.getPlayerIndex());
+    }
+
+    /** Returns the predicted x-coordinate of the player, in tiles. */
+    public float getX() {
+        return x;
+    }
+
+    /** Returns the predicted y-coordinate of the player, in tiles. */
+    public float getY() {
+        return y;
+    }
+
+    /** Returns the bombs the client has placed that the server has not confirmed yet, as {sequence, x, y}. */
+    public List<int[]> getPredictedBombs() {
+        return predictedBombs;
+    }
+
+    /** Returns the number of commands the server has not applied yet. */
+    public int getPendingCount() {
+        return pendingCount;
+    }
+
+    /** Returns the distance the last reconciliation moved the player, in tiles. */
+    public float getLastCorrection() {
+        return lastCorrection;
+    }
+}
@@ -0,0 +1,428 @@
+package bomberquest.net;
+
+import bomberquest.input.NetworkInputBinding;
+import bomberquest.map.Bomb;
+import bomberquest.map.Exit;
+import bomberquest.map.GameMap;
+import bomberquest.map.Ghost;
+import bomberquest.map.MapSerializer;
+import bomberquest.map.Player;
+import bomberquest.map.TileGrid;
+import bomberquest.map.boost.Boost;
+import bomberquest.map.system.TimerWheel;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Encodes the state of a map ticked by a server into {@link Protocol#MSG_STATE} frames.
+ * <p>
+ * The encoder keeps the state it last sent as a baseline. {@link #encodeDelta} writes only what differs from it and
+ * moves the baseline forward, so an idle map costs a few bytes per tick no matter how large it is. Tiles come from the
+ * changes the {@link TileGrid} records, and positions are compared after quantizing them, so ghosts wobbling by less
+ * than a texel are not sent. Every frame is encoded once and the same bytes are sent to every client of the match.
+ * <p>
+ * Must be used on the thread that ticks the map.
+ */
+public class DeltaEncoder {
+
+    /** The bytes of the frame header: length, type, tick and flags. */
+    private static final int HEADER_BYTES = 4 + 1 + 4 + 1;
+
+    /** The bytes of a changed tile: index and visible bits. */
+    private static final int TILE_BYTES = 4 + 1;
+
+    /** The bytes of a player record: index, position and liveness. */
+    private static final int PLAYER_BYTES = 1 + 2 * 2 + 1;
+
+    /** The bytes of an acknowledgement: player index and sequence number. */
+    private static final int ACK_BYTES = 1 + 4;
+
+    /** The bytes of a ghost record: id, position and liveness. */
+    private static final int GHOST_BYTES = 2 + 2 * 2 + 1;
+
+    /** The largest number of bytes an event takes, including its type. */
+    private static final int EVENT_BYTES = 1 + 1 + 2 * 2 + 1;
+
+    /** The bytes of a speed event, the only one larger than {@link #EVENT_BYTES}. */
+    private static final int SPEED_EVENT_BYTES = 1 + 1 + 4;
+
+    /** The map whose state is encoded. */
+    private final GameMap map;
+
+    /** The controls of the players, whose last applied commands are acknowledged. */
+    private final NetworkInputBinding[] inputs;
+
+    /** The ghosts of the map when the match started; their index is their id on the wire. */
+    private final Ghost[] ghosts;
+
+    /** The quantized positions of the players as x/y pairs, as last sent. */
+    private final short[] sentPlayerPositions;
+
+    /** Whether each player was alive, as last sent. */
+    private final boolean[] sentPlayersAlive;
+
+    /** The number of the last applied command of each player, as last sent. */
+    private final int[] sentAcks;
+
+    /** The speed of each player, as last sent. */
+    private final float[] sentPlayerSpeeds;
+
+    /** The quantized positions of the ghosts as x/y pairs, as last sent. */
+    private final short[] sentGhostPositions;
+
+    /** Whether each ghost was alive, as last sent. */
+    private final boolean[] sentGhostsAlive;
+
+    /** The armed bombs, as last sent. */
+    private final List<Bomb> sentBombs = new ArrayList<>();
+
+    /**
+     * The fuses of the bombs when they were sent, parallel to {@link #sentBombs}.
+     * Bombs are pooled by their players, and a bomb may detonate and be placed again in the same tick; its new fuse
+     * tells the placements apart where the bomb itself cannot.
+     */
+    private final List<TimerWheel.Timer> sentFuses = new ArrayList<>();
+
+    /** The same fuses as {@link #sentFuses}, for constant-time lookups by identity. */
+    private final Set<TimerWheel.Timer> sentFuseSet = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    /** The fuses of the armed bombs of the tick being encoded, for constant-time lookups by identity. */
+    private final Set<TimerWheel.Timer> currentFuses = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    /** The tile positions of the bombs as x/y pairs, parallel to {@link #sentBombs}. */
+    private short[] sentBombPositions = new short[32];
+
+    /** The revealed boosts, as last sent. */
+    private final List<Boost> sentBoosts = new ArrayList<>();
+
+    /** The same boosts as {@link #sentBoosts}, for constant-time lookups by identity. */
+    private final Set<Boost> sentBoostSet = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    /** The boosts of the tick being encoded that have not been destroyed, for constant-time lookups by identity. */
+    private final Set<Boost> currentBoosts = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    /** The tile positions of the boosts as x/y pairs, parallel to {@link #sentBoosts}. */
+    private short[] sentBoostPositions = new short[32];
+
+    /** The flags of the exit as last sent, or -1 if the map has no exit. */
+    private int sentExitFlags = -1;
+
+    /** The countdown as last sent. */
+    private int sentCountdown;
+
+    /** The result of the match once it is over, or -1 while it is running. */
+    private int matchResult = -1;
+
+    /** The buffer the frames are encoded into, grown when a frame does not fit. */
+    private ByteBuffer buffer = ByteBuffer.allocate(1024);
+
+    /**
+     * Constructs an encoder whose baseline is the current state of the map.
+     * Clients joining before the first tick receive that state through {@link #encodeKeyframe}.
+     *
+     * @param map    the map to encode.
+     * @param inputs the controls of the players, in the order of {@link GameMap#getPlayers()}.
+     */
+    public DeltaEncoder(GameMap map, NetworkInputBinding[] inputs) {
+        this.map = map;
+        this.inputs = inputs;
+        this.ghosts = map.getGhosts().toArray(new Ghost[0]);
+        this.sentPlayerPositions = new short[map.getPlayers().length * 2];
+        this.sentPlayersAlive = new boolean[map.getPlayers().length];
+        this.sentAcks = new int[map.getPlayers().length];
+        Arrays.fill(sentAcks, -1);
+        this.sentPlayerSpeeds = new float[map.getPlayers().length];
+        this.sentGhostPositions = new short[ghosts.length * 2];
+        this.sentGhostsAlive = new boolean[ghosts.length];
+        encode(0, false); // Moves the baseline to the current state
+    }
+
+    /**
+     * Encodes the changes since the last delta and moves the baseline forward.
+     *
+     * @param tick the number of the tick the state belongs to.
+     * @return the frame, from position 0 to its limit; only valid until the next call.
+     */
+    public ByteBuffer encodeDelta(int tick) {
+        return encode(tick, false);
+    }
+
+    /**
+     * Encodes the whole state for a client that just joined, without touching the baseline.
+     * Must be called between ticks, after the delta of the last tick has been encoded, so the client continues with the next delta.
+     *
+     * @param tick the number of the last tick.
+     * @return the frame, from position 0 to its limit; only valid until the next call.
+     */
+    public ByteBuffer encodeKeyframe(int tick) {
+        return encode(tick, true);
+    }
+
+    /**
+     * Ends the match; the next frame tells the clients the result.
+     *
+     * @param result {@link Protocol#RESULT_WON}, {@link Protocol#RESULT_LOST} or {@link Protocol#RESULT_ABORTED}.
+     */
+    public void endMatch(int result) {
+        this.matchResult = result;
+    }
+
+    /**
+     * Encodes a state frame.
+     *
+     * @param tick     the number of the tick.
+     * @param keyframe whether to write the whole state instead of the changes.
+     * @return the encoded frame.
+     */
+    private ByteBuffer encode(int tick, boolean keyframe) {
+        TileGrid tileGrid = map.getTileGrid();
+        BitSet changedTiles = tileGrid.getChangedTiles();
+        Player[] players = map.getPlayers();
+        List<Bomb> bombs = map.getFuseSystem().getArmedBombs();
+        List<Boost> boosts = map.getBoosts();
+        currentFuses.clear();
+        for (Bomb bomb : bombs) {
+            currentFuses.add(bomb.getFuse());
+        }
+        currentBoosts.clear();
+        for (Boost boost : boosts) {
+            if (!boost.isDestroyed()) {
+                currentBoosts.add(boost);
+            }
+        }
+
+        int tileBytes = keyframe ? tileGrid.getWidth() * tileGrid.getHeight() : changedTiles.cardinality() * TILE_BYTES;
+        int eventCount = bombs.size() + sentBombs.size() + boosts.size() + sentBoosts.size() + 3;
+        ensureCapacity(HEADER_BYTES + 4 + tileBytes + 1 + players.length * PLAYER_BYTES + 1 + players.length * ACK_BYTES
+                + 2 + ghosts.length * GHOST_BYTES + 2 + eventCount * EVENT_BYTES + players.length * SPEED_EVENT_BYTES);
+
+        buffer.clear();
+        buffer.putInt(0); // The length is filled in at the end
+        buffer.put(Protocol.MSG_STATE);
+        buffer.putInt(tick);
+        buffer.put((byte) (keyframe ? Protocol.FLAG_KEYFRAME : 0));
+
+        // Tiles: every tile of a keyframe as raw bytes, otherwise the changed ones with their index
+        if (keyframe) {
+            buffer.putInt(tileGrid.getWidth() * tileGrid.getHeight());
+            for (int i = 0; i < tileGrid.getWidth() * tileGrid.getHeight(); i++) {
+                buffer.put((byte) tileGrid.getVisibleBits(i));
+            }
+        } else {
+            buffer.putInt(changedTiles.cardinality());
+            for (int i = changedTiles.nextSetBit(0); i >= 0; i = changedTiles.nextSetBit(i + 1)) {
+                buffer.putInt(i);
+                buffer.put((byte) tileGrid.getVisibleBits(i));
+            }
+            tileGrid.clearChangedTiles();
+        }
+
+        // Players whose quantized position or liveness changed
+        float[] playerPositions = map.getPlayerPositions();
+        int playerCountPosition = buffer.position();
+        int playerCount = 0;
+        buffer.put((byte) 0);
+        for (int i = 0; i < players.length; i++) {
+            short x = Protocol.quantize(playerPositions[i * 2]);
+            short y = Protocol.quantize(playerPositions[i * 2 + 1]);
+            boolean alive = !players[i].isDestroyed();
+            if (keyframe || x != sentPlayerPositions[i * 2] || y != sentPlayerPositions[i * 2 + 1] || alive != sentPlayersAlive[i]) {
+                buffer.put((byte) i);
+                buffer.putShort(x);
+                buffer.putShort(y);
+                buffer.put((byte) (alive ? 1 : 0));
+                playerCount++;
+                if (!keyframe) {
+                    sentPlayerPositions[i * 2] = x;
+                    sentPlayerPositions[i * 2 + 1] = y;
+                    sentPlayersAlive[i] = alive;
+                }
+            }
+        }
+        buffer.put(playerCountPosition, (byte) playerCount);
+
+        // Players whose last applied command changed, so their clients can drop the commands the server has simulated
+        int ackCountPosition = buffer.position();
+        int ackCount = 0;
+        buffer.put((byte) 0);
+        for (int i = 0; i < inputs.length; i++) {
+            int ack = inputs[i].getLastSequence();
+            if (ack != sentAcks[i] || keyframe && ack >= 0) {
+                buffer.put((byte) i);
+                buffer.putInt(ack);
+                ackCount++;
+                if (!keyframe) {
+                    sentAcks[i] = ack;
+                }
+            }
+        }
+        buffer.put(ackCountPosition, (byte) ackCount);
+
+        // Ghosts whose quantized position or liveness changed
+        int ghostCountPosition = buffer.position();
+        int ghostCount = 0;
+        buffer.putShort((short) 0);
+        for (int i = 0; i < ghosts.length; i++) {
+            short x = Protocol.quantize(ghosts[i].getX());
+            short y = Protocol.quantize(ghosts[i].getY());
+            boolean alive = !ghosts[i].isDestroyed();
+            if (keyframe || x != sentGhostPositions[i * 2] || y != sentGhostPositions[i * 2 + 1] || alive != sentGhostsAlive[i]) {
+                buffer.putShort((short) i);
+                buffer.putShort(x);
+                buffer.putShort(y);
+                buffer.put((byte) (alive ? 1 : 0));
+                ghostCount++;
+                if (!keyframe) {
+                    sentGhostPositions[i * 2] = x;
+                    sentGhostPositions[i * 2 + 1] = y;
+                    sentGhostsAlive[i] = alive;
+                }
+            }
+        }
+        buffer.putShort(ghostCountPosition, (short) ghostCount);
+
+        // Events
+        int eventCountPosition = buffer.position();
+        buffer.putShort((short) 0);
+        int events = 0;
+        if (!keyframe) {
+            // Exploded bombs come first, so a bomb placed again on the tile it just exploded on is not removed with it.
+            // A bomb placed again elsewhere has moved, so the position it was sent at is used.
+            for (int i = 0; i < sentBombs.size(); i++) {
+                Bomb bomb = sentBombs.get(i);
+                if (!currentFuses.contains(sentFuses.get(i))) {
+                    buffer.put(Protocol.EVENT_BOMB_EXPLODED);
+                    buffer.putShort(sentBombPositions[i * 2]);
+                    buffer.putShort(sentBombPositions[i * 2 + 1]);
+                    buffer.put((byte) bomb.getBlastRadius());
+                    events++;
+                }
+            }
+        }
+        for (Bomb bomb : bombs) {
+            if (keyframe || !sentFuseSet.contains(bomb.getFuse())) {
+                buffer.put(Protocol.EVENT_BOMB_PLANTED);
+                buffer.put((byte) indexOf(players, bomb.getOwner()));
+                buffer.putShort((short) Math.round(bomb.getX()));
+                buffer.putShort((short) Math.round(bomb.getY()));
+                events++;
+            }
+        }
+        for (Boost boost : boosts) {
+            if (!boost.isDestroyed() && (keyframe || !sentBoostSet.contains(boost))) {
+                buffer.put(Protocol.EVENT_BOOST_SPAWNED);
+                buffer.put((byte) MapSerializer.itemOf(boost));
+                buffer.putShort((short) Math.round(boost.getX()));
+                buffer.putShort((short) Math.round(boost.getY()));
+                events++;
+            }
+        }
+        if (!keyframe) {
+            for (int i = 0; i < sentBoosts.size(); i++) {
+                Boost boost = sentBoosts.get(i);
+                if (!currentBoosts.contains(boost)) {
+                    // Collected boosts have lost their hitbox, so the position they were sent at is used
+                    buffer.put(Protocol.EVENT_BOOST_REMOVED);
+                    buffer.putShort(sentBoostPositions[i * 2]);
+                    buffer.putShort(sentBoostPositions[i * 2 + 1]);
+                    events++;
+                }
+            }
+        }
+        Exit exit = map.getExit();
+        int exitFlags = exit == null ? -1
+                : (exit.isHidden() ? Protocol.EXIT_HIDDEN : 0) | (exit.isUnlocked() ? Protocol.EXIT_UNLOCKED : 0);
+        if (exit != null && (keyframe || exitFlags != sentExitFlags)) {
+            buffer.put(Protocol.EVENT_EXIT);
+            buffer.putShort((short) Math.round(exit.getX()));
+            buffer.putShort((short) Math.round(exit.getY()));
+            buffer.put((byte) exitFlags);
+            events++;
+        }
+        for (int i = 0; i < players.length; i++) {
+            if (keyframe || players[i].getSpeed() != sentPlayerSpeeds[i]) {
+                buffer.put(Protocol.EVENT_PLAYER_SPEED);
+                buffer.put((byte) i);
+                buffer.putFloat(players[i].getSpeed());
+                events++;
+            }
+        }
+        if (keyframe || map.getCountdownTimer() != sentCountdown) {
+            buffer.put(Protocol.EVENT_COUNTDOWN);
+            buffer.putInt(map.getCountdownTimer());
+            events++;
+        }
+        if (matchResult >= 0) {
+            buffer.put(Protocol.EVENT_MATCH_OVER);
+            buffer.put((byte) matchResult);
+            events++;
+        }
+        buffer.putShort(eventCountPosition, (short) events);
+
+        if (!keyframe) {
+            sentBombs.clear();
+            sentBombs.addAll(bombs);
+            sentFuses.clear();
+            for (Bomb bomb : bombs) {
+                sentFuses.add(bomb.getFuse());
+            }
+            sentFuseSet.clear();
+            sentFuseSet.addAll(currentFuses);
+            if (sentBombPositions.length < sentBombs.size() * 2) {
+                sentBombPositions = new short[sentBombs.size() * 4];
+            }
+            for (int i = 0; i < sentBombs.size(); i++) {
+                sentBombPositions[i * 2] = (short) Math.round(sentBombs.get(i).getX());
+                sentBombPositions[i * 2 + 1] = (short) Math.round(sentBombs.get(i).getY());
+            }
+            sentBoosts.clear();
+            for (Boost boost : boosts) {
+                if (!boost.isDestroyed()) {
+                    sentBoosts.add(boost);
+                }
+            }
+            sentBoostSet.clear();
+            sentBoostSet.addAll(currentBoosts);
+            if (sentBoostPositions.length < sentBoosts.size() * 2) {
+                sentBoostPositions = new short[sentBoosts.size() * 4];
+            }
+            for (int i = 0; i < sentBoosts.size(); i++) {
+                sentBoostPositions[i * 2] = (short) Math.round(sentBoosts.get(i).getX());
+                sentBoostPositions[i * 2 + 1] = (short) Math.round(sentBoosts.get(i).getY());
+            }
+            for (int i = 0; i < players.length; i++) {
+                sentPlayerSpeeds[i] = players[i].getSpeed();
+            }
+            sentExitFlags = exitFlags;
+            sentCountdown = map.getCountdownTimer();
+        }
+
+        buffer.putInt(0, buffer.position() - 4);
+        buffer.flip();
+        return buffer;
+    }
+
+    /** Grows the buffer so that a frame of the given size fits. */
+    private void ensureCapacity(int bytes) {
+        if (buffer.capacity() < bytes) {
+            buffer = ByteBuffer.allocate(Math.max(bytes, buffer.capacity() * 2));
+        }
+    }
+
+    /** Returns the index of a player in the array. */
+    private static int indexOf(Player[] players, Player player) {
+        for (int i = 0; i < players.length; i++) {
+            if (players[i] == player) {
+                return i;
+            }
+        }
+        throw new IllegalStateException("Bomb owner is not on the map");
+    }
+}
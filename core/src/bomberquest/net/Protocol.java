@@ -0,0 +1,96 @@
+package bomberquest.net;
+
+/**
+ * The wire format spoken between a headless match server and its clients.
+ * <p>
+ * Every message is a frame of a big-endian int length followed by that many bytes, the first of which is the
+ * message type. The server sends {@link #MSG_WELCOME} once and then one {@link #MSG_STATE} per tick; clients send
+ * one numbered {@link #MSG_INPUT} per tick of their own.
+ * <p>
+ * A state message only holds what changed since the previous one: the visible bits of changed tiles, the players and
+ * ghosts whose quantized position or liveness changed, the number of the last input command the server applied for each
+ * player whose number changed, and events for bombs, boosts, the exit and the countdown.
+ * The first state a client receives is a keyframe that lists everything. Since TCP delivers every frame in order,
+ * each state can be applied on top of the previous one without acknowledgements.
+ */
+public final class Protocol {
+
+    /** Server to client: the index of the client's player and the size of the map. */
+    public static final byte MSG_WELCOME = 1;
+    /** Server to client: the changes of one tick. */
+    public static final byte MSG_STATE = 2;
+    /** Client to server: the sequence number of the command as int and the buttons held during that tick as byte. */
+    public static final byte MSG_INPUT = 3;
+
+    /** Flag of a state message that lists the whole state instead of the changes. */
+    public static final int FLAG_KEYFRAME = 1;
+
+    /** Event: a bomb was placed; owner byte, tile x and y shorts. */
+    public static final byte EVENT_BOMB_PLANTED = 1;
+    /** Event: a bomb exploded; tile x and y shorts, blast radius byte. */
+    public static final byte EVENT_BOMB_EXPLODED = 2;
+    /** Event: a boost was revealed; item byte, tile x and y shorts. */
+    public static final byte EVENT_BOOST_SPAWNED = 3;
+    /** Event: a boost was collected; tile x and y shorts. */
+    public static final byte EVENT_BOOST_REMOVED = 4;
+    /** Event: the exit changed; tile x and y shorts, {@link #EXIT_HIDDEN} and {@link #EXIT_UNLOCKED} flags byte. */
+    public static final byte EVENT_EXIT = 5;
+    /** Event: the countdown changed; int. */
+    public static final byte EVENT_COUNTDOWN = 6;
+    /** Event: the speed of a player changed; player index byte, speed in tiles per second as float. */
+    public static final byte EVENT_PLAYER_SPEED = 8;
+    /** Event: the match is over; {@link #RESULT_LOST}, {@link #RESULT_WON} or {@link #RESULT_ABORTED} byte. */
+    public static final byte EVENT_MATCH_OVER = 7;
+
+    /** Match result: every player died or the time ran out. */
+    public static final int RESULT_LOST = 0;
+    /** Match result: a player reached the exit. */
+    public static final int RESULT_WON = 1;
+    /** Match result: the server stopped the match before it was won or lost. */
+    public static final int RESULT_ABORTED = 2;
+
+    /** Exit flag: the exit is still hidden under its wall. */
+    public static final int EXIT_HIDDEN = 1;
+    /** Exit flag: every ghost is dead, so the exit can be used. */
+    public static final int EXIT_UNLOCKED = 2;
+
+    /** Button bit: up is held. */
+    public static final int BUTTON_UP = 1;
+    /** Button bit: down is held. */
+    public static final int BUTTON_DOWN = 2;
+    /** Button bit: left is held. */
+    public static final int BUTTON_LEFT = 4;
+    /** Button bit: right is held. */
+    public static final int BUTTON_RIGHT = 8;
+    /** Button bit: the bomb button is held. */
+    public static final int BUTTON_BOMB = 16;
+
+    /**
+     * The steps per tile that positions are quantized to.
+     * A tile is drawn from 16x16 texels, so this is as fine as the client can show, and a short covers maps of up to 2047 tiles.
+     */
+    public static final int POSITION_STEPS = 16;
+
+    private Protocol() {
+    }
+
+    /**
+     * Quantizes a position in tiles to a step of {@link #POSITION_STEPS} per tile.
+     *
+     * @param position the position in tiles.
+     * @return the quantized position.
+     */
+    public static short quantize(float position) {
+        return (short) Math.round(position * POSITION_STEPS);
+    }
+
+    /**
+     * Turns a quantized position back into tiles.
+     *
+     * @param quantized the quantized position.
+     * @return the position in tiles.
+     */
+    public static float dequantize(short quantized) {
+        return (float) quantized / POSITION_STEPS;
+    }
+}
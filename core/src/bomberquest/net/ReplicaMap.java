@@ -0,0 +1,339 @@
+package bomberquest.net;
+
+import bomberquest.map.Explosion;
+import bomberquest.map.TileGrid;
+import bomberquest.map.system.TimerWheel;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A client's copy of the state of a map ticked by a server, built up from the {@link Protocol#MSG_STATE} frames it receives.
+ * Holds only what the server sends: the visible bits of every tile, quantized entity positions, bombs, boosts, the exit
+ * and the countdown. Hidden items never reach the client.
+ */
+public class ReplicaMap {
+
+    /** The index of the client's own player. */
+    private final int playerIndex;
+
+    /** The width of the map in tiles. */
+    private final int width;
+
+    /** The height of the map in tiles. */
+    private final int height;
+
+    /** The visible bits of every tile, row by row from the bottom of the map. */
+    private final byte[] tiles;
+
+    /** The tick at which each tile last changed, so a crumbling wall is animated from the moment it was destroyed. */
+    private final int[] tileTicks;
+
+    /** The positions of the players as x/y pairs, in tiles. */
+    private final float[] playerPositions;
+
+    /** Whether each player is alive. */
+    private final boolean[] playersAlive;
+
+    /** The speed of each player, in tiles per second. */
+    private final float[] playerSpeeds;
+
+    /** The number of the last input command the server applied for each player, or -1 before the first one. */
+    private final int[] acknowledgedInputs;
+
+    /** The positions of the ghosts as x/y pairs, in tiles, indexed by ghost id. */
+    private float[] ghostPositions = new float[0];
+
+    /** Whether each ghost is alive, indexed by ghost id. */
+    private boolean[] ghostsAlive = new boolean[0];
+
+    /** The armed bombs as {owner, x, y}. */
+    private final List<int[]> bombs = new ArrayList<>();
+
+    /** The revealed boosts as {item, x, y}. */
+    private final List<int[]> boosts = new ArrayList<>();
+
+    /** The explosions that are still burning as {x, y, radius, tick}. */
+    private final List<int[]> burningExplosions = new ArrayList<>();
+
+    /** The tile position of the exit, or -1 if the map has none. */
+    private int exitX = -1, exitY = -1;
+
+    /** The {@link Protocol} exit flags. */
+    private int exitFlags;
+
+    /** The remaining countdown. */
+    private int countdown;
+
+    /** The tick of the last applied state. */
+    private int tick;
+
+    /** The number of bombs that exploded since the client joined. */
+    private int explosions;
+
+    /** The result of the match once it is over, or -1 while it is running. */
+    private int matchResult = -1;
+
+    /**
+     * Constructs an empty replica from a {@link Protocol#MSG_WELCOME} frame.
+     *
+     * @param welcome the payload of the welcome frame, positioned at its type.
+     * @throws IllegalStateException if the frame is not a welcome.
+     */
+    public ReplicaMap(ByteBuffer welcome) {
+        if (welcome.get() != Protocol.MSG_WELCOME) {
+            throw new IllegalStateException("Expected a welcome from the server");
+        }
+        this.playerIndex = welcome.get();
+        int playerCount = welcome.get();
+        this.width = welcome.getShort();
+        this.height = welcome.getShort();
+        this.tiles = new byte[width * height];
+        this.tileTicks = new int[width * height];
+        this.playerPositions = new float[playerCount * 2];
+        this.playersAlive = new boolean[playerCount];
+        this.playerSpeeds = new float[playerCount];
+        this.acknowledgedInputs = new int[playerCount];
+        Arrays.fill(acknowledgedInputs, -1);
+    }
+
+    /**
+     * Applies a {@link Protocol#MSG_STATE} frame on top of the current state.
+     *
+     * @param state the payload of the state frame, positioned at its type.
+     * @throws IllegalStateException if the frame is not a state.
+     */
+    public void apply(ByteBuffer state) {
+        if (state.get() != Protocol.MSG_STATE) {
+            throw new IllegalStateException("Expected a state from the server");
+        }
+        tick = state.getInt();
+        boolean keyframe = (state.get() & Protocol.FLAG_KEYFRAME) != 0;
+        burningExplosions.removeIf(explosion -> (tick - explosion[3]) * TimerWheel.TICK_TIME >= Explosion.LIFETIME);
+
+        int tileCount = state.getInt();
+        if (keyframe) {
+            state.get(tiles, 0, tileCount);
+            Arrays.fill(tileTicks, tick);
+            bombs.clear();
+            boosts.clear();
+        } else {
+            for (int i = 0; i < tileCount; i++) {
+                int index = state.getInt();
+                tiles[index] = state.get();
+                tileTicks[index] = tick;
+            }
+        }
+
+        int playerCount = state.get();
+        for (int i = 0; i < playerCount; i++) {
+            int index = state.get();
+            playerPositions[index * 2] = Protocol.dequantize(state.getShort());
+            playerPositions[index * 2 + 1] = Protocol.dequantize(state.getShort());
+            playersAlive[index] = state.get() != 0;
+        }
+
+        int ackCount = state.get();
+        for (int i = 0; i < ackCount; i++) {
+            int index = state.get();
+            acknowledgedInputs[index] = state.getInt();
+        }
+
+        int ghostCount = state.getShort();
+        for (int i = 0; i < ghostCount; i++) {
+            int id = state.getShort();
+            if (id >= ghostsAlive.length) {
+                ghostPositions = Arrays.copyOf(ghostPositions, (id + 1) * 2);
+                ghostsAlive = Arrays.copyOf(ghostsAlive, id + 1);
+            }
+            ghostPositions[id * 2] = Protocol.dequantize(state.getShort());
+            ghostPositions[id * 2 + 1] = Protocol.dequantize(state.getShort());
+            ghostsAlive[id] = state.get() != 0;
+        }
+
+        int eventCount = state.getShort();
+        for (int i = 0; i < eventCount; i++) {
+            applyEvent(state);
+        }
+    }
+
+    /** Applies a single event of a state frame. */
+    private void applyEvent(ByteBuffer state) {
+        byte type = state.get();
+        switch (type) {
+            case Protocol.EVENT_BOMB_PLANTED:
+                bombs.add(new int[]{state.get(), state.getShort(), state.getShort()});
+                break;
+            case Protocol.EVENT_BOMB_EXPLODED: {
+                int x = state.getShort();
+                int y = state.getShort();
+                int radius = state.get();
+                // Bombs placed close together can share a tile; only the oldest of them has exploded
+                for (int b = 0; b < bombs.size(); b++) {
+                    if (bombs.get(b)[1] == x && bombs.get(b)[2] == y) {
+                        bombs.remove(b);
+                        break;
+                    }
+                }
+                burningExplosions.add(new int[]{x, y, radius, tick});
+                explosions++;
+                break;
+            }
+            case Protocol.EVENT_BOOST_SPAWNED:
+                boosts.add(new int[]{state.get(), state.getShort(), state.getShort()});
+                break;
+            case Protocol.EVENT_BOOST_REMOVED: {
+                int x = state.getShort();
+                int y = state.getShort();
+                boosts.removeIf(boost -> boost[1] == x && boost[2] == y);
+                break;
+            }
+            case Protocol.EVENT_EXIT:
+                exitX = state.getShort();
+                exitY = state.getShort();
+                exitFlags = state.get();
+                break;
+            case Protocol.EVENT_PLAYER_SPEED: {
+                int index = state.get();
+                playerSpeeds[index] = state.getFloat();
+                break;
+            }
+            case Protocol.EVENT_COUNTDOWN:
+                countdown = state.getInt();
+                break;
+            case Protocol.EVENT_MATCH_OVER:
+                matchResult = state.get();
+                break;
+            default:
+                throw new IllegalStateException("Unknown event type: " + type);
+        }
+    }
+
+    /** Returns the index of the client's own player. */
+    public int getPlayerIndex() {
+        return playerIndex;
+    }
+
+    /** Returns the width of the map in tiles. */
+    public int getWidth() {
+        return width;
+    }
+
+    /** Returns the height of the map in tiles. */
+    public int getHeight() {
+        return height;
+    }
+
+    /** Returns the visible bits of a tile, as {@link bomberquest.map.TileGrid#getVisibleBits(int)} would on the server. */
+    public int getTile(int index) {
+        return tiles[index];
+    }
+
+    /** Returns the tick at which a tile last changed, or of the keyframe it was last sent in. */
+    public int getTileTick(int index) {
+        return tileTicks[index];
+    }
+
+    /**
+     * Returns whether a tile blocks movement, i.e. whether it is not a floor.
+     * Positions outside the map are blocked.
+     */
+    public boolean isSolid(int x, int y) {
+        if (x < 0 || y < 0 || x >= width || y >= height) {
+            return true;
+        }
+        return tiles[y * width + x] != TileGrid.FLOOR;
+    }
+
+    /** Returns the positions of the players as x/y pairs, in tiles. */
+    public float[] getPlayerPositions() {
+        return playerPositions;
+    }
+
+    /** Returns whether a player is alive. */
+    public boolean isPlayerAlive(int index) {
+        return playersAlive[index];
+    }
+
+    /** Returns the speed of a player, in tiles per second. */
+    public float getPlayerSpeed(int index) {
+        return playerSpeeds[index];
+    }
+
+    /** Returns the number of the last input command the server applied for a player, or -1 before the first one. */
+    public int getAcknowledgedInput(int index) {
+        return acknowledgedInputs[index];
+    }
+
+    /** Returns the number of ghosts the server has told about. */
+    public int getGhostCount() {
+        return ghostsAlive.length;
+    }
+
+    /** Returns the positions of the ghosts as x/y pairs, in tiles, indexed by ghost id. */
+    public float[] getGhostPositions() {
+        return ghostPositions;
+    }
+
+    /** Returns whether a ghost is alive. */
+    public boolean isGhostAlive(int id) {
+        return ghostsAlive[id];
+    }
+
+    /** Returns the armed bombs as {owner, x, y}. */
+    public List<int[]> getBombs() {
+        return bombs;
+    }
+
+    /** Returns the revealed boosts as {item, x, y}. */
+    public List<int[]> getBoosts() {
+        return boosts;
+    }
+
+    /** Returns the explosions that are still burning as {x, y, radius, tick}. */
+    public List<int[]> getBurningExplosions() {
+        return burningExplosions;
+    }
+
+    /** Returns the tile x-coordinate of the exit, or -1 if the map has none. */
+    public int getExitX() {
+        return exitX;
+    }
+
+    /** Returns the tile y-coordinate of the exit, or -1 if the map has none. */
+    public int getExitY() {
+        return exitY;
+    }
+
+    /** Returns the {@link Protocol} exit flags. */
+    public int getExitFlags() {
+        return exitFlags;
+    }
+
+    /** Returns the remaining countdown. */
+    public int getCountdown() {
+        return countdown;
+    }
+
+    /** Returns the tick of the last applied state. */
+    public int getTick() {
+        return tick;
+    }
+
+    /** Returns the number of bombs that exploded since the client joined. */
+    public int getExplosions() {
+        return explosions;
+    }
+
+    /** Returns whether the server has ended the match. */
+    public boolean isMatchOver() {
+        return matchResult >= 0;
+    }
+
+    /** Returns the {@link Protocol} result of the match, or -1 while it is running. */
+    public int getMatchResult() {
+        return matchResult;
+    }
+}
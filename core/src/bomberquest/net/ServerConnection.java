@@ -0,0 +1,187 @@
+package bomberquest.net;
+
+import java.io.*;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A client's connection to a match server.
+ * Receives the welcome when connecting, then applies every received state to a {@link ReplicaMap} and sends one
+ * numbered input command per tick of the client.
+ * <p>
+ * States are read by a background thread and queued, so a client ticking at its own rate can send its inputs without
+ * waiting for the server, and apply whatever has arrived with {@link #poll()} once per tick.
+ */
+public class ServerConnection implements Closeable {
+
+    /** The socket connected to the server. */
+    private final Socket socket;
+
+    /** Reads the frames sent by the server. */
+    private final DataInputStream in;
+
+    /** Writes the frames sent to the server. */
+    private final DataOutputStream out;
+
+    /** The state of the map as received so far. */
+    private final ReplicaMap replica;
+
+    /** The states read by {@link #reader} that have not been applied yet. */
+    private final BlockingQueue<ByteBuffer> states = new LinkedBlockingQueue<>();
+
+    /** Reads the states of the server in the background. */
+    private final Thread reader;
+
+    /** Whether the server has closed the connection; set after the last state was queued. */
+    private volatile boolean closed;
+
+    /** The payload of the frame being read, grown when a frame does not fit. */
+    private byte[] frame = new byte[1024];
+
+    /** The number of the next input command. */
+    private int nextSequence = 0;
+
+    /** The bytes received so far, including the length of each frame. */
+    private volatile long bytesReceived;
+
+    /** The number of states received so far. */
+    private int statesReceived;
+
+    /**
+     * Connects to a server, waits for its welcome and starts reading its states.
+     *
+     * @param host the host of the server.
+     * @param port the port of the server.
+     * @throws IOException if the server cannot be reached or does not send a welcome.
+     */
+    public ServerConnection(String host, int port) throws IOException {
+        this.socket = new Socket(host, port);
+        this.socket.setTcpNoDelay(true); // Inputs are tiny and must not wait for more data
+        this.in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+        this.out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+        this.replica = new ReplicaMap(readFrame());
+        this.reader = new Thread(this::readStates, "server-reader");
+        this.reader.setDaemon(true);
+        this.reader.start();
+    }
+
+    /** Reads state frames until the server closes the connection. */
+    private void readStates() {
+        try {
+            while (true) {
+                ByteBuffer state = readFrame();
+                // The frame buffer is reused, so each queued state gets its own copy
+                ByteBuffer copy = ByteBuffer.allocate(state.remaining());
+                copy.put(state).flip();
+                states.add(copy);
+            }
+        } catch (IOException e) {
+            // The server closed the connection
+        } finally {
+            closed = true;
+        }
+    }
+
+    /**
+     * Waits for the next state from the server and applies it to the replica.
+     *
+     * @throws EOFException if the server closed the connection and every state has been applied.
+     * @throws IOException  if waiting is interrupted.
+     */
+    public void receive() throws IOException {
+        try {
+            ByteBuffer state;
+            do {
+                if (closed && states.isEmpty()) {
+                    throw new EOFException("The server closed the connection");
+                }
+                state = states.poll(100, TimeUnit.MILLISECONDS);
+            } while (state == null);
+            apply(state);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for a state");
+        }
+    }
+
+    /**
+     * Applies every state that has arrived since the last call, without waiting.
+     *
+     * @return the number of applied states.
+     * @throws EOFException if the server closed the connection and every state has been applied.
+     */
+    public int poll() throws EOFException {
+        int applied = 0;
+        ByteBuffer state;
+        while ((state = states.poll()) != null) {
+            apply(state);
+            applied++;
+        }
+        if (applied == 0 && closed && states.isEmpty()) {
+            throw new EOFException("The server closed the connection");
+        }
+        return applied;
+    }
+
+    /** Applies a received state to the replica. */
+    private void apply(ByteBuffer state) {
+        replica.apply(state);
+        statesReceived++;
+    }
+
+    /**
+     * Sends the input command of the client's current tick.
+     * A command is sent every tick, even if the buttons did not change, so the server applies the client's ticks one to one.
+     *
+     * @param buttons the held buttons, as {@link Protocol} button bits.
+     * @return the number of the command, which the server acknowledges once it has applied it.
+     * @throws IOException if the connection fails.
+     */
+    public int sendInput(int buttons) throws IOException {
+        int sequence = nextSequence++;
+        out.writeInt(1 + 4 + 1);
+        out.writeByte(Protocol.MSG_INPUT);
+        out.writeInt(sequence);
+        out.writeByte(buttons);
+        out.flush();
+        return sequence;
+    }
+
+    /** Reads one frame and returns its payload, positioned at the message type. */
+    private ByteBuffer readFrame() throws IOException {
+        int length = in.readInt();
+        if (length <= 0) {
+            throw new IOException("Invalid frame length: " + length);
+        }
+        if (frame.length < length) {
+            frame = new byte[Math.max(length, frame.length * 2)];
+        }
+        in.readFully(frame, 0, length);
+        bytesReceived += 4 + length; // Only written by one thread at a time
+        return ByteBuffer.wrap(frame, 0, length);
+    }
+
+    /** Returns the state of the map as received so far. */
+    public ReplicaMap getReplica() {
+        return replica;
+    }
+
+    /** Returns the bytes received so far. */
+    public long getBytesReceived() {
+        return bytesReceived;
+    }
+
+    /** Returns the number of states applied so far. */
+    public int getStatesReceived() {
+        return statesReceived;
+    }
+
+    /** Closes the connection. */
+    @Override
+    public void close() throws IOException {
+        socket.close();
+    }
+}
@@ -0,0 +1,124 @@
+package bomberquest.save;
+
+import bomberquest.map.GameMap;
+import bomberquest.map.MapSerializer;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Saves snapshots of a {@link GameMap} to disk without blocking the render thread.
+ * <p>
+ * Two buffers are used in turn: the render thread encodes the map into a free buffer, which only costs
+ * one byte per tile plus a few bytes per entity, and hands it to a background thread that writes it to a
+ * temporary file and moves it over the save file. While one buffer is being written the other can already
+ * take the next snapshot; if both are busy, the save is skipped instead of waiting.
+ */
+public class SaveGameWriter {
+
+    /** The file the snapshots are written to. */
+    private final Path saveFile;
+
+    /** The buffers that are currently free to encode a snapshot into. */
+    private final BlockingQueue<ByteBuffer> freeBuffers = new ArrayBlockingQueue<>(2);
+
+    /** The background thread that writes the encoded snapshots. */
+    private final ExecutorService writer = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "save-game-writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Constructs a writer for the given save file.
+     *
+     * @param saveFile the file the snapshots are written to.
+     */
+    public SaveGameWriter(Path saveFile) {
+        this.saveFile = saveFile;
+        freeBuffers.add(ByteBuffer.allocate(0));
+        freeBuffers.add(ByteBuffer.allocate(0));
+    }
+
+    /**
+     * Encodes a snapshot of the map and queues it to be written in the background.
+     * Must be called on the thread that ticks the map.
+     *
+     * @param map the map to save.
+     * @return true if the snapshot was queued, false if both buffers are still being written.
+     */
+    public boolean save(GameMap map) {
+        ByteBuffer buffer = freeBuffers.poll();
+        if (buffer == null) {
+            return false;
+        }
+
+        int size = MapSerializer.sizeOf(map);
+        if (buffer.capacity() < size) {
+            buffer = ByteBuffer.allocate(size);
+        }
+        buffer.clear();
+        MapSerializer.write(map, buffer);
+        buffer.flip();
+
+        ByteBuffer snapshot = buffer;
+        writer.execute(() -> write(snapshot));
+        return true;
+    }
+
+    /**
+     * Writes a snapshot to a temporary file and replaces the save file with it, so a crash never leaves a half-written save.
+     * Runs on the background thread and returns the buffer to the free ones afterwards.
+     */
+    private void write(ByteBuffer snapshot) {
+        Path temporaryFile = saveFile.resolveSibling(saveFile.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporaryFile,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (snapshot.hasRemaining()) {
+                channel.write(snapshot);
+            }
+            channel.force(false);
+            Files.move(temporaryFile, saveFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            System.err.println("Error saving game: " + e.getMessage());
+        } finally {
+            freeBuffers.add(snapshot);
+        }
+    }
+
+    /**
+     * Reads the save file.
+     *
+     * @return the buffer holding the last snapshot.
+     * @throws IOException if the file cannot be read.
+     */
+    public ByteBuffer load() throws IOException {
+        return ByteBuffer.wrap(Files.readAllBytes(saveFile));
+    }
+
+    /** Returns whether a saved game exists. */
+    public boolean hasSave() {
+        return Files.isRegularFile(saveFile);
+    }
+
+    /**
+     * Finishes the queued writes and stops the background thread.
+     */
+    public void close() {
+        writer.shutdown();
+        try {
+            if (!writer.awaitTermination(5, TimeUnit.SECONDS)) {
+                System.err.println("Timed out while finishing saves");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
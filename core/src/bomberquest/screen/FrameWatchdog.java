@@ -0,0 +1,195 @@
+package bomberquest.screen;
+
+import bomberquest.map.GameMap;
+import bomberquest.map.Player;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Watches how long the game screen takes to tick and to render the map, and captures what the map looked like when a
+ * frame goes over budget, so stutters reported by players can be diagnosed afterwards.
+ * <p>
+ * The timings of the last {@value #HISTORY} frames are kept in a ring. When the tick or the rendering of a frame takes
+ * longer than the budget, a capture is taken: the timings of the slow frame, the number of players, ghosts, boosts,
+ * armed bombs, active explosions and crumbling walls, the Box2D body and contact counts, and the recent frame history.
+ * Captures are written in the background into a ring-buffer file of {@value #SLOTS} fixed-size slots, so the file never
+ * grows and always holds the latest stutters; each capture starts with its sequence number to put them in order.
+ * At most one capture is taken per second, so a run of slow frames does not make the game slower still.
+ * <p>
+ * The budget is set in milliseconds with {@code -Dbomberquest.frameBudget}; 0 turns the watchdog off.
+ */
+public class FrameWatchdog {
+
+    /** The budget for the tick or the rendering of one frame, in nanoseconds; 0 if the watchdog is off. */
+    private static final long BUDGET_NANOS =
+            (long) (Float.parseFloat(System.getProperty("bomberquest.frameBudget", "20")) * 1_000_000);
+
+    /** The number of recent frames whose timings are kept and included in every capture. */
+    private static final int HISTORY = 120;
+
+    /** The number of captures the ring-buffer file holds. */
+    private static final int SLOTS = 16;
+
+    /** The size of one capture in the ring-buffer file, in bytes; longer captures are cut off. */
+    private static final int SLOT_SIZE = 8192;
+
+    /** The least time between two captures, in nanoseconds. */
+    private static final long CAPTURE_INTERVAL_NANOS = 1_000_000_000L;
+
+    /** The ring-buffer file the captures are written to. */
+    private final Path captureFile;
+
+    /** The frame times of the recent frames, in seconds, as a ring indexed by the frame number. */
+    private final float[] frameTimes = new float[HISTORY];
+
+    /** The tick times of the recent frames, in nanoseconds, parallel to {@link #frameTimes}. */
+    private final long[] tickNanos = new long[HISTORY];
+
+    /** The render times of the recent frames, in nanoseconds, parallel to {@link #frameTimes}. */
+    private final long[] renderNanos = new long[HISTORY];
+
+    /** The number of frames recorded so far. */
+    private long frames = 0;
+
+    /** The number of captures taken so far, which also picks the slot of the next one. */
+    private long captures = 0;
+
+    /** The time of the last capture, from {@link System#nanoTime()}. */
+    private long lastCaptureNanos = 0;
+
+    /** The background thread that writes the captures. */
+    private final ExecutorService writer = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "frame-watchdog-writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Constructs a watchdog writing its captures to the given file.
+     *
+     * @param captureFile the ring-buffer file; created on the first capture.
+     */
+    public FrameWatchdog(Path captureFile) {
+        this.captureFile = captureFile;
+    }
+
+    /** Returns whether slow frames are watched for in this run. */
+    public static boolean isEnabled() {
+        return BUDGET_NANOS > 0;
+    }
+
+    /**
+     * Records the timings of a frame and captures the state of the map if the frame went over budget.
+     * Must be called on the render thread, after the frame.
+     *
+     * @param frameTime   the frame time the map was ticked with, in seconds.
+     * @param tickNanos   the time the tick took, in nanoseconds; 0 if the map did not tick.
+     * @param renderNanos the time rendering the map took, in nanoseconds.
+     * @param map         the map shown in the frame.
+     */
+    public void record(float frameTime, long tickNanos, long renderNanos, GameMap map) {
+        if (!isEnabled()) {
+            return;
+        }
+        int slot = (int) (frames % HISTORY);
+        frameTimes[slot] = frameTime;
+        this.tickNanos[slot] = tickNanos;
+        this.renderNanos[slot] = renderNanos;
+        frames++;
+
+        long now = System.nanoTime();
+        if ((tickNanos > BUDGET_NANOS || renderNanos > BUDGET_NANOS)
+                && (captures == 0 || now - lastCaptureNanos >= CAPTURE_INTERVAL_NANOS)) {
+            lastCaptureNanos = now;
+            String capture = capture(map);
+            long position = (captures % SLOTS) * SLOT_SIZE;
+            captures++;
+            writer.execute(() -> write(capture, position));
+        }
+    }
+
+    /** Describes the last frame, the state of the map and the recent frame history. */
+    private String capture(GameMap map) {
+        int last = (int) ((frames - 1) % HISTORY);
+        int alivePlayers = 0;
+        for (Player player : map.getPlayers()) {
+            if (!player.isDestroyed()) {
+                alivePlayers++;
+            }
+        }
+        StringBuilder capture = new StringBuilder(SLOT_SIZE);
+        capture.append("# capture ").append(captures).append(" at ").append(Instant.now())
+                .append(", frame ").append(frames).append('\n')
+                .append("slow frame: tick ").append(millis(tickNanos[last]))
+                .append(" ms, render ").append(millis(renderNanos[last]))
+                .append(" ms, budget ").append(millis(BUDGET_NANOS)).append(" ms\n")
+                .append("players alive: ").append(alivePlayers).append('/').append(map.getPlayers().length)
+                .append(", ghosts: ").append(map.getGhostsLeft())
+                .append(", boosts: ").append(map.getBoosts().size()).append('\n')
+                .append("armed bombs: ").append(map.getFuseSystem().getArmedBombs().size())
+                .append(", active explosions: ").append(map.getExplosionSystem().getActiveExplosions().size())
+                .append(", crumbling walls: ").append(map.getTileGrid().getCrumblingCount()).append('\n')
+                .append("bodies: ").append(map.getBodyCount())
+                .append(", contacts: ").append(map.getContactCount()).append('\n')
+                .append("recent frames, oldest first (frame time / tick / render, ms):\n");
+        long first = Math.max(0, frames - HISTORY);
+        for (long frame = first; frame < frames; frame++) {
+            int slot = (int) (frame % HISTORY);
+            capture.append(millis(frameTimes[slot] * 1_000_000_000L)).append('/')
+                    .append(millis(tickNanos[slot])).append('/')
+                    .append(millis(renderNanos[slot]))
+                    .append((frame - first) % 8 == 7 ? '\n' : ' ');
+        }
+        return capture.toString();
+    }
+
+    /** Formats a duration in nanoseconds as milliseconds with one decimal. */
+    private static String millis(double nanos) {
+        return String.valueOf(Math.round(nanos / 100_000) / 10.0);
+    }
+
+    /**
+     * Writes a capture into its slot of the ring-buffer file, cut off or padded with blanks to the slot size.
+     * Runs on the background thread.
+     */
+    private void write(String capture, long position) {
+        byte[] text = capture.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer slot = ByteBuffer.allocate(SLOT_SIZE);
+        slot.put(text, 0, Math.min(text.length, SLOT_SIZE - 1));
+        while (slot.position() < SLOT_SIZE - 1) {
+            slot.put((byte) ' ');
+        }
+        slot.put((byte) '\n');
+        slot.flip();
+        try (FileChannel channel = FileChannel.open(captureFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            while (slot.hasRemaining()) {
+                channel.write(slot, position + slot.position());
+            }
+        } catch (IOException e) {
+            System.err.println("Error writing frame capture: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Finishes the queued captures and stops the background thread.
+     */
+    public void close() {
+        writer.shutdown();
+        try {
+            if (!writer.awaitTermination(5, TimeUnit.SECONDS)) {
+                System.err.println("Timed out while finishing frame captures");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
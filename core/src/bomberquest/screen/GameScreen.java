@@ -1,15 +1,15 @@
 package bomberquest.screen;
 
+import bomberquest.audio.MusicTrack;
+import bomberquest.audio.SoundEffects;
 import bomberquest.map.*;
 import bomberquest.map.boost.Boost;
-import bomberquest.texture.Drawable;
 import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.Input;
 import com.badlogic.gdx.Screen;
 import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.graphics.OrthographicCamera;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
-import com.badlogic.gdx.graphics.g2d.TextureRegion;
 import com.badlogic.gdx.scenes.scene2d.Stage;
 import com.badlogic.gdx.utils.ScreenUtils;
 import com.badlogic.gdx.utils.viewport.ScreenViewport;
@@ -37,6 +37,9 @@ public class GameScreen implements Screen {
      */
     public static final int SCALE = 4;
 
+    /** The time between two autosaves while playing, in seconds. */
+    private static final float AUTOSAVE_INTERVAL = 60f;
+
     /**
      * Game dependencies
      */
@@ -44,18 +47,21 @@ public class GameScreen implements Screen {
     private final SpriteBatch spriteBatch;//for rendering all elements on te screen
     private final GameMap map;//the current gameMap and its objects
     private final Hud hud;//Heads-up display for players
+    private final SoundEffects soundEffects;//plays the sounds of the map's events
 
     /**
      * Camera and rendering
      */
-    private final OrthographicCamera mapCamera; // Camera that follows the player and determines the visible game area.
+    private final OrthographicCamera mapCamera; // Camera that follows the players and determines the visible game area.
+    private final RenderSystem renderSystem; // Draws the map as seen by the camera
     private Stage stage; // Stage used for managing additional UI components
 
     /**
      * Game state
      */
-    private List<Ghost> ghosts; //list of ghosts currently present in the game
     private int countdownTimer;//the remaining time in the game
+    private float timeSinceAutosave = 0;//the time played since the last autosave
+    private boolean paused = false;//whether the window is in the background, which freezes the map and its music
     private List<Boost> boosts; //list to define the boosts
 
 
@@ -70,9 +76,13 @@ public class GameScreen implements Screen {
         this.spriteBatch = game.getSpriteBatch();
         this.map = game.getMap();
         this.hud = new Hud(spriteBatch, game.getSkin().getFont("font"));
+        // The HUD and the audio react to the events of the map instead of being called by the gameplay code
+        map.getEventBus().subscribe(hud, Hud.STATS_EVENTS);
+        this.soundEffects = SoundEffects.subscribe(map.getEventBus());
         // Create and configure the camera for the game view
         this.mapCamera = new OrthographicCamera();
         this.mapCamera.setToOrtho(false);
+        this.renderSystem = new RenderSystem(spriteBatch, mapCamera);
         this.stage = new Stage(new ScreenViewport());
     }
 
@@ -85,7 +95,8 @@ public class GameScreen implements Screen {
     public void render(float deltaTime) {
         // Check for escape key press to go back to the menu
         if (Gdx.input.isKeyJustPressed(Input.Keys.ESCAPE)) {
-            game.goToMenu();
+            game.goToMenu(); // Pauses the game; this screen is kept and resumed from the menu
+            return;
         }
 
         // Handle win
@@ -104,31 +115,35 @@ public class GameScreen implements Screen {
         // Cap frame time to 250ms to prevent spiral of death
         float frameTime = Math.min(deltaTime, 0.250f);
 
-        // Update the map state
-        map.tick(frameTime);
-
-        // Update all bombs and explosions
-        for (Bomb bomb : map.getPlayer().getBombs()) {
-            bomb.tick(frameTime); // Update the state of bombs and explosions
+        // Update the map state, including bombs and explosions; while the window is in the background the map does not advance at all
+        long tickNanos = 0;
+        if (!paused) {
+            long tickStart = System.nanoTime();
+            map.tick(frameTime);
+            tickNanos = System.nanoTime() - tickStart;
+
+            // Autosave from time to time; encoding is cheap and the file is written in the background
+            timeSinceAutosave += frameTime;
+            if (timeSinceAutosave >= AUTOSAVE_INTERVAL) {
+                timeSinceAutosave = 0;
+                game.saveGame();
+            }
         }
 
         // Update the camera
         updateCamera();
 
         // Render the map on the screen
-        renderMap();
+        long renderStart = System.nanoTime();
+        renderSystem.render(map);
+        // Capture the state of the map if the tick or the rendering went over budget
+        game.getFrameWatchdog().record(frameTime, tickNanos, System.nanoTime() - renderStart, map);
 
         // Render the HUD on the screen
         hud.render();
 
-        // Update the HUD with the latest game state - where do i put this
-        hud.updateHud(
-                map.getPlayer().getBlastRadius(), // Update blast radius dynamically
-                map.getPlayer().getMAX_ACTIVEBOMBS(),            // Fetch the current bomb limit
-                map.getCountdownTimer(),                   // Countdown timer from GameMap
-                map.getGhostsLeft(),                      // Remaining enemies from GameMap
-                map.isExitUnlocked()                       // Whether the exit is unlocked
-        );
+        // Update the HUD texts whose values have changed
+        hud.update(map);
 
     }
 
@@ -137,116 +152,31 @@ public class GameScreen implements Screen {
      * Currently, this just centers the camera at the origin.
      */
     private void updateCamera() {
-        // Get the player's current position on the map
-        Player player = map.getPlayer();
-
-        // Calculate the new camera position to center on the player
-        mapCamera.position.x = player.getX() * TILE_SIZE_PX * SCALE + TILE_SIZE_PX * SCALE / 2;
-        mapCamera.position.y = player.getY() * TILE_SIZE_PX * SCALE + TILE_SIZE_PX * SCALE / 2;
-
-        // Update the camera to apply the new position
-        mapCamera.update();
-
-    }
-
-    /**
-     * Renders the map and all game elements (walls, boosts, ghosts, etc.).
-     */
-    private void renderMap() {
-        // This configures the spriteBatch to use the camera's perspective when rendering
-        spriteBatch.setProjectionMatrix(mapCamera.combined);
-
-        // Start drawing
-        spriteBatch.begin();
-
-        // Render everything in the map here, in order from lowest to highest (later things appear on top)
-        // Render flowers
-        for (Flowers flowers : map.getFlowers()) {
-            draw(spriteBatch, flowers);
-        }
-
-        // Render walls
-        for (Wall[] row : map.getWalls()) {
-            for (Wall wall : row) {
-                if (wall != null) {
-                    draw(spriteBatch, wall); // Always render the wall. Handle textures within the Wall class.
-                }
+        // Follow the center of the living players, or of all players once everyone is dead
+        float sumX = 0, sumY = 0;
+        int count = 0;
+        for (Player player : map.getPlayers()) {
+            if (!player.isDestroyed()) {
+                sumX += player.getX();
+                sumY += player.getY();
+                count++;
             }
         }
-        // Render boosts (only revealed ones)
-        for (Boost boost : map.getBoosts()) {
-            if (!boost.isHidden() && !boost.isDestroyed()) { // Only render revealed boosts
-                draw(spriteBatch, boost);
+        if (count == 0) {
+            for (Player player : map.getPlayers()) {
+                sumX += player.getX();
+                sumY += player.getY();
+                count++;
             }
         }
 
-        //Render ghosts
-        for (Ghost ghost : map.getGhosts()) {
-            draw(spriteBatch, ghost);
-        }
-
-        //Render Exit
-        if (map.getExit() != null && !map.getExit().isHidden()) {
-            draw(spriteBatch, map.getExit());
-        }
-
-
-        // Render player
-        draw(spriteBatch, map.getPlayer());
-
-        // Draw bombs and explosions
-        for (Bomb bomb : map.getPlayer().getBombs()) {
-            if (bomb.isActive()) {
-                draw(spriteBatch, bomb);
-            } else if (bomb.getExplosion().isActive()) {
-                draw(spriteBatch, bomb.getExplosion());
-            }
-        }
-
-        // Finish drawing, and send the drawn items to the graphics card
-        spriteBatch.end();
-
-
-    }
-
-
-    /**
-     * Draws this object on the screen.
-     * The texture will be scaled by the game scale and the tile size.
-     * This should only be called between spriteBatch.begin() and spriteBatch.end(), e.g. in the renderMap() method.
-     *
-     * @param spriteBatch The SpriteBatch to draw with.
-     */
-    private static void draw(SpriteBatch spriteBatch, Drawable drawable) {
-        if (drawable == null) {
-            // Log an error if the drawable is null and exit early
-            System.out.println("Error: Drawable is null.");
-            return;
-        }
-
-        // Check if the drawable is an Explosion and render it directly
-        if (drawable instanceof Explosion) {
-            ((Explosion) drawable).render(spriteBatch);
-            return;
-        }
-        // Retrieve the current appearance (texture) of the drawable
-        TextureRegion texture = drawable.getCurrentAppearance();
-        if (texture == null) {
-            // Log an error if the texture is null and exit early
-            System.out.println("Error: TextureRegion is null for drawable: " + drawable.getClass().getSimpleName());
-            return;
-        }
+        // Calculate the new camera position to center on the players
+        mapCamera.position.x = sumX / count * TILE_SIZE_PX * SCALE + TILE_SIZE_PX * SCALE / 2;
+        mapCamera.position.y = sumY / count * TILE_SIZE_PX * SCALE + TILE_SIZE_PX * SCALE / 2;
 
-        // Convert drawable's tile-based coordinates to pixel-based coordinates
-        float x = drawable.getX() * TILE_SIZE_PX * SCALE;
-        float y = drawable.getY() * TILE_SIZE_PX * SCALE;
-
-        // Scale the texture dimensions by the game scale
-        float width = texture.getRegionWidth() * SCALE;
-        float height = texture.getRegionHeight() * SCALE;
+        // Update the camera to apply the new position
+        mapCamera.update();
 
-        // Render the texture at the calculated position and size
-        spriteBatch.draw(texture, x, y, width, height);
     }
 
     /**
@@ -265,40 +195,64 @@ public class GameScreen implements Screen {
 
 
 
-    // Unused methods from the Screen interface
+    /**
+     * Called when the application loses focus, e.g. when the window is minimized, and also right before it exits.
+     * Freezes the map and its music so that the game does not continue unattended; the screen itself stays,
+     * and going to the menu is left to the escape key.
+     */
     @Override
     public void pause() {
+        paused = true;
+        MusicTrack.BACKGROUND.pause();
     }
 
+    /** Called when the application regains focus. Continues the map and its music where they stopped. */
     @Override
     public void resume() {
+        paused = false;
+        MusicTrack.BACKGROUND.play();
     }
 
+    /** Rebuilds the HUD when the screen is shown again, since the level may have been restarted meanwhile. */
     @Override
     public void show() {
-
+        hud.invalidate();
     }
 
+    // Unused methods from the Screen interface
+
     @Override
     public void hide() {
     }
 
+    /**
+     * Releases the stage of this screen.
+     * The map is owned by {@link BomberQuestGame} and outlives the screen, so it is not disposed here.
+     */
     @Override
     public void dispose() {
+        map.getEventBus().unsubscribe(hud);
+        map.getEventBus().unsubscribe(soundEffects);
+        stage.dispose();
     }
 
 
     //Getters
+    /** Returns the map shown by this screen. */
+    public GameMap getMap() {
+        return map;
+    }
+
     public int getCountdownTimer() {
         return countdownTimer; // Replace with your actual timer logic
     }
 
     public int getGhostsLeft() {
-        return ghosts.size(); // Assuming you have a list of enemies
+        return map.getGhostsLeft();
     }
 
     public boolean isExitUnlocked() {
-        return ghosts.isEmpty(); // Exit is unlocked when all enemies are defeated
+        return map.isExitUnlocked();
     }
 
     public Stage getStage() {
@@ -1,5 +1,9 @@
 package bomberquest.screen;
 
+import bomberquest.map.GameMap;
+import bomberquest.map.Player;
+import bomberquest.map.event.GameEventListener;
+import bomberquest.map.event.GameEventType;
 import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.graphics.OrthographicCamera;
@@ -9,8 +13,15 @@ import com.badlogic.gdx.graphics.g2d.SpriteBatch;
 /**
  * A Heads-Up Display (HUD) that displays information on the screen.
  * It uses a separate camera so that it is always fixed on the screen.
+ * <p>
+ * The texts are only rebuilt when what they show changes: the player's stats after the events of the map that can
+ * change them, and the timer, the ghosts and the exit when their values differ from the ones shown.
  */
-public class Hud {
+public class Hud implements GameEventListener {
+
+    /** The events after which the stats shown may have changed. */
+    static final GameEventType[] STATS_EVENTS = {
+            GameEventType.BOOST_COLLECTED, GameEventType.BOOST_EXPIRED, GameEventType.PLAYER_DIED};
 
     /** The SpriteBatch used to draw the HUD. This is the same as the one used in the GameScreen. */
     private final SpriteBatch spriteBatch;
@@ -34,6 +45,18 @@ public class Hud {
     /** Text indicating whether the exit has been unlocked. */
     private String exitUnlockedText = "Exit Unlocked: No";
 
+    /** Whether the stats may have changed since their texts were built. */
+    private boolean statsChanged = true;
+
+    /** The countdown shown by {@link #timerText}. */
+    private int shownTime = Integer.MIN_VALUE;
+
+    /** The number of ghosts shown by {@link #enemiesLeftText}. */
+    private int shownGhosts = -1;
+
+    /** Whether {@link #exitUnlockedText} shows the exit as unlocked. */
+    private boolean shownExitUnlocked = false;
+
 
     /**
      * Constructs the HUD with the given SpriteBatch and BitmapFont.
@@ -87,19 +110,43 @@ public class Hud {
     }
 
     /**
-     * Updates the HUD elements with the current game state.
+     * Updates the HUD elements with the current game state, rebuilding only the texts whose values have changed.
      *
-     * @param bombRadius  The player's current bomb blast radius.
-     * @param bombLimit   The maximum number of bombs the player can place.
-     * @param timeLeft    The remaining time in the game.
-     * @param enemiesLeft The number of enemies left in the game.
-     * @param exitUnlocked Whether the exit is unlocked.
+     * @param map the map whose first player's stats, countdown, ghosts and exit are shown.
      */
-    public void updateHud(int bombRadius, int bombLimit, int timeLeft, int enemiesLeft, boolean exitUnlocked) {
-        this.bombRadiusText = "Blast Radius: " + bombRadius;
-        this.bombLimitText = "Bomb Limit: " + bombLimit;
-        this.timerText = "Time Left: " + timeLeft;
-        this.enemiesLeftText = "Enemies Left: " + enemiesLeft;
-        this.exitUnlockedText = "Exit Unlocked: " + (exitUnlocked ? "Yes" : "No");
+    public void update(GameMap map) {
+        if (statsChanged) {
+            statsChanged = false;
+            Player player = map.getPlayer();
+            this.bombRadiusText = "Blast Radius: " + player.getBlastRadius();
+            this.bombLimitText = "Bomb Limit: " + player.getMAX_ACTIVEBOMBS();
+        }
+        if (map.getGhostsLeft() != shownGhosts) {
+            shownGhosts = map.getGhostsLeft();
+            this.enemiesLeftText = "Enemies Left: " + shownGhosts;
+        }
+        if (map.isExitUnlocked() != shownExitUnlocked) {
+            shownExitUnlocked = map.isExitUnlocked();
+            this.exitUnlockedText = "Exit Unlocked: " + (shownExitUnlocked ? "Yes" : "No");
+        }
+        if (map.getCountdownTimer() != shownTime) {
+            shownTime = map.getCountdownTimer();
+            this.timerText = "Time Left: " + shownTime;
+        }
+    }
+
+    /**
+     * Rebuilds every text on the next {@link #update}, e.g. after the level has been restarted.
+     */
+    public void invalidate() {
+        statsChanged = true;
+        shownGhosts = -1;
+        shownTime = Integer.MIN_VALUE;
+    }
+
+    /** Marks the stats as changed after an event that can change them. */
+    @Override
+    public void onEvent(GameEventType type, int player, int x, int y) {
+        statsChanged = true;
     }
 }
@@ -22,7 +22,7 @@ public class MenuScreen implements Screen {
 
     private final Stage stage; // The stage for UI elements
     private final bomberquest.BomberQuestGame game; // Reference to the main game class
-    private boolean showContinueButton = false; // Flag to toggle "Continue" button
+    private final boolean showContinueButton; // Flag to toggle "Continue" button
 
     /**
      * Constructor for MenuScreen. Sets up the camera, viewport, stage, and UI elements.
@@ -30,7 +30,18 @@ public class MenuScreen implements Screen {
      * @param game The main game class, used to access global resources and methods.
      */
     public MenuScreen(bomberquest.BomberQuestGame game) {
+        this(game, false);
+    }
+
+    /**
+     * Constructor for MenuScreen. Sets up the camera, viewport, stage, and UI elements.
+     *
+     * @param game         The main game class, used to access global resources and methods.
+     * @param showContinue True to show the "Continue" button for a paused game.
+     */
+    public MenuScreen(bomberquest.BomberQuestGame game, boolean showContinue) {
         this.game = game; // Initialize the game field
+        this.showContinueButton = showContinue;
         var camera = new OrthographicCamera();
         camera.zoom = 1.5f; // Set camera zoom for a closer view
 
@@ -60,8 +71,9 @@ public class MenuScreen implements Screen {
 
     }
     /**
-     * Adds additional buttons to the menu, including "Continue", "Load New Map", and "Exit Game".
+     * Adds additional buttons to the menu, including "Continue", "Load Saved Game", "Load New Map", and "Exit Game".
      * - The "Continue" button resumes gameplay if available.
+     * - The "Load Saved Game" button resumes the last saved game if there is one.
      * - The "Load New Map" button loads a new game map.
      * - The "Exit Game" button closes the game.
      *
@@ -81,6 +93,18 @@ public class MenuScreen implements Screen {
             });
         }
 
+        // "Load Saved Game" button (only if a game has been saved)
+        if (game.hasSavedGame()) {
+            TextButton loadSaveButton = new TextButton("Load Saved Game", game.getSkin());
+            table.add(loadSaveButton).width(300).padBottom(20).row();
+            loadSaveButton.addListener(new ChangeListener() {
+                @Override
+                public void changed(ChangeEvent event, Actor actor) {
+                    game.loadSavedGame(); // Resume the saved game
+                }
+            });
+        }
+
         // "Load New Map" button
         TextButton loadMapButton = new TextButton("Load New Map", game.getSkin());
         table.add(loadMapButton).width(300).padBottom(20).row();
@@ -103,15 +127,6 @@ public class MenuScreen implements Screen {
     }
 
 
-    /**
-     * Updates the "Continue" button visibility based on the game state.
-     *
-     * @param showContinue True to show the "Continue" button, false to hide it.
-     */
-    public void setShowContinueButton(boolean showContinue) {
-        this.showContinueButton = showContinue;
-    }
-
     /**
      * The render method is called every frame to render the menu screen.
      * It clears the screen and draws the stage.
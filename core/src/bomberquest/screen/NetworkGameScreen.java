@@ -0,0 +1,206 @@
+package bomberquest.screen;
+
+import bomberquest.BomberQuestGame;
+import bomberquest.input.InputBinding;
+import bomberquest.input.KeyboardBinding;
+import bomberquest.map.system.TimerWheel;
+import bomberquest.net.ClientPrediction;
+import bomberquest.net.Protocol;
+import bomberquest.net.ReplicaMap;
+import bomberquest.net.ServerConnection;
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.Input;
+import com.badlogic.gdx.Screen;
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.OrthographicCamera;
+import com.badlogic.gdx.utils.ScreenUtils;
+
+import java.io.EOFException;
+import java.io.IOException;
+
+import static bomberquest.screen.GameScreen.SCALE;
+import static bomberquest.screen.GameScreen.TILE_SIZE_PX;
+
+/**
+ * Plays a match that is ticked by a server instead of a local map.
+ * <p>
+ * The screen ticks at the rate of the server: every tick it applies the states that have arrived to the
+ * {@link ReplicaMap}, reconciles the {@link ClientPrediction}, and sends and predicts one input command from the keys
+ * of the first local player. The replica is drawn with the player at its predicted position, so it reacts on the frame
+ * a key is pressed instead of a round trip later.
+ */
+public class NetworkGameScreen implements Screen {
+
+    /** The game, used to switch screens when the match ends. */
+    private final BomberQuestGame game;
+
+    /** The connection to the server. */
+    private final ServerConnection connection;
+
+    /** The state of the map as received from the server. */
+    private final ReplicaMap replica;
+
+    /** The predicted position of the client's own player. */
+    private final ClientPrediction prediction;
+
+    /** The keys that steer the client's own player. */
+    private final InputBinding input = KeyboardBinding.forPlayer(0);
+
+    /** The camera that follows the client's own player. */
+    private final OrthographicCamera camera;
+
+    /** Draws the replica as seen by the camera. */
+    private final RenderSystem renderSystem;
+
+    /** The frame time that has not been ticked yet, in seconds. */
+    private float accumulator = 0;
+
+    /** Whether the bomb key was pressed since the last tick. */
+    private boolean bombPressed;
+
+    /**
+     * Constructs a screen for a match the client has joined.
+     *
+     * @param game       the game, used to switch screens when the match ends.
+     * @param connection the connection to the server, which must have received its first state.
+     */
+    public NetworkGameScreen(BomberQuestGame game, ServerConnection connection) {
+        this.game = game;
+        this.connection = connection;
+        this.replica = connection.getReplica();
+        this.prediction = new ClientPrediction(replica, TimerWheel.TICK_TIME);
+        this.camera = new OrthographicCamera();
+        this.camera.setToOrtho(false);
+        this.renderSystem = new RenderSystem(game.getSpriteBatch(), camera);
+    }
+
+    /**
+     * Ticks the client as often as the server ticked during the frame, then draws the replica.
+     *
+     * @param deltaTime The time in seconds since the last render.
+     */
+    @Override
+    public void render(float deltaTime) {
+        // Leaving the match closes the connection, when the menu replaces this screen
+        if (Gdx.input.isKeyJustPressed(Input.Keys.ESCAPE)) {
+            game.goToMenu();
+            return;
+        }
+        if (replica.isMatchOver()) {
+            endMatch(replica.getMatchResult());
+            return;
+        }
+
+        // The bomb key is read every frame, so a press between two ticks is not lost
+        bombPressed |= input.isBombJustPressed();
+        accumulator += Math.min(deltaTime, 0.250f);
+        try {
+            while (accumulator >= TimerWheel.TICK_TIME) {
+                accumulator -= TimerWheel.TICK_TIME;
+                tick();
+            }
+        } catch (EOFException e) {
+            endMatch(Protocol.RESULT_ABORTED);
+            return;
+        } catch (IOException e) {
+            System.err.println("Lost the connection to the server: " + e.getMessage());
+            endMatch(Protocol.RESULT_ABORTED);
+            return;
+        }
+
+        ScreenUtils.clear(Color.BLACK);
+        camera.position.x = prediction.getX() * TILE_SIZE_PX * SCALE + TILE_SIZE_PX * SCALE / 2;
+        camera.position.y = prediction.getY() * TILE_SIZE_PX * SCALE + TILE_SIZE_PX * SCALE / 2;
+        camera.update();
+        renderSystem.render(replica, prediction);
+    }
+
+    /**
+     * Runs one tick of the client: applies the states that have arrived, then sends and predicts the held keys.
+     *
+     * @throws IOException if the connection fails or the server closed it.
+     */
+    private void tick() throws IOException {
+        if (connection.poll() > 0) {
+            prediction.reconcile();
+        }
+        int buttons = 0;
+        if (input.isUpPressed()) {
+            buttons |= Protocol.BUTTON_UP;
+        }
+        if (input.isDownPressed()) {
+            buttons |= Protocol.BUTTON_DOWN;
+        }
+        if (input.isLeftPressed()) {
+            buttons |= Protocol.BUTTON_LEFT;
+        }
+        if (input.isRightPressed()) {
+            buttons |= Protocol.BUTTON_RIGHT;
+        }
+        if (bombPressed) {
+            buttons |= Protocol.BUTTON_BOMB; // Only sent for one tick, so the bomb button is tapped
+            bombPressed = false;
+        }
+        int sequence = connection.sendInput(buttons);
+        prediction.applyInput(sequence, buttons);
+    }
+
+    /**
+     * Leaves the match for the screen that matches its result.
+     *
+     * @param result the {@link Protocol} result of the match.
+     */
+    private void endMatch(int result) {
+        switch (result) {
+            case Protocol.RESULT_WON:
+                game.goToVictoryScreen();
+                break;
+            case Protocol.RESULT_LOST:
+                game.goToGameOverScreen();
+                break;
+            default:
+                game.goToMenu();
+                break;
+        }
+    }
+
+    /**
+     * Called when the window is resized.
+     *
+     * @param width  The new window width.
+     * @param height The new window height.
+     */
+    @Override
+    public void resize(int width, int height) {
+        camera.setToOrtho(false);
+        camera.update();
+    }
+
+    // Unused methods from the Screen interface
+
+    @Override
+    public void show() {
+    }
+
+    @Override
+    public void pause() {
+    }
+
+    @Override
+    public void resume() {
+    }
+
+    @Override
+    public void hide() {
+    }
+
+    /** Closes the connection; the server keeps the match running for the other clients. */
+    @Override
+    public void dispose() {
+        try {
+            connection.close();
+        } catch (IOException e) {
+            System.err.println("Error closing the connection to the server: " + e.getMessage());
+        }
+    }
+}
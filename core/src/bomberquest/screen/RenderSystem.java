@@ -0,0 +1,292 @@
+package bomberquest.screen;
+
+import bomberquest.map.*;
+import bomberquest.map.boost.Boost;
+import bomberquest.map.boost.BoostRegistry;
+import bomberquest.map.system.TimerWheel;
+import bomberquest.net.ClientPrediction;
+import bomberquest.net.Protocol;
+import bomberquest.net.ReplicaMap;
+import bomberquest.texture.Animations;
+import bomberquest.texture.Drawable;
+import bomberquest.texture.Textures;
+import com.badlogic.gdx.graphics.OrthographicCamera;
+import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+
+import static bomberquest.screen.GameScreen.SCALE;
+import static bomberquest.screen.GameScreen.TILE_SIZE_PX;
+
+/**
+ * The last stage of a frame: draws the state of a map that the simulation systems have produced.
+ * It reads the same dense lists the simulation systems own (armed bombs, active explosions, crumbling walls),
+ * so drawing never walks objects that cannot be on screen.
+ * It is kept out of the map's own system list because the map is also simulated on servers without graphics.
+ */
+public class RenderSystem {
+
+    /** The directions the arms of an explosion are walked in, as {dx, dy}. */
+    private static final int[][] DIRECTIONS = {{1, 0}, {-1, 0}, {0, 1}, {0, -1}};
+
+    /** The batch every sprite is drawn with. */
+    private final SpriteBatch spriteBatch;
+
+    /** The camera that decides which part of the map is visible. */
+    private final OrthographicCamera camera;
+
+    /**
+     * Constructs a render system.
+     *
+     * @param spriteBatch the batch every sprite is drawn with.
+     * @param camera      the camera that decides which part of the map is visible.
+     */
+    public RenderSystem(SpriteBatch spriteBatch, OrthographicCamera camera) {
+        this.spriteBatch = spriteBatch;
+        this.camera = camera;
+    }
+
+    /**
+     * Renders the map and all game elements (walls, boosts, ghosts, etc.) as seen by the camera.
+     *
+     * @param map the map to render.
+     */
+    public void render(GameMap map) {
+        // This configures the spriteBatch to use the camera's perspective when rendering
+        spriteBatch.setProjectionMatrix(camera.combined);
+
+        // Start drawing
+        spriteBatch.begin();
+
+        // Render everything in the map here, in order from lowest to highest (later things appear on top)
+        // Render the floor and the walls
+        renderTiles(map.getTileGrid(), map.getTimerWheel().getTime());
+        // Render boosts (only revealed ones)
+        for (Boost boost : map.getBoosts()) {
+            if (!boost.isHidden() && !boost.isDestroyed()) { // Only render revealed boosts
+                draw(boost);
+            }
+        }
+
+        //Render ghosts
+        for (Ghost ghost : map.getGhosts()) {
+            draw(ghost);
+        }
+
+        //Render Exit
+        if (map.getExit() != null && !map.getExit().isHidden()) {
+            draw(map.getExit());
+        }
+
+        // Render players
+        for (Player player : map.getPlayers()) {
+            draw(player);
+        }
+
+        // Draw bombs and explosions
+        for (Bomb bomb : map.getFuseSystem().getArmedBombs()) {
+            draw(bomb);
+        }
+        for (Explosion explosion : map.getExplosionSystem().getActiveExplosions()) {
+            explosion.render(spriteBatch);
+        }
+
+        // Finish drawing, and send the drawn items to the graphics card
+        spriteBatch.end();
+    }
+
+    /**
+     * Renders a client's replica of a map ticked by a server, with the client's own player where it is predicted to be.
+     * The replica only knows what the server sends, so players and ghosts are drawn without their walking direction.
+     *
+     * @param replica    the replica to render.
+     * @param prediction the prediction of the client's own player.
+     */
+    public void render(ReplicaMap replica, ClientPrediction prediction) {
+        spriteBatch.setProjectionMatrix(camera.combined);
+        spriteBatch.begin();
+
+        // The same order as a local map, from lowest to highest
+        float time = replica.getTick() * TimerWheel.TICK_TIME;
+        renderTiles(replica, time);
+        for (int[] boost : replica.getBoosts()) {
+            draw(BoostRegistry.getDefault().forItem(boost[0]).getTexture(), boost[1], boost[2]);
+        }
+
+        float[] ghostPositions = replica.getGhostPositions();
+        for (int i = 0; i < replica.getGhostCount(); i++) {
+            if (replica.isGhostAlive(i)) {
+                draw(Animations.GHOST_WALK_RIGHT.getKeyFrame(time, true), ghostPositions[i * 2], ghostPositions[i * 2 + 1]);
+            }
+        }
+
+        if (replica.getExitX() >= 0 && (replica.getExitFlags() & Protocol.EXIT_HIDDEN) == 0) {
+            draw(Textures.EXIT, replica.getExitX(), replica.getExitY());
+        }
+
+        float[] playerPositions = replica.getPlayerPositions();
+        for (int i = 0; i < playerPositions.length / 2; i++) {
+            if (!replica.isPlayerAlive(i)) {
+                continue;
+            }
+            TextureRegion frame = Animations.CHARACTER_WALK_DOWN.getKeyFrame(0, false);
+            if (i == replica.getPlayerIndex()) {
+                draw(frame, prediction.getX(), prediction.getY());
+            } else {
+                draw(frame, playerPositions[i * 2], playerPositions[i * 2 + 1]);
+            }
+        }
+
+        for (int[] bomb : replica.getBombs()) {
+            draw(Animations.BOMB.getKeyFrame(time, true), bomb[1], bomb[2]);
+        }
+        for (int[] bomb : prediction.getPredictedBombs()) {
+            draw(Animations.BOMB.getKeyFrame(time, true), bomb[1], bomb[2]);
+        }
+        for (int[] explosion : replica.getBurningExplosions()) {
+            renderExplosion(replica, explosion, time - explosion[3] * TimerWheel.TICK_TIME);
+        }
+
+        spriteBatch.end();
+    }
+
+    /**
+     * Renders the tiles of a replica the camera can see, like {@link #renderTiles(TileGrid, float)} does for a local map.
+     *
+     * @param replica The replica to render.
+     * @param time    The time of the last state the replica applied, in seconds.
+     */
+    private void renderTiles(ReplicaMap replica, float time) {
+        int width = replica.getWidth();
+        int[] range = visibleRange(width, replica.getHeight());
+        for (int y = range[1]; y <= range[3]; y++) {
+            for (int x = range[0]; x <= range[2]; x++) {
+                draw(Textures.FLOWERS, x, y);
+
+                int bits = replica.getTile(y * width + x);
+                int type = bits & TileGrid.TYPE_MASK;
+                if (type == TileGrid.INDESTRUCTIBLE_WALL) {
+                    draw(Textures.INDESTRUCTIBLE_WALL, x, y);
+                } else if (type == TileGrid.DESTRUCTIBLE_WALL && (bits & TileGrid.CRUMBLING_BIT) == 0) {
+                    draw(Textures.DESTRUCTIBLE_WALL, x, y);
+                } else if (type == TileGrid.DESTRUCTIBLE_WALL) {
+                    float crumbling = time - replica.getTileTick(y * width + x) * TimerWheel.TICK_TIME;
+                    draw(Animations.WALL_DESTRUCTION.getKeyFrame(crumbling, false), x, y);
+                }
+            }
+        }
+    }
+
+    /**
+     * Renders an explosion of a replica. The server only sends its center and radius, so its arms are walked
+     * over the replica's tiles: they stop in front of indestructible walls and end on the destructible wall they hit.
+     *
+     * @param replica   The replica the explosion burns in.
+     * @param explosion The explosion as {x, y, radius, tick}.
+     * @param elapsed   The time since the explosion started, in seconds.
+     */
+    private void renderExplosion(ReplicaMap replica, int[] explosion, float elapsed) {
+        draw(Explosion.segmentAnimation(0, 0, false).getKeyFrame(elapsed, false), explosion[0], explosion[1]);
+        for (int[] direction : DIRECTIONS) {
+            for (int r = 1; r <= explosion[2]; r++) {
+                int x = explosion[0] + direction[0] * r;
+                int y = explosion[1] + direction[1] * r;
+                if (x < 0 || y < 0 || x >= replica.getWidth() || y >= replica.getHeight()) {
+                    break;
+                }
+                int type = replica.getTile(y * replica.getWidth() + x) & TileGrid.TYPE_MASK;
+                if (type == TileGrid.INDESTRUCTIBLE_WALL) {
+                    break;
+                }
+                boolean end = r == explosion[2] || type == TileGrid.DESTRUCTIBLE_WALL;
+                draw(Explosion.segmentAnimation(direction[0], direction[1], end).getKeyFrame(elapsed, false), x, y);
+                if (end) {
+                    break;
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the tiles of a map of the given size the camera can see, as {minX, minY, maxX, maxY}.
+     * Only these are visited, so the cost of drawing does not grow with the size of the map.
+     */
+    private int[] visibleRange(int width, int height) {
+        float tileSize = TILE_SIZE_PX * SCALE;
+        float halfWidth = camera.viewportWidth * camera.zoom / 2;
+        float halfHeight = camera.viewportHeight * camera.zoom / 2;
+        return new int[]{
+                Math.max(0, (int) Math.floor((camera.position.x - halfWidth) / tileSize)),
+                Math.max(0, (int) Math.floor((camera.position.y - halfHeight) / tileSize)),
+                Math.min(width - 1, (int) Math.ceil((camera.position.x + halfWidth) / tileSize)),
+                Math.min(height - 1, (int) Math.ceil((camera.position.y + halfHeight) / tileSize))
+        };
+    }
+
+    /**
+     * Renders the tiles the camera can see: flowers on every tile, then the walls on top of them.
+     * Walls that are crumbling are drawn from the grid's side table with their destruction animation.
+     *
+     * @param tileGrid The layout of the map to render.
+     * @param time     The current time of the map's timer wheel, in seconds.
+     */
+    private void renderTiles(TileGrid tileGrid, float time) {
+        int[] range = visibleRange(tileGrid.getWidth(), tileGrid.getHeight());
+        for (int y = range[1]; y <= range[3]; y++) {
+            for (int x = range[0]; x <= range[2]; x++) {
+                draw(Textures.FLOWERS, x, y);
+
+                int type = tileGrid.getType(x, y);
+                if (type == TileGrid.INDESTRUCTIBLE_WALL) {
+                    draw(Textures.INDESTRUCTIBLE_WALL, x, y);
+                } else if (type == TileGrid.DESTRUCTIBLE_WALL && !tileGrid.isCrumbling(x, y)) {
+                    draw(Textures.DESTRUCTIBLE_WALL, x, y);
+                }
+            }
+        }
+
+        for (int c = 0; c < tileGrid.getCrumblingCount(); c++) {
+            TextureRegion frame = Animations.WALL_DESTRUCTION.getKeyFrame(time - tileGrid.getCrumblingStart(c), false);
+            draw(frame, tileGrid.getCrumblingX(c), tileGrid.getCrumblingY(c));
+        }
+    }
+
+    /**
+     * Draws an object at its position on the map.
+     * This should only be called between spriteBatch.begin() and spriteBatch.end().
+     *
+     * @param drawable The object to draw.
+     */
+    private void draw(Drawable drawable) {
+        // Retrieve the current appearance (texture) of the drawable
+        TextureRegion texture = drawable.getCurrentAppearance();
+        if (texture == null) {
+            // Log an error if the texture is null and exit early
+            System.out.println("Error: TextureRegion is null for drawable: " + drawable.getClass().getSimpleName());
+            return;
+        }
+
+        draw(texture, drawable.getX(), drawable.getY());
+    }
+
+    /**
+     * Draws a texture at the given tile coordinates.
+     * The texture will be scaled by the game scale and the tile size.
+     * This should only be called between spriteBatch.begin() and spriteBatch.end().
+     *
+     * @param texture The texture to draw.
+     * @param tileX   The x-coordinate in tiles.
+     * @param tileY   The y-coordinate in tiles.
+     */
+    private void draw(TextureRegion texture, float tileX, float tileY) {
+        // Convert tile-based coordinates to pixel-based coordinates
+        float x = tileX * TILE_SIZE_PX * SCALE;
+        float y = tileY * TILE_SIZE_PX * SCALE;
+
+        // Scale the texture dimensions by the game scale
+        float width = texture.getRegionWidth() * SCALE;
+        float height = texture.getRegionHeight() * SCALE;
+
+        // Render the texture at the calculated position and size
+        spriteBatch.draw(texture, x, y, width, height);
+    }
+}
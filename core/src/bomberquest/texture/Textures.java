@@ -11,11 +11,6 @@ public class Textures {
 
     public static final TextureRegion FLOWERS = SpriteSheet.BASIC_TILES.at(2, 4);
 
-    public static final TextureRegion ExplosionBoost = SpriteSheet.ORIGINAL_BOMBERMAN.at(15, 2);
-    public static final TextureRegion SpeedBoost = SpriteSheet.ORIGINAL_BOMBERMAN.at(15, 4);
-    public static final TextureRegion GhostSpeedBoost = SpriteSheet.ORIGINAL_BOMBERMAN.at(15, 8);
-    public static final TextureRegion BombBoost = SpriteSheet.ORIGINAL_BOMBERMAN.at(15, 1);
-
     //now we add the exit
      public static final TextureRegion EXIT = SpriteSheet.ORIGINAL_BOMBERMAN.at(4, 12);
 
@@ -0,0 +1,172 @@
+package bomberquest.server;
+
+import bomberquest.input.NetworkInputBinding;
+import bomberquest.net.Protocol;
+
+import java.io.*;
+import java.net.Socket;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * The server side of a connected client.
+ * A background thread queues the client's input commands in the binding of its player. The match thread queues the
+ * encoded states in a bounded outbox that a second background thread writes to the socket, so a slow client never
+ * blocks the tick of its match, or of the other matches sharing the worker.
+ */
+class ClientSession implements Closeable {
+
+    /**
+     * The most frames that may wait for the writer; a client that falls this far behind is disconnected.
+     * At 60 ticks per second this is two seconds of states.
+     */
+    private static final int MAX_QUEUED_FRAMES = 120;
+
+    /** Tells the writer to close the connection once the frames queued before it have been written. */
+    private static final byte[] END_OF_STREAM = new byte[0];
+
+    /** The socket connected to the client. */
+    private final Socket socket;
+
+    /** The index of the client's player. */
+    private final int playerIndex;
+
+    /** The controls of the client's player, updated from the received inputs. */
+    private final NetworkInputBinding input;
+
+    /** The frames queued for the client that have not been written yet. */
+    private final BlockingQueue<byte[]> outbox = new ArrayBlockingQueue<>(MAX_QUEUED_FRAMES);
+
+    /** Reads the inputs of the client in the background. */
+    private final Thread reader;
+
+    /** Writes the queued frames to the client in the background. */
+    private final Thread writer;
+
+    /** Whether the client is still connected. */
+    private volatile boolean connected = true;
+
+    /** The bytes queued for the client so far. */
+    private long bytesSent;
+
+    /**
+     * Constructs a session for a client that just connected and starts reading its inputs and writing its frames.
+     *
+     * @param socket      the socket connected to the client.
+     * @param playerIndex the index of the client's player.
+     * @param input       the controls of the client's player.
+     * @throws IOException if the socket cannot be set up.
+     */
+    ClientSession(Socket socket, int playerIndex, NetworkInputBinding input) throws IOException {
+        this.socket = socket;
+        this.playerIndex = playerIndex;
+        this.input = input;
+        socket.setTcpNoDelay(true); // Every state is a whole frame that should leave right away
+        this.reader = new Thread(this::readInputs, "client-" + playerIndex + "-reader");
+        this.reader.setDaemon(true);
+        this.reader.start();
+        this.writer = new Thread(this::writeFrames, "client-" + playerIndex + "-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /** Reads input frames until the client disconnects. */
+    private void readInputs() {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()))) {
+            while (connected) {
+                int length = in.readInt();
+                byte type = in.readByte();
+                if (type == Protocol.MSG_INPUT && length == 1 + 4 + 1) {
+                    int sequence = in.readInt();
+                    input.offer(sequence, in.readByte());
+                } else {
+                    in.skipNBytes(length - 1); // Unknown messages are ignored
+                }
+            }
+        } catch (IOException e) {
+            // The client has disconnected
+        } finally {
+            input.releaseAll(); // The player stands still instead of running on with the last buttons
+            close();
+        }
+    }
+
+    /** Writes the queued frames until the session is closed, flushing whenever the outbox runs empty. */
+    private void writeFrames() {
+        try (OutputStream out = new BufferedOutputStream(socket.getOutputStream())) {
+            while (true) {
+                byte[] frame = outbox.take();
+                if (frame == END_OF_STREAM) {
+                    break;
+                }
+                out.write(frame);
+                if (outbox.isEmpty()) {
+                    out.flush();
+                }
+            }
+        } catch (IOException e) {
+            if (!socket.isClosed()) {
+                System.err.println("Disconnecting player " + playerIndex + ": " + e.getMessage());
+            }
+        } catch (InterruptedException e) {
+            // The session was aborted
+        } finally {
+            abort();
+        }
+    }
+
+    /**
+     * Queues a frame for the client.
+     * The states are deltas, so dropping one would leave the client's copy of the map wrong for good;
+     * a client whose outbox is full is disconnected instead.
+     *
+     * @param frame the whole frame; it is written later and must not be changed afterwards.
+     */
+    void send(byte[] frame) {
+        if (!connected) {
+            return;
+        }
+        if (outbox.offer(frame)) {
+            bytesSent += frame.length;
+        } else {
+            System.err.println("Disconnecting player " + playerIndex + ": fell " + MAX_QUEUED_FRAMES + " frames behind");
+            abort();
+        }
+    }
+
+    /** Returns whether the client is still connected. */
+    boolean isConnected() {
+        return connected;
+    }
+
+    /** Returns the bytes queued for the client so far. */
+    long getBytesSent() {
+        return bytesSent;
+    }
+
+    /**
+     * Closes the connection to the client once the frames queued so far have been written,
+     * or right away if the outbox is full.
+     */
+    @Override
+    public void close() {
+        if (!connected) {
+            return;
+        }
+        connected = false;
+        if (!outbox.offer(END_OF_STREAM)) {
+            abort();
+        }
+    }
+
+    /** Closes the connection to the client right away, dropping the queued frames. */
+    private void abort() {
+        connected = false;
+        try {
+            socket.close();
+        } catch (IOException e) {
+            // Already closed
+        }
+        writer.interrupt();
+    }
+}
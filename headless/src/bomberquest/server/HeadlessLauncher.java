@@ -0,0 +1,179 @@
+package bomberquest.server;
+
+import bomberquest.map.GameMap;
+import bomberquest.map.TileGrid;
+import bomberquest.map.generator.MapLayout;
+import bomberquest.net.Protocol;
+import bomberquest.net.ReplicaMap;
+import bomberquest.net.ServerConnection;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.util.Random;
+
+/**
+ * The entry point of the headless match server.
+ * It hosts one match on localhost and, unless disabled, connects a {@link LoopbackClient} for every player,
+ * so the whole round trip can be tried on one machine. Once the match is over, it checks that every stand-in
+ * client ended up with the state of the server and prints what the match cost. The exit code is 1 if a stand-in
+ * client did not, so a run can be used as a check, see the {@code checkSync} task of the headless build.
+ * <p>
+ * With {@code bomberquest.matches} above one, it hosts that many matches at once on a {@link MatchHost} instead, always
+ * fills them with stand-in clients, and prints how late the ticks were and how many matches had to be turned away.
+ * <p>
+ * Configured with system properties:
+ * <ul>
+ *     <li>{@code bomberquest.port}: the port to listen on, 0 for any free port (default 0)</li>
+ *     <li>{@code bomberquest.players}: the number of players, from 1 to 4 (default 1)</li>
+ *     <li>{@code bomberquest.width}, {@code bomberquest.height}: the size of the map in tiles (default 25x15)</li>
+ *     <li>{@code bomberquest.seed}: the seed of the map layout (default random)</li>
+ *     <li>{@code bomberquest.layout}: the kind of layout, one of {@link MapLayout} (default SCATTERED)</li>
+ *     <li>{@code bomberquest.ticks}: the ticks after which the match is stopped (default one minute)</li>
+ *     <li>{@code bomberquest.standIns}: whether to connect stand-in clients, or wait for real ones (default true)</li>
+ *     <li>{@code bomberquest.latency}: the one-way delay in milliseconds between the stand-in clients and the server (default 0)</li>
+ *     <li>{@code bomberquest.matches}: the number of matches to host at once on a {@link MatchHost} (default 1)</li>
+ *     <li>{@code bomberquest.workers}: the number of threads the matches are ticked on (default one per core)</li>
+ * </ul>
+ */
+public class HeadlessLauncher {
+
+    /**
+     * Hosts one match, or many matches if {@code bomberquest.matches} is more than one.
+     *
+     * @param args Command line arguments (not used; see the system properties above)
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int port = Integer.getInteger("bomberquest.port", 0);
+        int players = Integer.getInteger("bomberquest.players", 1);
+        int width = Integer.getInteger("bomberquest.width", 25);
+        int height = Integer.getInteger("bomberquest.height", 15);
+        long seed = Long.getLong("bomberquest.seed", new Random().nextLong());
+        MapLayout layout = MapLayout.valueOf(System.getProperty("bomberquest.layout", MapLayout.SCATTERED.name()));
+        int maxTicks = Integer.getInteger("bomberquest.ticks", 60 * MatchServer.TICK_RATE);
+        boolean standIns = Boolean.parseBoolean(System.getProperty("bomberquest.standIns", "true"));
+        int latency = Integer.getInteger("bomberquest.latency", 0);
+        int matches = Integer.getInteger("bomberquest.matches", 1);
+        int workers = Integer.getInteger("bomberquest.workers", Runtime.getRuntime().availableProcessors());
+
+        if (matches > 1) {
+            hostMatches(port, matches, workers, players, width, height, layout, seed, maxTicks, latency);
+        } else if (!hostMatch(port, players, width, height, layout, seed, maxTicks, standIns, latency)) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Hosts one match on the main thread and checks the stand-in clients against it.
+     *
+     * @return whether every stand-in client connected and ended up with the state of the server.
+     */
+    private static boolean hostMatch(int port, int players, int width, int height, MapLayout layout, long seed, int maxTicks,
+                                  boolean standIns, int latency) throws IOException, InterruptedException {
+        try (ServerSocket serverSocket = new ServerSocket(port, players, InetAddress.getLoopbackAddress());
+             MatchServer server = new MatchServer(seed, players, width, height, layout, maxTicks);
+             LatencyProxy proxy = new LatencyProxy(serverSocket.getLocalPort(), latency)) {
+            System.out.println("Hosting a " + width + "x" + height + " " + layout + " match with seed " + seed
+                    + " for " + players + " player(s) on port " + serverSocket.getLocalPort());
+
+            LoopbackClient[] clients = new LoopbackClient[standIns ? players : 0];
+            Thread[] clientThreads = new Thread[clients.length];
+            int clientPort = latency > 0 ? proxy.getPort() : serverSocket.getLocalPort();
+            for (int i = 0; i < clients.length; i++) {
+                clients[i] = new LoopbackClient(clientPort, seed + i);
+                clientThreads[i] = new Thread(clients[i], "stand-in-client-" + i);
+                clientThreads[i].start();
+            }
+
+            server.awaitPlayers(serverSocket);
+            server.run();
+
+            boolean inSync = true;
+            for (int i = 0; i < clients.length; i++) {
+                clientThreads[i].join();
+                ServerConnection connection = clients[i].getConnection();
+                if (connection == null) {
+                    System.out.println("Stand-in client " + i + " never connected");
+                    inSync = false;
+                    continue;
+                }
+                String mismatch = compare(server.getMap(), connection.getReplica());
+                inSync &= mismatch == null;
+                System.out.println("Stand-in client " + i + ": " + connection.getStatesReceived() + " states, "
+                        + connection.getBytesReceived() + " bytes received, "
+                        + (mismatch == null ? "in sync with the server" : "OUT OF SYNC: " + mismatch));
+                System.out.println(String.format("Stand-in client %d: inputs confirmed after %.1f ms on average,"
+                                + " predictions corrected by %.3f tiles on average and %.3f at most", i,
+                        clients[i].getAverageConfirmationMillis(), clients[i].getAverageCorrection(), clients[i].getMaxCorrection()));
+            }
+            System.out.println("Match over with result " + server.getResult() + ": " + server.getMetrics().report());
+            return inSync;
+        }
+    }
+
+    /** Hosts many matches on a {@link MatchHost}, fills them with stand-in clients and reports how the host kept up. */
+    private static void hostMatches(int port, int matches, int workers, int players, int width, int height,
+                                    MapLayout layout, long seed, int maxTicks, int latency) throws IOException, InterruptedException {
+        try (ServerSocket serverSocket = new ServerSocket(port, matches * players, InetAddress.getLoopbackAddress());
+             MatchHost host = new MatchHost(serverSocket, workers, players, width, height, layout, maxTicks, seed);
+             LatencyProxy proxy = new LatencyProxy(serverSocket.getLocalPort(), latency)) {
+            System.out.println("Hosting " + matches + " " + width + "x" + height + " matches for " + players
+                    + " player(s) each on " + workers + " worker(s) on port " + serverSocket.getLocalPort());
+
+            LoopbackClient[] clients = new LoopbackClient[matches * players];
+            Thread[] clientThreads = new Thread[clients.length];
+            int clientPort = latency > 0 ? proxy.getPort() : serverSocket.getLocalPort();
+            for (int i = 0; i < clients.length; i++) {
+                clients[i] = new LoopbackClient(clientPort, seed + i);
+                clientThreads[i] = new Thread(clients[i], "stand-in-client-" + i);
+                clientThreads[i].start();
+            }
+
+            int turnedAway = 0;
+            int finished = 0;
+            for (int i = 0; i < clients.length; i++) {
+                clientThreads[i].join();
+                ServerConnection connection = clients[i].getConnection();
+                if (connection == null) {
+                    turnedAway++;
+                } else if (connection.getReplica().isMatchOver()) {
+                    finished++;
+                }
+            }
+            System.out.println(finished + " stand-in client(s) played to the end, " + turnedAway + " were turned away");
+            System.out.println(host.getMatchesStarted() + " matches started: " + host.getMetrics().report());
+            System.out.println(host.reportWorkers());
+        }
+    }
+
+    /**
+     * Compares the replica of a client with the map of the server.
+     *
+     * @return a description of the first difference, or null if the replica matches.
+     */
+    private static String compare(GameMap map, ReplicaMap replica) {
+        TileGrid tileGrid = map.getTileGrid();
+        for (int i = 0; i < tileGrid.getWidth() * tileGrid.getHeight(); i++) {
+            if (replica.getTile(i) != tileGrid.getVisibleBits(i)) {
+                return "tile " + i + " is " + replica.getTile(i) + " instead of " + tileGrid.getVisibleBits(i);
+            }
+        }
+        float[] positions = map.getPlayerPositions();
+        for (int i = 0; i < map.getPlayers().length; i++) {
+            if (Protocol.quantize(replica.getPlayerPositions()[i * 2]) != Protocol.quantize(positions[i * 2])
+                    || Protocol.quantize(replica.getPlayerPositions()[i * 2 + 1]) != Protocol.quantize(positions[i * 2 + 1])) {
+                return "player " + i + " is at a different position";
+            }
+            if (replica.isPlayerAlive(i) == map.getPlayers()[i].isDestroyed()) {
+                return "player " + i + " is " + (replica.isPlayerAlive(i) ? "alive" : "dead");
+            }
+        }
+        if (replica.getBombs().size() != map.getFuseSystem().getArmedBombs().size()) {
+            return replica.getBombs().size() + " bombs instead of " + map.getFuseSystem().getArmedBombs().size();
+        }
+        if (replica.getCountdown() != map.getCountdownTimer()) {
+            return "countdown " + replica.getCountdown() + " instead of " + map.getCountdownTimer();
+        }
+        return null;
+    }
+}
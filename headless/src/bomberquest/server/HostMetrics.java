@@ -0,0 +1,127 @@
+package bomberquest.server;
+
+/**
+ * Measures how well a {@link MatchHost} keeps up with the tick rate: how late its workers start their passes over their
+ * matches, how many ticks they had to drop, how many matches were turned away, and what the finished matches cost.
+ * <p>
+ * Recorded by the worker and acceptor threads of the host, so every method is synchronized; each worker records once
+ * per tick, which is far too rare for the lock to matter.
+ */
+public class HostMetrics {
+
+    /** The width of a lateness bucket, in nanoseconds. */
+    private static final long BUCKET_NANOS = 100_000;
+
+    /** The number of lateness buckets; later passes are counted in the last one. */
+    private static final int BUCKETS = 1000;
+
+    /** The number of passes by lateness, in buckets of {@link #BUCKET_NANOS}. */
+    private final long[] latenessHistogram = new long[BUCKETS];
+
+    /** The number of recorded passes. */
+    private long passes;
+
+    /** The lateness of all recorded passes, in nanoseconds. */
+    private long latenessNanos;
+
+    /** The largest lateness of a recorded pass, in nanoseconds. */
+    private long maxLatenessNanos;
+
+    /** The ticks that were dropped because a worker fell too far behind. */
+    private long skippedTicks;
+
+    /** The matches that were turned away because every worker was busy. */
+    private long rejectedMatches;
+
+    /** The number of finished matches. */
+    private long finishedMatches;
+
+    /** The ticks of all finished matches. */
+    private long finishedTicks;
+
+    /** The average CPU time per tick of all finished matches, summed up, in microseconds. */
+    private double cpuMicrosSum;
+
+    /** The highest average CPU time per tick of a finished match, in microseconds. */
+    private double maxCpuMicros;
+
+    /** The bytes sent to the clients of all finished matches. */
+    private long bytesSent;
+
+    /**
+     * Records a pass of a worker over its matches.
+     *
+     * @param latenessNanos how long after its deadline the pass started, in nanoseconds.
+     */
+    public synchronized void recordPass(long latenessNanos) {
+        passes++;
+        this.latenessNanos += latenessNanos;
+        maxLatenessNanos = Math.max(maxLatenessNanos, latenessNanos);
+        latenessHistogram[(int) Math.min(latenessNanos / BUCKET_NANOS, BUCKETS - 1)]++;
+    }
+
+    /**
+     * Records ticks a worker dropped instead of catching up with them.
+     *
+     * @param ticks the number of dropped ticks.
+     */
+    public synchronized void recordSkippedTicks(long ticks) {
+        skippedTicks += ticks;
+    }
+
+    /** Records a match that was turned away. */
+    public synchronized void recordRejectedMatch() {
+        rejectedMatches++;
+    }
+
+    /**
+     * Records the cost of a finished match.
+     *
+     * @param metrics the metrics of the match.
+     */
+    public synchronized void recordFinishedMatch(ServerMetrics metrics) {
+        finishedMatches++;
+        finishedTicks += metrics.getTicks();
+        cpuMicrosSum += metrics.getCpuMicrosPerTick();
+        maxCpuMicros = Math.max(maxCpuMicros, metrics.getCpuMicrosPerTick());
+        bytesSent += metrics.getBytesSent();
+    }
+
+    /**
+     * Returns the lateness that the given share of passes did not exceed.
+     *
+     * @param percentile the share of passes, from 0 to 1.
+     * @return the lateness in milliseconds, rounded up to a bucket.
+     */
+    public synchronized double getLatenessPercentileMillis(double percentile) {
+        long target = (long) Math.ceil(passes * percentile);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += latenessHistogram[i];
+            if (seen >= target) {
+                return (i + 1) * BUCKET_NANOS / 1_000_000.0;
+            }
+        }
+        return BUCKETS * BUCKET_NANOS / 1_000_000.0;
+    }
+
+    /** Returns the number of matches that were turned away. */
+    public synchronized long getRejectedMatches() {
+        return rejectedMatches;
+    }
+
+    /** Returns the number of finished matches. */
+    public synchronized long getFinishedMatches() {
+        return finishedMatches;
+    }
+
+    /** Summarizes the metrics in one line. */
+    public synchronized String report() {
+        return String.format("%d passes late by %.2f ms on average (p99 %.1f ms, max %.1f ms), %d ticks dropped, "
+                        + "%d matches finished with %d ticks, CPU %.1f us/tick per match on average (max %.1f us), "
+                        + "%d bytes sent, %d matches turned away",
+                passes, passes == 0 ? 0 : latenessNanos / 1_000_000.0 / passes, getLatenessPercentileMillis(0.99),
+                maxLatenessNanos / 1_000_000.0, skippedTicks, finishedMatches, finishedTicks,
+                finishedMatches == 0 ? 0 : cpuMicrosSum / finishedMatches, maxCpuMicros, bytesSent, rejectedMatches);
+    }
+}
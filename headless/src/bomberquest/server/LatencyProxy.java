@@ -0,0 +1,134 @@
+package bomberquest.server;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.Arrays;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Forwards the connections to a local server with an artificial delay, so the stand-in clients play as if the server
+ * were far away. Every chunk of bytes is held back for the same one-way delay in both directions, which keeps the order
+ * of the bytes and turns a round trip into twice the delay.
+ */
+public class LatencyProxy implements Closeable {
+
+    /** The socket the clients connect to instead of the server. */
+    private final ServerSocket serverSocket;
+
+    /** The port of the server the connections are forwarded to. */
+    private final int targetPort;
+
+    /** The delay of each direction, in nanoseconds. */
+    private final long delayNanos;
+
+    /** Accepts the clients in the background. */
+    private final Thread acceptor;
+
+    /**
+     * Starts forwarding connections to a server on localhost.
+     *
+     * @param targetPort   the port of the server.
+     * @param delayMillis  the one-way delay in milliseconds.
+     * @throws IOException if the proxy cannot listen.
+     */
+    public LatencyProxy(int targetPort, int delayMillis) throws IOException {
+        this.serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+        this.targetPort = targetPort;
+        this.delayNanos = TimeUnit.MILLISECONDS.toNanos(delayMillis);
+        this.acceptor = new Thread(this::acceptClients, "latency-proxy");
+        this.acceptor.setDaemon(true);
+        this.acceptor.start();
+    }
+
+    /** Accepts clients and connects each of them to the server until the proxy is closed. */
+    private void acceptClients() {
+        try {
+            while (true) {
+                Socket client = serverSocket.accept();
+                Socket server = new Socket(InetAddress.getLoopbackAddress(), targetPort);
+                client.setTcpNoDelay(true);
+                server.setTcpNoDelay(true);
+                forward(client, server, "latency-proxy-up");
+                forward(server, client, "latency-proxy-down");
+            }
+        } catch (IOException e) {
+            // The proxy was closed
+        }
+    }
+
+    /**
+     * Forwards the bytes from one socket to another with the delay.
+     * One thread reads and stamps the chunks with the time they are due, and another one writes them once they are.
+     */
+    private void forward(Socket from, Socket to, String name) {
+        BlockingQueue<Chunk> chunks = new LinkedBlockingQueue<>();
+        Thread reader = new Thread(() -> {
+            byte[] buffer = new byte[4096];
+            try (InputStream in = from.getInputStream()) {
+                int read;
+                while ((read = in.read(buffer)) >= 0) {
+                    chunks.add(new Chunk(System.nanoTime() + delayNanos, Arrays.copyOf(buffer, read)));
+                }
+            } catch (IOException e) {
+                // The connection was closed
+            } finally {
+                chunks.add(new Chunk(System.nanoTime() + delayNanos, null));
+            }
+        }, name + "-reader");
+        Thread writer = new Thread(() -> {
+            try (OutputStream out = to.getOutputStream()) {
+                while (true) {
+                    Chunk chunk = chunks.take();
+                    long wait = chunk.due - System.nanoTime();
+                    if (wait > 0) {
+                        TimeUnit.NANOSECONDS.sleep(wait);
+                    }
+                    if (chunk.bytes == null) {
+                        break; // The other side has closed, which is passed on after the delay as well
+                    }
+                    out.write(chunk.bytes);
+                    out.flush();
+                }
+            } catch (IOException | InterruptedException e) {
+                // The connection was closed
+            }
+        }, name + "-writer");
+        reader.setDaemon(true);
+        writer.setDaemon(true);
+        reader.start();
+        writer.start();
+    }
+
+    /** Bytes on their way through the proxy. */
+    private static class Chunk {
+
+        /** The {@link System#nanoTime()} at which the bytes are passed on. */
+        final long due;
+
+        /** The bytes, or null if the connection was closed. */
+        final byte[] bytes;
+
+        Chunk(long due, byte[] bytes) {
+            this.due = due;
+            this.bytes = bytes;
+        }
+    }
+
+    /** Returns the port the clients connect to. */
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    /** Stops accepting clients. Connections that are already forwarded end when either side closes them. */
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+    }
+}
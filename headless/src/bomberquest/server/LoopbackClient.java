@@ -0,0 +1,140 @@
+package bomberquest.server;
+
+import bomberquest.net.ClientPrediction;
+import bomberquest.net.Protocol;
+import bomberquest.net.ReplicaMap;
+import bomberquest.net.ServerConnection;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A stand-in for a game client that connects to a match over localhost.
+ * It ticks at the rate of the server like a real client would: every tick it applies the states that have arrived to
+ * its {@link ReplicaMap}, reconciles its {@link ClientPrediction}, and sends and predicts one input command.
+ * It steers its player by changing direction every half second and placing a bomb now and then, so the server has
+ * changes to send, and measures how long the server takes to confirm its commands and how far off its predictions were.
+ */
+public class LoopbackClient implements Runnable {
+
+    /** The ticks between two changes of direction. */
+    private static final int TICKS_PER_MOVE = 30;
+
+    /** The directions the player can be steered in. */
+    private static final int[] DIRECTIONS = {Protocol.BUTTON_UP, Protocol.BUTTON_DOWN, Protocol.BUTTON_LEFT, Protocol.BUTTON_RIGHT};
+
+    /** The port of the server on localhost. */
+    private final int port;
+
+    /** Decides where to go and when to place bombs. */
+    private final Random random;
+
+    /** The connection to the server, once connected. */
+    private volatile ServerConnection connection;
+
+    /** The sum of the ticks between sending a command and the server acknowledging it. */
+    private long confirmationTicks;
+
+    /** The number of acknowledged commands. */
+    private long confirmations;
+
+    /** The sum of the corrections of every reconciliation, in tiles. */
+    private double correctionSum;
+
+    /** The largest correction of a reconciliation, in tiles. */
+    private float maxCorrection;
+
+    /** The number of reconciliations. */
+    private int reconciliations;
+
+    /**
+     * Constructs a client for a server on localhost.
+     *
+     * @param port the port of the server.
+     * @param seed the seed for the moves of the client.
+     */
+    public LoopbackClient(int port, long seed) {
+        this.port = port;
+        this.random = new Random(seed);
+    }
+
+    /**
+     * Connects to the server and plays until the match is over or the server closes the connection.
+     */
+    @Override
+    public void run() {
+        try (ServerConnection connection = new ServerConnection("localhost", port)) {
+            this.connection = connection;
+            ReplicaMap replica = connection.getReplica();
+            connection.receive(); // The keyframe, which the prediction starts from
+            ClientPrediction prediction = new ClientPrediction(replica, 1f / MatchServer.TICK_RATE);
+
+            long tickNanos = 1_000_000_000L / MatchServer.TICK_RATE;
+            long deadline = System.nanoTime();
+            int tick = 0;
+            int buttons = 0;
+            int acknowledged = -1;
+            while (!replica.isMatchOver()) {
+                if (connection.poll() > 0) {
+                    int ack = replica.getAcknowledgedInput(replica.getPlayerIndex());
+                    if (ack > acknowledged) {
+                        // Every command up to the acknowledged one was sent one tick after the previous one
+                        for (int sequence = acknowledged + 1; sequence <= ack; sequence++) {
+                            confirmationTicks += tick - sequence;
+                            confirmations++;
+                        }
+                        acknowledged = ack;
+                    }
+                    prediction.reconcile();
+                    correctionSum += prediction.getLastCorrection();
+                    maxCorrection = Math.max(maxCorrection, prediction.getLastCorrection());
+                    reconciliations++;
+                }
+
+                if (tick % TICKS_PER_MOVE == 0) {
+                    buttons = DIRECTIONS[random.nextInt(DIRECTIONS.length)];
+                    if (random.nextInt(4) == 0) {
+                        buttons |= Protocol.BUTTON_BOMB;
+                    }
+                } else {
+                    buttons &= ~Protocol.BUTTON_BOMB; // The bomb button is only tapped
+                }
+                int sequence = connection.sendInput(buttons);
+                prediction.applyInput(sequence, buttons); // The sequence equals the tick
+                tick++;
+
+                deadline += tickNanos;
+                long wait = deadline - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+            }
+        } catch (EOFException e) {
+            // The server closed the connection
+        } catch (IOException e) {
+            System.err.println("Stand-in client failed: " + e.getMessage());
+        }
+    }
+
+    /** Returns the connection to the server, or null if the client has not connected yet. */
+    public ServerConnection getConnection() {
+        return connection;
+    }
+
+    /** Returns the average time between sending a command and the server acknowledging it, in milliseconds. */
+    public double getAverageConfirmationMillis() {
+        return confirmations == 0 ? 0 : confirmationTicks * 1000.0 / MatchServer.TICK_RATE / confirmations;
+    }
+
+    /** Returns the average distance a reconciliation moved the predicted player, in tiles. */
+    public double getAverageCorrection() {
+        return reconciliations == 0 ? 0 : correctionSum / reconciliations;
+    }
+
+    /** Returns the largest distance a reconciliation moved the predicted player, in tiles. */
+    public float getMaxCorrection() {
+        return maxCorrection;
+    }
+}
@@ -0,0 +1,257 @@
+package bomberquest.server;
+
+import bomberquest.map.generator.MapLayout;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Hosts many matches in one JVM on a fixed number of worker threads.
+ * <p>
+ * Clients connect to one socket and fill the matches one after another. Every match belongs to one worker, which
+ * ticks all of its matches once per tick, one after the other, so a match never needs more than its share of a thread
+ * and the map, its Box2D world and its encoder stay on that thread. Each match measures its own CPU time in its
+ * {@link ServerMetrics}, and the host measures in {@link HostMetrics} how late the workers start their passes.
+ * <p>
+ * The host pushes back when it is full: a new match goes to the least busy worker, and if even that one uses more than
+ * {@link #ADMISSION_LOAD} of each tick, the match is turned away and its client disconnected. A worker that falls behind
+ * by more than {@link #MAX_LAG_TICKS} ticks drops the missed ticks, so its matches slow down instead of the worker
+ * spiraling further behind.
+ */
+public class MatchHost implements Closeable {
+
+    /** The share of a tick a worker may be busy before the host turns new matches away. */
+    private static final double ADMISSION_LOAD = 0.75;
+
+    /** The number of ticks a worker may fall behind before it drops the missed ticks. */
+    private static final int MAX_LAG_TICKS = 3;
+
+    /** How much of the measured load of the latest pass goes into the load of a worker, from 0 to 1. */
+    private static final double LOAD_SMOOTHING = 0.1;
+
+    /** The socket clients connect to. */
+    private final ServerSocket serverSocket;
+
+    /** The workers the matches are ticked on. */
+    private final TickWorker[] workers;
+
+    /** The number of players of each match. */
+    private final int playerCount;
+
+    /** The width of each map in tiles. */
+    private final int width;
+
+    /** The height of each map in tiles. */
+    private final int height;
+
+    /** The kind of layout of each map. */
+    private final MapLayout layout;
+
+    /** The number of ticks after which a match is stopped. */
+    private final int maxTicks;
+
+    /** The seed of the first match; each further match uses the next one. */
+    private final long seed;
+
+    /** How well the host keeps up. */
+    private final HostMetrics metrics = new HostMetrics();
+
+    /** Accepts the clients in the background. */
+    private final Thread acceptor;
+
+    /** The match that new clients join until it is full, or null if there is none. Only used by {@link #acceptor}. */
+    private MatchServer filling;
+
+    /** The number of matches started so far. */
+    private volatile int matchesStarted;
+
+    /** Whether the host is running. */
+    private volatile boolean running = true;
+
+    /**
+     * Starts a host that accepts clients and ticks their matches.
+     *
+     * @param serverSocket the socket clients connect to.
+     * @param workerCount  the number of worker threads, usually the number of cores.
+     * @param playerCount  the number of players of each match.
+     * @param width        the width of each map in tiles.
+     * @param height       the height of each map in tiles.
+     * @param layout       the kind of layout of each map.
+     * @param maxTicks     the number of ticks after which a match is stopped.
+     * @param seed         the seed of the first match.
+     */
+    public MatchHost(ServerSocket serverSocket, int workerCount, int playerCount, int width, int height, MapLayout layout,
+                     int maxTicks, long seed) {
+        if (workerCount < 1) {
+            throw new IllegalArgumentException("A host needs at least one worker, got " + workerCount);
+        }
+        this.serverSocket = serverSocket;
+        this.playerCount = playerCount;
+        this.width = width;
+        this.height = height;
+        this.layout = layout;
+        this.maxTicks = maxTicks;
+        this.seed = seed;
+        this.workers = new TickWorker[workerCount];
+        for (int i = 0; i < workerCount; i++) {
+            workers[i] = new TickWorker();
+            Thread thread = new Thread(workers[i], "match-worker-" + i);
+            thread.setDaemon(true);
+            thread.start();
+        }
+        this.acceptor = new Thread(this::acceptClients, "match-host-acceptor");
+        this.acceptor.setDaemon(true);
+        this.acceptor.start();
+    }
+
+    /** Accepts clients and seats each of them in the match that is filling up, until the host is closed. */
+    private void acceptClients() {
+        while (running) {
+            Socket socket;
+            try {
+                socket = serverSocket.accept();
+            } catch (IOException e) {
+                return; // The host was closed
+            }
+            if (filling == null || filling.isFull()) {
+                filling = startMatch();
+            }
+            if (filling == null || !filling.offer(socket)) {
+                try {
+                    socket.close(); // The client sees the connection end before it is welcomed
+                } catch (IOException e) {
+                    // Already closed
+                }
+            }
+        }
+    }
+
+    /**
+     * Starts a match on the least busy worker.
+     *
+     * @return the match, or null if every worker is too busy to take another one.
+     */
+    private MatchServer startMatch() {
+        TickWorker worker = workers[0];
+        for (TickWorker candidate : workers) {
+            if (candidate.load < worker.load) {
+                worker = candidate;
+            }
+        }
+        if (worker.load >= ADMISSION_LOAD) {
+            metrics.recordRejectedMatch();
+            return null;
+        }
+        MatchServer match = new MatchServer(seed + matchesStarted, playerCount, width, height, layout, maxTicks);
+        // Each worker accounts the CPU time of its matches on its own thread, and the workers already use every core
+        match.getMap().getGhostAiSystem().setInline(true);
+        matchesStarted++;
+        worker.added.add(match);
+        return match;
+    }
+
+    /** Returns the number of matches started so far. */
+    public int getMatchesStarted() {
+        return matchesStarted;
+    }
+
+    /** Returns the number of matches that are currently being hosted. */
+    public int getActiveMatches() {
+        int active = 0;
+        for (TickWorker worker : workers) {
+            active += worker.matchCount;
+        }
+        return active;
+    }
+
+    /** Returns how well the host keeps up. */
+    public HostMetrics getMetrics() {
+        return metrics;
+    }
+
+    /** Describes the load of every worker in one line. */
+    public String reportWorkers() {
+        StringBuilder report = new StringBuilder();
+        for (int i = 0; i < workers.length; i++) {
+            report.append(i == 0 ? "" : ", ")
+                    .append(String.format("worker %d: %d matches, %.0f%% busy", i, workers[i].matchCount, workers[i].load * 100));
+        }
+        return report.toString();
+    }
+
+    /** Stops accepting clients and ticking matches, and closes the matches that are still running. */
+    @Override
+    public void close() throws IOException {
+        running = false;
+        serverSocket.close();
+    }
+
+    /**
+     * Ticks a share of the matches at the tick rate.
+     * The matches are only touched by the worker's thread; new ones are handed over through {@link #added}.
+     */
+    private class TickWorker implements Runnable {
+
+        /** The matches handed to this worker that it has not picked up yet. */
+        final Queue<MatchServer> added = new ConcurrentLinkedQueue<>();
+
+        /** The matches this worker ticks. */
+        private final List<MatchServer> matches = new ArrayList<>();
+
+        /** The share of each tick this worker has recently been busy, smoothed over the last passes. */
+        volatile double load;
+
+        /** The number of matches this worker ticks. */
+        volatile int matchCount;
+
+        @Override
+        public void run() {
+            long deadline = System.nanoTime();
+            while (running) {
+                long start = System.nanoTime();
+                long lateness = start - deadline;
+                if (lateness > MAX_LAG_TICKS * MatchServer.TICK_NANOS) {
+                    // Drop the missed ticks instead of running them back to back
+                    long missed = lateness / MatchServer.TICK_NANOS;
+                    metrics.recordSkippedTicks(missed);
+                    deadline += missed * MatchServer.TICK_NANOS;
+                }
+                metrics.recordPass(Math.max(lateness, 0));
+
+                MatchServer match;
+                while ((match = added.poll()) != null) {
+                    matches.add(match);
+                }
+                Iterator<MatchServer> iterator = matches.iterator();
+                while (iterator.hasNext()) {
+                    match = iterator.next();
+                    match.admitJoining();
+                    if (match.isReady() && !match.tick()) {
+                        metrics.recordFinishedMatch(match.getMetrics());
+                        match.close();
+                        iterator.remove();
+                    }
+                }
+                matchCount = matches.size();
+                load += LOAD_SMOOTHING * ((double) (System.nanoTime() - start) / MatchServer.TICK_NANOS - load);
+
+                deadline += MatchServer.TICK_NANOS;
+                long wait = deadline - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+            }
+            for (MatchServer match : matches) {
+                match.close();
+            }
+        }
+    }
+}
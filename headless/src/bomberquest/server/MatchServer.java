@@ -0,0 +1,274 @@
+package bomberquest.server;
+
+import bomberquest.input.NetworkInputBinding;
+import bomberquest.map.GameMap;
+import bomberquest.map.GameMapListener;
+import bomberquest.map.generator.MapLayout;
+import bomberquest.net.DeltaEncoder;
+import bomberquest.net.Protocol;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Runs one match authoritatively: the server owns the only {@link GameMap} that is simulated, ticks it at a fixed rate
+ * and broadcasts the changes of every tick to its clients, which only send one numbered input command per tick.
+ * Each tick applies the next command of every player, and the states acknowledge the last applied one, so clients can
+ * predict their own player and reconcile with the server.
+ * Nothing is rendered, so a match costs only the simulation and the encoding, which {@link ServerMetrics} measures.
+ * <p>
+ * A match either runs on its own thread with {@link #run}, or is ticked with {@link #tick} by a {@link MatchHost}
+ * that shares its threads between many matches. Either way, only one thread at a time may tick it.
+ */
+public class MatchServer implements GameMapListener, Closeable {
+
+    /** The ticks per second of a match. */
+    public static final int TICK_RATE = 60;
+
+    /** The time of one tick, in seconds. */
+    private static final float TICK_TIME = 1f / TICK_RATE;
+
+    /** The time of one tick, in nanoseconds. */
+    static final long TICK_NANOS = 1_000_000_000L / TICK_RATE;
+
+    /** The controls of the players, fed by their clients. */
+    private final NetworkInputBinding[] inputs;
+
+    /** The simulated map. */
+    private final GameMap map;
+
+    /** Encodes the state of the map for the clients. */
+    private final DeltaEncoder encoder;
+
+    /** Clients that have connected but have not been welcomed by the ticking thread yet. */
+    private final Queue<Socket> joining = new ConcurrentLinkedQueue<>();
+
+    /** The number of clients that were offered to the match, including the ones still joining. */
+    private int seats = 0;
+
+    /** The connected clients. */
+    private final List<ClientSession> clients = new ArrayList<>();
+
+    /** What the match costs. */
+    private final ServerMetrics metrics = new ServerMetrics(TICK_RATE);
+
+    /** The number of ticks simulated so far. */
+    private int tick = 0;
+
+    /** The number of ticks after which the match is stopped. */
+    private final int maxTicks;
+
+    /** The result of the match once it is over, or -1 while it is running. */
+    private int result = -1;
+
+    /**
+     * Constructs a match on a random map.
+     *
+     * @param seed        the seed for the random layout.
+     * @param playerCount the number of players, each steered by one client.
+     * @param width       the width of the map in tiles.
+     * @param height      the height of the map in tiles.
+     * @param layout      the kind of layout to generate.
+     * @param maxTicks    the number of ticks after which the match is stopped.
+     */
+    public MatchServer(long seed, int playerCount, int width, int height, MapLayout layout, int maxTicks) {
+        this.maxTicks = maxTicks;
+        this.inputs = new NetworkInputBinding[playerCount];
+        for (int i = 0; i < playerCount; i++) {
+            inputs[i] = new NetworkInputBinding();
+        }
+        this.map = new GameMap(this, seed, inputs, width, height, layout);
+        this.encoder = new DeltaEncoder(map, inputs);
+    }
+
+    /**
+     * Waits until a client has connected for every player and sends each of them the welcome and a keyframe.
+     *
+     * @param serverSocket the socket clients connect to.
+     * @throws IOException if accepting a client fails.
+     */
+    public void awaitPlayers(ServerSocket serverSocket) throws IOException {
+        while (clients.size() < inputs.length) {
+            seats++;
+            welcome(serverSocket.accept());
+            System.out.println("Player " + (clients.size() - 1) + " joined");
+        }
+    }
+
+    /**
+     * Hands a connected client to the match; it is welcomed by the thread ticking the match before its next tick.
+     * May be called from any thread.
+     *
+     * @param socket the socket connected to the client.
+     * @return false if every player already has a client, in which case the socket is left alone.
+     */
+    public synchronized boolean offer(Socket socket) {
+        if (seats == inputs.length) {
+            return false;
+        }
+        seats++;
+        joining.add(socket);
+        return true;
+    }
+
+    /** Returns whether every player has a client, counting the ones still joining. */
+    public synchronized boolean isFull() {
+        return seats == inputs.length;
+    }
+
+    /** Returns whether every player's client has been welcomed, so the match can be ticked. */
+    public boolean isReady() {
+        return clients.size() == inputs.length;
+    }
+
+    /** Welcomes the clients that have joined since the last call; called by the thread ticking the match. */
+    public void admitJoining() {
+        Socket socket;
+        while ((socket = joining.poll()) != null) {
+            try {
+                welcome(socket);
+            } catch (IOException e) {
+                System.err.println("Could not welcome a client: " + e.getMessage());
+                try {
+                    socket.close();
+                } catch (IOException closeFailure) {
+                    // Already closed
+                }
+            }
+        }
+    }
+
+    /** Assigns the next player to a client and sends it the welcome and a keyframe. */
+    private void welcome(Socket socket) throws IOException {
+        int playerIndex = clients.size();
+        ClientSession client = new ClientSession(socket, playerIndex, inputs[playerIndex]);
+        clients.add(client);
+
+        ByteBuffer welcome = ByteBuffer.allocate(4 + 1 + 1 + 1 + 2 + 2);
+        welcome.putInt(welcome.capacity() - 4);
+        welcome.put(Protocol.MSG_WELCOME);
+        welcome.put((byte) playerIndex);
+        welcome.put((byte) inputs.length);
+        welcome.putShort((short) map.getTileGrid().getWidth());
+        welcome.putShort((short) map.getTileGrid().getHeight());
+        client.send(welcome.array());
+        client.send(toArray(encoder.encodeKeyframe(tick)));
+    }
+
+    /**
+     * Ticks the map at {@link #TICK_RATE} on the calling thread until the match is over, every client has left,
+     * or the tick limit is reached.
+     */
+    public void run() {
+        long deadline = System.nanoTime();
+        while (tick()) {
+            // Sleep until the next tick is due; a late tick is followed by the next one right away
+            deadline += TICK_NANOS;
+            long wait = deadline - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+        }
+    }
+
+    /**
+     * Simulates one tick and sends its changes to the clients.
+     * The CPU time of the tick is recorded in the {@link #getMetrics() metrics} of this match, so matches sharing a
+     * thread are accounted separately.
+     *
+     * @return whether the match goes on after this tick.
+     */
+    public boolean tick() {
+        if (result >= 0) {
+            return false;
+        }
+        long start = ServerMetrics.threadTime();
+        for (NetworkInputBinding input : inputs) {
+            input.advance();
+        }
+        map.tick(TICK_TIME);
+        tick++;
+
+        if (result < 0 && map.hasLost()) {
+            result = Protocol.RESULT_LOST;
+        } else if (result < 0 && (tick >= maxTicks || !anyClientConnected())) {
+            result = Protocol.RESULT_ABORTED;
+        }
+        if (result >= 0) {
+            encoder.endMatch(result);
+        }
+
+        // The encoder reuses its buffer, so the frame is copied once and the copy is queued for every client
+        byte[] frame = toArray(encoder.encodeDelta(tick));
+        int recipients = 0;
+        for (ClientSession client : clients) {
+            if (client.isConnected()) {
+                client.send(frame);
+                recipients++;
+            }
+        }
+        metrics.recordTick(ServerMetrics.threadTime() - start, frame.length, recipients);
+        return result < 0;
+    }
+
+    /** Copies a frame from its position to its limit into an array of its own. */
+    private static byte[] toArray(ByteBuffer frame) {
+        byte[] bytes = new byte[frame.remaining()];
+        frame.get(frame.position(), bytes);
+        return bytes;
+    }
+
+    /** Returns whether at least one client is still connected. */
+    private boolean anyClientConnected() {
+        for (ClientSession client : clients) {
+            if (client.isConnected()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** Ends the match as won once a player reaches the exit. */
+    @Override
+    public void onVictory() {
+        result = Protocol.RESULT_WON;
+    }
+
+    /** Ends the match as lost once the countdown runs out. */
+    @Override
+    public void onTimeUp() {
+        result = Protocol.RESULT_LOST;
+    }
+
+    /** Returns the simulated map. */
+    public GameMap getMap() {
+        return map;
+    }
+
+    /** Returns what the match has cost so far. */
+    public ServerMetrics getMetrics() {
+        return metrics;
+    }
+
+    /** Returns the result of the match once it is over, or -1 while it is running. */
+    public int getResult() {
+        return result;
+    }
+
+    /** Disconnects the clients and releases the map. */
+    @Override
+    public void close() {
+        for (ClientSession client : clients) {
+            client.close();
+        }
+        map.dispose();
+    }
+}
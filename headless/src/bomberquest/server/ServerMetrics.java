@@ -0,0 +1,104 @@
+package bomberquest.server;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * Measures what a match costs the server: the CPU time of every tick, including simulating, encoding and sending,
+ * and the bytes sent to each client.
+ * From these it estimates how many matches one core could host at the tick rate.
+ */
+public class ServerMetrics {
+
+    /** Reads the CPU time of the match thread. */
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+    /** The ticks per second of the match. */
+    private final int tickRate;
+
+    /** The number of recorded ticks. */
+    private long ticks;
+
+    /** The CPU time of all recorded ticks, in nanoseconds. */
+    private long cpuNanos;
+
+    /** The CPU time of the most expensive tick, in nanoseconds. */
+    private long maxCpuNanos;
+
+    /** The bytes of all frames, counted once no matter how many clients they were sent to. */
+    private long frameBytes;
+
+    /** The bytes of the largest frame. */
+    private int maxFrameBytes;
+
+    /** The bytes sent to all clients together. */
+    private long bytesSent;
+
+    /**
+     * Constructs empty metrics.
+     *
+     * @param tickRate the ticks per second of the match.
+     */
+    public ServerMetrics(int tickRate) {
+        this.tickRate = tickRate;
+    }
+
+    /**
+     * Returns the CPU time the current thread has used, or the wall clock if the JVM cannot measure it.
+     *
+     * @return a time in nanoseconds, only meaningful as the difference of two calls on the same thread.
+     */
+    public static long threadTime() {
+        return THREADS.isCurrentThreadCpuTimeSupported() ? THREADS.getCurrentThreadCpuTime() : System.nanoTime();
+    }
+
+    /**
+     * Records a tick.
+     *
+     * @param tickCpuNanos the CPU time of the tick, in nanoseconds.
+     * @param frameSize    the bytes of the frame of the tick.
+     * @param recipients   the number of clients the frame was sent to.
+     */
+    public void recordTick(long tickCpuNanos, int frameSize, int recipients) {
+        ticks++;
+        cpuNanos += tickCpuNanos;
+        maxCpuNanos = Math.max(maxCpuNanos, tickCpuNanos);
+        frameBytes += frameSize;
+        maxFrameBytes = Math.max(maxFrameBytes, frameSize);
+        bytesSent += (long) frameSize * recipients;
+    }
+
+    /** Returns the number of recorded ticks. */
+    public long getTicks() {
+        return ticks;
+    }
+
+    /** Returns the average bytes per tick that each client receives. */
+    public double getBytesPerTick() {
+        return ticks == 0 ? 0 : (double) frameBytes / ticks;
+    }
+
+    /** Returns the average CPU time of a tick, in microseconds. */
+    public double getCpuMicrosPerTick() {
+        return ticks == 0 ? 0 : cpuNanos / 1000.0 / ticks;
+    }
+
+    /** Returns the share of one core the match uses at its tick rate, from 0 to 1. */
+    public double getCoreLoad() {
+        return getCpuMicrosPerTick() * tickRate / 1_000_000.0;
+    }
+
+    /** Returns the bytes sent to all clients together. */
+    public long getBytesSent() {
+        return bytesSent;
+    }
+
+    /** Summarizes the metrics in one line. */
+    public String report() {
+        double load = getCoreLoad();
+        return String.format("%d ticks, %.1f bytes/tick per client (%.2f kB/s, max frame %d bytes), %d bytes sent in total, "
+                        + "CPU %.1f us/tick (max %.1f us), %.3f%% of a core, about %d matches per core",
+                ticks, getBytesPerTick(), getBytesPerTick() * tickRate / 1024, maxFrameBytes, bytesSent,
+                getCpuMicrosPerTick(), maxCpuNanos / 1000.0, load * 100, load > 0 ? (long) (1 / load) : 0);
+    }
+}
@@ -0,0 +1,260 @@
+package bomberquest.tools;
+
+import bomberquest.input.KeyboardBinding;
+import bomberquest.map.MapDefinition;
+import bomberquest.map.Objective;
+import bomberquest.map.boost.BoostRegistry;
+import bomberquest.map.boost.BoostType;
+import bomberquest.map.TileGrid;
+import bomberquest.map.generator.Reachability;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * What {@link MapValidator} finds out about one map file: whether it can be won, what it contains, and a rough guess of
+ * how hard it is.
+ * <p>
+ * Reachability is judged from the first entrance with {@link Reachability}, treating destructible walls as passable,
+ * since they can be blown up. A map whose exit or ghosts lie behind indestructible walls can never be won.
+ */
+public class MapAnalysis {
+
+    /** The path of the map file, relative to the validated directory. */
+    final String path;
+
+    /** The problems that make the map unplayable or unwinnable, plus the lines the parser skipped. */
+    final List<String> errors = new ArrayList<>();
+
+    /** Things that are allowed but probably not intended. */
+    final List<String> warnings = new ArrayList<>();
+
+    /** The number of entrances. */
+    int entrances;
+
+    /** The number of ghosts. */
+    int ghosts;
+
+    /** The number of ghosts enclosed by indestructible walls, which can never be killed. */
+    int enclosedGhosts;
+
+    /** The number of destructible walls. */
+    int destructibleWalls;
+
+    /** The number of indestructible walls. */
+    int indestructibleWalls;
+
+    /** The number of boosts by item id. */
+    final int[] boosts = new int[TileGrid.MAX_ITEM + 1];
+
+    /** Whether the map file places the exit itself. */
+    boolean exitDefined;
+
+    /** Whether the exit, or any wall it could randomly be placed under, can be reached. */
+    boolean exitReachable;
+
+    /** The fewest walls that have to be blown up to reach the exit, or -1 if it cannot be reached or is random. */
+    int wallsToExit = -1;
+
+    /** The estimated difficulty; higher is harder. */
+    double difficulty;
+
+    /**
+     * Constructs an analysis of a map file that could not be read at all.
+     *
+     * @param path  the path of the map file.
+     * @param error why the file could not be read.
+     */
+    MapAnalysis(String path, String error) {
+        this.path = path;
+        errors.add(error);
+    }
+
+    /**
+     * Analyzes a parsed map.
+     *
+     * @param path       the path of the map file.
+     * @param definition the map as read by the game's parser.
+     */
+    MapAnalysis(String path, MapDefinition definition) {
+        this.path = path;
+        errors.addAll(definition.getProblems());
+
+        TileGrid tileGrid = definition.getTileGrid();
+        int width = tileGrid.getWidth();
+        int height = tileGrid.getHeight();
+        byte[] types = new byte[width * height];
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                int type = tileGrid.getType(x, y);
+                types[tileGrid.index(x, y)] = (byte) type;
+                if (type == TileGrid.DESTRUCTIBLE_WALL) {
+                    destructibleWalls++;
+                    int item = tileGrid.getItem(x, y);
+                    if (item != TileGrid.ITEM_EXIT) {
+                        boosts[item]++;
+                    }
+                } else if (type == TileGrid.INDESTRUCTIBLE_WALL) {
+                    indestructibleWalls++;
+                }
+            }
+        }
+
+        entrances = definition.getEntrances().size();
+        ghosts = definition.getGhosts().size();
+        exitDefined = definition.getExit() != null;
+        int wallsTarget = definition.getTarget(Objective.WALLS_DESTROYED);
+        if (wallsTarget > destructibleWalls) {
+            errors.add("The map requires " + wallsTarget + " walls to be destroyed, but has only " + destructibleWalls);
+        }
+        int boostCount = 0;
+        for (int i = 0; i < boosts.length; i++) {
+            if (i != TileGrid.ITEM_NONE) {
+                boostCount += boosts[i];
+            }
+        }
+        int boostsTarget = definition.getTarget(Objective.BOOSTS_COLLECTED);
+        if (boostsTarget > boostCount) {
+            errors.add("The map requires " + boostsTarget + " boosts to be collected, but hides only " + boostCount);
+        }
+        if (entrances == 0) {
+            return; // The parser has already reported the missing entrance, and nothing can be reached
+        }
+        if (entrances > KeyboardBinding.MAX_PLAYERS) {
+            warnings.add(entrances + " entrances, but only " + KeyboardBinding.MAX_PLAYERS + " players can play");
+        }
+
+        int[] start = definition.getEntrances().get(0);
+        int startTile = tileGrid.index(start[0], start[1]);
+        if (types[startTile] != TileGrid.FLOOR) {
+            warnings.add("The first entrance is on a wall");
+        }
+        BitSet reachable = Reachability.reachable(types, width, height, startTile);
+        int[] wallsToReach = Reachability.wallsToReach(types, width, height, startTile);
+
+        for (int i = 1; i < entrances; i++) {
+            int[] entrance = definition.getEntrances().get(i);
+            if (i < KeyboardBinding.MAX_PLAYERS && !reachable.get(tileGrid.index(entrance[0], entrance[1]))) {
+                warnings.add("Entrance at " + entrance[0] + "," + entrance[1] + " is cut off from the first one");
+            }
+        }
+        for (int[] ghost : definition.getGhosts()) {
+            if (!reachable.get(tileGrid.index(ghost[0], ghost[1]))) {
+                enclosedGhosts++;
+                errors.add("Ghost at " + ghost[0] + "," + ghost[1] + " is enclosed by indestructible walls");
+            }
+        }
+
+        if (exitDefined) {
+            int exitTile = tileGrid.index(definition.getExit()[0], definition.getExit()[1]);
+            exitReachable = reachable.get(exitTile);
+            wallsToExit = wallsToReach[exitTile];
+            if (!exitReachable) {
+                errors.add("The exit at " + definition.getExit()[0] + "," + definition.getExit()[1] + " cannot be reached");
+            }
+        } else {
+            // The game hides the exit under a random free destructible wall, which may be one that cannot be reached
+            int candidates = 0;
+            int reachableCandidates = 0;
+            for (int i = 0; i < types.length; i++) {
+                int x = i % width;
+                int y = i / width;
+                if (types[i] == TileGrid.DESTRUCTIBLE_WALL && tileGrid.getItem(x, y) == TileGrid.ITEM_NONE
+                        && x > 0 && y > 0 && x < width - 1 && y < height - 1) {
+                    candidates++;
+                    if (reachable.get(i)) {
+                        reachableCandidates++;
+                    }
+                }
+            }
+            exitReachable = reachableCandidates > 0;
+            if (candidates == 0) {
+                errors.add("The map has no exit and no free destructible wall to hide one under");
+            } else if (reachableCandidates == 0) {
+                errors.add("The exit is placed at random, but no free destructible wall can be reached");
+            } else if (reachableCandidates < candidates) {
+                warnings.add("The exit is placed at random and ends up out of reach with a chance of "
+                        + (100 * (candidates - reachableCandidates) / candidates) + "%");
+            }
+        }
+        if (ghosts == 0) {
+            warnings.add("The map has no ghosts, so the exit is unlocked from the start");
+        }
+
+        difficulty = estimateDifficulty(reachable.cardinality());
+    }
+
+    /**
+     * Estimates how hard the map is from the ghosts per open tile, the walls between the player and the exit,
+     * and the boosts that help along the way. Only meant to rank maps against each other.
+     *
+     * @param reachableTiles the number of tiles that can be reached from the first entrance.
+     * @return the estimate, rounded to one decimal; 0 is trivial.
+     */
+    private double estimateDifficulty(int reachableTiles) {
+        double ghostDensity = reachableTiles == 0 ? 0 : 100.0 * ghosts / reachableTiles;
+        int helpfulBoosts = 0;
+        for (int i = TileGrid.ITEM_BOMB_BOOST; i < boosts.length; i++) {
+            helpfulBoosts += boosts[i];
+        }
+        double estimate = 10 * ghostDensity + Math.max(wallsToExit, 0) - 0.5 * helpfulBoosts;
+        return Math.round(Math.max(estimate, 0) * 10) / 10.0;
+    }
+
+    /** Returns whether the map can be played and won. */
+    boolean isValid() {
+        return errors.isEmpty();
+    }
+
+    /** Appends this analysis to a JSON document as an object. */
+    void appendJson(StringBuilder json) {
+        json.append("{\"path\":").append(quote(path))
+                .append(",\"valid\":").append(isValid())
+                .append(",\"entrances\":").append(entrances)
+                .append(",\"ghosts\":").append(ghosts)
+                .append(",\"enclosedGhosts\":").append(enclosedGhosts)
+                .append(",\"destructibleWalls\":").append(destructibleWalls)
+                .append(",\"indestructibleWalls\":").append(indestructibleWalls)
+                .append(",\"boosts\":{");
+        boolean first = true;
+        for (BoostType type : BoostRegistry.getDefault().getTypes()) {
+            json.append(first ? "" : ",").append(quote(type.getName())).append(':').append(boosts[type.getItem()]);
+            first = false;
+        }
+        json.append("},\"exitDefined\":").append(exitDefined)
+                .append(",\"exitReachable\":").append(exitReachable)
+                .append(",\"wallsToExit\":").append(wallsToExit)
+                .append(",\"difficulty\":").append(difficulty)
+                .append(",\"errors\":");
+        appendStrings(json, errors);
+        json.append(",\"warnings\":");
+        appendStrings(json, warnings);
+        json.append('}');
+    }
+
+    /** Appends a list of strings as a JSON array. */
+    private static void appendStrings(StringBuilder json, List<String> strings) {
+        json.append('[');
+        for (int i = 0; i < strings.size(); i++) {
+            json.append(i == 0 ? "" : ",").append(quote(strings.get(i)));
+        }
+        json.append(']');
+    }
+
+    /** Returns a string as a JSON string literal. */
+    static String quote(String text) {
+        StringBuilder quoted = new StringBuilder(text.length() + 2).append('"');
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '"' || c == '\\') {
+                quoted.append('\\').append(c);
+            } else if (c < 0x20) {
+                quoted.append(String.format("\\u%04x", (int) c));
+            } else {
+                quoted.append(c);
+            }
+        }
+        return quoted.append('"').toString();
+    }
+}
@@ -0,0 +1,88 @@
+package bomberquest.tools;
+
+import bomberquest.map.MapParser;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Checks map files offline, before they are shipped.
+ * <p>
+ * Every {@code .properties} file below a directory is read with the {@link MapParser} the game uses and analyzed in
+ * parallel on all cores, see {@link MapAnalysis}. The results are written as one JSON report, sorted by path, and a
+ * summary is printed. The exit code is 1 if any map cannot be played or won, so the check can guard a build.
+ * <p>
+ * Usage: {@code MapValidator <directory> [report.json]}; without a report file, the report is printed.
+ */
+public class MapValidator {
+
+    /**
+     * Validates the maps below a directory.
+     *
+     * @param args the directory and, optionally, the file to write the report to.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1 || args.length > 2) {
+            System.err.println("Usage: MapValidator <directory> [report.json]");
+            System.exit(2);
+        }
+        Path root = Paths.get(args[0]);
+        long start = System.nanoTime();
+
+        List<Path> files;
+        try (Stream<Path> walk = Files.walk(root)) {
+            files = walk.filter(path -> path.toString().endsWith(".properties") && Files.isRegularFile(path))
+                    .collect(Collectors.toList());
+        }
+        List<MapAnalysis> analyses = files.parallelStream()
+                .map(file -> analyze(root, file))
+                .sorted(Comparator.comparing(analysis -> analysis.path))
+                .collect(Collectors.toList());
+
+        StringBuilder json = new StringBuilder("{\"maps\":[");
+        int invalid = 0;
+        for (int i = 0; i < analyses.size(); i++) {
+            if (i > 0) {
+                json.append(",\n");
+            }
+            analyses.get(i).appendJson(json);
+            if (!analyses.get(i).isValid()) {
+                invalid++;
+            }
+        }
+        json.append("],\n\"total\":").append(analyses.size()).append(",\"invalid\":").append(invalid).append("}\n");
+
+        if (args.length == 2) {
+            Files.writeString(Paths.get(args[1]), json, StandardCharsets.UTF_8);
+        } else {
+            System.out.print(json);
+        }
+        System.err.printf("Validated %d maps in %.0f ms: %d invalid%n",
+                analyses.size(), (System.nanoTime() - start) / 1_000_000.0, invalid);
+        for (MapAnalysis analysis : analyses) {
+            if (!analysis.isValid()) {
+                System.err.println("  " + analysis.path + ": " + String.join("; ", analysis.errors));
+            }
+        }
+        System.exit(invalid > 0 ? 1 : 0);
+    }
+
+    /** Reads and analyzes one map file; a file that cannot be read is reported as invalid. */
+    private static MapAnalysis analyze(Path root, Path file) {
+        String path = root.relativize(file).toString().replace('\\', '/');
+        try (InputStream in = Files.newInputStream(file)) {
+            return new MapAnalysis(path, MapParser.parse(in));
+        } catch (IOException | UncheckedIOException | IllegalArgumentException e) {
+            return new MapAnalysis(path, "Cannot read the map: " + e.getMessage());
+        }
+    }
+}
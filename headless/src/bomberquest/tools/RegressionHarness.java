@@ -0,0 +1,129 @@
+package bomberquest.tools;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Replays recorded game sessions headlessly and checks that they still end the same way.
+ * <p>
+ * Every {@code .properties} file below a directory is read as a {@link Scenario} and played twice. The first run
+ * warms up the JIT; the two runs must reach exactly the same state, or the simulation is not deterministic. The second
+ * run is compared against the end state recorded in the file and timed: every tick whose wall-clock time exceeds the
+ * budget is reported, so a change that makes a tick slow shows up as well as one that changes the game.
+ * <p>
+ * A scenario without a recorded end state fails, so that a fresh checkout cannot pass without checking anything.
+ * With {@code -Dbomberquest.record=true}, every scenario is played and its end state written into its file as the
+ * {@code expect.} keys, for new scenarios and for changes that alter the game on purpose; the recordings are committed
+ * together with the change. {@code -Dbomberquest.tickBudget} sets the budget in microseconds, and with
+ * {@code -Dbomberquest.strictBudget=true} slow ticks fail the run as well.
+ * <p>
+ * Usage: {@code RegressionHarness <directory>}; the exit code is 1 if any scenario fails.
+ */
+public class RegressionHarness {
+
+    /**
+     * Replays the scenarios below a directory.
+     *
+     * @param args the directory.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1) {
+            System.err.println("Usage: RegressionHarness <directory>");
+            System.exit(2);
+        }
+        boolean record = Boolean.getBoolean("bomberquest.record");
+        long tickBudgetNanos = Integer.getInteger("bomberquest.tickBudget", 2000) * 1000L;
+        boolean strictBudget = Boolean.getBoolean("bomberquest.strictBudget");
+
+        List<Path> files;
+        try (Stream<Path> walk = Files.walk(Paths.get(args[0]))) {
+            files = walk.filter(path -> path.toString().endsWith(".properties") && Files.isRegularFile(path))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+
+        int failed = 0;
+        int recorded = 0;
+        for (Path file : files) {
+            List<String> failures = new ArrayList<>();
+            Scenario.Outcome outcome = null;
+            try {
+                Scenario scenario = read(file);
+                Scenario.Outcome warmUp = scenario.play(Long.MAX_VALUE);
+                outcome = scenario.play(tickBudgetNanos);
+                for (String difference : outcome.differences(warmUp, true)) {
+                    failures.add("not deterministic: " + difference);
+                }
+                if (record) {
+                    if (failures.isEmpty()) {
+                        writeExpected(file, outcome.toProperties());
+                        recorded++;
+                    }
+                } else if (scenario.getExpected() == null) {
+                    failures.add("no recorded end state; record it with -Dbomberquest.record=true");
+                } else {
+                    failures.addAll(outcome.differences(scenario.getExpected(), false));
+                }
+                if (strictBudget && !outcome.slowTicks.isEmpty()) {
+                    failures.add(outcome.slowTicks.size() + " ticks over the budget");
+                }
+            } catch (IOException | RuntimeException e) {
+                failures.add("cannot replay: " + e);
+            }
+
+            if (outcome != null) {
+                System.out.printf("%-40s %-8s %6d ticks, slowest %6.0f µs%s%n", file, outcome.result, outcome.ticks,
+                        outcome.maxTickNanos / 1000.0,
+                        outcome.slowTicks.isEmpty() ? "" : ", over budget at ticks " + String.join(" ", outcome.slowTicks));
+            }
+            if (!failures.isEmpty()) {
+                failed++;
+                System.out.println("  FAILED: " + String.join("; ", failures));
+            }
+        }
+        System.out.printf("%d scenarios, %d failed, %d recorded%n", files.size(), failed, recorded);
+        System.exit(failed > 0 ? 1 : 0);
+    }
+
+    /** Reads a scenario file. */
+    private static Scenario read(Path file) throws IOException {
+        Properties properties = new Properties();
+        try (InputStream in = Files.newInputStream(file)) {
+            properties.load(in);
+        }
+        return new Scenario(properties);
+    }
+
+    /**
+     * Replaces the recorded end state in a scenario file, keeping all other lines as they are.
+     *
+     * @param file     the scenario file.
+     * @param expected the {@code expect.} keys and values to write.
+     */
+    private static void writeExpected(Path file, Map<String, String> expected) throws IOException {
+        List<String> lines = new ArrayList<>();
+        for (String line : Files.readAllLines(file, StandardCharsets.ISO_8859_1)) {
+            if (!line.trim().startsWith(Scenario.EXPECT_PREFIX)) {
+                lines.add(line);
+            }
+        }
+        while (!lines.isEmpty() && lines.get(lines.size() - 1).trim().isEmpty()) {
+            lines.remove(lines.size() - 1);
+        }
+        lines.add("");
+        for (Map.Entry<String, String> entry : expected.entrySet()) {
+            lines.add(entry.getKey() + "=" + entry.getValue());
+        }
+        Files.write(file, lines, StandardCharsets.ISO_8859_1);
+    }
+}
@@ -0,0 +1,249 @@
+package bomberquest.tools;
+
+import bomberquest.input.ScriptedInputBinding;
+import bomberquest.map.GameMap;
+import bomberquest.map.GameMapListener;
+import bomberquest.map.Player;
+import bomberquest.map.event.GameEventType;
+import bomberquest.map.generator.MapLayout;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * A recorded game session that {@link RegressionHarness} replays: a generated map and the scripted controls of its
+ * players, together with the end state the session is expected to reach.
+ * <p>
+ * A scenario file is a properties file. {@code seed}, {@code players}, {@code width}, {@code height} and
+ * {@code layout} describe the map as the headless server would generate it, {@code ticks} limits the session, and
+ * {@code input.N} holds the script of player N, see {@link ScriptedInputBinding}. The keys starting with
+ * {@code expect.} hold the recorded end state, see {@link Outcome}.
+ * <p>
+ * The map is ticked with a fixed frame time, like on the server, so the same scenario always plays out the same way.
+ */
+public class Scenario {
+
+    /** The ticks per second of a replayed session, the same as on the headless server. */
+    public static final int TICK_RATE = 60;
+
+    /** The time of one tick, in seconds. */
+    private static final float TICK_TIME = 1f / TICK_RATE;
+
+    /** The prefix of the keys that hold the expected end state. */
+    static final String EXPECT_PREFIX = "expect.";
+
+    /** The seed of the map. */
+    private final long seed;
+
+    /** The width of the map in tiles. */
+    private final int width;
+
+    /** The height of the map in tiles. */
+    private final int height;
+
+    /** The kind of layout of the map. */
+    private final MapLayout layout;
+
+    /** The most ticks the session runs for if nobody wins or loses before. */
+    private final int maxTicks;
+
+    /** The script of each player. */
+    private final String[] scripts;
+
+    /** The recorded end state, or null if none has been recorded yet. */
+    private final Outcome expected;
+
+    /**
+     * Reads a scenario.
+     *
+     * @param properties the contents of the scenario file.
+     * @throws IllegalArgumentException if a value is missing or malformed.
+     */
+    public Scenario(Properties properties) {
+        this.seed = Long.parseLong(properties.getProperty("seed", "0").trim());
+        int players = Integer.parseInt(properties.getProperty("players", "1").trim());
+        this.width = Integer.parseInt(properties.getProperty("width", "25").trim());
+        this.height = Integer.parseInt(properties.getProperty("height", "15").trim());
+        this.layout = MapLayout.valueOf(properties.getProperty("layout", MapLayout.SCATTERED.name()).trim());
+        this.maxTicks = Integer.parseInt(properties.getProperty("ticks", String.valueOf(60 * TICK_RATE)).trim());
+        if (players < 1) {
+            throw new IllegalArgumentException("Unsupported number of players: " + players);
+        }
+        this.scripts = new String[players];
+        for (int i = 0; i < players; i++) {
+            scripts[i] = properties.getProperty("input." + i, "");
+        }
+        this.expected = Outcome.read(properties, players);
+    }
+
+    /**
+     * Plays the scenario once from the start.
+     *
+     * @param tickBudgetNanos the wall-clock time a single tick may take; slower ticks are counted in the outcome.
+     * @return the end state the session reached.
+     */
+    public Outcome play(long tickBudgetNanos) {
+        ScriptedInputBinding[] inputs = new ScriptedInputBinding[scripts.length];
+        for (int i = 0; i < scripts.length; i++) {
+            inputs[i] = new ScriptedInputBinding(scripts[i]);
+        }
+        SessionListener listener = new SessionListener();
+        GameMap map = new GameMap(listener, seed, inputs, width, height, layout);
+        Outcome outcome = new Outcome(scripts.length);
+        map.getEventBus().subscribe((type, player, x, y) -> outcome.wallsDestroyed++, GameEventType.WALL_DESTROYED);
+        try {
+            int tick = 0;
+            while (tick < maxTicks && listener.result == null) {
+                for (ScriptedInputBinding input : inputs) {
+                    input.advance(tick);
+                }
+                long start = System.nanoTime();
+                map.tick(TICK_TIME);
+                long elapsed = System.nanoTime() - start;
+                tick++;
+                if (elapsed > tickBudgetNanos) {
+                    outcome.slowTicks.add(tick + " (" + elapsed / 1000 + " µs)");
+                }
+                outcome.maxTickNanos = Math.max(outcome.maxTickNanos, elapsed);
+                if (listener.result == null && map.hasLost()) {
+                    listener.result = "lost";
+                }
+            }
+
+            outcome.result = listener.result == null ? "running" : listener.result;
+            outcome.ticks = tick;
+            outcome.ghosts = map.getGhostsLeft();
+            Player[] players = map.getPlayers();
+            for (int i = 0; i < players.length; i++) {
+                outcome.alive[i] = !players[i].isDestroyed();
+                outcome.checksum = 31 * outcome.checksum + Float.floatToIntBits(players[i].getX());
+                outcome.checksum = 31 * outcome.checksum + Float.floatToIntBits(players[i].getY());
+            }
+        } finally {
+            map.dispose();
+        }
+        return outcome;
+    }
+
+    /** Returns the recorded end state, or null if none has been recorded yet. */
+    public Outcome getExpected() {
+        return expected;
+    }
+
+    /** Records how the session ended, as the map tells its listener. */
+    private static class SessionListener implements GameMapListener {
+
+        /** The result once the session has ended, or null while it goes on. */
+        private String result;
+
+        @Override
+        public void onVictory() {
+            if (result == null) {
+                result = "won";
+            }
+        }
+
+        @Override
+        public void onTimeUp() {
+            if (result == null) {
+                result = "timeUp";
+            }
+        }
+    }
+
+    /**
+     * The end state of a replayed session: how it ended, after how many ticks, and what was left of the map.
+     * Only these values are compared against the recording, so a change that makes the game faster but plays the same
+     * passes, while one that changes what happens does not.
+     */
+    public static class Outcome {
+
+        /** How the session ended: {@code won}, {@code lost}, {@code timeUp}, or {@code running} at the tick limit. */
+        String result;
+
+        /** The number of ticks until the session ended. */
+        int ticks;
+
+        /** The number of ghosts left. */
+        int ghosts;
+
+        /** The number of destructible walls blown up. */
+        int wallsDestroyed;
+
+        /** Whether each player is still alive. */
+        final boolean[] alive;
+
+        /**
+         * A hash of the final player positions, bit for bit; only compared between two runs in the same process,
+         * since it is too strict to be recorded.
+         */
+        int checksum;
+
+        /** The ticks that took longer than the budget, with their time; not part of the recorded state. */
+        final List<String> slowTicks = new ArrayList<>();
+
+        /** The wall-clock time of the slowest tick, in nanoseconds; not part of the recorded state. */
+        long maxTickNanos;
+
+        /** Constructs an empty outcome for the given number of players. */
+        Outcome(int players) {
+            this.alive = new boolean[players];
+        }
+
+        /** Reads the recorded outcome of a scenario, or returns null if there is none. */
+        static Outcome read(Properties properties, int players) {
+            if (properties.getProperty(EXPECT_PREFIX + "result") == null) {
+                return null;
+            }
+            Outcome outcome = new Outcome(players);
+            outcome.result = properties.getProperty(EXPECT_PREFIX + "result").trim();
+            outcome.ticks = Integer.parseInt(properties.getProperty(EXPECT_PREFIX + "ticks", "0").trim());
+            outcome.ghosts = Integer.parseInt(properties.getProperty(EXPECT_PREFIX + "ghosts", "0").trim());
+            outcome.wallsDestroyed = Integer.parseInt(properties.getProperty(EXPECT_PREFIX + "wallsDestroyed", "0").trim());
+            for (int i = 0; i < players; i++) {
+                outcome.alive[i] = Boolean.parseBoolean(properties.getProperty(EXPECT_PREFIX + "alive." + i, "true").trim());
+            }
+            return outcome;
+        }
+
+        /** Returns the recorded state as the {@code expect.} keys and values of a scenario file, in a fixed order. */
+        Map<String, String> toProperties() {
+            Map<String, String> values = new LinkedHashMap<>();
+            values.put(EXPECT_PREFIX + "result", result);
+            values.put(EXPECT_PREFIX + "ticks", String.valueOf(ticks));
+            values.put(EXPECT_PREFIX + "ghosts", String.valueOf(ghosts));
+            values.put(EXPECT_PREFIX + "wallsDestroyed", String.valueOf(wallsDestroyed));
+            for (int i = 0; i < alive.length; i++) {
+                values.put(EXPECT_PREFIX + "alive." + i, String.valueOf(alive[i]));
+            }
+            return values;
+        }
+
+        /**
+         * Lists how this outcome differs from another one.
+         *
+         * @param other         the outcome to compare against.
+         * @param checkChecksum whether the final positions must match bit for bit too.
+         * @return a description of every difference; empty if they match.
+         */
+        List<String> differences(Outcome other, boolean checkChecksum) {
+            List<String> differences = new ArrayList<>();
+            Map<String, String> mine = toProperties();
+            Map<String, String> theirs = other.toProperties();
+            for (Map.Entry<String, String> entry : theirs.entrySet()) {
+                String value = mine.get(entry.getKey());
+                if (!entry.getValue().equals(value)) {
+                    differences.add(entry.getKey().substring(EXPECT_PREFIX.length())
+                            + " is " + value + " instead of " + entry.getValue());
+                }
+            }
+            if (checkChecksum && checksum != other.checksum) {
+                differences.add("the final player positions differ");
+            }
+            return differences;
+        }
+    }
+}